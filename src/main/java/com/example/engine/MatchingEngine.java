@@ -0,0 +1,303 @@
+package com.example.engine;
+
+import com.example.journal.FlushPolicy;
+import com.example.journal.MappedJournal;
+import com.example.models.Instrument;
+import com.example.orderbook.CommandResultListener;
+import com.example.orderbook.DisruptorOrderBook;
+import com.example.orderbook.LadderOrderBook;
+import com.example.orderbook.MatchingShard;
+import com.example.orderbook.OrderBook;
+import com.example.orderbook.SimpleOrderBook;
+import com.example.orderbook.SnapshotStore;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the order books for every listed instrument and spreads them across a fixed
+ * number of single-threaded matching shards.
+ * Each instrument is pinned to one shard when it is listed, and every command for it is
+ * published straight onto that shard's ring, so shards share no locks and throughput
+ * grows with the number of shards (ideally one per core left over after the gateways).
+ * <p>
+ * Journals and snapshots are kept per shard, so the symbol to shard layout is saved
+ * next to them. Instruments listed after journaling or snapshots are enabled go back to
+ * their recorded shard, and {@link #recover} refuses to run against a different layout.
+ */
+public class MatchingEngine {
+    private static final Logger logger = LoggerFactory.getLogger(MatchingEngine.class);
+    
+    private final MatchingShard[] shards;
+    private final int[] instrumentsPerShard;
+    private final Map<String, DisruptorOrderBook> orderBooks;
+    private final CommandResultListener resultListener;
+    // Where the layout is saved, and the shard each symbol was recorded on there
+    private final Set<Path> layoutDirectories = new LinkedHashSet<>();
+    private final Map<String, Integer> recordedShards = new HashMap<>();
+    private ScheduledExecutorService snapshotScheduler;
+    private long snapshotIntervalMillis;
+    private boolean started;
+    
+    /**
+     * Creates an engine with one shard per available processor.
+     */
+    public MatchingEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    public MatchingEngine(int shardCount) {
+        this(shardCount, MatchingShard.DEFAULT_BUFFER_SIZE, new BlockingWaitStrategy(), null);
+    }
+    
+    /**
+     * @param shardCount The number of matching threads
+     * @param bufferSize The ring size of each shard; must be a power of 2
+     * @param waitStrategy How idle shard threads wait for work
+     * @param resultListener Receives the outcome of every submitted command, or null
+     */
+    public MatchingEngine(int shardCount, int bufferSize, WaitStrategy waitStrategy,
+                          CommandResultListener resultListener) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Invalid shard count: " + shardCount);
+        }
+        this.shards = new MatchingShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new MatchingShard(i, bufferSize, waitStrategy);
+        }
+        this.instrumentsPerShard = new int[shardCount];
+        this.orderBooks = new ConcurrentHashMap<>();
+        this.resultListener = resultListener;
+    }
+    
+    /**
+     * Journals every command to memory-mapped segment files before it is matched, one
+     * journal per shard (named shard-N). Must be called before {@link #start}.
+     * 
+     * @param directory The directory for the journal segments
+     * @param flushPolicy When journaled commands are forced to disk
+     */
+    public synchronized void enableJournal(Path directory, FlushPolicy flushPolicy) throws IOException {
+        if (started) {
+            throw new IllegalStateException("Matching engine is already running");
+        }
+        for (MatchingShard shard : shards) {
+            shard.setJournal(new MappedJournal(directory, journalName(shard.getShardId()), flushPolicy));
+        }
+        useLayout(directory);
+        logger.info("Journaling commands to {} with flush policy {}", directory, flushPolicy);
+    }
+    
+    /**
+     * Snapshots every shard periodically so that recovery only replays the recent journal.
+     * Must be called before {@link #start}.
+     * 
+     * @param directory The directory for the snapshot files
+     * @param intervalMillis How often each shard is snapshotted
+     */
+    public synchronized void enableSnapshots(Path directory, long intervalMillis) throws IOException {
+        if (started) {
+            throw new IllegalStateException("Matching engine is already running");
+        }
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Invalid snapshot interval: " + intervalMillis);
+        }
+        for (MatchingShard shard : shards) {
+            shard.setSnapshotStore(new SnapshotStore(directory, journalName(shard.getShardId())));
+        }
+        useLayout(directory);
+        this.snapshotIntervalMillis = intervalMillis;
+        logger.info("Snapshotting shards to {} every {} ms", directory, intervalMillis);
+    }
+    
+    /**
+     * Restores every listed book from its shard's latest snapshot and journal tail.
+     * Call after listing all instruments and before {@link #start}.
+     * 
+     * @return The number of journaled commands replayed
+     * @throws IllegalStateException If an instrument with saved state is not listed, or is
+     *         listed on another shard than the one it was journaled on
+     */
+    public synchronized long recover() throws IOException {
+        if (started) {
+            throw new IllegalStateException("Matching engine is already running");
+        }
+        for (Path directory : layoutDirectories) {
+            for (Map.Entry<String, Integer> entry : ShardLayout.load(directory).entrySet()) {
+                int shard = getShardId(entry.getKey());
+                if (shard != entry.getValue()) {
+                    throw new IllegalStateException(String.format(
+                            "%s was matched on shard %d of the state in %s but is %s",
+                            entry.getKey(), entry.getValue(), directory,
+                            shard < 0 ? "not listed" : "listed on shard " + shard + " of " + shards.length));
+                }
+            }
+        }
+        long replayed = 0;
+        for (MatchingShard shard : shards) {
+            replayed += shard.recover();
+        }
+        return replayed;
+    }
+    
+    /**
+     * @param shardId The shard
+     * @return The name of the shard's journal segments
+     */
+    public static String journalName(int shardId) {
+        return "shard-" + shardId;
+    }
+    
+    /**
+     * Lists an instrument on its recorded shard, or else the least loaded one, backed by a
+     * ladder book.
+     * 
+     * @param instrument The instrument to list
+     * @return The order book for the instrument
+     * @throws IllegalArgumentException If the symbol is already listed
+     */
+    public OrderBook addInstrument(Instrument instrument) {
+        return addInstrument(new LadderOrderBook(instrument));
+    }
+    
+    /**
+     * Lists an instrument on its recorded shard, or else the least loaded one, using the
+     * given book implementation.
+     * The book must not be used directly afterwards: all changes go through the shard.
+     * 
+     * @param book The book holding the instrument's orders
+     * @return The order book that routes commands through the instrument's shard
+     * @throws IllegalArgumentException If the symbol is already listed
+     */
+    public synchronized OrderBook addInstrument(SimpleOrderBook book) {
+        String symbol = book.getSymbol();
+        if (orderBooks.containsKey(symbol)) {
+            throw new IllegalArgumentException("Instrument already listed: " + symbol);
+        }
+        
+        Integer recorded = recordedShards.get(symbol);
+        int shard = 0;
+        if (recorded != null && recorded >= 0 && recorded < shards.length) {
+            shard = recorded;
+        } else {
+            for (int i = 1; i < shards.length; i++) {
+                if (instrumentsPerShard[i] < instrumentsPerShard[shard]) {
+                    shard = i;
+                }
+            }
+        }
+        instrumentsPerShard[shard]++;
+        
+        DisruptorOrderBook orderBook = new DisruptorOrderBook(book, shards[shard], resultListener);
+        orderBooks.put(symbol, orderBook);
+        logger.debug("Listed {} on shard {}", symbol, shard);
+        if (started) {
+            saveLayout();
+        }
+        return orderBook;
+    }
+    
+    /**
+     * Looks up the book for a symbol; safe to call from any thread.
+     * 
+     * @param symbol The trading symbol
+     * @return The order book, or null if the symbol is not listed
+     */
+    public OrderBook getOrderBook(String symbol) {
+        return orderBooks.get(symbol);
+    }
+    
+    /**
+     * @param symbol The trading symbol
+     * @return The shard the symbol is matched on, or -1 if it is not listed
+     */
+    public int getShardId(String symbol) {
+        DisruptorOrderBook orderBook = orderBooks.get(symbol);
+        return orderBook == null ? -1 : orderBook.getShard().getShardId();
+    }
+    
+    public Collection<String> getSymbols() {
+        return Collections.unmodifiableSet(orderBooks.keySet());
+    }
+    
+    public int getShardCount() {
+        return shards.length;
+    }
+    
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        saveLayout();
+        for (MatchingShard shard : shards) {
+            shard.start();
+        }
+        if (snapshotIntervalMillis > 0) {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "snapshot-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotScheduler.scheduleAtFixedRate(() -> {
+                for (MatchingShard shard : shards) {
+                    shard.requestSnapshot();
+                }
+            }, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        started = true;
+        logger.info("Matching engine started with {} shards and {} instruments", shards.length, orderBooks.size());
+    }
+    
+    private void useLayout(Path directory) throws IOException {
+        if (layoutDirectories.add(directory)) {
+            for (Map.Entry<String, Integer> entry : ShardLayout.load(directory).entrySet()) {
+                recordedShards.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+    
+    // Saved before anything is journaled on the current layout
+    private void saveLayout() {
+        Map<String, Integer> layout = new HashMap<>();
+        for (Map.Entry<String, DisruptorOrderBook> entry : orderBooks.entrySet()) {
+            layout.put(entry.getKey(), entry.getValue().getShard().getShardId());
+        }
+        for (Path directory : layoutDirectories) {
+            try {
+                ShardLayout.write(directory, layout);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to save the shard layout to " + directory, e);
+            }
+        }
+    }
+    
+    public synchronized void shutdown() {
+        if (!started) {
+            return;
+        }
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+        // Each shard drains the commands already on its ring before stopping
+        for (MatchingShard shard : shards) {
+            shard.shutdown();
+        }
+        started = false;
+        logger.info("Matching engine stopped");
+    }
+}
\ No newline at end of file
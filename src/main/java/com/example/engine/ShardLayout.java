@@ -0,0 +1,77 @@
+package com.example.engine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The shard each instrument was matched on, kept next to the journals and snapshots.
+ * <p>
+ * Journals and snapshots are written per shard, so they can only be recovered if every
+ * instrument is listed on the shard it was on when they were written. The file is
+ * written to a temporary file, forced to disk and then atomically renamed, like the
+ * snapshots.
+ */
+final class ShardLayout {
+    static final String FILE_NAME = "shards.layout";
+    
+    private ShardLayout() {
+    }
+    
+    /**
+     * @param directory The journal or snapshot directory
+     * @return The shard of each recorded symbol; empty if no layout was written there yet
+     */
+    static Map<String, Integer> load(Path directory) throws IOException {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return Collections.emptyMap();
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        Map<String, Integer> layout = new HashMap<>();
+        for (String symbol : properties.stringPropertyNames()) {
+            try {
+                layout.put(symbol, Integer.parseInt(properties.getProperty(symbol).trim()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid shard for " + symbol + " in " + file, e);
+            }
+        }
+        return layout;
+    }
+    
+    /**
+     * Replaces the layout in the directory.
+     * 
+     * @param directory The journal or snapshot directory
+     * @param layout The shard of each listed symbol
+     */
+    static void write(Path directory, Map<String, Integer> layout) throws IOException {
+        Files.createDirectories(directory);
+        Properties properties = new Properties();
+        for (Map.Entry<String, Integer> entry : layout.entrySet()) {
+            properties.setProperty(entry.getKey(), Integer.toString(entry.getValue()));
+        }
+        Path file = directory.resolve(FILE_NAME);
+        Path temp = directory.resolve(FILE_NAME + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Symbol to matching shard; journals and snapshots depend on it");
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
\ No newline at end of file
@@ -1,30 +1,39 @@
 package com.example.exchange;
 
-import com.example.orderbook.OrderBook;
-import com.example.orderbook.SimpleOrderBook;
+import com.example.engine.MatchingEngine;
+import com.example.journal.FlushPolicy;
+import com.example.models.Instrument;
+import com.example.orderentry.OrderRouter;
 import com.example.orderentry.fix.FixOrderEntryAdapter;
 import com.example.exchange.fix.FixServerManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class ExchangeApp {
     private static final Logger logger = LoggerFactory.getLogger(ExchangeApp.class);
-    private static Map<String, OrderBook> orderBooks = new HashMap<>();
+    private static MatchingEngine matchingEngine;
     private static FixServerManager fixServerManager;
     
     public static void main(String[] args) {
         try {
             logger.info("Starting Exchange Application");
             
-            // Initialize order books
+            // Initialize order books, restore their state and start matching
             initializeOrderBooks();
+            long replayed = matchingEngine.recover();
+            logger.info("Recovered order books ({} journaled commands replayed)", replayed);
+            matchingEngine.start();
             
-            // Initialize FIX adapter with the first order book (for simplicity)
-            String defaultSymbol = "AAPL";
-            FixOrderEntryAdapter fixOrderEntryAdapter = new FixOrderEntryAdapter(orderBooks.get(defaultSymbol));
+            // Route FIX orders to the book of every listed instrument
+            OrderRouter router = new OrderRouter();
+            for (String symbol : matchingEngine.getSymbols()) {
+                router.addOrderBook(matchingEngine.getOrderBook(symbol));
+            }
+            FixOrderEntryAdapter fixOrderEntryAdapter = new FixOrderEntryAdapter(router);
             
             // Start FIX server
             fixServerManager = new FixServerManager(fixOrderEntryAdapter);
@@ -36,6 +45,9 @@ public class ExchangeApp {
                 if (fixServerManager != null) {
                     fixServerManager.stop();
                 }
+                if (matchingEngine != null) {
+                    matchingEngine.shutdown();
+                }
             }));
             
             // Keep the application running
@@ -48,14 +60,23 @@ public class ExchangeApp {
         }
     }
     
-    private static void initializeOrderBooks() {
+    private static void initializeOrderBooks() throws IOException {
+        // One matching shard per core, leaving one core for the gateways
+        int shardCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        matchingEngine = new MatchingEngine(shardCount);
+        
+        // Journal every command and snapshot the books once a minute
+        Path dataDirectory = Paths.get(System.getProperty("exchange.dataDir", "data"));
+        matchingEngine.enableJournal(dataDirectory.resolve("journal"), FlushPolicy.BATCH);
+        matchingEngine.enableSnapshots(dataDirectory.resolve("snapshots"), 60_000);
+        
         // Create order books for different symbols
         String[] symbols = {"AAPL", "META", "MSFT", "GOOGL"};
         
         for (String symbol : symbols) {
-            OrderBook orderBook = new SimpleOrderBook(symbol);
-            orderBooks.put(symbol, orderBook);
-            logger.info("Initialized order book for {}", symbol);
+            // Prices in cents with a one-cent tick
+            matchingEngine.addInstrument(new Instrument(symbol, 2, 1));
+            logger.info("Initialized order book for {} on shard {}", symbol, matchingEngine.getShardId(symbol));
         }
     }
 }
\ No newline at end of file
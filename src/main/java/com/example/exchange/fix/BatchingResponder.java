@@ -0,0 +1,85 @@
+package com.example.exchange.fix;
+
+import quickfix.Responder;
+import quickfix.Session;
+
+/**
+ * Wraps the responder of a session's connection so that the messages an outbound worker
+ * sends in one batch reach the socket as one write.
+ * <p>
+ * QuickFIX/J assigns the sequence number, stores the message and hands it to the
+ * responder under one lock, so the order of the calls to {@link #send} is the order of
+ * the sequence numbers. While a batch is open, the batching thread's messages are only
+ * appended to a buffer; a message from any other thread, such as a heartbeat, first
+ * flushes that buffer, so nothing overtakes a message with a lower sequence number.
+ */
+final class BatchingResponder implements Responder {
+    // Flush within a batch once this much is buffered
+    static final int MAX_BATCH_CHARS = 64 * 1024;
+    
+    private final Responder delegate;
+    private final StringBuilder pending = new StringBuilder(4096);
+    private Thread batchingThread;
+    
+    BatchingResponder(Responder delegate) {
+        this.delegate = delegate;
+    }
+    
+    /**
+     * Wraps the session's current responder, unless it is already wrapped. Call on the
+     * session's own thread once the connection is up, such as from onLogon.
+     */
+    static void install(Session session) {
+        Responder responder = session.getResponder();
+        if (responder != null && !(responder instanceof BatchingResponder)) {
+            session.setResponder(new BatchingResponder(responder));
+        }
+    }
+    
+    /**
+     * Buffers the calling thread's messages until {@link #endBatch()}.
+     */
+    synchronized void beginBatch() {
+        batchingThread = Thread.currentThread();
+    }
+    
+    /**
+     * Writes the messages buffered since {@link #beginBatch()}.
+     */
+    synchronized void endBatch() {
+        batchingThread = null;
+        flush();
+    }
+    
+    @Override
+    public synchronized boolean send(String data) {
+        if (Thread.currentThread() == batchingThread) {
+            pending.append(data);
+            if (pending.length() >= MAX_BATCH_CHARS) {
+                flush();
+            }
+            return true;
+        }
+        flush();
+        return delegate.send(data);
+    }
+    
+    @Override
+    public synchronized void disconnect() {
+        // Anything still buffered is stored and will be resent when the client asks for it
+        pending.setLength(0);
+        delegate.disconnect();
+    }
+    
+    @Override
+    public String getRemoteAddress() {
+        return delegate.getRemoteAddress();
+    }
+    
+    private void flush() {
+        if (pending.length() > 0) {
+            delegate.send(pending.toString());
+            pending.setLength(0);
+        }
+    }
+}
\ No newline at end of file
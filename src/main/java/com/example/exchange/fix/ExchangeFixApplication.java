@@ -1,32 +1,57 @@
 package com.example.exchange.fix;
 
 import com.example.models.Order;
+import com.example.models.OrderSide;
 import com.example.models.Trade;
-import com.example.orderentry.OrderEntryCallback;
+import com.example.orderentry.fix.ClientOrderIds;
 import com.example.orderentry.fix.FixOrderEntryAdapter;
+import com.example.orderentry.fix.FixSessionCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import quickfix.*;
 import quickfix.field.*;
 import quickfix.fix44.ExecutionReport;
-import quickfix.fix44.MessageCracker;
 import quickfix.fix44.NewOrderSingle;
+import quickfix.fix44.OrderCancelReplaceRequest;
 import quickfix.fix44.OrderCancelRequest;
+import quickfix.fix44.OrderMassCancelReport;
+import quickfix.fix44.OrderMassCancelRequest;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class ExchangeFixApplication extends MessageCracker implements Application {
+// The reflective cracker, so the @Handler methods below are what messages are dispatched to
+public class ExchangeFixApplication extends quickfix.MessageCracker implements Application {
     private static final Logger logger = LoggerFactory.getLogger(ExchangeFixApplication.class);
     private final FixOrderEntryAdapter fixOrderEntryAdapter;
-    private final Map<String, SessionID> clientSessionMap = new HashMap<>();
+    // ExecIDs only need to be unique per session, so a counter does instead of random UUIDs
+    private final AtomicLong execIdSequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    // The ClOrdIDs of each session's open orders, by which it cancels and mass cancels them,
+    // and the callback that reports on them to the session; kept across logons, like the orders
+    private final Map<SessionID, ClientOrderIds> sessionOrders = new ConcurrentHashMap<>();
+    // Every application message goes out through here, so the matching thread never waits on a session
+    private final OutboundPipeline outbound;
     
     public ExchangeFixApplication(FixOrderEntryAdapter fixOrderEntryAdapter) {
+        this(fixOrderEntryAdapter, OutboundPipeline.DEFAULT_WORKERS);
+    }
+    
+    /**
+     * @param outboundWorkers The number of threads sending messages to the sessions
+     */
+    public ExchangeFixApplication(FixOrderEntryAdapter fixOrderEntryAdapter, int outboundWorkers) {
         this.fixOrderEntryAdapter = fixOrderEntryAdapter;
-        this.fixOrderEntryAdapter.registerCallback(new FixOrderCallback());
+        this.outbound = new OutboundPipeline(outboundWorkers);
+    }
+    
+    /**
+     * Sends the messages still queued for the sessions, then stops the outbound threads.
+     */
+    public void close() {
+        outbound.shutdown();
     }
     
     @Override
@@ -37,13 +62,16 @@ public class ExchangeFixApplication extends MessageCracker implements Applicatio
     @Override
     public void onLogon(SessionID sessionId) {
         logger.info("Logon from session: {}", sessionId);
+        // Batches of outbound messages then reach the new connection as single writes
+        Session session = Session.lookupSession(sessionId);
+        if (session != null) {
+            BatchingResponder.install(session);
+        }
     }
 
     @Override
     public void onLogout(SessionID sessionId) {
         logger.info("Logout from session: {}", sessionId);
-        // Remove any client mappings for this session
-        clientSessionMap.entrySet().removeIf(entry -> entry.getValue().equals(sessionId));
     }
 
     @Override
@@ -71,70 +99,103 @@ public class ExchangeFixApplication extends MessageCracker implements Applicatio
     
 @quickfix.MessageCracker.Handler
     public void onNewOrderSingle(NewOrderSingle message, SessionID sessionId) throws FieldNotFound {
-        logger.info("Received NewOrderSingle: {}", message);
-        
-        // Extract fields from FIX message
-        String clientOrderId = message.getClOrdID().getValue();
-        String symbol = message.getSymbol().getValue();
-        char side = message.getSide().getValue();
-        char orderType = message.getOrdType().getValue();
-        double price = 0.0;
-        if (orderType == OrdType.LIMIT) {
-            price = message.getPrice().getValue();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received NewOrderSingle: {}", message);
         }
-        double quantity = message.getOrderQty().getValue();
-        char timeInForce = TimeInForce.DAY; // Default
-        if (message.isSetTimeInForce()) {
-            timeInForce = message.getTimeInForce().getValue();
-        }
-        
-        // Store client session mapping
-        clientSessionMap.put(clientOrderId, sessionId);
-        
-        // Convert to map for processing
-        Map<Integer, String> fixMap = new HashMap<>();
-        fixMap.put(11, clientOrderId); // ClOrdID
-        fixMap.put(55, symbol); // Symbol
-        fixMap.put(54, String.valueOf(side)); // Side
-        fixMap.put(40, String.valueOf(orderType)); // OrdType
-        fixMap.put(44, String.valueOf(price)); // Price
-        fixMap.put(38, String.valueOf(quantity)); // OrderQty
-        fixMap.put(59, String.valueOf(timeInForce)); // TimeInForce
         
-        // Process the order
-        UUID orderId = fixOrderEntryAdapter.processNewOrderSingle(fixMap);
+        String clientOrderId = message.getString(ClOrdID.FIELD);
+        char orderType = message.getChar(OrdType.FIELD);
         
-        // If order was rejected, send rejection message
-        if (orderId == null) {
-            sendOrderReject(clientOrderId, "Order rejected", sessionId);
-        }
+        // Price and quantity go to the adapter as sent, never through a double; a
+        // rejected order is reported through the callback
+        fixOrderEntryAdapter.processNewOrderSingle(
+                clientOrderIds(sessionId),
+                clientOrderId,
+                message.getString(Symbol.FIELD),
+                message.getChar(Side.FIELD),
+                orderType,
+                orderType == OrdType.LIMIT ? message.getString(Price.FIELD) : null,
+                message.getString(OrderQty.FIELD),
+                message.isSetField(TimeInForce.FIELD) ? message.getChar(TimeInForce.FIELD) : TimeInForce.DAY);
     }
     
 @quickfix.MessageCracker.Handler
     public void onOrderCancelRequest(OrderCancelRequest message, SessionID sessionId) throws FieldNotFound {
-        logger.info("Received OrderCancelRequest: {}", message);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received OrderCancelRequest: {}", message);
+        }
         
         // Extract fields
         String clientOrderId = message.getClOrdID().getValue();
         String origClientOrderId = message.getOrigClOrdID().getValue();
         
-        // Store client session mapping
-        clientSessionMap.put(clientOrderId, sessionId);
+        // Only the orders this session entered resolve; the cancel, or why it was refused,
+        // is reported through the session's callback once the book has applied it
+        fixOrderEntryAdapter.cancelByClientOrderId(clientOrderIds(sessionId), clientOrderId, origClientOrderId);
+    }
+    
+@quickfix.MessageCracker.Handler
+    public void onOrderCancelReplaceRequest(OrderCancelReplaceRequest message, SessionID sessionId) throws FieldNotFound {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received OrderCancelReplaceRequest: {}", message);
+        }
         
-        // Cancel the order
-        boolean success = fixOrderEntryAdapter.cancelOrder(null, origClientOrderId);
+        String clientOrderId = message.getString(ClOrdID.FIELD);
+        String origClientOrderId = message.getString(OrigClOrdID.FIELD);
         
-        // If cancellation failed, send rejection
-        if (!success) {
-            sendCancelReject(clientOrderId, origClientOrderId, "Cancel rejected", sessionId);
+        // The session's ClOrdIDs resolve the order to its engine ID without touching the book;
+        // another session's orders do not resolve. Amended in place, keeping the order's
+        // engine ID; the outcome is reported through the callback
+        fixOrderEntryAdapter.replaceOrder(
+                clientOrderIds(sessionId),
+                origClientOrderId,
+                clientOrderId,
+                message.isSetField(Price.FIELD) ? message.getString(Price.FIELD) : null,
+                message.getString(OrderQty.FIELD));
+    }
+    
+@quickfix.MessageCracker.Handler
+    public void onOrderMassCancelRequest(OrderMassCancelRequest message, SessionID sessionId) throws FieldNotFound {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received OrderMassCancelRequest: {}", message);
+        }
+        
+        String clientOrderId = message.getString(ClOrdID.FIELD);
+        char requestType = message.getChar(MassCancelRequestType.FIELD);
+        String symbol = message.isSetField(Symbol.FIELD) ? message.getString(Symbol.FIELD) : null;
+        char side = message.isSetField(Side.FIELD) ? message.getChar(Side.FIELD) : 0;
+        
+        if (requestType != MassCancelRequestType.CANCEL_ALL_ORDERS
+                && requestType != MassCancelRequestType.CANCEL_ORDERS_FOR_A_SECURITY) {
+            sendMassCancelReport(clientOrderId, requestType, MassCancelRejectReason.MASS_CANCEL_NOT_SUPPORTED, 0, sessionId);
+            return;
+        }
+        if (requestType == MassCancelRequestType.CANCEL_ORDERS_FOR_A_SECURITY && symbol == null) {
+            sendMassCancelReport(clientOrderId, requestType, MassCancelRejectReason.INVALID_OR_UNKNOWN_SECURITY, 0, sessionId);
+            return;
         }
+        if (side != 0 && side != Side.BUY && side != Side.SELL) {
+            sendMassCancelReport(clientOrderId, requestType, MassCancelRejectReason.OTHER, 0, sessionId);
+            return;
+        }
+        
+        // Only this session's open orders; they all go to the engine as one command
+        long[] orderIds = clientOrderIds(sessionId).getOrderIds(
+                requestType == MassCancelRequestType.CANCEL_ALL_ORDERS ? null : symbol,
+                side == 0 ? null : side == Side.BUY ? OrderSide.BUY : OrderSide.SELL);
+        int canceled = fixOrderEntryAdapter.cancelOrders(orderIds, orderIds.length);
+        sendMassCancelReport(clientOrderId, requestType, -1, canceled, sessionId);
+    }
+    
+    private ClientOrderIds clientOrderIds(SessionID sessionId) {
+        return sessionOrders.computeIfAbsent(sessionId, id -> new ClientOrderIds(new FixOrderCallback(id)));
     }
     
     private void sendOrderReject(String clientOrderId, String reason, SessionID sessionId) {
         try {
             ExecutionReport report = new ExecutionReport(
                     new OrderID("NONE"),
-                    new ExecID(UUID.randomUUID().toString()),
+                    new ExecID(Long.toString(execIdSequence.incrementAndGet())),
                     new ExecType(ExecType.REJECTED),
                     new OrdStatus(OrdStatus.REJECTED),
                     new Side(Side.BUY), // Placeholder
@@ -145,243 +206,204 @@ public class ExchangeFixApplication extends MessageCracker implements Applicatio
             report.set(new ClOrdID(clientOrderId));
             report.set(new Text(reason));
             
-            Session.sendToTarget(report, sessionId);
+            outbound.send(sessionId, report);
         } catch (Exception e) {
             logger.error("Error sending order reject", e);
         }
     }
     
-    private void sendCancelReject(String clientOrderId, String origClientOrderId, String reason, SessionID sessionId) {
+    private void sendCancelReject(String clientOrderId, String origClientOrderId, String reason,
+                                  char responseTo, SessionID sessionId) {
+        sendCancelReject(null, clientOrderId, origClientOrderId, reason, responseTo, sessionId);
+    }
+    
+    /**
+     * @param order The order the request named, which stays as it was, or null if there is none
+     */
+    private void sendCancelReject(Order order, String clientOrderId, String origClientOrderId, String reason,
+                                  char responseTo, SessionID sessionId) {
         try {
             quickfix.fix44.OrderCancelReject reject = new quickfix.fix44.OrderCancelReject(
-                    new OrderID("NONE"),
+                    new OrderID(order == null ? "NONE" : order.getId().toString()),
                     new ClOrdID(clientOrderId),
                     new OrigClOrdID(origClientOrderId),
-                    new OrdStatus(OrdStatus.REJECTED),
-                    new CxlRejResponseTo(CxlRejResponseTo.ORDER_CANCEL_REQUEST));
+                    new OrdStatus(order == null ? OrdStatus.REJECTED : ordStatus(order)),
+                    new CxlRejResponseTo(responseTo));
             
             reject.set(new Text(reason));
             
-            Session.sendToTarget(reject, sessionId);
+            outbound.send(sessionId, reject);
         } catch (Exception e) {
             logger.error("Error sending cancel reject", e);
         }
     }
     
     /**
-     * Callback implementation for order events.
+     * Answers an OrderMassCancelRequest.
+     * 
+     * @param rejectReason A MassCancelRejectReason (532), or -1 if the request was carried out
+     * @param canceled The number of orders canceled
+     */
+    private void sendMassCancelReport(String clientOrderId, char requestType, int rejectReason, int canceled,
+                                      SessionID sessionId) {
+        try {
+            OrderMassCancelReport report = new OrderMassCancelReport(
+                    new OrderID("NONE"),
+                    new MassCancelRequestType(requestType),
+                    new MassCancelResponse(rejectReason < 0 ? requestType
+                            : MassCancelResponse.CANCEL_REQUEST_REJECTED_SEE_MASSCANCELREJECTREASON));
+            
+            report.set(new ClOrdID(clientOrderId));
+            if (rejectReason < 0) {
+                report.set(new TotalAffectedOrders(canceled));
+            } else {
+                report.set(new MassCancelRejectReason(rejectReason));
+            }
+            
+            outbound.send(sessionId, report);
+        } catch (Exception e) {
+            logger.error("Error sending mass cancel report", e);
+        }
+    }
+    
+    /**
+     * Reports the events of one session's orders to that session.
      */
-    private class FixOrderCallback implements OrderEntryCallback {
+    private class FixOrderCallback implements FixSessionCallback {
+        private final SessionID sessionId;
+        
+        FixOrderCallback(SessionID sessionId) {
+            this.sessionId = sessionId;
+        }
         
         @Override
-        public void onOrderAccepted(UUID orderId, String clientOrderId) {
-            logger.info("Order accepted: {}, clientOrderId: {}", orderId, clientOrderId);
+        public void onOrderAccepted(Order order, String clientOrderId) {
+            logger.info("Order accepted: {}, clientOrderId: {}", order.getId(), clientOrderId);
             
-            // Find the session for this client order ID
-            SessionID sessionId = clientSessionMap.get(clientOrderId);
-            if (sessionId != null) {
-                try {
-                    sendExecutionReport(orderId, clientOrderId, ExecType.NEW, OrdStatus.NEW, 
-                            BigDecimal.ZERO, BigInteger.ZERO, sessionId);
-                } catch (Exception e) {
-                    logger.error("Error sending execution report for accepted order", e);
-                }
-            } else {
-                logger.warn("No session found for clientOrderId: {}", clientOrderId);
+            try {
+                sendExecutionReport(order, clientOrderId, null, ExecType.NEW, OrdStatus.NEW,
+                        BigDecimal.ZERO, BigInteger.ZERO);
+            } catch (Exception e) {
+                logger.error("Error sending execution report for accepted order", e);
             }
         }
-
+        
         @Override
         public void onOrderRejected(String clientOrderId, String reason) {
             logger.info("Order rejected: {}, reason: {}", clientOrderId, reason);
             
-            // Find the session for this client order ID
-            SessionID sessionId = clientSessionMap.get(clientOrderId);
-            if (sessionId != null) {
-                sendOrderReject(clientOrderId, reason, sessionId);
-            } else {
-                logger.warn("No session found for clientOrderId: {}", clientOrderId);
-            }
+            sendOrderReject(clientOrderId, reason, sessionId);
         }
-
+        
         @Override
-        public void onOrderFilled(UUID orderId, Trade trade) {
-            logger.info("Order filled: {}, trade: {}", orderId, trade);
-            
-            // Get the order
-            Order order = fixOrderEntryAdapter.getOrder(orderId);
-            if (order == null) {
-                logger.error("Order not found for fill notification: {}", orderId);
-                return;
-            }
+        public void onOrderFilled(Order order, String clientOrderId, Trade trade) {
+            logger.info("Order filled: {}, clientOrderId: {}, quantity: {}", order.getId(), clientOrderId,
+                    trade.getQuantity());
             
-            String clientOrderId = order.getClientOrderId();
-            if (clientOrderId == null) {
-                logger.error("No client order ID for order: {}", orderId);
-                return;
-            }
-            
-            // Find the session for this client order ID
-            SessionID sessionId = clientSessionMap.get(clientOrderId);
-            if (sessionId != null) {
-                try {
-                    // Determine execution type and status
-                    char execType = ExecType.TRADE;
-                    char ordStatus = order.getFilledQuantity().equals(order.getQuantity()) ? 
-                            OrdStatus.FILLED : OrdStatus.PARTIALLY_FILLED;
-                    
-                    sendExecutionReport(orderId, clientOrderId, execType, ordStatus, 
-                            trade.getPrice(), trade.getQuantity(), sessionId);
-                } catch (Exception e) {
-                    logger.error("Error sending execution report for filled order", e);
-                }
-            } else {
-                logger.warn("No session found for clientOrderId: {}", clientOrderId);
+            try {
+                sendExecutionReport(order, clientOrderId, null, ExecType.TRADE, ordStatus(order),
+                        trade.getPrice(), trade.getQuantity());
+            } catch (Exception e) {
+                logger.error("Error sending execution report for filled order", e);
             }
         }
-
+        
         @Override
-        public void onOrderCanceled(UUID orderId) {
-            logger.info("Order canceled: {}", orderId);
+        public void onOrderCanceled(Order order, String clientOrderId, String origClientOrderId) {
+            logger.info("Order canceled: {}, clientOrderId: {}, origClientOrderId: {}",
+                    order.getId(), clientOrderId, origClientOrderId);
             
-            // Get the order
-            Order order = fixOrderEntryAdapter.getOrder(orderId);
-            if (order == null) {
-                logger.error("Order not found for cancel notification: {}", orderId);
-                return;
-            }
-            
-            String clientOrderId = order.getClientOrderId();
-            if (clientOrderId == null) {
-                logger.error("No client order ID for order: {}", orderId);
-                return;
-            }
-            
-            // Find the session for this client order ID
-            SessionID sessionId = clientSessionMap.get(clientOrderId);
-            if (sessionId != null) {
-                try {
-                    sendExecutionReport(orderId, clientOrderId, ExecType.CANCELED, OrdStatus.CANCELED, 
-                            BigDecimal.ZERO, BigInteger.ZERO, sessionId);
-                } catch (Exception e) {
-                    logger.error("Error sending execution report for canceled order", e);
-                }
-            } else {
-                logger.warn("No session found for clientOrderId: {}", clientOrderId);
+            try {
+                sendExecutionReport(order, clientOrderId, origClientOrderId, ExecType.CANCELED, OrdStatus.CANCELED,
+                        BigDecimal.ZERO, BigInteger.ZERO);
+            } catch (Exception e) {
+                logger.error("Error sending execution report for canceled order", e);
             }
         }
-
+        
         @Override
-        public void onOrderModified(UUID orderId) {
-            logger.info("Order modified: {}", orderId);
+        public void onCancelRejected(Order order, String clientOrderId, String origClientOrderId, String reason) {
+            logger.info("Order cancel rejected: {}, origClientOrderId: {}, reason: {}",
+                    clientOrderId, origClientOrderId, reason);
             
-            // Get the order
-            Order order = fixOrderEntryAdapter.getOrder(orderId);
-            if (order == null) {
-                logger.error("Order not found for modification notification: {}", orderId);
-                return;
-            }
-            
-            String clientOrderId = order.getClientOrderId();
-            if (clientOrderId == null) {
-                logger.error("No client order ID for order: {}", orderId);
-                return;
-            }
-            
-            // Find the session for this client order ID
-            SessionID sessionId = clientSessionMap.get(clientOrderId);
-            if (sessionId != null) {
-                try {
-                    char ordStatus = order.getFilledQuantity().equals(BigInteger.ZERO) ? OrdStatus.NEW : 
-                        order.getFilledQuantity().equals(order.getQuantity()) ? OrdStatus.FILLED : OrdStatus.PARTIALLY_FILLED;
-                    
-                    sendExecutionReport(orderId, clientOrderId, ExecType.REPLACED, ordStatus, 
-                            BigDecimal.ZERO, BigInteger.ZERO, sessionId);
-                } catch (Exception e) {
-                    logger.error("Error sending execution report for modified order", e);
-                }
-            } else {
-                logger.warn("No session found for clientOrderId: {}", clientOrderId);
-            }
+            sendCancelReject(order, clientOrderId, origClientOrderId, reason,
+                    CxlRejResponseTo.ORDER_CANCEL_REQUEST, sessionId);
         }
-
+        
         @Override
-        public void onOrderModificationRejected(UUID orderId, String reason) {
-            logger.info("Order modification rejected: {}, reason: {}", orderId, reason);
-            
-            // Get the order
-            Order order = fixOrderEntryAdapter.getOrder(orderId);
+        public void onOrderReplaced(Order order, String clientOrderId, String origClientOrderId) {
+            logger.info("Order replaced: {}, clientOrderId: {}, origClientOrderId: {}",
+                    order == null ? null : order.getId(), clientOrderId, origClientOrderId);
             if (order == null) {
-                logger.error("Order not found for modification rejection: {}", orderId);
-                return;
-            }
-            
-            String clientOrderId = order.getClientOrderId();
-            if (clientOrderId == null) {
-                logger.error("No client order ID for order: {}", orderId);
+                logger.error("Order not found for replace notification: {}", clientOrderId);
                 return;
             }
             
-            // Find the session for this client order ID
-            SessionID sessionId = clientSessionMap.get(clientOrderId);
-            if (sessionId != null) {
-                try {
-                    ExecutionReport report = new ExecutionReport(
-                            new OrderID(orderId.toString()),
-                            new ExecID(UUID.randomUUID().toString()),
-                            new ExecType(ExecType.REJECTED),
-                            new OrdStatus(order.getFilledQuantity().equals(BigInteger.ZERO) ? OrdStatus.NEW : 
-                                order.getFilledQuantity().equals(order.getQuantity()) ? OrdStatus.FILLED : OrdStatus.PARTIALLY_FILLED),
-                            new Side(order.getSide() == com.example.models.OrderSide.BUY ? Side.BUY : Side.SELL),
-                            new LeavesQty(order.getQuantity().subtract(order.getFilledQuantity()).doubleValue()),
-                            new CumQty(order.getFilledQuantity().doubleValue()),
-                            new AvgPx(0));
-                    
-                    report.set(new ClOrdID(clientOrderId));
-                    report.set(new Text(reason));
-                    
-                    Session.sendToTarget(report, sessionId);
-                } catch (Exception e) {
-                    logger.error("Error sending execution report for modification rejection", e);
-                }
-            } else {
-                logger.warn("No session found for clientOrderId: {}", clientOrderId);
+            try {
+                sendExecutionReport(order, clientOrderId, origClientOrderId, ExecType.REPLACED, ordStatus(order),
+                        BigDecimal.ZERO, BigInteger.ZERO);
+            } catch (Exception e) {
+                logger.error("Error sending execution report for replaced order", e);
             }
         }
         
-        private void sendExecutionReport(UUID orderId, String clientOrderId, char execType, char ordStatus, 
-                                        BigDecimal lastPrice, BigInteger lastQty, SessionID sessionId) throws SessionNotFound {
-            // Get the order
-            Order order = fixOrderEntryAdapter.getOrder(orderId);
-            if (order == null) {
-                logger.error("Order not found for execution report: {}", orderId);
-                return;
-            }
+        @Override
+        public void onReplaceRejected(Order order, String clientOrderId, String origClientOrderId, String reason) {
+            logger.info("Order replace rejected: {}, origClientOrderId: {}, reason: {}",
+                    clientOrderId, origClientOrderId, reason);
             
+            // The order is still live as it was, so this is an OrderCancelReject, not a rejected order
+            sendCancelReject(order, clientOrderId, origClientOrderId, reason,
+                    CxlRejResponseTo.ORDER_CANCEL_REPLACE_REQUEST, sessionId);
+        }
+        
+        /**
+         * Prices and quantities are written exactly as the engine holds them, never
+         * through a double.
+         * 
+         * @param origClientOrderId OrigClOrdID (41), or null to leave it out
+         */
+        private void sendExecutionReport(Order order, String clientOrderId, String origClientOrderId,
+                                         char execType, char ordStatus, BigDecimal lastPrice, BigInteger lastQty) {
             ExecutionReport report = new ExecutionReport(
-                    new OrderID(orderId.toString()),
-                    new ExecID(UUID.randomUUID().toString()),
+                    new OrderID(order.getId().toString()),
+                    new ExecID(Long.toString(execIdSequence.incrementAndGet())),
                     new ExecType(execType),
                     new OrdStatus(ordStatus),
-                    new Side(order.getSide() == com.example.models.OrderSide.BUY ? Side.BUY : Side.SELL),
-                    new LeavesQty(order.getQuantity().subtract(order.getFilledQuantity()).doubleValue()),
-                    new CumQty(order.getFilledQuantity().doubleValue()),
+                    new Side(order.getSide() == OrderSide.BUY ? Side.BUY : Side.SELL),
+                    new LeavesQty(0),
+                    new CumQty(0),
                     new AvgPx(0));
             
+            // Nothing is left open on a canceled order
+            long leavesQty = ordStatus == OrdStatus.CANCELED ? 0
+                    : order.getRawQuantity() - order.getRawFilledQuantity();
+            report.setString(LeavesQty.FIELD, Long.toString(leavesQty));
+            report.setString(CumQty.FIELD, Long.toString(order.getRawFilledQuantity()));
             report.set(new ClOrdID(clientOrderId));
+            if (origClientOrderId != null) {
+                report.set(new OrigClOrdID(origClientOrderId));
+            }
             report.set(new Symbol(order.getSymbol()));
-            report.set(new OrderQty(order.getQuantity().doubleValue()));
+            report.setString(OrderQty.FIELD, Long.toString(order.getRawQuantity()));
             
             if (order.getPrice() != null) {
-                report.set(new Price(order.getPrice().doubleValue()));
+                report.setDecimal(Price.FIELD, order.getPrice());
             }
             
-            if (lastQty.compareTo(BigInteger.ZERO) > 0) {
-                report.set(new LastQty(lastQty.doubleValue()));
-                report.set(new LastPx(lastPrice.doubleValue()));
+            if (lastQty.signum() > 0) {
+                report.setString(LastQty.FIELD, lastQty.toString());
+                report.setDecimal(LastPx.FIELD, lastPrice);
             }
             
-            Session.sendToTarget(report, sessionId);
+            outbound.send(sessionId, report);
         }
     }
+    
+    // OrdStatus (39) of a live order, from how much of it is filled
+    private static char ordStatus(Order order) {
+        return order.getRawFilledQuantity() == 0 ? OrdStatus.NEW
+                : order.getRawFilledQuantity() == order.getRawQuantity() ? OrdStatus.FILLED
+                : OrdStatus.PARTIALLY_FILLED;
+    }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@ public class FixServerManager {
     private static final Logger logger = LoggerFactory.getLogger(FixServerManager.class);
     
     private final FixOrderEntryAdapter fixOrderEntryAdapter;
+    private ExchangeFixApplication fixApplication;
     private Acceptor acceptor;
     
     public FixServerManager(FixOrderEntryAdapter fixOrderEntryAdapter) {
@@ -24,7 +25,7 @@ public class FixServerManager {
                 new FileInputStream("/Users/joeyang/Personal/github/java-exchange/config/quickfix-server.properties"));
         
         // Create FIX application
-        Application fixApplication = new ExchangeFixApplication(fixOrderEntryAdapter);
+        fixApplication = new ExchangeFixApplication(fixOrderEntryAdapter);
         
         // Create message store factory
         MessageStoreFactory storeFactory = new FileStoreFactory(settings);
@@ -44,6 +45,10 @@ public class FixServerManager {
     }
     
     public void stop() {
+        if (fixApplication != null) {
+            // Reports still queued go out before the sessions log out
+            fixApplication.close();
+        }
         if (acceptor != null) {
             acceptor.stop();
             logger.info("FIX acceptor stopped");
@@ -0,0 +1,169 @@
+package com.example.exchange.fix;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import quickfix.Message;
+import quickfix.Responder;
+import quickfix.Session;
+import quickfix.SessionID;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends application messages to FIX sessions from dedicated I/O threads, so the thread
+ * that raises an execution report, usually the matching thread, never waits on a
+ * session's lock, its message store or a slow client socket.
+ * <p>
+ * Each session has its own unbounded queue, and each session is served by one worker, so
+ * its messages go out in the order they were queued. A worker takes everything queued
+ * for a session, up to {@link #MAX_BATCH} messages, and sends it as one batch: with a
+ * {@link BatchingResponder} installed on the session, the batch reaches the socket as
+ * one write.
+ */
+final class OutboundPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(OutboundPipeline.class);
+    static final int DEFAULT_WORKERS = 2;
+    // Messages sent per session before the worker moves on to the next session
+    static final int MAX_BATCH = 64;
+    
+    private final Map<SessionID, SessionQueue> queues = new ConcurrentHashMap<>();
+    private final Worker[] workers;
+    
+    OutboundPipeline() {
+        this(DEFAULT_WORKERS);
+    }
+    
+    /**
+     * Starts the worker threads.
+     */
+    OutboundPipeline(int workerCount) {
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker("fix-outbound-" + i);
+            workers[i].start();
+        }
+    }
+    
+    /**
+     * Queues a message for the session and returns without waiting for it to be sent.
+     */
+    void send(SessionID sessionId, Message message) {
+        SessionQueue queue = queues.get(sessionId);
+        if (queue == null) {
+            queue = queues.computeIfAbsent(sessionId,
+                    id -> new SessionQueue(id, workers[Math.floorMod(id.hashCode(), workers.length)]));
+        }
+        queue.messages.offer(message);
+        queue.schedule();
+    }
+    
+    /**
+     * @return The number of messages queued for the session and not yet sent
+     */
+    int getPendingCount(SessionID sessionId) {
+        SessionQueue queue = queues.get(sessionId);
+        return queue == null ? 0 : queue.messages.size();
+    }
+    
+    /**
+     * Sends every message already queued, then stops the worker threads.
+     */
+    void shutdown() {
+        for (Worker worker : workers) {
+            worker.ready.offer(Worker.STOP);
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private static final class SessionQueue {
+        final SessionID sessionId;
+        final Worker worker;
+        final Queue<Message> messages = new ConcurrentLinkedQueue<>();
+        // Whether the session is waiting on its worker's ready queue or being drained
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        
+        SessionQueue(SessionID sessionId, Worker worker) {
+            this.sessionId = sessionId;
+            this.worker = worker;
+        }
+        
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                worker.ready.offer(this);
+            }
+        }
+    }
+    
+    private static final class Worker extends Thread {
+        static final SessionQueue STOP = new SessionQueue(null, null);
+        
+        // Sessions with messages to send, each at most once
+        final BlockingQueue<SessionQueue> ready = new LinkedBlockingQueue<>();
+        
+        Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+        
+        @Override
+        public void run() {
+            try {
+                for (SessionQueue queue = ready.take(); queue != STOP; queue = ready.take()) {
+                    drain(queue);
+                }
+                // Sessions rescheduled behind the stop marker still have messages
+                for (SessionQueue queue = ready.poll(); queue != null; queue = ready.poll()) {
+                    drain(queue);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        private void drain(SessionQueue queue) {
+            // Cleared first, so a message queued during the batch schedules the session again
+            queue.scheduled.set(false);
+            Session session = Session.lookupSession(queue.sessionId);
+            if (session == null) {
+                logger.warn("Session {} not found, dropping {} messages", queue.sessionId, queue.messages.size());
+                queue.messages.clear();
+                return;
+            }
+            Responder responder = session.getResponder();
+            BatchingResponder batching = responder instanceof BatchingResponder ? (BatchingResponder) responder : null;
+            if (batching != null) {
+                batching.beginBatch();
+            }
+            try {
+                Message message;
+                for (int sent = 0; sent < MAX_BATCH && (message = queue.messages.poll()) != null; sent++) {
+                    try {
+                        session.send(message);
+                    } catch (RuntimeException e) {
+                        logger.error("Error sending message to session {}", queue.sessionId, e);
+                    }
+                }
+            } finally {
+                if (batching != null) {
+                    batching.endBatch();
+                }
+            }
+            if (!queue.messages.isEmpty()) {
+                queue.schedule();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.journal;
+
+/**
+ * When journaled records are forced from the page cache to disk.
+ */
+public enum FlushPolicy {
+    /** Never force; the OS writes pages back in its own time (survives a process crash, not a power loss). */
+    NONE,
+    /** Force once per batch of records handed over by the ring, before any of them is matched. */
+    BATCH,
+    /** Force after every record. */
+    MESSAGE
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.example.journal;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Reads back the records of a {@link MappedJournal} in the order they were written.
+ */
+public final class JournalReader {
+    
+    /**
+     * Receives journaled records.
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        /**
+         * @param record The record payload, positioned at its start and limited to its end
+         */
+        void onRecord(ByteBuffer record);
+    }
+    
+    private final Path directory;
+    private final String name;
+    
+    public JournalReader(Path directory, String name) {
+        this.directory = directory;
+        this.name = name;
+    }
+    
+    /**
+     * Passes every complete record in every segment to the handler.
+     * 
+     * @param handler The record handler
+     * @return The number of records read
+     */
+    public long readAll(RecordHandler handler) throws IOException {
+        return readFrom(0, 0, handler);
+    }
+    
+    /**
+     * Passes every complete record from the given position onwards to the handler.
+     * 
+     * @param segmentIndex The segment to start in; earlier segments are not opened
+     * @param position The offset of a record within that segment
+     * @param handler The record handler
+     * @return The number of records read
+     */
+    public long readFrom(int segmentIndex, int position, RecordHandler handler) throws IOException {
+        long count = 0;
+        List<Path> segments = MappedJournal.segments(directory, name);
+        for (Path segment : segments) {
+            int index = MappedJournal.indexOf(segment, name);
+            if (index < segmentIndex) {
+                continue;
+            }
+            try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "r")) {
+                MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                
+                int offset = index == segmentIndex ? position : 0;
+                while (offset + MappedJournal.LENGTH_FIELD <= buffer.capacity()) {
+                    int length = buffer.getInt(offset);
+                    if (length <= 0 || offset + MappedJournal.LENGTH_FIELD + length > buffer.capacity()) {
+                        break; // End of data, or a record torn by a crash
+                    }
+                    ByteBuffer record = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                    record.limit(offset + MappedJournal.LENGTH_FIELD + length);
+                    record.position(offset + MappedJournal.LENGTH_FIELD);
+                    handler.onRecord(record);
+                    count++;
+                    offset += MappedJournal.LENGTH_FIELD + length;
+                }
+            }
+        }
+        return count;
+    }
+}
\ No newline at end of file
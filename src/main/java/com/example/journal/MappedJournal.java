@@ -0,0 +1,197 @@
+package com.example.journal;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal written through memory-mapped, pre-allocated segment files.
+ * Each record is framed by an int length written after its payload, so a record is
+ * only visible to readers once it is complete; a zero length marks the end of the
+ * data in a segment. When a record does not fit in the current segment the journal
+ * rolls to a new one, so writing never has to grow or remap a file.
+ * <p>
+ * A journal has a single writer thread and is not thread-safe.
+ */
+public final class MappedJournal implements AutoCloseable {
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+    static final int LENGTH_FIELD = 4;
+    private static final String SUFFIX = ".journal";
+    private static final int PAGE_SIZE = 4096;
+    
+    private final Path directory;
+    private final String name;
+    private final int segmentSize;
+    private final FlushPolicy flushPolicy;
+    private int segmentIndex;
+    private RandomAccessFile file;
+    private MappedByteBuffer buffer;
+    private int recordStart;
+    private boolean dirty;
+    
+    public MappedJournal(Path directory, String name, FlushPolicy flushPolicy) throws IOException {
+        this(directory, name, DEFAULT_SEGMENT_SIZE, flushPolicy);
+    }
+    
+    /**
+     * Opens a journal, starting a new segment after any that already exist.
+     * 
+     * @param directory The directory holding the segment files
+     * @param name The segment file prefix
+     * @param segmentSize The size of each segment file in bytes
+     * @param flushPolicy When to force written records to disk
+     */
+    public MappedJournal(Path directory, String name, long segmentSize, FlushPolicy flushPolicy) throws IOException {
+        if (segmentSize < PAGE_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentSize);
+        }
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = (int) segmentSize;
+        this.flushPolicy = flushPolicy;
+        Files.createDirectories(directory);
+        
+        List<Path> existing = segments(directory, name);
+        this.segmentIndex = existing.isEmpty() ? 0 : indexOf(existing.get(existing.size() - 1), name) + 1;
+        openSegment();
+    }
+    
+    /**
+     * Reserves space for a record and returns the buffer positioned at the start of its payload.
+     * The caller writes exactly the payload and then calls {@link #commit}.
+     * 
+     * @param length The payload length in bytes
+     * @return The buffer to write the payload into
+     */
+    public ByteBuffer claim(int length) {
+        if (length <= 0 || length + LENGTH_FIELD * 2 > segmentSize) {
+            throw new IllegalArgumentException("Invalid record length: " + length);
+        }
+        // Keep room for the zero length that terminates the segment
+        if (buffer.position() + LENGTH_FIELD + length + LENGTH_FIELD > segmentSize) {
+            roll();
+        }
+        recordStart = buffer.position();
+        buffer.position(recordStart + LENGTH_FIELD);
+        return buffer;
+    }
+    
+    /**
+     * Publishes the record started by the last {@link #claim}.
+     */
+    public void commit() {
+        int end = buffer.position();
+        buffer.putInt(recordStart, end - recordStart - LENGTH_FIELD);
+        dirty = true;
+        if (flushPolicy == FlushPolicy.MESSAGE) {
+            flush();
+        }
+    }
+    
+    /**
+     * Signals the end of a batch of records, forcing them to disk under {@link FlushPolicy#BATCH}.
+     */
+    public void endOfBatch() {
+        if (flushPolicy == FlushPolicy.BATCH) {
+            flush();
+        }
+    }
+    
+    /**
+     * Forces every committed record to disk.
+     */
+    public void flush() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return The index of the segment currently being written
+     */
+    public int getSegmentIndex() {
+        return segmentIndex;
+    }
+    
+    /**
+     * @return The offset of the last claimed record within the current segment
+     */
+    public int getRecordPosition() {
+        return recordStart;
+    }
+    
+    public FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        flush();
+        file.close();
+    }
+    
+    private void roll() {
+        flush();
+        try {
+            file.close();
+            segmentIndex++;
+            openSegment();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to roll journal segment " + name + "-" + segmentIndex, e);
+        }
+    }
+    
+    private void openSegment() throws IOException {
+        Path path = directory.resolve(String.format("%s-%06d%s", name, segmentIndex, SUFFIX));
+        file = new RandomAccessFile(path.toFile(), "rw");
+        file.setLength(segmentSize);
+        buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        // Touch every page up front so the hot path never takes a page fault
+        for (int i = 0; i < segmentSize; i += PAGE_SIZE) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.position(0);
+    }
+    
+    static List<Path> segments(Path directory, String name) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        List<Path> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> isSegment(path, name)).forEach(result::add);
+        }
+        result.sort((a, b) -> Integer.compare(indexOf(a, name), indexOf(b, name)));
+        return result;
+    }
+    
+    private static boolean isSegment(Path path, String name) {
+        String fileName = path.getFileName().toString();
+        return fileName.startsWith(name + "-") && fileName.endsWith(SUFFIX)
+                && fileName.substring(name.length() + 1, fileName.length() - SUFFIX.length()).chars().allMatch(Character::isDigit);
+    }
+    
+    static int indexOf(Path path, String name) {
+        String fileName = path.getFileName().toString();
+        return Integer.parseInt(fileName.substring(name.length() + 1, fileName.length() - SUFFIX.length()));
+    }
+}
\ No newline at end of file
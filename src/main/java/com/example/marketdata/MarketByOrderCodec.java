@@ -0,0 +1,125 @@
+package com.example.marketdata;
+
+import com.example.models.OrderSide;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-layout binary encoding of the Level-3 (market-by-order) feed.
+ * Every message is {@link #MESSAGE_LENGTH} bytes, big-endian, with fields at fixed
+ * offsets so consumers can read them in place:
+ * <pre>
+ *  0  long  sequence      per-book, starting at 1
+ *  8  long  timestamp     nanoseconds since the epoch
+ * 16  long  orderId       the order (EXECUTE: the buy order)
+ * 24  long  otherOrderId  EXECUTE: the sell order, otherwise 0
+ * 32  long  price         scaled by 10^priceScale
+ * 40  long  quantity      ADD/MODIFY: open quantity; EXECUTE: executed quantity;
+ *                         CANCEL: quantity left open when canceled
+ * 48  long  tradeId       EXECUTE only, otherwise 0
+ * 56  int   bookId        see {@link MarketByOrderPublisher#getBookId}
+ * 60  byte  type          {@link #ADD}, {@link #CANCEL}, {@link #MODIFY} or {@link #EXECUTE}
+ * 61  byte  side          0 buy, 1 sell (EXECUTE: always 0)
+ * 62  byte  priceScale
+ * 63  byte  flags         {@link #FLAG_PRIORITY_KEPT}
+ * </pre>
+ * Orders are added before they match, so a consumer rebuilds the book by adding on ADD,
+ * removing on CANCEL, re-queueing on MODIFY (in place when the priority is kept,
+ * otherwise at the back of the new level), and reducing both orders on EXECUTE,
+ * removing each once nothing is left open.
+ */
+public final class MarketByOrderCodec {
+    public static final int MESSAGE_LENGTH = 64;
+    
+    public static final byte ADD = 1;
+    public static final byte CANCEL = 2;
+    public static final byte MODIFY = 3;
+    public static final byte EXECUTE = 4;
+    
+    /** MODIFY only: the order kept its place in the queue. */
+    public static final byte FLAG_PRIORITY_KEPT = 1;
+    
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int TIMESTAMP_OFFSET = 8;
+    private static final int ORDER_ID_OFFSET = 16;
+    private static final int OTHER_ORDER_ID_OFFSET = 24;
+    private static final int PRICE_OFFSET = 32;
+    private static final int QUANTITY_OFFSET = 40;
+    private static final int TRADE_ID_OFFSET = 48;
+    private static final int BOOK_ID_OFFSET = 56;
+    private static final int TYPE_OFFSET = 60;
+    private static final int SIDE_OFFSET = 61;
+    private static final int PRICE_SCALE_OFFSET = 62;
+    private static final int FLAGS_OFFSET = 63;
+    
+    private MarketByOrderCodec() {
+    }
+    
+    /**
+     * Writes a message at offset, leaving the buffer's position unchanged.
+     */
+    public static void encode(ByteBuffer buffer, int offset, byte type, int bookId, long sequence, long timestamp,
+                              long orderId, long otherOrderId, OrderSide side, long rawPrice, int priceScale,
+                              long quantity, long tradeId, byte flags) {
+        buffer.putLong(offset + SEQUENCE_OFFSET, sequence);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putLong(offset + ORDER_ID_OFFSET, orderId);
+        buffer.putLong(offset + OTHER_ORDER_ID_OFFSET, otherOrderId);
+        buffer.putLong(offset + PRICE_OFFSET, rawPrice);
+        buffer.putLong(offset + QUANTITY_OFFSET, quantity);
+        buffer.putLong(offset + TRADE_ID_OFFSET, tradeId);
+        buffer.putInt(offset + BOOK_ID_OFFSET, bookId);
+        buffer.put(offset + TYPE_OFFSET, type);
+        buffer.put(offset + SIDE_OFFSET, (byte) side.ordinal());
+        buffer.put(offset + PRICE_SCALE_OFFSET, (byte) priceScale);
+        buffer.put(offset + FLAGS_OFFSET, flags);
+    }
+    
+    public static long getSequence(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + SEQUENCE_OFFSET);
+    }
+    
+    public static long getTimestamp(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET);
+    }
+    
+    public static long getOrderId(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + ORDER_ID_OFFSET);
+    }
+    
+    public static long getOtherOrderId(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + OTHER_ORDER_ID_OFFSET);
+    }
+    
+    public static long getRawPrice(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + PRICE_OFFSET);
+    }
+    
+    public static long getQuantity(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + QUANTITY_OFFSET);
+    }
+    
+    public static long getTradeId(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + TRADE_ID_OFFSET);
+    }
+    
+    public static int getBookId(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + BOOK_ID_OFFSET);
+    }
+    
+    public static byte getType(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + TYPE_OFFSET);
+    }
+    
+    public static OrderSide getSide(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + SIDE_OFFSET) == 0 ? OrderSide.BUY : OrderSide.SELL;
+    }
+    
+    public static int getPriceScale(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + PRICE_SCALE_OFFSET);
+    }
+    
+    public static byte getFlags(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + FLAGS_OFFSET);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.marketdata;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the Level-3 feed from a {@link MarketByOrderPublisher}.
+ * Callbacks arrive on the publisher thread, never on a matching thread.
+ */
+public interface MarketByOrderListener {
+    
+    /**
+     * Called for every message, in sequence order per book.
+     * 
+     * @param buffer Holds one message at offset 0, laid out as described in
+     *               {@link MarketByOrderCodec}; only valid during the call
+     */
+    void onMessage(ByteBuffer buffer);
+}
\ No newline at end of file
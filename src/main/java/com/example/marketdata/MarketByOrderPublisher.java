@@ -0,0 +1,217 @@
+package com.example.marketdata;
+
+import com.example.models.Order;
+import com.example.models.OrderSide;
+import com.example.models.Trade;
+import com.example.orderbook.OrderBook;
+import com.example.orderbook.OrderBookEventListener;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Level-3 (market-by-order) feed: every add, cancel, modify and execution of an
+ * individual order, with a sequence number per book.
+ * <p>
+ * The matching thread encodes each event straight into a preallocated slot of a
+ * Disruptor ring using the fixed layout of {@link MarketByOrderCodec}, so producing
+ * the feed allocates nothing. A separate publisher thread hands the messages to the
+ * listeners.
+ * <p>
+ * A book should be added before it is traded: orders already resting are not published.
+ */
+public class MarketByOrderPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(MarketByOrderPublisher.class);
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+    
+    private final Disruptor<ByteBuffer> disruptor;
+    private final RingBuffer<ByteBuffer> ringBuffer;
+    private final Map<String, Integer> bookIds;
+    private final List<String> symbols;
+    private final List<MarketByOrderListener> listeners;
+    private boolean started;
+    private boolean stopped;
+    
+    public MarketByOrderPublisher() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+    
+    /**
+     * @param bufferSize The ring size in messages; must be a power of 2. Matching waits
+     *                   if the publisher falls this many messages behind
+     */
+    public MarketByOrderPublisher(int bufferSize) {
+        this.disruptor = new Disruptor<>(
+                () -> ByteBuffer.allocate(MarketByOrderCodec.MESSAGE_LENGTH),
+                bufferSize,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "market-by-order-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                ProducerType.MULTI,
+                new BlockingWaitStrategy());
+        this.ringBuffer = disruptor.getRingBuffer();
+        this.bookIds = new ConcurrentHashMap<>();
+        this.symbols = new CopyOnWriteArrayList<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+    
+    /**
+     * Starts publishing the order events of a book.
+     * 
+     * @param orderBook The book to follow
+     * @return The ID carried by this book's messages
+     */
+    public synchronized int addOrderBook(OrderBook orderBook) {
+        String symbol = orderBook.getSymbol();
+        if (bookIds.containsKey(symbol)) {
+            throw new IllegalArgumentException("Book already published: " + symbol);
+        }
+        int bookId = symbols.size();
+        symbols.add(symbol);
+        bookIds.put(symbol, bookId);
+        orderBook.registerListener(new BookFeed(bookId));
+        return bookId;
+    }
+    
+    /**
+     * @return The ID carried by the messages of a book, or -1 if it is not published
+     */
+    public int getBookId(String symbol) {
+        Integer bookId = bookIds.get(symbol);
+        return bookId == null ? -1 : bookId;
+    }
+    
+    /**
+     * @return The symbol of the book with the given ID
+     */
+    public String getSymbol(int bookId) {
+        return symbols.get(bookId);
+    }
+    
+    public void addListener(MarketByOrderListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(MarketByOrderListener listener) {
+        listeners.remove(listener);
+    }
+    
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        disruptor.handleEventsWith(new Publisher());
+        disruptor.start();
+        started = true;
+    }
+    
+    /**
+     * Publishes every message already encoded, then stops the publisher thread.
+     */
+    public synchronized void shutdown() {
+        if (!started || stopped) {
+            return;
+        }
+        disruptor.shutdown();
+        stopped = true;
+    }
+    
+    /**
+     * Runs on the matching thread of one book and encodes its events onto the ring.
+     */
+    private final class BookFeed implements OrderBookEventListener {
+        private final int bookId;
+        // Only touched by the book's matching thread
+        private long sequence;
+        
+        BookFeed(int bookId) {
+            this.bookId = bookId;
+        }
+        
+        @Override
+        public void onOrderAdded(Order order) {
+            publish(MarketByOrderCodec.ADD, order.getCreatedNanos(), order.getRawId(), 0, order.getSide(),
+                    order.getRawPrice(), order.getPriceScale(), order.getRawRemainingQuantity(), 0, (byte) 0);
+        }
+        
+        @Override
+        public void onOrderCanceled(Order order) {
+            publish(MarketByOrderCodec.CANCEL, order.getUpdatedNanos(), order.getRawId(), 0, order.getSide(),
+                    order.getRawPrice(), order.getPriceScale(), order.getRawRemainingQuantity(), 0, (byte) 0);
+        }
+        
+        @Override
+        public void onOrderModified(Order order, long oldRawPrice, long oldQuantity) {
+            // Mirrors the book: only a quantity reduction at the same price keeps priority
+            boolean priorityKept = order.getRawPrice() == oldRawPrice && order.getRawQuantity() <= oldQuantity;
+            publish(MarketByOrderCodec.MODIFY, order.getUpdatedNanos(), order.getRawId(), 0, order.getSide(),
+                    order.getRawPrice(), order.getPriceScale(), order.getRawRemainingQuantity(), 0,
+                    priorityKept ? MarketByOrderCodec.FLAG_PRIORITY_KEPT : 0);
+        }
+        
+        @Override
+        public void onTradeExecuted(Trade trade) {
+            publish(MarketByOrderCodec.EXECUTE, trade.getExecutionNanos(), trade.getRawBuyOrderId(),
+                    trade.getRawSellOrderId(), OrderSide.BUY, trade.getRawPrice(), trade.getPriceScale(),
+                    trade.getRawQuantity(), trade.getRawId(), (byte) 0);
+        }
+        
+        @Override
+        public void onOrderCanceled(UUID orderId, Order order) {
+            // Never called: the book calls onOrderCanceled(Order), which is overridden above
+        }
+        
+        @Override
+        public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {
+            // Never called: the book calls the fixed-point variant, which is overridden above
+        }
+        
+        @Override
+        public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {
+        }
+        
+        @Override
+        public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {
+        }
+        
+        private void publish(byte type, long timestamp, long orderId, long otherOrderId, OrderSide side,
+                             long rawPrice, int priceScale, long quantity, long tradeId, byte flags) {
+            long slot = ringBuffer.next();
+            try {
+                MarketByOrderCodec.encode(ringBuffer.get(slot), 0, type, bookId, ++sequence, timestamp,
+                        orderId, otherOrderId, side, rawPrice, priceScale, quantity, tradeId, flags);
+            } finally {
+                ringBuffer.publish(slot);
+            }
+        }
+    }
+    
+    private final class Publisher implements EventHandler<ByteBuffer> {
+        @Override
+        public void onEvent(ByteBuffer message, long sequence, boolean endOfBatch) {
+            for (MarketByOrderListener listener : listeners) {
+                try {
+                    listener.onMessage(message);
+                } catch (RuntimeException e) {
+                    logger.error("Market-by-order listener failed on message {} of book {}",
+                            MarketByOrderCodec.getSequence(message, 0), MarketByOrderCodec.getBookId(message, 0), e);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
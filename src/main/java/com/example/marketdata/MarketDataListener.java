@@ -0,0 +1,27 @@
+package com.example.marketdata;
+
+import com.example.orderbook.MarketDepth;
+
+/**
+ * Receives the Level-2 feed from a {@link MarketDataPublisher}.
+ * Callbacks arrive on the publisher thread, never on a matching thread.
+ */
+public interface MarketDataListener {
+    
+    /**
+     * Called for every change to a price level.
+     * 
+     * @param update The change
+     */
+    void onLevelUpdate(PriceLevelUpdate update);
+    
+    /**
+     * Called with the full depth of a book, periodically and whenever a listener joins.
+     * A consumer starting from this snapshot applies only updates with a higher sequence.
+     * 
+     * @param symbol The symbol of the book
+     * @param sequence The sequence of the last update reflected in the snapshot
+     * @param depth Every price level in the book
+     */
+    void onSnapshot(String symbol, long sequence, MarketDepth depth);
+}
\ No newline at end of file
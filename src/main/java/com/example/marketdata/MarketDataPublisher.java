@@ -0,0 +1,382 @@
+package com.example.marketdata;
+
+import com.example.models.Order;
+import com.example.models.OrderSide;
+import com.example.models.Trade;
+import com.example.orderbook.MarketDepth;
+import com.example.orderbook.OrderBook;
+import com.example.orderbook.OrderBookEventListener;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Level-2 market data feed built from order book events.
+ * <p>
+ * The matching thread only copies each price level change into a preallocated ring.
+ * A separate publisher thread keeps a shadow copy of every book's levels, turns the
+ * changes into sequenced NEW/CHANGE/DELETE updates, publishes full snapshots on a
+ * timer (and whenever a listener joins) for late joiners, and maintains the depth
+ * returned by {@link #getMarketDepth}, so consumers polling depth never touch a book.
+ * <p>
+ * Books must be added before the publisher is started.
+ */
+public class MarketDataPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataPublisher.class);
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+    public static final long DEFAULT_SNAPSHOT_INTERVAL_MILLIS = 1000;
+    public static final int DEFAULT_DEPTH_LEVELS = 10;
+    
+    private final Disruptor<LevelEvent> disruptor;
+    private final RingBuffer<LevelEvent> ringBuffer;
+    private final Map<String, ShadowBook> books;
+    private final List<MarketDataListener> listeners;
+    private final long snapshotIntervalMillis;
+    private final int depthLevels;
+    private ScheduledExecutorService scheduler;
+    private boolean started;
+    private boolean stopped;
+    
+    public MarketDataPublisher() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_SNAPSHOT_INTERVAL_MILLIS, DEFAULT_DEPTH_LEVELS);
+    }
+    
+    /**
+     * @param bufferSize The ring size; must be a power of 2. Matching waits if the
+     *                   publisher falls this many changes behind
+     * @param snapshotIntervalMillis How often full snapshots are published, or 0 for
+     *                               only when a listener joins
+     * @param depthLevels The number of levels per side kept for {@link #getMarketDepth}
+     */
+    public MarketDataPublisher(int bufferSize, long snapshotIntervalMillis, int depthLevels) {
+        this.disruptor = new Disruptor<>(
+                LevelEvent::new,
+                bufferSize,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "market-data-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                ProducerType.MULTI,
+                new BlockingWaitStrategy());
+        this.ringBuffer = disruptor.getRingBuffer();
+        this.books = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        this.depthLevels = depthLevels;
+    }
+    
+    /**
+     * Starts publishing changes to a book, beginning from its current depth.
+     * Must be called before {@link #start}, while the book is not being traded.
+     * 
+     * @param orderBook The book to follow
+     */
+    public synchronized void addOrderBook(OrderBook orderBook) {
+        if (started) {
+            throw new IllegalStateException("Books must be added before the publisher is started");
+        }
+        ShadowBook book = new ShadowBook(orderBook.getSymbol(), orderBook.getInstrument().getPriceScale());
+        if (books.putIfAbsent(book.symbol, book) != null) {
+            throw new IllegalArgumentException("Book already published: " + book.symbol);
+        }
+        book.seed(orderBook.getMarketDepth(Integer.MAX_VALUE));
+        book.depth = book.toDepth(depthLevels);
+        orderBook.registerListener(new BookFeed(book));
+    }
+    
+    /**
+     * Subscribes to the feed. Once started, a snapshot of every book follows.
+     */
+    public void addListener(MarketDataListener listener) {
+        listeners.add(listener);
+        if (started) {
+            requestSnapshot();
+        }
+    }
+    
+    public void removeListener(MarketDataListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Gets the latest depth of a book as seen by the publisher thread.
+     * Safe to call from any thread at any rate; it never touches the book itself.
+     * 
+     * @param symbol The symbol of the book
+     * @return The depth, up to the configured number of levels per side, or null if
+     *         the book is not published
+     */
+    public MarketDepth getMarketDepth(String symbol) {
+        ShadowBook book = books.get(symbol);
+        return book == null ? null : book.depth;
+    }
+    
+    /**
+     * @return The sequence of the last update published for the symbol, or 0
+     */
+    public long getSequence(String symbol) {
+        ShadowBook book = books.get(symbol);
+        return book == null ? 0 : book.publishedSequence;
+    }
+    
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        disruptor.handleEventsWith(new Publisher());
+        disruptor.start();
+        if (snapshotIntervalMillis > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "market-data-snapshots");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::requestSnapshot, snapshotIntervalMillis, snapshotIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        started = true;
+    }
+    
+    /**
+     * Asks the publisher thread to send a full snapshot of every book, in order with
+     * the updates.
+     */
+    public void requestSnapshot() {
+        long sequence = ringBuffer.next();
+        try {
+            LevelEvent event = ringBuffer.get(sequence);
+            event.book = null;
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+    }
+    
+    /**
+     * Publishes every change already captured, then stops the publisher thread.
+     */
+    public synchronized void shutdown() {
+        if (!started || stopped) {
+            return;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        disruptor.shutdown();
+        stopped = true;
+    }
+    
+    /**
+     * Ring entry: a level change, or a snapshot request when book is null.
+     */
+    private static final class LevelEvent {
+        ShadowBook book;
+        boolean isBid;
+        long rawPrice;
+        long quantity;
+        int orderCount;
+    }
+    
+    /**
+     * Runs on the matching thread of one book and only copies level changes onto the ring.
+     */
+    private final class BookFeed implements OrderBookEventListener {
+        private final ShadowBook book;
+        
+        BookFeed(ShadowBook book) {
+            this.book = book;
+        }
+        
+        @Override
+        public void onPriceLevelChanged(String symbol, boolean isBid, long rawPrice, long quantity, int orderCount) {
+            long sequence = ringBuffer.next();
+            try {
+                LevelEvent event = ringBuffer.get(sequence);
+                event.book = book;
+                event.isBid = isBid;
+                event.rawPrice = rawPrice;
+                event.quantity = quantity;
+                event.orderCount = orderCount;
+            } finally {
+                ringBuffer.publish(sequence);
+            }
+        }
+        
+        @Override
+        public void onOrderAdded(Order order) {
+        }
+        
+        @Override
+        public void onOrderCanceled(UUID orderId, Order order) {
+        }
+        
+        @Override
+        public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {
+        }
+        
+        @Override
+        public void onOrderCanceled(Order order) {
+            // The fixed-point variants are overridden so the book converts nothing for this listener
+        }
+        
+        @Override
+        public void onOrderModified(Order order, long oldRawPrice, long oldQuantity) {
+        }
+        
+        @Override
+        public void onTradeExecuted(Trade trade) {
+        }
+        
+        @Override
+        public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {
+        }
+        
+        @Override
+        public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {
+        }
+    }
+    
+    private final class Publisher implements EventHandler<LevelEvent> {
+        private final List<ShadowBook> changed = new ArrayList<>();
+        
+        @Override
+        public void onEvent(LevelEvent event, long sequence, boolean endOfBatch) {
+            ShadowBook book = event.book;
+            if (book == null) {
+                publishSnapshots();
+            } else {
+                PriceLevelUpdate update = book.apply(event.isBid, event.rawPrice, event.quantity, event.orderCount);
+                if (update != null) {
+                    if (!book.changed) {
+                        book.changed = true;
+                        changed.add(book);
+                    }
+                    for (MarketDataListener listener : listeners) {
+                        try {
+                            listener.onLevelUpdate(update);
+                        } catch (RuntimeException e) {
+                            logger.error("Market data listener failed on {}", update, e);
+                        }
+                    }
+                }
+                event.book = null;
+            }
+            if (endOfBatch) {
+                // Rebuild the polled depth once per batch rather than per change
+                for (ShadowBook changedBook : changed) {
+                    changedBook.depth = changedBook.toDepth(depthLevels);
+                    changedBook.publishedSequence = changedBook.sequence;
+                    changedBook.changed = false;
+                }
+                changed.clear();
+            }
+        }
+        
+        private void publishSnapshots() {
+            for (ShadowBook book : books.values()) {
+                MarketDepth depth = book.toDepth(Integer.MAX_VALUE);
+                for (MarketDataListener listener : listeners) {
+                    try {
+                        listener.onSnapshot(book.symbol, book.sequence, depth);
+                    } catch (RuntimeException e) {
+                        logger.error("Market data listener failed on snapshot of {}", book.symbol, e);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * The publisher thread's copy of a book's price levels: price to {quantity, order count}.
+     */
+    private static final class ShadowBook {
+        final String symbol;
+        final int priceScale;
+        final NavigableMap<Long, long[]> bids = new TreeMap<>(Collections.reverseOrder());
+        final NavigableMap<Long, long[]> asks = new TreeMap<>();
+        // Only used on the publisher thread
+        long sequence;
+        boolean changed;
+        // Read by polling threads
+        volatile MarketDepth depth;
+        volatile long publishedSequence;
+        
+        ShadowBook(String symbol, int priceScale) {
+            this.symbol = symbol;
+            this.priceScale = priceScale;
+        }
+        
+        void seed(MarketDepth depth) {
+            for (MarketDepth.PriceLevel level : depth.getBids()) {
+                bids.put(level.getRawPrice(), new long[] {level.getRawQuantity(), level.getOrderCount()});
+            }
+            for (MarketDepth.PriceLevel level : depth.getAsks()) {
+                asks.put(level.getRawPrice(), new long[] {level.getRawQuantity(), level.getOrderCount()});
+            }
+        }
+        
+        /**
+         * @return The update to publish, or null if the level did not actually change
+         */
+        PriceLevelUpdate apply(boolean isBid, long rawPrice, long quantity, int orderCount) {
+            NavigableMap<Long, long[]> levels = isBid ? bids : asks;
+            long[] level = levels.get(rawPrice);
+            PriceLevelUpdate.Action action;
+            if (quantity <= 0) {
+                if (level == null) {
+                    return null;
+                }
+                levels.remove(rawPrice);
+                action = PriceLevelUpdate.Action.DELETE;
+                quantity = 0;
+                orderCount = 0;
+            } else if (level == null) {
+                levels.put(rawPrice, new long[] {quantity, orderCount});
+                action = PriceLevelUpdate.Action.NEW;
+            } else if (level[0] == quantity && level[1] == orderCount) {
+                return null;
+            } else {
+                level[0] = quantity;
+                level[1] = orderCount;
+                action = PriceLevelUpdate.Action.CHANGE;
+            }
+            return new PriceLevelUpdate(symbol, ++sequence, action, isBid ? OrderSide.BUY : OrderSide.SELL,
+                    rawPrice, priceScale, quantity, orderCount);
+        }
+        
+        MarketDepth toDepth(int levels) {
+            return new MarketDepth(symbol, collect(bids, levels), collect(asks, levels));
+        }
+        
+        private List<MarketDepth.PriceLevel> collect(NavigableMap<Long, long[]> side, int levels) {
+            List<MarketDepth.PriceLevel> result = new ArrayList<>(Math.min(levels, side.size()));
+            for (Map.Entry<Long, long[]> entry : side.entrySet()) {
+                if (result.size() >= levels) {
+                    break;
+                }
+                long[] level = entry.getValue();
+                result.add(new MarketDepth.PriceLevel(entry.getKey(), priceScale, level[0], (int) level[1]));
+            }
+            return result;
+        }
+    }
+}
\ No newline at end of file
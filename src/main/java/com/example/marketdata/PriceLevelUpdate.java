@@ -0,0 +1,100 @@
+package com.example.marketdata;
+
+import com.example.models.OrderSide;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * An incremental change to one price level of a book.
+ * Updates for a symbol carry consecutive sequence numbers, so a consumer can detect a
+ * gap and line the updates up with a full snapshot.
+ */
+public class PriceLevelUpdate {
+    /**
+     * What happened to the level.
+     */
+    public enum Action {
+        NEW,
+        CHANGE,
+        DELETE
+    }
+    
+    private final String symbol;
+    private final long sequence;
+    private final Action action;
+    private final OrderSide side;
+    // Price is held as a scaled long (price = rawPrice * 10^-priceScale)
+    private final long rawPrice;
+    private final int priceScale;
+    private final long quantity;
+    private final int orderCount;
+    
+    public PriceLevelUpdate(String symbol, long sequence, Action action, OrderSide side,
+                            long rawPrice, int priceScale, long quantity, int orderCount) {
+        this.symbol = symbol;
+        this.sequence = sequence;
+        this.action = action;
+        this.side = side;
+        this.rawPrice = rawPrice;
+        this.priceScale = priceScale;
+        this.quantity = quantity;
+        this.orderCount = orderCount;
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public Action getAction() {
+        return action;
+    }
+    
+    public OrderSide getSide() {
+        return side;
+    }
+    
+    public BigDecimal getPrice() {
+        return BigDecimal.valueOf(rawPrice, priceScale);
+    }
+    
+    /**
+     * @return The quantity now at the level, zero for {@link Action#DELETE}
+     */
+    public BigInteger getQuantity() {
+        return BigInteger.valueOf(quantity);
+    }
+    
+    public long getRawPrice() {
+        return rawPrice;
+    }
+    
+    public int getPriceScale() {
+        return priceScale;
+    }
+    
+    public long getRawQuantity() {
+        return quantity;
+    }
+    
+    public int getOrderCount() {
+        return orderCount;
+    }
+    
+    @Override
+    public String toString() {
+        return "PriceLevelUpdate{" +
+                "symbol='" + symbol + '\'' +
+                ", sequence=" + sequence +
+                ", action=" + action +
+                ", side=" + side +
+                ", price=" + getPrice() +
+                ", quantity=" + quantity +
+                ", orderCount=" + orderCount +
+                '}';
+    }
+}
\ No newline at end of file
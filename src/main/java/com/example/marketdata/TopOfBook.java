@@ -0,0 +1,81 @@
+package com.example.marketdata;
+
+import com.example.models.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * Best bid and ask of a book, with the total quantity at each.
+ * Prices are held as scaled longs (price = rawPrice * 10^-priceScale), and are
+ * {@link Order#NO_PRICE} for an empty side.
+ */
+public class TopOfBook {
+    private final String symbol;
+    private final long version;
+    private final long bidPrice;
+    private final long bidQuantity;
+    private final long askPrice;
+    private final long askQuantity;
+    private final int priceScale;
+    
+    public TopOfBook(String symbol, long version, long bidPrice, long bidQuantity,
+                     long askPrice, long askQuantity, int priceScale) {
+        this.symbol = symbol;
+        this.version = version;
+        this.bidPrice = bidPrice;
+        this.bidQuantity = bidQuantity;
+        this.askPrice = askPrice;
+        this.askQuantity = askQuantity;
+        this.priceScale = priceScale;
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    /**
+     * @return The number of changes to this book's top so far; a subscriber that skipped
+     *         intermediate states sees it jump
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    public BigDecimal getBidPrice() {
+        return bidPrice == Order.NO_PRICE ? null : BigDecimal.valueOf(bidPrice, priceScale);
+    }
+    
+    public BigDecimal getAskPrice() {
+        return askPrice == Order.NO_PRICE ? null : BigDecimal.valueOf(askPrice, priceScale);
+    }
+    
+    public long getRawBidPrice() {
+        return bidPrice;
+    }
+    
+    public long getBidQuantity() {
+        return bidQuantity;
+    }
+    
+    public long getRawAskPrice() {
+        return askPrice;
+    }
+    
+    public long getAskQuantity() {
+        return askQuantity;
+    }
+    
+    public int getPriceScale() {
+        return priceScale;
+    }
+    
+    @Override
+    public String toString() {
+        return "TopOfBook{" +
+                "symbol='" + symbol + '\'' +
+                ", version=" + version +
+                ", bid=" + bidQuantity + "@" + getBidPrice() +
+                ", ask=" + askQuantity + "@" + getAskPrice() +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.marketdata;
+
+/**
+ * Receives conflated best bid/offer updates from a {@link TopOfBookService}.
+ * Each subscriber is called on its own thread; while it is busy, changes to a symbol
+ * collapse into the latest state.
+ */
+public interface TopOfBookListener {
+    
+    /**
+     * Called with the latest top of a book that changed since this subscriber last saw it.
+     * 
+     * @param topOfBook The current best bid and ask
+     */
+    void onTopOfBook(TopOfBook topOfBook);
+}
\ No newline at end of file
@@ -0,0 +1,269 @@
+package com.example.marketdata;
+
+import com.example.models.Order;
+import com.example.models.Trade;
+import com.example.orderbook.MarketDepth;
+import com.example.orderbook.OrderBook;
+import com.example.orderbook.OrderBookEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tracks the best bid and ask of every book and delivers conflated updates.
+ * <p>
+ * The matching thread only overwrites the book's current top under a sequence lock
+ * and wakes any subscriber that is not already due to look. Each subscriber runs on
+ * its own thread and, whenever it wakes, delivers the latest top of every book that
+ * changed since it last looked. A slow subscriber therefore sees fewer, newer updates
+ * instead of a backlog, and however far subscribers lag the matching thread never
+ * waits for them.
+ */
+public class TopOfBookService {
+    private static final Logger logger = LoggerFactory.getLogger(TopOfBookService.class);
+    // Subscribers also look on their own once in a while, in case a wake-up raced with parking
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    private final Map<String, BookState> booksBySymbol = new ConcurrentHashMap<>();
+    // Copy-on-write arrays, so the matching thread never allocates an iterator
+    private volatile BookState[] books = new BookState[0];
+    private volatile Subscriber[] subscribers = new Subscriber[0];
+    private int subscriberCount;
+    
+    /**
+     * Starts tracking a book, beginning from its current top. Call while the book is
+     * not being traded.
+     * 
+     * @param orderBook The book to track
+     */
+    public synchronized void addOrderBook(OrderBook orderBook) {
+        String symbol = orderBook.getSymbol();
+        if (booksBySymbol.containsKey(symbol)) {
+            throw new IllegalArgumentException("Book already tracked: " + symbol);
+        }
+        BookState book = new BookState(books.length, symbol, orderBook.getInstrument().getPriceScale());
+        MarketDepth depth = orderBook.getMarketDepth(1);
+        MarketDepth.PriceLevel bid = depth.getBestBid();
+        MarketDepth.PriceLevel ask = depth.getBestAsk();
+        // Not yet visible to other threads, so no need for the sequence lock
+        book.bidPrice = bid == null ? Order.NO_PRICE : bid.getRawPrice();
+        book.bidQuantity = bid == null ? 0 : bid.getRawQuantity();
+        book.askPrice = ask == null ? Order.NO_PRICE : ask.getRawPrice();
+        book.askQuantity = ask == null ? 0 : ask.getRawQuantity();
+        booksBySymbol.put(symbol, book);
+        BookState[] updated = Arrays.copyOf(books, books.length + 1);
+        updated[book.index] = book;
+        books = updated;
+        orderBook.registerListener(book);
+    }
+    
+    /**
+     * Gets the current top of a book. Safe to call from any thread.
+     * 
+     * @return The top of the book, or null if the symbol is not tracked
+     */
+    public TopOfBook getTopOfBook(String symbol) {
+        BookState book = booksBySymbol.get(symbol);
+        return book == null ? null : book.read();
+    }
+    
+    /**
+     * Starts delivering updates to a listener on a new thread. The listener first
+     * receives the current top of every book.
+     */
+    public synchronized void subscribe(TopOfBookListener listener) {
+        Subscriber subscriber = new Subscriber(listener, subscriberCount++);
+        Subscriber[] updated = Arrays.copyOf(subscribers, subscribers.length + 1);
+        updated[subscribers.length] = subscriber;
+        subscribers = updated;
+        subscriber.thread.start();
+    }
+    
+    /**
+     * Stops delivering updates to a listener.
+     * 
+     * @return True if the listener was subscribed
+     */
+    public synchronized boolean unsubscribe(TopOfBookListener listener) {
+        Subscriber[] current = subscribers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].listener == listener) {
+                Subscriber[] updated = new Subscriber[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscribers = updated;
+                current[i].stop();
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Stops every subscriber thread.
+     */
+    public synchronized void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.stop();
+        }
+        subscribers = new Subscriber[0];
+    }
+    
+    /**
+     * The current top of one book, written by its matching thread under a sequence lock.
+     */
+    private final class BookState implements OrderBookEventListener {
+        final int index;
+        final String symbol;
+        final int priceScale;
+        // Odd while the matching thread is writing; half of it counts the changes
+        volatile long version;
+        long bidPrice;
+        long bidQuantity;
+        long askPrice;
+        long askQuantity;
+        
+        BookState(int index, String symbol, int priceScale) {
+            this.index = index;
+            this.symbol = symbol;
+            this.priceScale = priceScale;
+        }
+        
+        void update(long bidPrice, long bidQuantity, long askPrice, long askQuantity) {
+            long current = version;
+            version = current + 1;
+            VarHandle.storeStoreFence();
+            this.bidPrice = bidPrice;
+            this.bidQuantity = bidQuantity;
+            this.askPrice = askPrice;
+            this.askQuantity = askQuantity;
+            version = current + 2;
+        }
+        
+        TopOfBook read() {
+            while (true) {
+                long before = version;
+                if ((before & 1) == 0) {
+                    long bidPrice = this.bidPrice;
+                    long bidQuantity = this.bidQuantity;
+                    long askPrice = this.askPrice;
+                    long askQuantity = this.askQuantity;
+                    VarHandle.loadLoadFence();
+                    if (version == before) {
+                        return new TopOfBook(symbol, before >> 1, bidPrice, bidQuantity, askPrice, askQuantity,
+                                priceScale);
+                    }
+                }
+                Thread.onSpinWait();
+            }
+        }
+        
+        @Override
+        public void onTopOfBookChanged(String symbol, long bidPrice, long bidQuantity, long askPrice,
+                                       long askQuantity) {
+            update(bidPrice, bidQuantity, askPrice, askQuantity);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.signal();
+            }
+        }
+        
+        @Override
+        public void onOrderAdded(Order order) {
+        }
+        
+        @Override
+        public void onOrderCanceled(UUID orderId, Order order) {
+        }
+        
+        @Override
+        public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {
+        }
+        
+        @Override
+        public void onOrderCanceled(Order order) {
+            // The fixed-point variants are overridden so the book converts nothing for this listener
+        }
+        
+        @Override
+        public void onOrderModified(Order order, long oldRawPrice, long oldQuantity) {
+        }
+        
+        @Override
+        public void onTradeExecuted(Trade trade) {
+        }
+        
+        @Override
+        public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {
+        }
+        
+        @Override
+        public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {
+        }
+    }
+    
+    private final class Subscriber implements Runnable {
+        final TopOfBookListener listener;
+        final Thread thread;
+        // Set by matching threads when there is something new to look at
+        volatile boolean pending = true;
+        volatile boolean running = true;
+        // Version last delivered per book index, only used on the subscriber thread
+        long[] delivered = new long[0];
+        
+        Subscriber(TopOfBookListener listener, int id) {
+            this.listener = listener;
+            this.thread = new Thread(this, "top-of-book-subscriber-" + id);
+            this.thread.setDaemon(true);
+        }
+        
+        void signal() {
+            if (!pending) {
+                pending = true;
+                LockSupport.unpark(thread);
+            }
+        }
+        
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+        
+        @Override
+        public void run() {
+            while (running) {
+                pending = false;
+                BookState[] books = TopOfBookService.this.books;
+                if (delivered.length < books.length) {
+                    int known = delivered.length;
+                    delivered = Arrays.copyOf(delivered, books.length);
+                    // Books this subscriber has not seen yet are delivered as they are
+                    Arrays.fill(delivered, known, books.length, -1);
+                }
+                for (BookState book : books) {
+                    if (book.version >> 1 == delivered[book.index] || !running) {
+                        continue;
+                    }
+                    TopOfBook topOfBook = book.read();
+                    delivered[book.index] = topOfBook.getVersion();
+                    try {
+                        listener.onTopOfBook(topOfBook);
+                    } catch (RuntimeException e) {
+                        logger.error("Top of book listener failed on {}", topOfBook, e);
+                    }
+                }
+                if (!pending && running) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.example.models;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing long identifiers for engine objects.
+ * IDs start at 1 so that 0 can be used as "no ID". At the protocol layer an ID
+ * is exposed as a UUID whose most significant bits are zero, so UUID-based APIs
+ * keep working without SecureRandom or a separate UUID-to-order map.
+ * <p>
+ * Trades are numbered per order book, so replaying a book's journal reproduces them. Their
+ * UUIDs carry a namespace derived from the symbol in the most significant bits, which keeps
+ * trade 7 of one book apart from trade 7 of another and from order 7.
+ */
+public final class IdGenerator {
+    /** Shared sequence for order IDs, unique across all order books. */
+    public static final IdGenerator ORDERS = new IdGenerator();
+    /**
+     * Sequence for trades created outside an order book. Books number their own trades from 1,
+     * so this one starts at 2^62 to stay clear of them.
+     */
+    public static final IdGenerator TRADES = new IdGenerator(1L << 62);
+    
+    private final AtomicLong lastId;
+    
+    private IdGenerator() {
+        this(0);
+    }
+    
+    private IdGenerator(long lastId) {
+        this.lastId = new AtomicLong(lastId);
+    }
+    
+    /**
+     * @return The next ID
+     */
+    public long next() {
+        return lastId.incrementAndGet();
+    }
+    
+    /**
+     * @return The most recently issued ID, or 0 if none has been issued
+     */
+    public long current() {
+        return lastId.get();
+    }
+    
+    /**
+     * Ensures IDs issued from now on are greater than the given ID.
+     * 
+     * @param id An ID that has already been used
+     */
+    public void advanceTo(long id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+    
+    /**
+     * Converts an engine ID to its protocol-level UUID form.
+     * 
+     * @param id The engine ID
+     * @return The UUID representation
+     */
+    public static UUID toUuid(long id) {
+        return new UUID(0L, id);
+    }
+    
+    /**
+     * Converts a trade ID to its protocol-level UUID form.
+     * 
+     * @param symbol The symbol of the book that numbered the trade
+     * @param id The trade ID, unique within that book
+     * @return The UUID representation, never one issued for an order
+     */
+    public static UUID toTradeUuid(String symbol, long id) {
+        // 64-bit FNV-1a of the symbol, with the top bit set so it is never 0
+        long namespace = 0xcbf29ce484222325L;
+        for (int i = 0; i < symbol.length(); i++) {
+            namespace ^= symbol.charAt(i);
+            namespace *= 0x100000001b3L;
+        }
+        return new UUID(namespace | Long.MIN_VALUE, id);
+    }
+    
+    /**
+     * Converts a protocol-level UUID back to an engine ID.
+     * 
+     * @param uuid The UUID
+     * @return The engine ID, or 0 if the UUID was not issued by the engine
+     */
+    public static long fromUuid(UUID uuid) {
+        if (uuid == null || uuid.getMostSignificantBits() != 0L) {
+            return 0L;
+        }
+        return uuid.getLeastSignificantBits();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.example.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Static trading definition for a symbol.
+ * Inside the matching core prices are carried as longs scaled by 10^priceScale,
+ * and must be a whole multiple of the tick size (expressed in the same scaled units).
+ */
+public class Instrument {
+    public static final int DEFAULT_PRICE_SCALE = 2;
+    public static final long DEFAULT_TICK_SIZE = 1;
+    
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+    
+    private final String symbol;
+    private final int priceScale;
+    private final long tickSize;
+    
+    public Instrument(String symbol, int priceScale, long tickSize) {
+        if (priceScale < 0 || priceScale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Invalid price scale: " + priceScale);
+        }
+        if (tickSize <= 0) {
+            throw new IllegalArgumentException("Invalid tick size: " + tickSize);
+        }
+        this.symbol = symbol;
+        this.priceScale = priceScale;
+        this.tickSize = tickSize;
+    }
+    
+    /**
+     * Creates an instrument with the default scale (cents) and a one-unit tick.
+     * 
+     * @param symbol The trading symbol
+     * @return The instrument definition
+     */
+    public static Instrument of(String symbol) {
+        return new Instrument(symbol, DEFAULT_PRICE_SCALE, DEFAULT_TICK_SIZE);
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public int getPriceScale() {
+        return priceScale;
+    }
+    
+    public long getTickSize() {
+        return tickSize;
+    }
+    
+    /**
+     * Converts a decimal price into this instrument's scaled representation.
+     * 
+     * @param price The decimal price
+     * @return The scaled price, or {@link Order#NO_PRICE} if the price is null or
+     *         cannot be represented exactly at this instrument's scale
+     */
+    public long toRawPrice(BigDecimal price) {
+        if (price == null) {
+            return Order.NO_PRICE;
+        }
+        try {
+            return price.setScale(priceScale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return Order.NO_PRICE;
+        }
+    }
+    
+    /**
+     * Converts a scaled price back into a decimal price.
+     * 
+     * @param rawPrice The scaled price
+     * @return The decimal price, or null for {@link Order#NO_PRICE}
+     */
+    public BigDecimal toPrice(long rawPrice) {
+        return rawPrice == Order.NO_PRICE ? null : BigDecimal.valueOf(rawPrice, priceScale);
+    }
+    
+    /**
+     * Rescales a price expressed at another scale to this instrument's scale
+     * using long arithmetic only.
+     * 
+     * @param rawPrice The scaled price
+     * @param scale The scale rawPrice is expressed at
+     * @return The price at this instrument's scale, or {@link Order#NO_PRICE} if it
+     *         cannot be represented exactly
+     */
+    public long rescale(long rawPrice, int scale) {
+        if (rawPrice == Order.NO_PRICE || scale < 0 || scale >= POWERS_OF_TEN.length) {
+            return Order.NO_PRICE;
+        }
+        if (scale == priceScale) {
+            return rawPrice;
+        }
+        if (scale < priceScale) {
+            try {
+                return Math.multiplyExact(rawPrice, POWERS_OF_TEN[priceScale - scale]);
+            } catch (ArithmeticException e) {
+                return Order.NO_PRICE;
+            }
+        }
+        long divisor = POWERS_OF_TEN[scale - priceScale];
+        return rawPrice % divisor == 0 ? rawPrice / divisor : Order.NO_PRICE;
+    }
+    
+    /**
+     * Checks that a scaled price lies on this instrument's tick grid.
+     * 
+     * @param rawPrice The scaled price
+     * @return True if the price is tradable
+     */
+    public boolean isValidPrice(long rawPrice) {
+        return rawPrice != Order.NO_PRICE && rawPrice % tickSize == 0;
+    }
+    
+    @Override
+    public String toString() {
+        return "Instrument{" +
+                "symbol='" + symbol + '\'' +
+                ", priceScale=" + priceScale +
+                ", tickSize=" + tickSize +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.example.models;
+
+import java.time.Instant;
+
+/**
+ * Source of wall-clock timestamps as nanoseconds since the epoch.
+ * Timestamps are carried as plain longs in the matching core and only turned into
+ * {@link Instant}s at the edges.
+ */
+@FunctionalInterface
+public interface NanoClock {
+    /**
+     * System clock that reads the wall clock once and then advances with
+     * System.nanoTime(), so reading it never allocates and never goes backwards.
+     */
+    NanoClock SYSTEM = new NanoClock() {
+        private final long baseEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        private final long baseNanoTime = System.nanoTime();
+        
+        @Override
+        public long nanoTime() {
+            return baseEpochNanos + (System.nanoTime() - baseNanoTime);
+        }
+    };
+    
+    /**
+     * @return The current time in nanoseconds since the epoch
+     */
+    long nanoTime();
+    
+    /**
+     * Converts a nanosecond timestamp to an Instant.
+     * 
+     * @param epochNanos Nanoseconds since the epoch
+     * @return The equivalent Instant
+     */
+    static Instant toInstant(long epochNanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L), Math.floorMod(epochNanos, 1_000_000_000L));
+    }
+}
\ No newline at end of file
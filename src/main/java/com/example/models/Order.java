@@ -1,38 +1,93 @@
 package com.example.models;
 
+import com.example.orderbook.PriceLevelQueue;
+
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.time.Instant;
 import java.util.UUID;
 
 public class Order {
-    private final UUID id;
-    private final String symbol;
-    private final OrderType type;
-    private final OrderSide side;
-    private BigDecimal price;
-    private BigInteger quantity;
-    private BigInteger filledQuantity;
+    /** Sentinel raw price for orders without a price. */
+    public static final long NO_PRICE = Long.MIN_VALUE;
+    
+    // Fields are only reassigned when a pooled order is recycled
+    private long id;
+    private UUID uuid; // Protocol-level form of id, created on first use
+    private String symbol;
+    private OrderType type;
+    private OrderSide side;
+    // Prices are held as a scaled long (price = rawPrice * 10^-priceScale)
+    private long rawPrice;
+    private int priceScale;
+    private long quantity;
+    private long filledQuantity;
     private OrderStatus status;
-    private final TimeInForce timeInForce;
-    private final Instant createdAt;
-    private Instant updatedAt;
-    private final String clientOrderId; // Added clientOrderId field
+    private TimeInForce timeInForce;
+    // Timestamps in nanoseconds since the epoch
+    private long createdNanos;
+    private long updatedNanos;
+    private String clientOrderId; // Added clientOrderId field
+    // Intrusive links maintained by the order book while the order rests
+    private PriceLevelQueue level;
+    private Order prevInLevel;
+    private Order nextInLevel;
+    // Owning pool, or null for orders created with new
+    private final OrderPool pool;
+    private boolean inUse;
     
     public Order(String symbol, OrderType type, OrderSide side, BigDecimal price, 
                 BigInteger quantity, TimeInForce timeInForce, String clientOrderId) {
-        this.id = UUID.randomUUID();
-        this.symbol = symbol;
-        this.type = type;
-        this.side = side;
-        this.price = price;
-        this.quantity = quantity;
-        this.filledQuantity = BigInteger.ZERO;
-        this.status = OrderStatus.NEW;
-        this.timeInForce = timeInForce != null ? timeInForce : TimeInForce.GTC;
-        this.createdAt = Instant.now();
-        this.updatedAt = this.createdAt;
-        this.clientOrderId = clientOrderId; // Initialize clientOrderId
+        this(symbol, type, side, NO_PRICE, 0, quantity.longValueExact(), timeInForce, clientOrderId);
+        assignPrice(price);
+    }
+    
+    /**
+     * Creates an order from fixed-point values.
+     * 
+     * @param rawPrice The price scaled by 10^priceScale, or {@link #NO_PRICE}
+     * @param priceScale The scale of rawPrice
+     * @param quantity The order quantity
+     */
+    public Order(String symbol, OrderType type, OrderSide side, long rawPrice, int priceScale,
+                long quantity, TimeInForce timeInForce, String clientOrderId) {
+        this.pool = null;
+        init(IdGenerator.ORDERS.next(), symbol, type, side, rawPrice, priceScale, quantity, timeInForce, clientOrderId);
+    }
+    
+    /**
+     * Recreates an order exactly as it was, for recovery from a snapshot or journal.
+     * Unlike the constructors this does not draw a new ID.
+     */
+    public static Order restore(long id, String symbol, OrderType type, OrderSide side, long rawPrice,
+                                int priceScale, long quantity, long filledQuantity, OrderStatus status,
+                                TimeInForce timeInForce, String clientOrderId, long createdNanos, long updatedNanos) {
+        Order order = new Order((OrderPool) null);
+        order.init(id, symbol, type, side, rawPrice, priceScale, quantity, timeInForce, clientOrderId);
+        order.filledQuantity = filledQuantity;
+        order.status = status;
+        order.createdNanos = createdNanos;
+        order.updatedNanos = updatedNanos;
+        return order;
+    }
+    
+    /**
+     * Creates an empty order to be filled in with {@link #copyFrom}.
+     */
+    public static Order blank() {
+        return new Order((OrderPool) null);
+    }
+    
+    // Empty order owned by a pool; initialised on acquire
+    Order(OrderPool pool) {
+        this.pool = pool;
+    }
+    
+    // Convenience constructor for fixed-point values at the instrument's scale
+    public Order(Instrument instrument, OrderType type, OrderSide side, long rawPrice,
+                long quantity, TimeInForce timeInForce, String clientOrderId) {
+        this(instrument.getSymbol(), type, side, rawPrice, instrument.getPriceScale(),
+                quantity, timeInForce, clientOrderId);
     }
     
     // Convenience constructor without clientOrderId
@@ -49,6 +104,18 @@ public class Order {
     
     // Getters
     public UUID getId() {
+        UUID uuid = this.uuid;
+        if (uuid == null) {
+            uuid = IdGenerator.toUuid(id);
+            this.uuid = uuid;
+        }
+        return uuid;
+    }
+    
+    /**
+     * @return The engine-assigned order ID
+     */
+    public long getRawId() {
         return id;
     }
     
@@ -65,15 +132,15 @@ public class Order {
     }
     
     public BigDecimal getPrice() {
-        return price;
+        return rawPrice == NO_PRICE ? null : BigDecimal.valueOf(rawPrice, priceScale);
     }
     
     public BigInteger getQuantity() {
-        return quantity;
+        return BigInteger.valueOf(quantity);
     }
     
     public BigInteger getFilledQuantity() {
-        return filledQuantity;
+        return BigInteger.valueOf(filledQuantity);
     }
     
     public OrderStatus getStatus() {
@@ -85,36 +152,198 @@ public class Order {
     }
     
     public Instant getCreatedAt() {
-        return createdAt;
+        return NanoClock.toInstant(createdNanos);
     }
     
     public Instant getUpdatedAt() {
-        return updatedAt;
+        return NanoClock.toInstant(updatedNanos);
+    }
+    
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+    
+    public long getUpdatedNanos() {
+        return updatedNanos;
+    }
+    
+    /**
+     * Stamps the last update time; the order book uses this to apply its own clock.
+     * 
+     * @param updatedNanos Nanoseconds since the epoch
+     */
+    public void setUpdatedNanos(long updatedNanos) {
+        this.updatedNanos = updatedNanos;
     }
     
     public String getClientOrderId() {
         return clientOrderId;
     }
     
-    // Setters for mutable fields
+    // Fixed-point getters used by the matching core
+    public long getRawPrice() {
+        return rawPrice;
+    }
+    
+    public int getPriceScale() {
+        return priceScale;
+    }
+    
+    public long getRawQuantity() {
+        return quantity;
+    }
+    
+    public long getRawFilledQuantity() {
+        return filledQuantity;
+    }
+    
+    public long getRawRemainingQuantity() {
+        return quantity - filledQuantity;
+    }
+    
+    // Setters for mutable fields; the order book stamps updatedNanos with its own clock
     public void setPrice(BigDecimal price) {
-        this.price = price;
-        this.updatedAt = Instant.now();
+        assignPrice(price);
     }
     
     public void setQuantity(BigInteger quantity) {
-        this.quantity = quantity;
-        this.updatedAt = Instant.now();
+        setRawQuantity(quantity.longValueExact());
     }
     
     public void setFilledQuantity(BigInteger filledQuantity) {
-        this.filledQuantity = filledQuantity;
-        this.updatedAt = Instant.now();
+        setRawFilledQuantity(filledQuantity.longValueExact());
     }
     
     public void setStatus(OrderStatus status) {
         this.status = status;
-        this.updatedAt = Instant.now();
+    }
+    
+    public void setRawPrice(long rawPrice, int priceScale) {
+        this.rawPrice = rawPrice;
+        this.priceScale = priceScale;
+    }
+    
+    public void setRawQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+    
+    public void setRawFilledQuantity(long filledQuantity) {
+        this.filledQuantity = filledQuantity;
+    }
+    
+    // Price level membership, maintained by PriceLevelQueue only
+    public PriceLevelQueue getLevel() {
+        return level;
+    }
+    
+    public void setLevel(PriceLevelQueue level) {
+        this.level = level;
+    }
+    
+    public Order getPrevInLevel() {
+        return prevInLevel;
+    }
+    
+    public void setPrevInLevel(Order prevInLevel) {
+        this.prevInLevel = prevInLevel;
+    }
+    
+    public Order getNextInLevel() {
+        return nextInLevel;
+    }
+    
+    public void setNextInLevel(Order nextInLevel) {
+        this.nextInLevel = nextInLevel;
+    }
+    
+    /**
+     * Overwrites this order with the current state of another, for taking snapshots
+     * of orders into preallocated slots. Book links are not copied.
+     * 
+     * @param source The order to copy
+     */
+    public void copyFrom(Order source) {
+        this.id = source.id;
+        this.uuid = source.uuid;
+        this.symbol = source.symbol;
+        this.type = source.type;
+        this.side = source.side;
+        this.rawPrice = source.rawPrice;
+        this.priceScale = source.priceScale;
+        this.quantity = source.quantity;
+        this.filledQuantity = source.filledQuantity;
+        this.status = source.status;
+        this.timeInForce = source.timeInForce;
+        this.createdNanos = source.createdNanos;
+        this.updatedNanos = source.updatedNanos;
+        this.clientOrderId = source.clientOrderId;
+        clearLinks();
+    }
+    
+    /**
+     * Hands a pooled order back to its pool; does nothing for other orders.
+     * The order must not be used after this call.
+     */
+    public void release() {
+        if (pool != null) {
+            pool.release(this);
+        }
+    }
+    
+    /**
+     * @return True if this order came from an {@link OrderPool} and will be recycled
+     */
+    public boolean isPooled() {
+        return pool != null;
+    }
+    
+    OrderPool getPool() {
+        return pool;
+    }
+    
+    // True while a pooled order has been acquired and not yet released
+    boolean isInUse() {
+        return inUse;
+    }
+    
+    void setInUse(boolean inUse) {
+        this.inUse = inUse;
+    }
+    
+    void clearLinks() {
+        this.level = null;
+        this.prevInLevel = null;
+        this.nextInLevel = null;
+    }
+    
+    final void init(long id, String symbol, OrderType type, OrderSide side, long rawPrice, int priceScale,
+                    long quantity, TimeInForce timeInForce, String clientOrderId) {
+        this.id = id;
+        this.uuid = null;
+        this.symbol = symbol;
+        this.type = type;
+        this.side = side;
+        this.rawPrice = rawPrice;
+        this.priceScale = priceScale;
+        this.quantity = quantity;
+        this.filledQuantity = 0;
+        this.status = OrderStatus.NEW;
+        this.timeInForce = timeInForce != null ? timeInForce : TimeInForce.GTC;
+        this.createdNanos = NanoClock.SYSTEM.nanoTime();
+        this.updatedNanos = this.createdNanos;
+        this.clientOrderId = clientOrderId;
+        clearLinks();
+    }
+    
+    private void assignPrice(BigDecimal price) {
+        if (price == null) {
+            this.rawPrice = NO_PRICE;
+            this.priceScale = 0;
+        } else {
+            BigDecimal normalized = price.scale() < 0 ? price.setScale(0) : price;
+            this.rawPrice = normalized.unscaledValue().longValueExact();
+            this.priceScale = normalized.scale();
+        }
     }
     
     @Override
@@ -125,13 +354,13 @@ public class Order {
                 ", symbol='" + symbol + '\'' +
                 ", type=" + type +
                 ", side=" + side +
-                ", price=" + price +
+                ", price=" + getPrice() +
                 ", quantity=" + quantity +
                 ", filledQuantity=" + filledQuantity +
                 ", status=" + status +
                 ", timeInForce=" + timeInForce +
-                ", createdAt=" + createdAt +
-                ", updatedAt=" + updatedAt +
+                ", createdAt=" + getCreatedAt() +
+                ", updatedAt=" + getUpdatedAt() +
                 '}';
     }
 }
\ No newline at end of file
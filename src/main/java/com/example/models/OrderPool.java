@@ -0,0 +1,92 @@
+package com.example.models;
+
+/**
+ * Free list of recyclable orders.
+ * An order taken from the pool is handed back automatically by the order book once
+ * it reaches a terminal state (filled or canceled); after that the caller must not
+ * keep using it. Orders that never make it into a book (for example because they
+ * were rejected) should be returned with {@link #release}.
+ * <p>
+ * The pool is not thread-safe: it belongs to the thread that runs the book.
+ */
+public final class OrderPool {
+    private final Order[] free;
+    private int available;
+    private long created;
+    
+    /**
+     * @param capacity The maximum number of idle orders kept for reuse
+     */
+    public OrderPool(int capacity) {
+        this(capacity, 0);
+    }
+    
+    /**
+     * @param capacity The maximum number of idle orders kept for reuse
+     * @param preallocate The number of orders to create up front
+     */
+    public OrderPool(int capacity, int preallocate) {
+        if (capacity <= 0 || preallocate > capacity) {
+            throw new IllegalArgumentException("Invalid pool size: " + capacity + "/" + preallocate);
+        }
+        this.free = new Order[capacity];
+        for (int i = 0; i < preallocate; i++) {
+            free[available++] = newOrder();
+        }
+    }
+    
+    /**
+     * Takes an order from the pool (or creates one if the pool is empty) and
+     * initialises it with a fresh ID.
+     */
+    public Order acquire(Instrument instrument, OrderType type, OrderSide side, long rawPrice,
+                         long quantity, TimeInForce timeInForce, String clientOrderId) {
+        Order order;
+        if (available > 0) {
+            order = free[--available];
+            free[available] = null;
+        } else {
+            order = newOrder();
+        }
+        order.init(IdGenerator.ORDERS.next(), instrument.getSymbol(), type, side, rawPrice, instrument.getPriceScale(),
+                quantity, timeInForce, clientOrderId);
+        order.setInUse(true);
+        return order;
+    }
+    
+    /**
+     * Returns an order to the pool. Releasing an order twice, or one that belongs to
+     * another pool, has no effect.
+     * 
+     * @param order The order to recycle
+     */
+    public void release(Order order) {
+        if (order.getPool() != this || !order.isInUse()) {
+            return;
+        }
+        order.setInUse(false);
+        order.clearLinks();
+        if (available < free.length) {
+            free[available++] = order;
+        }
+    }
+    
+    /**
+     * @return The number of idle orders ready for reuse
+     */
+    public int getAvailable() {
+        return available;
+    }
+    
+    /**
+     * @return The number of orders this pool has ever created
+     */
+    public long getCreatedCount() {
+        return created;
+    }
+    
+    private Order newOrder() {
+        created++;
+        return new Order(this);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.example.models;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interns instrument symbols as small dense integer IDs, starting at 0.
+ * <p>
+ * Symbols can be resolved straight from the ASCII bytes of a protocol field, without
+ * creating a String, through an open-addressing hash table. Registration is rare and
+ * rebuilds the table; lookups read an immutable snapshot, so they take no lock and are
+ * safe from any thread.
+ */
+public final class SymbolRegistry {
+    /** Returned for symbols that have not been registered. */
+    public static final int UNKNOWN = -1;
+    
+    private volatile Table table = new Table(new String[0]);
+    
+    /**
+     * Registers a symbol, or finds it if it is already registered.
+     * 
+     * @param symbol The symbol; ASCII only
+     * @return The symbol's ID
+     */
+    public synchronized int register(String symbol) {
+        Table current = table;
+        int id = current.find(symbol);
+        if (id != UNKNOWN) {
+            return id;
+        }
+        for (int i = 0; i < symbol.length(); i++) {
+            if (symbol.charAt(i) > 0x7F) {
+                throw new IllegalArgumentException("Symbol is not ASCII: " + symbol);
+            }
+        }
+        String[] symbols = new String[current.symbols.length + 1];
+        System.arraycopy(current.symbols, 0, symbols, 0, current.symbols.length);
+        symbols[current.symbols.length] = symbol;
+        table = new Table(symbols);
+        return current.symbols.length;
+    }
+    
+    /**
+     * @return The symbol's ID, or {@link #UNKNOWN}
+     */
+    public int getId(String symbol) {
+        return table.find(symbol);
+    }
+    
+    /**
+     * Resolves a symbol from a fixed-width ASCII field, ignoring trailing spaces and NULs.
+     * Reads at absolute offsets and allocates nothing.
+     * 
+     * @param buffer Holds the field
+     * @param offset Where the field starts
+     * @param length The width of the field
+     * @return The symbol's ID, or {@link #UNKNOWN}
+     */
+    public int getId(ByteBuffer buffer, int offset, int length) {
+        while (length > 0) {
+            byte b = buffer.get(offset + length - 1);
+            if (b != 0 && b != ' ') {
+                break;
+            }
+            length--;
+        }
+        return table.find(buffer, offset, length);
+    }
+    
+    /**
+     * @return The symbol registered under the ID, or null
+     */
+    public String getSymbol(int id) {
+        String[] symbols = table.symbols;
+        return id >= 0 && id < symbols.length ? symbols[id] : null;
+    }
+    
+    public int size() {
+        return table.symbols.length;
+    }
+    
+    // Immutable snapshot: symbols by ID and a hash index over their bytes
+    private static final class Table {
+        private final String[] symbols;
+        private final byte[][] bytes;
+        // ID + 1 at each slot, 0 for an empty slot
+        private final int[] slots;
+        private final int mask;
+        
+        Table(String[] symbols) {
+            this.symbols = symbols;
+            this.bytes = new byte[symbols.length][];
+            int capacity = Integer.highestOneBit(Math.max(symbols.length, 4) * 4 - 1) << 1;
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+            for (int id = 0; id < symbols.length; id++) {
+                String symbol = symbols[id];
+                byte[] symbolBytes = new byte[symbol.length()];
+                for (int i = 0; i < symbolBytes.length; i++) {
+                    symbolBytes[i] = (byte) symbol.charAt(i);
+                }
+                bytes[id] = symbolBytes;
+                int slot = hash(symbol) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = id + 1;
+            }
+        }
+        
+        int find(String symbol) {
+            int slot = hash(symbol) & mask;
+            while (slots[slot] != 0) {
+                int id = slots[slot] - 1;
+                if (symbols[id].equals(symbol)) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return UNKNOWN;
+        }
+        
+        int find(ByteBuffer buffer, int offset, int length) {
+            int slot = hash(buffer, offset, length) & mask;
+            while (slots[slot] != 0) {
+                int id = slots[slot] - 1;
+                if (matches(bytes[id], buffer, offset, length)) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return UNKNOWN;
+        }
+        
+        private static boolean matches(byte[] symbolBytes, ByteBuffer buffer, int offset, int length) {
+            if (symbolBytes.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (symbolBytes[i] != buffer.get(offset + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        // FNV-1a over the ASCII bytes, so both lookups agree
+        private static int hash(String symbol) {
+            int hash = 0x811C9DC5;
+            for (int i = 0; i < symbol.length(); i++) {
+                hash = (hash ^ (symbol.charAt(i) & 0xFF)) * 0x01000193;
+            }
+            return hash ^ (hash >>> 16);
+        }
+        
+        private static int hash(ByteBuffer buffer, int offset, int length) {
+            int hash = 0x811C9DC5;
+            for (int i = 0; i < length; i++) {
+                hash = (hash ^ (buffer.get(offset + i) & 0xFF)) * 0x01000193;
+            }
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
\ No newline at end of file
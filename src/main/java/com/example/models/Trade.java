@@ -10,39 +10,113 @@ import java.util.UUID;
  * A trade occurs when a buy order matches with a sell order.
  */
 public class Trade {
-    private final UUID id;
-    private final UUID buyOrderId;
-    private final UUID sellOrderId;
-    private final String symbol;
-    private final BigDecimal price;
-    private final BigInteger quantity;
-    private final BigDecimal fee;
-    private final Instant executionTime;
-    private final String feeSymbol;
-    
-    public Trade(UUID buyOrderId, UUID sellOrderId, String symbol, 
+    // Engine-assigned IDs; UUID forms are derived on demand for the protocol layer
+    private long id;
+    private long buyOrderId;
+    private long sellOrderId;
+    private String symbol;
+    // Price is held as a scaled long (price = rawPrice * 10^-priceScale)
+    private long rawPrice;
+    private int priceScale;
+    private long quantity;
+    private BigDecimal fee;
+    private long executionNanos; // Nanoseconds since the epoch
+    private String feeSymbol;
+    
+    public Trade(UUID buyOrderId, UUID sellOrderId, String symbol,
                 BigDecimal price, BigInteger quantity, BigDecimal fee, String feeSymbol) {
-        this.id = UUID.randomUUID();
+        this(IdGenerator.TRADES.next(), IdGenerator.fromUuid(buyOrderId), IdGenerator.fromUuid(sellOrderId),
+                symbol, price.unscaledValue().longValueExact(), price.scale(), quantity.longValueExact(), fee, feeSymbol);
+    }
+    
+    /**
+     * Creates a trade from engine IDs and fixed-point values.
+     * 
+     * @param id The trade ID, unique within the order book that produced it
+     * @param buyOrderId The engine ID of the buy order
+     * @param sellOrderId The engine ID of the sell order
+     * @param rawPrice The execution price scaled by 10^priceScale
+     * @param priceScale The scale of rawPrice
+     * @param quantity The executed quantity
+     */
+    public Trade(long id, long buyOrderId, long sellOrderId, String symbol,
+                long rawPrice, int priceScale, long quantity, BigDecimal fee, String feeSymbol) {
+        this(id, buyOrderId, sellOrderId, symbol, rawPrice, priceScale, quantity, fee, feeSymbol,
+                NanoClock.SYSTEM.nanoTime());
+    }
+    
+    /**
+     * Creates a trade with an explicit execution time, so that replays reproduce it exactly.
+     * 
+     * @param executionNanos The execution time in nanoseconds since the epoch
+     */
+    public Trade(long id, long buyOrderId, long sellOrderId, String symbol, long rawPrice, int priceScale,
+                long quantity, BigDecimal fee, String feeSymbol, long executionNanos) {
+        init(id, buyOrderId, sellOrderId, symbol, rawPrice, priceScale, quantity, fee, feeSymbol, executionNanos);
+    }
+    
+    // Empty trade owned by a pool; initialised on acquire
+    Trade() {
+    }
+    
+    /**
+     * Creates an empty trade to be filled in with {@link #copyFrom}.
+     */
+    public static Trade blank() {
+        return new Trade();
+    }
+    
+    /**
+     * Overwrites this trade with another, for taking snapshots of trades into
+     * preallocated slots.
+     * 
+     * @param source The trade to copy
+     */
+    public void copyFrom(Trade source) {
+        init(source.id, source.buyOrderId, source.sellOrderId, source.symbol, source.rawPrice, source.priceScale,
+                source.quantity, source.fee, source.feeSymbol, source.executionNanos);
+    }
+    
+    final void init(long id, long buyOrderId, long sellOrderId, String symbol, long rawPrice, int priceScale,
+                    long quantity, BigDecimal fee, String feeSymbol, long executionNanos) {
+        this.id = id;
         this.buyOrderId = buyOrderId;
         this.sellOrderId = sellOrderId;
         this.symbol = symbol;
-        this.price = price;
+        this.rawPrice = rawPrice;
+        this.priceScale = priceScale;
         this.quantity = quantity;
-        this.executionTime = Instant.now();
+        this.executionNanos = executionNanos;
         this.fee = fee;
         this.feeSymbol = feeSymbol;
     }
     
-    // Getters - all fields are final so no setters needed
+    // Getters - fields only change when a pooled trade is recycled, so no setters
+    /**
+     * @return The trade ID in the symbol's trade namespace
+     * @see IdGenerator#toTradeUuid(String, long)
+     */
     public UUID getId() {
-        return id;
+        return IdGenerator.toTradeUuid(symbol, id);
     }
     
     public UUID getBuyOrderId() {
-        return buyOrderId;
+        return IdGenerator.toUuid(buyOrderId);
     }
     
     public UUID getSellOrderId() {
+        return IdGenerator.toUuid(sellOrderId);
+    }
+    
+    public long getRawId() {
+        return id;
+    }
+    
+    public long getRawBuyOrderId() {
+        return buyOrderId;
+    }
+    
+    public long getRawSellOrderId() {
         return sellOrderId;
     }
     
@@ -51,15 +125,31 @@ public class Trade {
     }
     
     public BigDecimal getPrice() {
-        return price;
+        return BigDecimal.valueOf(rawPrice, priceScale);
     }
     
     public BigInteger getQuantity() {
+        return BigInteger.valueOf(quantity);
+    }
+    
+    public long getRawPrice() {
+        return rawPrice;
+    }
+    
+    public int getPriceScale() {
+        return priceScale;
+    }
+    
+    public long getRawQuantity() {
         return quantity;
     }
     
     public Instant getExecutionTime() {
-        return executionTime;
+        return NanoClock.toInstant(executionNanos);
+    }
+    
+    public long getExecutionNanos() {
+        return executionNanos;
     }
     
     public BigDecimal getFee() {
@@ -75,7 +165,7 @@ public class Trade {
      * @return The total value (price * quantity)
      */
     public BigDecimal getTotalValue() {
-        return price.multiply(new BigDecimal(quantity));
+        return BigDecimal.valueOf(rawPrice, priceScale).multiply(BigDecimal.valueOf(quantity));
     }
     
     @Override
@@ -85,9 +175,9 @@ public class Trade {
                 ", buyOrderId=" + buyOrderId +
                 ", sellOrderId=" + sellOrderId +
                 ", symbol='" + symbol + '\'' +
-                ", price=" + price +
+                ", price=" + getPrice() +
                 ", quantity=" + quantity +
-                ", executionTime=" + executionTime +
+                ", executionTime=" + getExecutionTime() +
                 ", fee=" + fee +
                 ", feeSymbol='" + feeSymbol + '\'' +
                 '}';
@@ -0,0 +1,70 @@
+package com.example.models;
+
+import java.math.BigDecimal;
+
+/**
+ * Free list of recyclable trades.
+ * A book that draws its trades from a pool releases each trade as soon as its
+ * listeners have been notified, so a pooled trade is only valid for the duration of
+ * the callback that receives it.
+ * <p>
+ * The pool is not thread-safe: it belongs to the thread that runs the book.
+ */
+public final class TradePool {
+    private final Trade[] free;
+    private int available;
+    private long created;
+    
+    /**
+     * @param capacity The maximum number of idle trades kept for reuse
+     */
+    public TradePool(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid pool size: " + capacity);
+        }
+        this.free = new Trade[capacity];
+    }
+    
+    /**
+     * Takes a trade from the pool (or creates one if the pool is empty) and
+     * initialises it.
+     */
+    public Trade acquire(long id, long buyOrderId, long sellOrderId, String symbol, long rawPrice,
+                         int priceScale, long quantity, BigDecimal fee, String feeSymbol, long executionNanos) {
+        Trade trade;
+        if (available > 0) {
+            trade = free[--available];
+            free[available] = null;
+        } else {
+            created++;
+            trade = new Trade();
+        }
+        trade.init(id, buyOrderId, sellOrderId, symbol, rawPrice, priceScale, quantity, fee, feeSymbol, executionNanos);
+        return trade;
+    }
+    
+    /**
+     * Returns a trade to the pool.
+     * 
+     * @param trade The trade to recycle
+     */
+    public void release(Trade trade) {
+        if (available < free.length) {
+            free[available++] = trade;
+        }
+    }
+    
+    /**
+     * @return The number of idle trades ready for reuse
+     */
+    public int getAvailable() {
+        return available;
+    }
+    
+    /**
+     * @return The number of trades this pool has ever created
+     */
+    public long getCreatedCount() {
+        return created;
+    }
+}
\ No newline at end of file
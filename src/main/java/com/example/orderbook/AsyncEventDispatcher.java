@@ -0,0 +1,389 @@
+package com.example.orderbook;
+
+import com.example.models.Order;
+import com.example.models.Trade;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.LifecycleAware;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves listener work off the matching thread.
+ * <p>
+ * Register the dispatcher on one or more books in place of the real listeners. On the
+ * matching thread it only copies each event, including the order or trade it concerns,
+ * into a preallocated slot of a Disruptor ring. Every listener added to the dispatcher
+ * then runs on its own thread and tracks its own position in the ring, so a slow
+ * listener neither delays matching nor the other listeners. When the slowest listener
+ * falls a whole ring behind, the {@link BackpressurePolicy} decides whether matching
+ * waits or the event is dropped.
+ * <p>
+ * Listeners receive copies of orders and trades that are only valid during the
+ * callback: they are not linked into the book and are reused for later events.
+ */
+public class AsyncEventDispatcher implements OrderBookEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncEventDispatcher.class);
+    public static final int DEFAULT_BUFFER_SIZE = 4096;
+    
+    private enum EventType {
+        ORDER_ADDED,
+        ORDER_CANCELED,
+        ORDER_MODIFIED,
+        TRADE_EXECUTED,
+        BEST_BID_CHANGED,
+        BEST_ASK_CHANGED,
+        PRICE_LEVEL_CHANGED,
+        TOP_OF_BOOK_CHANGED,
+        COMMAND_COMPLETE,
+        END_OF_BATCH
+    }
+    
+    private final Disruptor<Event> disruptor;
+    private final RingBuffer<Event> ringBuffer;
+    private final BackpressurePolicy backpressurePolicy;
+    private final List<ListenerHandler> handlers;
+    private final AtomicLong dropped;
+    private boolean started;
+    private boolean stopped;
+    
+    public AsyncEventDispatcher() {
+        this(DEFAULT_BUFFER_SIZE, BackpressurePolicy.BLOCK);
+    }
+    
+    /**
+     * @param bufferSize The ring size; must be a power of 2
+     * @param backpressurePolicy What to do when the slowest listener is a whole ring behind
+     */
+    public AsyncEventDispatcher(int bufferSize, BackpressurePolicy backpressurePolicy) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.disruptor = new Disruptor<>(
+                Event::new,
+                bufferSize,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-book-listener-" + threadCount.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                ProducerType.MULTI,
+                new BlockingWaitStrategy());
+        this.ringBuffer = disruptor.getRingBuffer();
+        this.backpressurePolicy = backpressurePolicy;
+        this.handlers = new ArrayList<>();
+        this.dropped = new AtomicLong();
+    }
+    
+    /**
+     * Adds a listener, which will run on a thread of its own. Must be called before {@link #start}.
+     */
+    public synchronized void addListener(OrderBookEventListener listener) {
+        if (started) {
+            throw new IllegalStateException("Listeners must be added before the dispatcher is started");
+        }
+        handlers.add(new ListenerHandler(listener));
+    }
+    
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        CountDownLatch running = new CountDownLatch(handlers.size());
+        for (ListenerHandler handler : handlers) {
+            handler.running = running;
+        }
+        disruptor.handleEventsWith(handlers.toArray(new ListenerHandler[0]));
+        disruptor.start();
+        started = true;
+        // The Disruptor only drains listeners whose threads are up, so a shutdown straight
+        // after start could otherwise discard captured events
+        try {
+            running.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Lets every listener catch up with the events already captured, then stops their threads.
+     */
+    public synchronized void shutdown() {
+        if (!started || stopped) {
+            return;
+        }
+        disruptor.shutdown();
+        stopped = true;
+    }
+    
+    /**
+     * @return The ring sequence of the last event captured, or -1 if there has been none
+     */
+    public long getPublishedSequence() {
+        return ringBuffer.getCursor();
+    }
+    
+    /**
+     * @return The ring sequence of the last event the listener has finished with, or
+     *         -1 if the listener is unknown or has handled nothing yet
+     */
+    public synchronized long getListenerSequence(OrderBookEventListener listener) {
+        for (ListenerHandler handler : handlers) {
+            if (handler.listener == listener) {
+                return started ? disruptor.getSequenceValueFor(handler) : -1;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * @return The number of events discarded under {@link BackpressurePolicy#DROP}
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+    
+    @Override
+    public void onOrderAdded(Order order) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            Event event = ringBuffer.get(sequence);
+            event.type = EventType.ORDER_ADDED;
+            event.order.copyFrom(order);
+            ringBuffer.publish(sequence);
+        }
+    }
+    
+    @Override
+    public void onOrderCanceled(Order order) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            Event event = ringBuffer.get(sequence);
+            event.type = EventType.ORDER_CANCELED;
+            event.order.copyFrom(order);
+            ringBuffer.publish(sequence);
+        }
+    }
+    
+    @Override
+    public void onOrderCanceled(UUID orderId, Order order) {
+        onOrderCanceled(order);
+    }
+    
+    @Override
+    public void onOrderModified(Order order, long oldRawPrice, long oldQuantity) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            Event event = ringBuffer.get(sequence);
+            event.type = EventType.ORDER_MODIFIED;
+            event.order.copyFrom(order);
+            event.rawPrice = oldRawPrice;
+            event.quantity = oldQuantity;
+            ringBuffer.publish(sequence);
+        }
+    }
+    
+    @Override
+    public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {
+        // Same conversion as Instrument.toRawPrice, at the scale the order is held at
+        long oldRawPrice = Order.NO_PRICE;
+        if (oldPrice != null) {
+            try {
+                oldRawPrice = oldPrice.setScale(order.getPriceScale(), RoundingMode.UNNECESSARY)
+                        .unscaledValue().longValueExact();
+            } catch (ArithmeticException e) {
+                // Not representable at the order's scale: report it as unknown
+            }
+        }
+        onOrderModified(order, oldRawPrice, oldQuantity.longValueExact());
+    }
+    
+    @Override
+    public void onTradeExecuted(Trade trade) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            Event event = ringBuffer.get(sequence);
+            event.type = EventType.TRADE_EXECUTED;
+            event.trade.copyFrom(trade);
+            ringBuffer.publish(sequence);
+        }
+    }
+    
+    @Override
+    public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {
+        publishBestPrice(EventType.BEST_BID_CHANGED, newBestBid, oldBestBid);
+    }
+    
+    @Override
+    public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {
+        publishBestPrice(EventType.BEST_ASK_CHANGED, newBestAsk, oldBestAsk);
+    }
+    
+    @Override
+    public void onPriceLevelChanged(String symbol, boolean isBid, long rawPrice, long quantity, int orderCount) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            Event event = ringBuffer.get(sequence);
+            event.type = EventType.PRICE_LEVEL_CHANGED;
+            event.symbol = symbol;
+            event.isBid = isBid;
+            event.rawPrice = rawPrice;
+            event.quantity = quantity;
+            event.orderCount = orderCount;
+            ringBuffer.publish(sequence);
+        }
+    }
+    
+    @Override
+    public void onTopOfBookChanged(String symbol, long bidPrice, long bidQuantity, long askPrice, long askQuantity) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            Event event = ringBuffer.get(sequence);
+            event.type = EventType.TOP_OF_BOOK_CHANGED;
+            event.symbol = symbol;
+            event.rawPrice = bidPrice;
+            event.quantity = bidQuantity;
+            event.otherRawPrice = askPrice;
+            event.otherQuantity = askQuantity;
+            ringBuffer.publish(sequence);
+        }
+    }
+    
+    @Override
+    public void onCommandComplete(String symbol) {
+        publishMarker(EventType.COMMAND_COMPLETE, symbol);
+    }
+    
+    @Override
+    public void onEndOfBatch(String symbol) {
+        publishMarker(EventType.END_OF_BATCH, symbol);
+    }
+    
+    private void publishMarker(EventType type, String symbol) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            Event event = ringBuffer.get(sequence);
+            event.type = type;
+            event.symbol = symbol;
+            ringBuffer.publish(sequence);
+        }
+    }
+    
+    private void publishBestPrice(EventType type, BigDecimal newPrice, BigDecimal oldPrice) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            Event event = ringBuffer.get(sequence);
+            event.type = type;
+            event.newPrice = newPrice;
+            event.oldPrice = oldPrice;
+            ringBuffer.publish(sequence);
+        }
+    }
+    
+    /**
+     * @return The claimed ring sequence, or -1 if the event is dropped
+     */
+    private long claim() {
+        if (backpressurePolicy == BackpressurePolicy.BLOCK) {
+            return ringBuffer.next();
+        }
+        try {
+            return ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            dropped.incrementAndGet();
+            return -1;
+        }
+    }
+    
+    /**
+     * Ring slot. The order and trade are preallocated and overwritten by each event.
+     */
+    private static final class Event {
+        EventType type;
+        final Order order = Order.blank();
+        final Trade trade = Trade.blank();
+        String symbol;
+        boolean isBid;
+        long rawPrice;
+        long quantity;
+        long otherRawPrice;
+        long otherQuantity;
+        int orderCount;
+        BigDecimal newPrice;
+        BigDecimal oldPrice;
+    }
+    
+    private static final class ListenerHandler implements EventHandler<Event>, LifecycleAware {
+        private final OrderBookEventListener listener;
+        private CountDownLatch running;
+        
+        ListenerHandler(OrderBookEventListener listener) {
+            this.listener = listener;
+        }
+        
+        @Override
+        public void onStart() {
+            running.countDown();
+        }
+        
+        @Override
+        public void onShutdown() {
+        }
+        
+        @Override
+        public void onEvent(Event event, long sequence, boolean endOfBatch) {
+            try {
+                switch (event.type) {
+                    case ORDER_ADDED:
+                        listener.onOrderAdded(event.order);
+                        break;
+                    case ORDER_CANCELED:
+                        listener.onOrderCanceled(event.order);
+                        break;
+                    case ORDER_MODIFIED:
+                        listener.onOrderModified(event.order, event.rawPrice, event.quantity);
+                        break;
+                    case TRADE_EXECUTED:
+                        listener.onTradeExecuted(event.trade);
+                        break;
+                    case BEST_BID_CHANGED:
+                        listener.onBestBidChanged(event.newPrice, event.oldPrice);
+                        break;
+                    case BEST_ASK_CHANGED:
+                        listener.onBestAskChanged(event.newPrice, event.oldPrice);
+                        break;
+                    case PRICE_LEVEL_CHANGED:
+                        listener.onPriceLevelChanged(event.symbol, event.isBid, event.rawPrice, event.quantity,
+                                event.orderCount);
+                        break;
+                    case TOP_OF_BOOK_CHANGED:
+                        listener.onTopOfBookChanged(event.symbol, event.rawPrice, event.quantity,
+                                event.otherRawPrice, event.otherQuantity);
+                        break;
+                    case COMMAND_COMPLETE:
+                        listener.onCommandComplete(event.symbol);
+                        break;
+                    case END_OF_BATCH:
+                        listener.onEndOfBatch(event.symbol);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Listener {} failed on {} event {}", listener, event.type, sequence, e);
+            }
+        }
+    }
+}
\ No newline at end of file
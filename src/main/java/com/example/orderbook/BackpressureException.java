@@ -0,0 +1,20 @@
+package com.example.orderbook;
+
+/**
+ * Fails a command that could not be queued because the matching thread is a whole ring
+ * behind. The command was not applied; the caller may retry it later or reject it.
+ */
+public class BackpressureException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    
+    private final CommandType commandType;
+    
+    public BackpressureException(String symbol, CommandType commandType) {
+        super("Matching ring full for " + symbol + ", " + commandType + " not queued");
+        this.commandType = commandType;
+    }
+    
+    public CommandType getCommandType() {
+        return commandType;
+    }
+}
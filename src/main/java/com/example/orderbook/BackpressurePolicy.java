@@ -0,0 +1,12 @@
+package com.example.orderbook;
+
+/**
+ * What an {@link AsyncEventDispatcher} does when its ring is full because the slowest
+ * listener has fallen a whole ring behind.
+ */
+public enum BackpressurePolicy {
+    /** The matching thread waits for space, so no listener misses an event. */
+    BLOCK,
+    /** The event is discarded and counted, so matching never waits. */
+    DROP
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.orderbook;
+
+/**
+ * Receives the events of an order book a command, or a run of commands, at a time.
+ * Register it with an {@link EventBatcher}. Batches are delivered on the thread that
+ * applies commands to the book, so implementations must be quick and must not block.
+ */
+public interface BatchEventListener {
+    
+    /**
+     * Called with everything a command, or a run of commands, did to the book: the order
+     * being accepted, every fill it caused and the resulting top of book.
+     * 
+     * @param batch The events; only valid during this call
+     */
+    void onEventBatch(EventBatch batch);
+}
\ No newline at end of file
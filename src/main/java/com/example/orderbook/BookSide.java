@@ -0,0 +1,63 @@
+package com.example.orderbook;
+
+import com.example.models.Order;
+
+/**
+ * One side (bids or asks) of an order book, organised as price levels
+ * ordered from the best price outwards.
+ */
+interface BookSide {
+    
+    /**
+     * @return True if no orders rest on this side
+     */
+    boolean isEmpty();
+    
+    /**
+     * @return The level with the best price, or null if the side is empty
+     */
+    PriceLevelQueue bestLevel();
+    
+    /**
+     * @param level A non-empty level on this side
+     * @return The next non-empty level away from the best price, or null if there is none
+     */
+    PriceLevelQueue nextLevel(PriceLevelQueue level);
+    
+    /**
+     * @param price The scaled price
+     * @return The non-empty level at the price, or null if there is none
+     */
+    PriceLevelQueue getLevel(long price);
+    
+    /**
+     * @param price The scaled price
+     * @return Whether an order at the price can be added to this side
+     */
+    default boolean accepts(long price) {
+        return true;
+    }
+    
+    /**
+     * Appends an order to the level at its price, creating the level if needed.
+     * 
+     * @param order The order to rest on this side
+     * @throws IllegalArgumentException If the side does not {@link #accepts} the order's price
+     */
+    void add(Order order);
+    
+    /**
+     * Removes an order from its level in constant time, dropping the level once it is empty.
+     * 
+     * @param order The resting order
+     */
+    void remove(Order order);
+    
+    /**
+     * Called after a match cycle that produced trades.
+     * 
+     * @param price The scaled price of the last trade
+     */
+    default void onTrade(long price) {
+    }
+}
\ No newline at end of file
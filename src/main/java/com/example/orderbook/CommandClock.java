@@ -0,0 +1,20 @@
+package com.example.orderbook;
+
+import com.example.models.NanoClock;
+
+/**
+ * Clock that reads the timestamp of the command being applied, so that everything a
+ * book stamps is taken from the journal and replays reproduce it exactly.
+ */
+final class CommandClock implements NanoClock {
+    private long time;
+    
+    void set(long time) {
+        this.time = time;
+    }
+    
+    @Override
+    public long nanoTime() {
+        return time;
+    }
+}
\ No newline at end of file
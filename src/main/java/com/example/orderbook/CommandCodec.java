@@ -0,0 +1,175 @@
+package com.example.orderbook;
+
+import com.example.models.Order;
+import com.example.models.OrderSide;
+import com.example.models.OrderStatus;
+import com.example.models.OrderType;
+import com.example.models.TimeInForce;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary encoding of order book commands for the journal.
+ * Every record starts with the command type, the journal sequence, the command timestamp,
+ * the engine order ID and the symbol of the book the command was sent to; the rest
+ * depends on the type. Strings are written as a short length (-1 for null) followed by
+ * one byte per character, as symbols and client order IDs are ASCII.
+ */
+public final class CommandCodec {
+    static final int HEADER_LENGTH = 1 + 8 + 8 + 8;
+    
+    /**
+     * A decoded journal record. Replay only, so decoding allocates freely.
+     */
+    static final class Record {
+        CommandType type;
+        long sequence;
+        long timestamp;
+        long orderId;
+        String bookSymbol;
+        // Add only
+        Order order;
+        // Modify only
+        long rawPrice;
+        long quantity;
+        // Mass cancel only
+        long[] orderIds;
+    }
+    
+    private CommandCodec() {
+    }
+    
+    /**
+     * @return The number of bytes {@link #encode} will write for the command
+     */
+    public static int encodedLength(DisruptorOrderBook.OrderCommand command) {
+        int header = HEADER_LENGTH + stringLength(bookSymbol(command));
+        switch (command.getType()) {
+            case ADD_ORDER:
+                Order order = command.getOrder();
+                return header + 4 + 8 + 8 + 8 + stringLength(order.getSymbol()) + stringLength(order.getClientOrderId());
+            case MODIFY_ORDER:
+                return header + 8 + 8;
+            case MASS_CANCEL:
+                return header + 4 + 8 * (int) command.getQuantity();
+            default:
+                return header;
+        }
+    }
+    
+    /**
+     * Writes the command at the buffer's position.
+     * 
+     * @param command The command
+     * @param sequence The command's journal sequence
+     * @param buffer The target buffer
+     */
+    public static void encode(DisruptorOrderBook.OrderCommand command, long sequence, ByteBuffer buffer) {
+        buffer.put((byte) command.getType().ordinal());
+        buffer.putLong(sequence);
+        buffer.putLong(command.getTimestamp());
+        buffer.putLong(command.getOrderId());
+        putString(buffer, bookSymbol(command));
+        switch (command.getType()) {
+            case ADD_ORDER:
+                Order order = command.getOrder();
+                buffer.put((byte) order.getSide().ordinal());
+                buffer.put((byte) order.getType().ordinal());
+                buffer.put((byte) order.getTimeInForce().ordinal());
+                buffer.put((byte) order.getPriceScale());
+                buffer.putLong(order.getRawPrice());
+                buffer.putLong(order.getRawQuantity());
+                buffer.putLong(order.getCreatedNanos());
+                putString(buffer, order.getSymbol());
+                putString(buffer, order.getClientOrderId());
+                break;
+            case MODIFY_ORDER:
+                buffer.putLong(command.getRawPrice());
+                buffer.putLong(command.getQuantity());
+                break;
+            case MASS_CANCEL:
+                int count = (int) command.getQuantity();
+                buffer.putInt(count);
+                for (int i = 0; i < count; i++) {
+                    buffer.putLong(command.getOrderIds()[i]);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Decodes a record written by {@link #encode}.
+     * 
+     * @param buffer The record payload
+     * @return The decoded record
+     */
+    static Record decode(ByteBuffer buffer) {
+        Record record = new Record();
+        record.type = CommandType.values()[buffer.get()];
+        record.sequence = buffer.getLong();
+        record.timestamp = buffer.getLong();
+        record.orderId = buffer.getLong();
+        record.bookSymbol = getString(buffer);
+        switch (record.type) {
+            case ADD_ORDER:
+                OrderSide side = OrderSide.values()[buffer.get()];
+                OrderType orderType = OrderType.values()[buffer.get()];
+                TimeInForce timeInForce = TimeInForce.values()[buffer.get()];
+                int priceScale = buffer.get();
+                long rawPrice = buffer.getLong();
+                long quantity = buffer.getLong();
+                long createdNanos = buffer.getLong();
+                String symbol = getString(buffer);
+                String clientOrderId = getString(buffer);
+                record.order = Order.restore(record.orderId, symbol, orderType, side, rawPrice, priceScale, quantity,
+                        0, OrderStatus.NEW, timeInForce, clientOrderId, createdNanos, createdNanos);
+                break;
+            case MODIFY_ORDER:
+                record.rawPrice = buffer.getLong();
+                record.quantity = buffer.getLong();
+                break;
+            case MASS_CANCEL:
+                record.orderIds = new long[buffer.getInt()];
+                for (int i = 0; i < record.orderIds.length; i++) {
+                    record.orderIds[i] = buffer.getLong();
+                }
+                break;
+            default:
+                break;
+        }
+        return record;
+    }
+    
+    private static String bookSymbol(DisruptorOrderBook.OrderCommand command) {
+        return command.getTarget() == null ? null : command.getTarget().getSymbol();
+    }
+    
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        buffer.putShort((short) value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+    }
+    
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (buffer.get() & 0xFF);
+        }
+        return new String(chars);
+    }
+    
+    private static int stringLength(String value) {
+        return 2 + (value == null ? 0 : value.length());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.orderbook;
+
+/**
+ * Receives the outcome of commands submitted asynchronously to a sequenced order book.
+ * Callbacks run on the matching thread in sequence order, so implementations must be
+ * quick and must not block.
+ */
+public interface CommandResultListener {
+    
+    /**
+     * Called once a command has been applied to the book.
+     * 
+     * @param sequence The sequence number returned when the command was submitted
+     * @param type The kind of command
+     * @param orderId The engine ID of the order the command applied to
+     * @param result True if the command succeeded
+     */
+    void onCommandResult(long sequence, CommandType type, long orderId, boolean result);
+}
\ No newline at end of file
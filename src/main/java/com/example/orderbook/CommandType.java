@@ -0,0 +1,14 @@
+package com.example.orderbook;
+
+/**
+ * Kinds of command that can be submitted to a sequenced order book.
+ */
+public enum CommandType {
+    ADD_ORDER,
+    CANCEL_ORDER,
+    MODIFY_ORDER,
+    /** Captures the state of every book on a shard; not tied to a single book. */
+    SNAPSHOT,
+    /** Cancels a batch of orders of one book, such as a session's orders in a symbol. */
+    MASS_CANCEL
+}
\ No newline at end of file
@@ -1,93 +1,307 @@
 package com.example.orderbook;
 
+import com.example.journal.MappedJournal;
+import com.example.models.IdGenerator;
+import com.example.models.Instrument;
+import com.example.models.NanoClock;
 import com.example.models.Order;
 import com.example.models.OrderSide;
 import com.example.models.Trade;
-import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
 import com.lmax.disruptor.RingBuffer;
-import com.lmax.disruptor.dsl.Disruptor;
-import com.lmax.disruptor.util.DaemonThreadFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Order book that applies commands on a single matching thread fed by a Disruptor ring.
+ * The thread belongs to a {@link MatchingShard}, which the book either owns or shares
+ * with other books.
+ * Commands can be submitted asynchronously: the submit methods return the command's
+ * sequence number straight away and the outcome is reported to the
+ * {@link CommandResultListener}, while the *Async methods return a CompletableFuture
+ * and never wait for the ring: when it is full the future fails with a
+ * {@link BackpressureException}.
+ * The synchronous OrderBook methods are thin wrappers that wait a bounded time for
+ * the future. Read-only queries go straight to the underlying book.
+ */
 public class DisruptorOrderBook implements OrderBook {
+    /** How long the synchronous methods wait for the matching thread. */
+    public static final long SYNC_TIMEOUT_MILLIS = 100;
     
     private final SimpleOrderBook delegateOrderBook;
-    private final Disruptor<OrderCommand> disruptor;
+    private final MatchingShard shard;
+    private final boolean ownsShard;
     private final RingBuffer<OrderCommand> ringBuffer;
-    private final ConcurrentHashMap<UUID, CountDownLatch> commandLatches;
+    private final CommandResultListener resultListener;
     
     public DisruptorOrderBook(String symbol) {
-        this.delegateOrderBook = new SimpleOrderBook(symbol);
-        this.commandLatches = new ConcurrentHashMap<>();
-        
-        // Initialize the Disruptor
-        int bufferSize = 1024; // Must be power of 2
-        this.disruptor = new Disruptor<>(
-                OrderCommand::new,
-                bufferSize,
-                DaemonThreadFactory.INSTANCE);
-        
-        // Set up the event handler
-        this.disruptor.handleEventsWith(new OrderCommandHandler());
-        
-        // Start the Disruptor
-        this.disruptor.start();
-        
-        // Get the ring buffer for publishing events
-        this.ringBuffer = disruptor.getRingBuffer();
+        this(Instrument.of(symbol));
+    }
+    
+    public DisruptorOrderBook(Instrument instrument) {
+        this(instrument, null);
+    }
+    
+    /**
+     * @param instrument The instrument traded by this book
+     * @param resultListener Receives the outcome of every command on the matching thread, or null
+     */
+    public DisruptorOrderBook(Instrument instrument, CommandResultListener resultListener) {
+        this(instrument, resultListener, null);
+    }
+    
+    public DisruptorOrderBook(Instrument instrument, CommandResultListener resultListener, MappedJournal journal) {
+        this(instrument, resultListener, journal, null);
+    }
+    
+    /**
+     * Creates a book that journals its commands and recovers whatever state the journal
+     * and snapshots already hold before accepting new commands.
+     * 
+     * @param instrument The instrument traded by this book
+     * @param resultListener Receives the outcome of every command on the matching thread, or null
+     * @param journal Journal every command is appended to before matching, or null; closed on shutdown
+     * @param snapshotStore Where snapshots are written and recovered from, or null; closed on shutdown
+     * @throws UncheckedIOException If the existing journal or snapshot cannot be read
+     */
+    public DisruptorOrderBook(Instrument instrument, CommandResultListener resultListener, MappedJournal journal,
+                              SnapshotStore snapshotStore) {
+        this(new SimpleOrderBook(instrument), new MatchingShard(0), true, resultListener);
+        if (journal != null) {
+            shard.setJournal(journal);
+        }
+        if (snapshotStore != null) {
+            shard.setSnapshotStore(snapshotStore);
+        }
+        if (journal != null || snapshotStore != null) {
+            try {
+                shard.recover();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to recover order book " + instrument.getSymbol(), e);
+            }
+        }
+        shard.start();
+    }
+    
+    /**
+     * Creates a book whose commands run on a shared shard.
+     * 
+     * @param delegateOrderBook The book that holds the orders; only the shard thread may modify it
+     * @param shard The shard to run on; its lifecycle is managed by the caller
+     * @param resultListener Receives the outcome of every command on the matching thread, or null
+     */
+    public DisruptorOrderBook(SimpleOrderBook delegateOrderBook, MatchingShard shard,
+                              CommandResultListener resultListener) {
+        this(delegateOrderBook, shard, false, resultListener);
+    }
+    
+    private DisruptorOrderBook(SimpleOrderBook delegateOrderBook, MatchingShard shard, boolean ownsShard,
+                               CommandResultListener resultListener) {
+        this.delegateOrderBook = delegateOrderBook;
+        this.shard = shard;
+        this.ownsShard = ownsShard;
+        this.ringBuffer = shard.getRingBuffer();
+        this.resultListener = resultListener;
+        shard.attach(this);
+    }
+    
+    public MatchingShard getShard() {
+        return shard;
+    }
+    
+    SimpleOrderBook getDelegate() {
+        return delegateOrderBook;
     }
     
     @Override
     public boolean addOrder(Order order) {
-        return publishCommand(CommandType.ADD_ORDER, order, null, null, null);
+        return await(publish(CommandType.ADD_ORDER, order, order.getRawId(), Order.NO_PRICE, 0, null, true));
     }
     
     @Override
     public boolean cancelOrder(UUID orderId) {
-        return publishCommand(CommandType.CANCEL_ORDER, null, orderId, null, null);
+        return cancelOrder(IdGenerator.fromUuid(orderId));
+    }
+    
+    @Override
+    public boolean cancelOrder(long orderId) {
+        return await(publish(CommandType.CANCEL_ORDER, null, orderId, Order.NO_PRICE, 0, null, true));
+    }
+    
+    /**
+     * Cancels the orders as one command on the matching thread, so a large batch costs a
+     * single ring slot and round trip. The IDs are read and, for orders that could not be
+     * canceled, zeroed on the matching thread; the array must not be reused before this
+     * returns.
+     */
+    @Override
+    public int cancelOrders(long[] orderIds, int count) {
+        if (count == 0 || !await(publish(CommandType.MASS_CANCEL, null, 0, Order.NO_PRICE, count, orderIds, true))) {
+            return 0;
+        }
+        int canceled = 0;
+        for (int i = 0; i < count; i++) {
+            if (orderIds[i] != 0) {
+                canceled++;
+            }
+        }
+        return canceled;
     }
     
     @Override
     public boolean modifyOrder(UUID orderId, BigDecimal newPrice, BigInteger newQuantity) {
-        return publishCommand(CommandType.MODIFY_ORDER, null, orderId, newPrice, newQuantity);
+        // Convert on the caller's thread so the command carries primitives only
+        long newRawPrice = Order.NO_PRICE;
+        if (newPrice != null) {
+            newRawPrice = getInstrument().toRawPrice(newPrice);
+            if (newRawPrice == Order.NO_PRICE) {
+                return false;
+            }
+        }
+        return modifyOrder(IdGenerator.fromUuid(orderId), newRawPrice,
+                newQuantity != null ? newQuantity.longValueExact() : 0);
     }
     
-    private boolean publishCommand(CommandType type, Order order, UUID orderId, 
-                                  BigDecimal price, BigInteger quantity) {
-        // For high-throughput scenarios, consider making this asynchronous
-        // by removing the latch and returning immediately
-        CountDownLatch latch = new CountDownLatch(1);
-        UUID commandId = UUID.randomUUID();
-        commandLatches.put(commandId, latch);
-        
-        long sequence = ringBuffer.next();
+    @Override
+    public boolean modifyOrder(long orderId, long newRawPrice, long newQuantity) {
+        return await(publish(CommandType.MODIFY_ORDER, null, orderId, newRawPrice, newQuantity, null, true));
+    }
+    
+    /**
+     * Queues an order for the matching thread without waiting for the result. Waits for a
+     * free ring slot if the matching thread is a whole ring behind.
+     * 
+     * @param order The order to add
+     * @return The command's sequence number, as later passed to the result listener
+     */
+    public long submitAddOrder(Order order) {
+        return publishCommand(CommandType.ADD_ORDER, order, order.getRawId(), Order.NO_PRICE, 0, null, null, true);
+    }
+    
+    /**
+     * Queues a cancel for the matching thread without waiting for the result. Waits for a
+     * free ring slot if the matching thread is a whole ring behind.
+     * 
+     * @param orderId The engine ID of the order to cancel
+     * @return The command's sequence number, as later passed to the result listener
+     */
+    public long submitCancelOrder(long orderId) {
+        return publishCommand(CommandType.CANCEL_ORDER, null, orderId, Order.NO_PRICE, 0, null, null, true);
+    }
+    
+    /**
+     * Queues a modification for the matching thread without waiting for the result. Waits
+     * for a free ring slot if the matching thread is a whole ring behind.
+     * 
+     * @param orderId The engine ID of the order to modify
+     * @param newRawPrice The new price at the instrument's scale ({@link Order#NO_PRICE} if unchanged)
+     * @param newQuantity The new quantity (0 if unchanged)
+     * @return The command's sequence number, as later passed to the result listener
+     */
+    public long submitModifyOrder(long orderId, long newRawPrice, long newQuantity) {
+        return publishCommand(CommandType.MODIFY_ORDER, null, orderId, newRawPrice, newQuantity, null, null, true);
+    }
+    
+    /**
+     * Queues an order and returns a future completed with the result on the matching thread.
+     * Never waits: if the ring is full the future fails at once with a {@link BackpressureException}.
+     */
+    @Override
+    public CompletableFuture<Boolean> addOrderAsync(Order order) {
+        return publish(CommandType.ADD_ORDER, order, order.getRawId(), Order.NO_PRICE, 0, null, false);
+    }
+    
+    /**
+     * Queues a cancel and returns a future completed with the result on the matching thread.
+     * Never waits: if the ring is full the future fails at once with a {@link BackpressureException}.
+     */
+    @Override
+    public CompletableFuture<Boolean> cancelOrderAsync(long orderId) {
+        return publish(CommandType.CANCEL_ORDER, null, orderId, Order.NO_PRICE, 0, null, false);
+    }
+    
+    /**
+     * Queues a batch cancel and returns a future completed on the matching thread with whether
+     * any order was canceled. Never waits: if the ring is full the future fails at once with
+     * a {@link BackpressureException}.
+     * 
+     * @see #cancelOrders(long[], int)
+     */
+    @Override
+    public CompletableFuture<Boolean> cancelOrdersAsync(long[] orderIds, int count) {
+        return publish(CommandType.MASS_CANCEL, null, 0, Order.NO_PRICE, count, orderIds, false);
+    }
+    
+    /**
+     * Queues a modification and returns a future completed with the result on the matching thread.
+     * Never waits: if the ring is full the future fails at once with a {@link BackpressureException}.
+     */
+    @Override
+    public CompletableFuture<Boolean> modifyOrderAsync(long orderId, long newRawPrice, long newQuantity) {
+        return publish(CommandType.MODIFY_ORDER, null, orderId, newRawPrice, newQuantity, null, false);
+    }
+    
+    private CompletableFuture<Boolean> publish(CommandType type, Order order, long orderId, long rawPrice,
+                                               long quantity, long[] orderIds, boolean waitForSlot) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        if (publishCommand(type, order, orderId, rawPrice, quantity, future, orderIds, waitForSlot) < 0) {
+            future.completeExceptionally(new BackpressureException(getSymbol(), type));
+        }
+        return future;
+    }
+    
+    /**
+     * @param waitForSlot Whether to wait for the matching thread when the ring is full
+     * @return The command's sequence number, or -1 if the ring is full and it was not queued
+     */
+    private long publishCommand(CommandType type, Order order, long orderId, long rawPrice, long quantity,
+                                CompletableFuture<Boolean> future, long[] orderIds, boolean waitForSlot) {
+        // Returns as soon as the slot is published; producers never wait on each other
+        long sequence;
+        if (waitForSlot) {
+            sequence = ringBuffer.next();
+        } else {
+            try {
+                sequence = ringBuffer.tryNext();
+            } catch (InsufficientCapacityException e) {
+                return -1;
+            }
+        }
         try {
             OrderCommand command = ringBuffer.get(sequence);
-            command.setCommandId(commandId);
+            command.setTarget(this);
             command.setType(type);
             command.setOrder(order);
             command.setOrderId(orderId);
-            command.setPrice(price);
+            command.setRawPrice(rawPrice);
             command.setQuantity(quantity);
+            command.setOrderIds(orderIds);
+            command.setFuture(future);
+            command.setTimestamp(NanoClock.SYSTEM.nanoTime());
             command.setResult(false);
         } finally {
             ringBuffer.publish(sequence);
         }
-        
+        return sequence;
+    }
+    
+    private static boolean await(CompletableFuture<Boolean> future) {
         try {
-            // Consider adding a timeout here to prevent blocking indefinitely
-            latch.await(100, java.util.concurrent.TimeUnit.MILLISECONDS);
-            CountDownLatch resultLatch = commandLatches.remove(commandId);
-            return resultLatch != null && resultLatch.getCount() == 0;
+            return future.get(SYNC_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
         }
     }
     
@@ -117,11 +331,21 @@ public class DisruptorOrderBook implements OrderBook {
         return delegateOrderBook.getOrder(orderId);
     }
     
+    @Override
+    public Order getOrder(long orderId) {
+        return delegateOrderBook.getOrder(orderId);
+    }
+    
     @Override
     public String getSymbol() {
         return delegateOrderBook.getSymbol();
     }
     
+    @Override
+    public Instrument getInstrument() {
+        return delegateOrderBook.getInstrument();
+    }
+    
     @Override
     public List<Trade> getRecentTrades(int limit) {
         return delegateOrderBook.getRecentTrades(limit);
@@ -147,33 +371,37 @@ public class DisruptorOrderBook implements OrderBook {
         return delegateOrderBook.unregisterListener(listener);
     }
     
+    /**
+     * Stops the matching thread if this book owns it; shared shards are stopped by their owner.
+     */
     public void shutdown() {
-        disruptor.shutdown();
-    }
-    
-    // Command types for the Disruptor
-    private enum CommandType {
-        ADD_ORDER,
-        CANCEL_ORDER,
-        MODIFY_ORDER
+        if (ownsShard) {
+            shard.shutdown();
+        }
     }
     
     // Event class for the Disruptor
     public static class OrderCommand {
-        private UUID commandId;
+        private DisruptorOrderBook target;
         private CommandType type;
         private Order order;
-        private UUID orderId;
-        private BigDecimal price;
-        private BigInteger quantity;
+        private long orderId;
+        private long rawPrice;
+        private long quantity; // Number of order IDs for a mass cancel
+        private long[] orderIds; // Mass cancel only
         private boolean result;
+        private CompletableFuture<Boolean> future;
+        private long timestamp; // Receive time in nanoseconds since the epoch
+        // Where a snapshot command was journaled, so replay can resume from it
+        private int journalSegment;
+        private int journalPosition;
         
-        public UUID getCommandId() {
-            return commandId;
+        public DisruptorOrderBook getTarget() {
+            return target;
         }
         
-        public void setCommandId(UUID commandId) {
-            this.commandId = commandId;
+        public void setTarget(DisruptorOrderBook target) {
+            this.target = target;
         }
         
         public CommandType getType() {
@@ -192,30 +420,38 @@ public class DisruptorOrderBook implements OrderBook {
             this.order = order;
         }
         
-        public UUID getOrderId() {
+        public long getOrderId() {
             return orderId;
         }
         
-        public void setOrderId(UUID orderId) {
+        public void setOrderId(long orderId) {
             this.orderId = orderId;
         }
         
-        public BigDecimal getPrice() {
-            return price;
+        public long getRawPrice() {
+            return rawPrice;
         }
         
-        public void setPrice(BigDecimal price) {
-            this.price = price;
+        public void setRawPrice(long rawPrice) {
+            this.rawPrice = rawPrice;
         }
         
-        public BigInteger getQuantity() {
+        public long getQuantity() {
             return quantity;
         }
         
-        public void setQuantity(BigInteger quantity) {
+        public void setQuantity(long quantity) {
             this.quantity = quantity;
         }
         
+        public long[] getOrderIds() {
+            return orderIds;
+        }
+        
+        public void setOrderIds(long[] orderIds) {
+            this.orderIds = orderIds;
+        }
+        
         public boolean isResult() {
             return result;
         }
@@ -223,35 +459,72 @@ public class DisruptorOrderBook implements OrderBook {
         public void setResult(boolean result) {
             this.result = result;
         }
+        
+        public long getTimestamp() {
+            return timestamp;
+        }
+        
+        public void setTimestamp(long timestamp) {
+            this.timestamp = timestamp;
+        }
+        
+        public int getJournalSegment() {
+            return journalSegment;
+        }
+        
+        public int getJournalPosition() {
+            return journalPosition;
+        }
+        
+        public void setJournalPosition(int journalSegment, int journalPosition) {
+            this.journalSegment = journalSegment;
+            this.journalPosition = journalPosition;
+        }
+        
+        public CompletableFuture<Boolean> getFuture() {
+            return future;
+        }
+        
+        public void setFuture(CompletableFuture<Boolean> future) {
+            this.future = future;
+        }
     }
     
-    // Event handler for processing commands
-    private class OrderCommandHandler implements EventHandler<OrderCommand> {
-        @Override
-        public void onEvent(OrderCommand command, long sequence, boolean endOfBatch) {
-            boolean result = false;
-            
-            switch (command.getType()) {
-                case ADD_ORDER:
-                    result = delegateOrderBook.addOrder(command.getOrder());
-                    break;
-                case CANCEL_ORDER:
-                    result = delegateOrderBook.cancelOrder(command.getOrderId());
-                    break;
-                case MODIFY_ORDER:
-                    result = delegateOrderBook.modifyOrder(
-                        command.getOrderId(), 
-                        command.getPrice(), 
-                        command.getQuantity()
-                    );
-                    break;
-            }
-            
-            command.setResult(result);
-            CountDownLatch latch = commandLatches.get(command.getCommandId());
-            if (latch != null) {
-                latch.countDown();
-            }
+    // Applies a command to this book; called on the shard thread
+    void apply(OrderCommand command, long sequence) {
+        boolean result = false;
+        
+        switch (command.getType()) {
+            case ADD_ORDER:
+                result = delegateOrderBook.addOrder(command.getOrder());
+                break;
+            case CANCEL_ORDER:
+                result = delegateOrderBook.cancelOrder(command.getOrderId());
+                break;
+            case MODIFY_ORDER:
+                result = delegateOrderBook.modifyOrder(
+                    command.getOrderId(), 
+                    command.getRawPrice(), 
+                    command.getQuantity()
+                );
+                break;
+            case MASS_CANCEL:
+                result = delegateOrderBook.cancelOrders(command.getOrderIds(), (int) command.getQuantity()) > 0;
+                break;
+        }
+        
+        command.setResult(result);
+        if (resultListener != null) {
+            resultListener.onCommandResult(sequence, command.getType(), command.getOrderId(), result);
+        }
+        CompletableFuture<Boolean> future = command.getFuture();
+        if (future != null) {
+            future.complete(result);
         }
+        
+        // Don't keep the order or future reachable from the ring
+        command.setOrder(null);
+        command.setOrderIds(null);
+        command.setFuture(null);
     }
 }
\ No newline at end of file
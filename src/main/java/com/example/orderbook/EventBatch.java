@@ -0,0 +1,191 @@
+package com.example.orderbook;
+
+import com.example.models.Order;
+import com.example.models.Trade;
+
+import java.util.Arrays;
+
+/**
+ * The events one or more consecutive commands produced on a book, as handed to a
+ * {@link BatchEventListener}. Events are indexed in the order the book raised them;
+ * the top of book is only reported once, as it stood after the last command.
+ * <p>
+ * A batch is a reusable view: it and the orders and trades it returns are overwritten
+ * by the next batch, so listeners must copy anything they want to keep.
+ */
+public final class EventBatch {
+    
+    public enum EventType {
+        ORDER_ADDED,
+        ORDER_CANCELED,
+        ORDER_MODIFIED,
+        TRADE_EXECUTED
+    }
+    
+    private String symbol;
+    private int size;
+    private int commandCount;
+    private EventType[] types;
+    private Order[] orders;
+    private Trade[] trades;
+    private long[] oldRawPrices;
+    private long[] oldQuantities;
+    private boolean topOfBookChanged;
+    private long bidPrice = Order.NO_PRICE;
+    private long bidQuantity;
+    private long askPrice = Order.NO_PRICE;
+    private long askQuantity;
+    
+    EventBatch(int initialCapacity) {
+        this.types = new EventType[initialCapacity];
+        this.orders = new Order[initialCapacity];
+        this.trades = new Trade[initialCapacity];
+        this.oldRawPrices = new long[initialCapacity];
+        this.oldQuantities = new long[initialCapacity];
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    /**
+     * @return The number of order and trade events in the batch
+     */
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0 && !topOfBookChanged;
+    }
+    
+    /**
+     * @return The number of commands whose events were collected into this batch
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+    
+    public EventType getType(int index) {
+        checkIndex(index);
+        return types[index];
+    }
+    
+    /**
+     * @return A copy of the order as it was when the event was raised, for order events
+     */
+    public Order getOrder(int index) {
+        checkIndex(index);
+        return types[index] == EventType.TRADE_EXECUTED ? null : orders[index];
+    }
+    
+    /**
+     * @return A copy of the trade, for trade events
+     */
+    public Trade getTrade(int index) {
+        checkIndex(index);
+        return types[index] == EventType.TRADE_EXECUTED ? trades[index] : null;
+    }
+    
+    /**
+     * @return The price before a modification, at the instrument's scale
+     */
+    public long getOldRawPrice(int index) {
+        checkIndex(index);
+        return oldRawPrices[index];
+    }
+    
+    /**
+     * @return The quantity before a modification
+     */
+    public long getOldQuantity(int index) {
+        checkIndex(index);
+        return oldQuantities[index];
+    }
+    
+    /**
+     * @return True if the best bid or ask moved or changed size during the batch
+     */
+    public boolean isTopOfBookChanged() {
+        return topOfBookChanged;
+    }
+    
+    public long getBidPrice() {
+        return bidPrice;
+    }
+    
+    public long getBidQuantity() {
+        return bidQuantity;
+    }
+    
+    public long getAskPrice() {
+        return askPrice;
+    }
+    
+    public long getAskQuantity() {
+        return askQuantity;
+    }
+    
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside batch of " + size);
+        }
+    }
+    
+    // Mutators, used by the EventBatcher on the matching thread
+    
+    void addOrderEvent(EventType type, Order order, long oldRawPrice, long oldQuantity) {
+        int index = claim(type);
+        if (orders[index] == null) {
+            orders[index] = Order.blank();
+        }
+        orders[index].copyFrom(order);
+        oldRawPrices[index] = oldRawPrice;
+        oldQuantities[index] = oldQuantity;
+        symbol = order.getSymbol();
+    }
+    
+    void addTrade(Trade trade) {
+        int index = claim(EventType.TRADE_EXECUTED);
+        if (trades[index] == null) {
+            trades[index] = Trade.blank();
+        }
+        trades[index].copyFrom(trade);
+        symbol = trade.getSymbol();
+    }
+    
+    void setTopOfBook(String symbol, long bidPrice, long bidQuantity, long askPrice, long askQuantity) {
+        this.symbol = symbol;
+        this.topOfBookChanged = true;
+        this.bidPrice = bidPrice;
+        this.bidQuantity = bidQuantity;
+        this.askPrice = askPrice;
+        this.askQuantity = askQuantity;
+    }
+    
+    void commandComplete(String symbol) {
+        this.symbol = symbol;
+        commandCount++;
+    }
+    
+    void clear() {
+        size = 0;
+        commandCount = 0;
+        topOfBookChanged = false;
+    }
+    
+    private int claim(EventType type) {
+        if (size == types.length) {
+            int capacity = types.length * 2;
+            types = Arrays.copyOf(types, capacity);
+            orders = Arrays.copyOf(orders, capacity);
+            trades = Arrays.copyOf(trades, capacity);
+            oldRawPrices = Arrays.copyOf(oldRawPrices, capacity);
+            oldQuantities = Arrays.copyOf(oldQuantities, capacity);
+        }
+        types[size] = type;
+        oldRawPrices[size] = Order.NO_PRICE;
+        oldQuantities[size] = 0;
+        return size++;
+    }
+}
\ No newline at end of file
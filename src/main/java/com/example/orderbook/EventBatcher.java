@@ -0,0 +1,147 @@
+package com.example.orderbook;
+
+import com.example.models.Order;
+import com.example.models.Trade;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.UUID;
+
+/**
+ * Collects the events of a book into {@link EventBatch}es, so that batch listeners get one
+ * call per command instead of one per event. An aggressive order that sweeps several
+ * levels arrives as a single batch holding its acceptance, all of its fills and the new
+ * top of book.
+ * <p>
+ * When coalescing, the batcher keeps collecting across commands until the
+ * {@link MatchingShard} running the book reaches the end of a Disruptor batch, or until
+ * {@link #flush} is called for books that are not sequenced by a shard.
+ * <p>
+ * Register one batcher per book; all of its methods must be called on the thread that
+ * applies commands to that book.
+ */
+public class EventBatcher implements OrderBookEventListener {
+    private static final int INITIAL_CAPACITY = 64;
+    
+    private final boolean coalesce;
+    private final EventBatch batch;
+    // Copy-on-write snapshot, so delivering a batch never allocates an iterator
+    private volatile BatchEventListener[] listeners;
+    
+    public EventBatcher() {
+        this(false);
+    }
+    
+    /**
+     * @param coalesce True to deliver once per Disruptor batch rather than once per command
+     */
+    public EventBatcher(boolean coalesce) {
+        this.coalesce = coalesce;
+        this.batch = new EventBatch(INITIAL_CAPACITY);
+        this.listeners = new BatchEventListener[0];
+    }
+    
+    public synchronized void addListener(BatchEventListener listener) {
+        BatchEventListener[] current = listeners;
+        BatchEventListener[] updated = new BatchEventListener[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+    
+    public synchronized boolean removeListener(BatchEventListener listener) {
+        BatchEventListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(listener)) {
+                BatchEventListener[] updated = new BatchEventListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Delivers whatever has been collected since the last batch, if anything.
+     */
+    public void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (BatchEventListener listener : listeners) {
+            listener.onEventBatch(batch);
+        }
+        batch.clear();
+    }
+    
+    @Override
+    public void onOrderAdded(Order order) {
+        batch.addOrderEvent(EventBatch.EventType.ORDER_ADDED, order, Order.NO_PRICE, 0);
+    }
+    
+    @Override
+    public void onOrderCanceled(Order order) {
+        batch.addOrderEvent(EventBatch.EventType.ORDER_CANCELED, order, Order.NO_PRICE, 0);
+    }
+    
+    @Override
+    public void onOrderCanceled(UUID orderId, Order order) {
+        onOrderCanceled(order);
+    }
+    
+    @Override
+    public void onOrderModified(Order order, long oldRawPrice, long oldQuantity) {
+        batch.addOrderEvent(EventBatch.EventType.ORDER_MODIFIED, order, oldRawPrice, oldQuantity);
+    }
+    
+    @Override
+    public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {
+        // Same conversion as Instrument.toRawPrice, at the scale the order is held at
+        long oldRawPrice = Order.NO_PRICE;
+        if (oldPrice != null) {
+            try {
+                oldRawPrice = oldPrice.setScale(order.getPriceScale(), RoundingMode.UNNECESSARY)
+                        .unscaledValue().longValueExact();
+            } catch (ArithmeticException e) {
+                // Not representable at the order's scale: report it as unknown
+            }
+        }
+        onOrderModified(order, oldRawPrice, oldQuantity.longValueExact());
+    }
+    
+    @Override
+    public void onTradeExecuted(Trade trade) {
+        batch.addTrade(trade);
+    }
+    
+    @Override
+    public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {
+        // Reported through the top of book
+    }
+    
+    @Override
+    public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {
+        // Reported through the top of book
+    }
+    
+    @Override
+    public void onTopOfBookChanged(String symbol, long bidPrice, long bidQuantity, long askPrice, long askQuantity) {
+        batch.setTopOfBook(symbol, bidPrice, bidQuantity, askPrice, askQuantity);
+    }
+    
+    @Override
+    public void onCommandComplete(String symbol) {
+        batch.commandComplete(symbol);
+        if (!coalesce) {
+            flush();
+        }
+    }
+    
+    @Override
+    public void onEndOfBatch(String symbol) {
+        flush();
+    }
+}
\ No newline at end of file
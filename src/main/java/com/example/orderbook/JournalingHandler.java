@@ -0,0 +1,40 @@
+package com.example.orderbook;
+
+import com.example.journal.MappedJournal;
+import com.lmax.disruptor.EventHandler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * First stage of a shard pipeline: appends each command to the journal before the
+ * matching stage sees it. The Disruptor only releases a batch to the next stage after
+ * this handler has returned from the batch's last event, so with
+ * {@link com.example.journal.FlushPolicy#BATCH} nothing is matched before it is durable.
+ */
+class JournalingHandler implements EventHandler<DisruptorOrderBook.OrderCommand> {
+    private final MappedJournal journal;
+    private final long sequenceOffset;
+    
+    /**
+     * @param journal The journal to append to
+     * @param sequenceOffset Added to ring sequences so journal sequences keep increasing across restarts
+     */
+    JournalingHandler(MappedJournal journal, long sequenceOffset) {
+        this.journal = journal;
+        this.sequenceOffset = sequenceOffset;
+    }
+    
+    @Override
+    public void onEvent(DisruptorOrderBook.OrderCommand command, long sequence, boolean endOfBatch) {
+        ByteBuffer buffer = journal.claim(CommandCodec.encodedLength(command));
+        if (command.getType() == CommandType.SNAPSHOT) {
+            // Tells the snapshot where replay has to resume
+            command.setJournalPosition(journal.getSegmentIndex(), journal.getRecordPosition());
+        }
+        CommandCodec.encode(command, sequenceOffset + sequence, buffer);
+        journal.commit();
+        if (endOfBatch) {
+            journal.endOfBatch();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,244 @@
+package com.example.orderbook;
+
+import com.example.models.Order;
+
+/**
+ * Book side backed by a dense array of price levels indexed by tick.
+ * Slot i holds the level at price (baseTick + i) * tickSize. When an order
+ * arrives outside the window the ladder is re-centred (around the last trade
+ * price where possible) and grown if the resting orders no longer fit, up to a
+ * maximum span; prices that would need a wider ladder are not accepted.
+ */
+final class LadderBookSide implements BookSide {
+    private final boolean bid;
+    private final long tickSize;
+    private final int maxLadderSize;
+    private PriceLevelQueue[] levels;
+    private long baseTick;
+    private boolean initialized;
+    // Index of the best non-empty level, or -1 when the side is empty
+    private int bestIndex = -1;
+    // Inclusive bounds that enclose every non-empty level (may be loose)
+    private int lowIndex;
+    private int highIndex;
+    private int levelCount;
+    private long lastTradeTick;
+    private boolean hasTraded;
+    
+    /**
+     * @param ladderSize The initial number of ticks covered
+     * @param maxLadderSize The most ticks the ladder may grow to cover
+     */
+    LadderBookSide(boolean bid, long tickSize, int ladderSize, int maxLadderSize) {
+        if (ladderSize <= 0 || maxLadderSize < ladderSize) {
+            throw new IllegalArgumentException("Invalid ladder size: " + ladderSize + " of at most " + maxLadderSize);
+        }
+        this.bid = bid;
+        this.tickSize = tickSize;
+        this.maxLadderSize = maxLadderSize;
+        this.levels = new PriceLevelQueue[ladderSize];
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return levelCount == 0;
+    }
+    
+    @Override
+    public PriceLevelQueue bestLevel() {
+        return bestIndex < 0 ? null : levels[bestIndex];
+    }
+    
+    @Override
+    public PriceLevelQueue nextLevel(PriceLevelQueue level) {
+        int index = indexOf(level.getPrice() / tickSize);
+        if (index < 0) {
+            return null;
+        }
+        int next = scanFrom(bid ? index - 1 : index + 1);
+        return next < 0 ? null : levels[next];
+    }
+    
+    @Override
+    public PriceLevelQueue getLevel(long price) {
+        int index = indexOf(price / tickSize);
+        if (index < 0) {
+            return null;
+        }
+        PriceLevelQueue level = levels[index];
+        return level == null || level.isEmpty() ? null : level;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * False if covering the price and every resting level would take more than the
+     * maximum ladder size.
+     */
+    @Override
+    public boolean accepts(long price) {
+        long tick = price / tickSize;
+        if (indexOf(tick) >= 0 || levelCount == 0) {
+            return true;
+        }
+        long spanLow = Math.min(tick, baseTick + lowIndex);
+        long spanHigh = Math.max(tick, baseTick + highIndex);
+        return spanHigh - spanLow < maxLadderSize;
+    }
+    
+    @Override
+    public void add(Order order) {
+        long tick = order.getRawPrice() / tickSize;
+        int index = indexOf(tick);
+        if (index < 0) {
+            if (!accepts(order.getRawPrice())) {
+                throw new IllegalArgumentException("Price " + order.getRawPrice() + " is outside the ladder's band");
+            }
+            recenter(tick);
+            index = indexOf(tick);
+        }
+        
+        PriceLevelQueue level = levels[index];
+        if (level == null) {
+            level = new PriceLevelQueue(order.getRawPrice());
+            levels[index] = level;
+        }
+        if (level.isEmpty()) {
+            level.setPrice(order.getRawPrice());
+            onLevelFilled(index);
+        }
+        level.add(order);
+    }
+    
+    @Override
+    public void remove(Order order) {
+        PriceLevelQueue level = order.getLevel();
+        if (level != null && level.remove(order) && level.isEmpty()) {
+            onLevelEmptied(indexOf(level.getPrice() / tickSize));
+        }
+    }
+    
+    @Override
+    public void onTrade(long price) {
+        lastTradeTick = price / tickSize;
+        hasTraded = true;
+    }
+    
+    private int indexOf(long tick) {
+        if (!initialized) {
+            return -1;
+        }
+        long offset = tick - baseTick;
+        return offset >= 0 && offset < levels.length ? (int) offset : -1;
+    }
+    
+    private void onLevelFilled(int index) {
+        if (levelCount == 0) {
+            lowIndex = index;
+            highIndex = index;
+            bestIndex = index;
+        } else {
+            lowIndex = Math.min(lowIndex, index);
+            highIndex = Math.max(highIndex, index);
+            if (bid ? index > bestIndex : index < bestIndex) {
+                bestIndex = index;
+            }
+        }
+        levelCount++;
+    }
+    
+    private void onLevelEmptied(int index) {
+        levelCount--;
+        if (levelCount == 0) {
+            bestIndex = -1;
+        } else if (index == bestIndex) {
+            bestIndex = scanFrom(bid ? index - 1 : index + 1);
+        }
+        // The best level is also the outermost bound on its side of the ladder
+        if (bestIndex >= 0) {
+            if (bid) {
+                highIndex = bestIndex;
+            } else {
+                lowIndex = bestIndex;
+            }
+        }
+    }
+    
+    /**
+     * Walks away from the best price starting at index.
+     * 
+     * @return The first non-empty index found, or -1
+     */
+    private int scanFrom(int index) {
+        if (bid) {
+            for (int i = Math.min(index, highIndex); i >= lowIndex; i--) {
+                PriceLevelQueue level = levels[i];
+                if (level != null && !level.isEmpty()) {
+                    return i;
+                }
+            }
+        } else {
+            for (int i = Math.max(index, lowIndex); i <= highIndex; i++) {
+                PriceLevelQueue level = levels[i];
+                if (level != null && !level.isEmpty()) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Moves (and if necessary grows) the window so that it covers the given tick
+     * together with every resting level.
+     */
+    private void recenter(long tick) {
+        long spanLow = tick;
+        long spanHigh = tick;
+        if (levelCount > 0) {
+            spanLow = Math.min(spanLow, baseTick + lowIndex);
+            spanHigh = Math.max(spanHigh, baseTick + highIndex);
+        }
+        
+        int capacity = levels.length;
+        long required = spanHigh - spanLow + 1;
+        // Callers check accepts() first, so the span always fits the maximum
+        while (required > capacity) {
+            capacity = (int) Math.min((long) capacity << 1, maxLadderSize);
+        }
+        
+        // Centre on the last trade (or the new price before any trade), then shift
+        // just far enough to keep every resting level inside the window
+        long center = hasTraded ? lastTradeTick : tick;
+        long newBase = center - capacity / 2;
+        newBase = Math.max(newBase, spanHigh - capacity + 1);
+        newBase = Math.min(newBase, spanLow);
+        
+        PriceLevelQueue[] newLevels = new PriceLevelQueue[capacity];
+        if (initialized) {
+            for (int i = 0; i < levels.length; i++) {
+                PriceLevelQueue level = levels[i];
+                if (level != null) {
+                    long offset = baseTick + i - newBase;
+                    if (offset >= 0 && offset < capacity) {
+                        newLevels[(int) offset] = level;
+                    }
+                }
+            }
+        }
+        
+        levels = newLevels;
+        baseTick = newBase;
+        initialized = true;
+        
+        // Recompute the bounds in the new coordinates
+        levelCount = 0;
+        bestIndex = -1;
+        for (int i = 0; i < capacity; i++) {
+            PriceLevelQueue level = newLevels[i];
+            if (level != null && !level.isEmpty()) {
+                onLevelFilled(i);
+            }
+        }
+    }
+}
\ No newline at end of file
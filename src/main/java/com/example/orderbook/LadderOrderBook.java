@@ -0,0 +1,59 @@
+package com.example.orderbook;
+
+import com.example.models.Instrument;
+import com.example.models.TradePool;
+
+/**
+ * An order book whose sides are dense, tick-indexed price ladders instead of trees.
+ * Best price lookup, level access and depth snapshots become array index walks,
+ * which suits liquid symbols where most resting orders sit within a few hundred
+ * ticks of the last trade. Matching behaves exactly like {@link SimpleOrderBook}.
+ * <p>
+ * A side grows to cover at most {@link #MAX_LADDER_SIZE} ticks, or the initial ladder
+ * size if that is larger. Orders priced further from the resting levels than that are
+ * rejected, so one distant price cannot make the ladder allocate the whole gap.
+ */
+public class LadderOrderBook extends SimpleOrderBook {
+    public static final int DEFAULT_LADDER_SIZE = 1024;
+    public static final int MAX_LADDER_SIZE = 1 << 20;
+    
+    public LadderOrderBook(String symbol) {
+        this(Instrument.of(symbol));
+    }
+    
+    public LadderOrderBook(Instrument instrument) {
+        this(instrument, DEFAULT_LADDER_SIZE);
+    }
+    
+    /**
+     * @param instrument The instrument traded by this book
+     * @param ladderSize The initial number of ticks covered by each side; the ladder
+     *                   re-centres and grows automatically when prices move outside it,
+     *                   up to {@link #MAX_LADDER_SIZE}
+     */
+    public LadderOrderBook(Instrument instrument, int ladderSize) {
+        this(instrument, ladderSize, null);
+    }
+    
+    /**
+     * @param instrument The instrument traded by this book
+     * @param ladderSize The initial number of ticks covered by each side
+     * @param tradePool Pool to draw trades from, or null to allocate a new trade per fill
+     */
+    public LadderOrderBook(Instrument instrument, int ladderSize, TradePool tradePool) {
+        this(instrument, ladderSize, tradePool, DEFAULT_TRADE_TAPE_DEPTH);
+    }
+    
+    /**
+     * @param instrument The instrument traded by this book
+     * @param ladderSize The initial number of ticks covered by each side
+     * @param tradePool Pool to draw trades from, or null to allocate a new trade per fill
+     * @param tradeTapeDepth The number of recent trades to keep
+     */
+    public LadderOrderBook(Instrument instrument, int ladderSize, TradePool tradePool, int tradeTapeDepth) {
+        super(instrument,
+                new LadderBookSide(true, instrument.getTickSize(), ladderSize, Math.max(ladderSize, MAX_LADDER_SIZE)),
+                new LadderBookSide(false, instrument.getTickSize(), ladderSize, Math.max(ladderSize, MAX_LADDER_SIZE)),
+                tradePool, tradeTapeDepth);
+    }
+}
\ No newline at end of file
@@ -19,10 +19,10 @@ public class MarketDepth {
         this.asks = asks;
         
         // Ensure bids are sorted in descending order (highest price first)
-        bids.sort((a, b) -> b.getPrice().compareTo(a.getPrice()));
+        bids.sort((a, b) -> PriceLevel.comparePrices(b, a));
         
         // Ensure asks are sorted in ascending order (lowest price first)
-        asks.sort(Comparator.comparing(PriceLevel::getPrice));
+        asks.sort(PriceLevel::comparePrices);
     }
     
     public String getSymbol() {
@@ -57,21 +57,40 @@ public class MarketDepth {
      * Represents a single price level in the order book with its total quantity.
      */
     public static class PriceLevel {
-        private final BigDecimal price;
-        private final BigInteger quantity;
+        // Price is held as a scaled long (price = rawPrice * 10^-priceScale)
+        private final long rawPrice;
+        private final int priceScale;
+        private final long quantity;
         private final int orderCount;
         
         public PriceLevel(BigDecimal price, BigInteger quantity, int orderCount) {
-            this.price = price;
+            this(price.unscaledValue().longValueExact(), price.scale(), quantity.longValueExact(), orderCount);
+        }
+        
+        public PriceLevel(long rawPrice, int priceScale, long quantity, int orderCount) {
+            this.rawPrice = rawPrice;
+            this.priceScale = priceScale;
             this.quantity = quantity;
             this.orderCount = orderCount;
         }
         
         public BigDecimal getPrice() {
-            return price;
+            return BigDecimal.valueOf(rawPrice, priceScale);
         }
         
         public BigInteger getQuantity() {
+            return BigInteger.valueOf(quantity);
+        }
+        
+        public long getRawPrice() {
+            return rawPrice;
+        }
+        
+        public int getPriceScale() {
+            return priceScale;
+        }
+        
+        public long getRawQuantity() {
             return quantity;
         }
         
@@ -79,10 +98,21 @@ public class MarketDepth {
             return orderCount;
         }
         
+        /**
+         * Compares two levels by price, without leaving long arithmetic when
+         * both levels share a scale.
+         */
+        static int comparePrices(PriceLevel a, PriceLevel b) {
+            if (a.priceScale == b.priceScale) {
+                return Long.compare(a.rawPrice, b.rawPrice);
+            }
+            return a.getPrice().compareTo(b.getPrice());
+        }
+        
         @Override
         public String toString() {
-            return String.format("[Price: %s, Quantity: %s, Orders: %d]", 
-                    price.toPlainString(), quantity.toString(), orderCount);
+            return String.format("[Price: %s, Quantity: %d, Orders: %d]",
+                    getPrice().toPlainString(), quantity, orderCount);
         }
     }
     
@@ -0,0 +1,338 @@
+package com.example.orderbook;
+
+import com.example.journal.JournalReader;
+import com.example.journal.MappedJournal;
+import com.example.models.IdGenerator;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A single matching thread fed by a Disruptor ring, shared by any number of order books.
+ * Each command carries the book it targets, so the thread dispatches without any lookup
+ * and books can be attached to a running shard at any time. Every book is only ever
+ * touched by its shard's thread, so shards never need to coordinate with each other.
+ * <p>
+ * If the shard has a journal, every command is appended to it before it is matched.
+ * Books take their time from the command being applied rather than the wall clock, and
+ * IDs are assigned before commands are journaled, so replaying the journal reproduces
+ * the same trades. With a snapshot store, {@link #requestSnapshot} captures every book
+ * on the shard thread and writes it in the background, and {@link #recover} loads the
+ * latest snapshot and replays only the journal written after it.
+ */
+public class MatchingShard {
+    private static final Logger logger = LoggerFactory.getLogger(MatchingShard.class);
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+    
+    private final int shardId;
+    private final Disruptor<DisruptorOrderBook.OrderCommand> disruptor;
+    private final RingBuffer<DisruptorOrderBook.OrderCommand> ringBuffer;
+    private final List<DisruptorOrderBook> books;
+    private final CommandClock commandClock;
+    private MappedJournal journal;
+    private SnapshotStore snapshotStore;
+    // Journal sequence of the first command on the ring, so sequences keep increasing across restarts
+    private long sequenceOffset;
+    private boolean started;
+    private boolean stopped;
+    
+    public MatchingShard(int shardId) {
+        this(shardId, DEFAULT_BUFFER_SIZE, new BlockingWaitStrategy());
+    }
+    
+    /**
+     * @param shardId Identifies the shard in thread names and logs
+     * @param bufferSize The ring size; must be a power of 2
+     * @param waitStrategy How the matching thread waits for commands (busy-spin or yielding
+     *                     strategies suit shards that own a dedicated core)
+     */
+    public MatchingShard(int shardId, int bufferSize, WaitStrategy waitStrategy) {
+        this.shardId = shardId;
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "matching-shard-" + shardId);
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.disruptor = new Disruptor<>(
+                DisruptorOrderBook.OrderCommand::new,
+                bufferSize,
+                threadFactory,
+                ProducerType.MULTI,
+                waitStrategy);
+        this.ringBuffer = disruptor.getRingBuffer();
+        this.books = new CopyOnWriteArrayList<>();
+        this.commandClock = new CommandClock();
+    }
+    
+    public int getShardId() {
+        return shardId;
+    }
+    
+    /**
+     * Journals every command before matching it. Must be called before {@link #start};
+     * the shard closes the journal when it shuts down.
+     * 
+     * @param journal The journal to append to
+     */
+    public synchronized void setJournal(MappedJournal journal) {
+        checkNotStarted();
+        this.journal = journal;
+    }
+    
+    /**
+     * Enables snapshots. Must be called before {@link #start}; the shard closes the
+     * store when it shuts down.
+     * 
+     * @param snapshotStore Where snapshots are written and recovered from
+     */
+    public synchronized void setSnapshotStore(SnapshotStore snapshotStore) {
+        checkNotStarted();
+        this.snapshotStore = snapshotStore;
+    }
+    
+    /**
+     * Rebuilds the state of every attached book from the latest snapshot and the journal
+     * tail that follows it. Must be called after the books are attached and before
+     * {@link #start}; listeners registered on the books see the replayed events.
+     * 
+     * @return The number of journaled commands replayed
+     */
+    public synchronized long recover() throws IOException {
+        checkNotStarted();
+        Map<String, SimpleOrderBook> booksBySymbol = new HashMap<>();
+        for (DisruptorOrderBook book : books) {
+            booksBySymbol.put(book.getSymbol(), book.getDelegate());
+        }
+        
+        long lastSequence = -1;
+        int fromSegment = 0;
+        int fromPosition = 0;
+        if (snapshotStore != null) {
+            ByteBuffer snapshot = snapshotStore.loadLatest();
+            if (snapshot != null) {
+                SnapshotCodec.Header header = SnapshotCodec.restore(snapshot, booksBySymbol);
+                lastSequence = header.sequence;
+                fromSegment = header.journalSegment;
+                fromPosition = header.journalPosition;
+                IdGenerator.ORDERS.advanceTo(header.maxOrderId);
+            }
+        }
+        
+        long replayed = 0;
+        if (journal != null) {
+            JournalReplay replay = new JournalReplay(booksBySymbol, lastSequence);
+            new JournalReader(journal.getDirectory(), journal.getName()).readFrom(fromSegment, fromPosition, replay);
+            lastSequence = replay.lastSequence;
+            replayed = replay.applied;
+        }
+        
+        sequenceOffset = lastSequence + 1;
+        logger.info("Shard {} recovered to sequence {} ({} journaled commands replayed)", shardId, lastSequence, replayed);
+        return replayed;
+    }
+    
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        CommandDispatcher dispatcher = new CommandDispatcher();
+        if (journal != null) {
+            disruptor.handleEventsWith(new JournalingHandler(journal, sequenceOffset)).then(dispatcher);
+        } else {
+            disruptor.handleEventsWith(dispatcher);
+        }
+        // A command that fails to apply is reported and skipped rather than stopping every book
+        // on the shard; a journal that cannot be written still halts it, as nothing may be
+        // matched that is not durable
+        disruptor.handleExceptionsFor(dispatcher).with(new CommandExceptionHandler());
+        disruptor.start();
+        started = true;
+    }
+    
+    /**
+     * Asks the shard thread to capture every book at the current point in the command stream.
+     * Has no effect without a snapshot store.
+     * 
+     * @return The ring sequence of the snapshot command
+     */
+    public long requestSnapshot() {
+        long sequence = ringBuffer.next();
+        try {
+            DisruptorOrderBook.OrderCommand command = ringBuffer.get(sequence);
+            command.setTarget(null);
+            command.setType(CommandType.SNAPSHOT);
+            command.setOrder(null);
+            command.setOrderId(0);
+            command.setFuture(null);
+            command.setTimestamp(0);
+            command.setJournalPosition(-1, -1);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+        return sequence;
+    }
+    
+    /**
+     * Processes every command already published, then stops the matching thread.
+     */
+    public synchronized void shutdown() {
+        if (!started || stopped) {
+            return;
+        }
+        disruptor.shutdown();
+        stopped = true;
+        if (snapshotStore != null) {
+            snapshotStore.close();
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to close journal for shard " + shardId, e);
+            }
+        }
+    }
+    
+    // Called by books created on this shard
+    void attach(DisruptorOrderBook book) {
+        book.getDelegate().setClock(commandClock);
+        books.add(book);
+    }
+    
+    RingBuffer<DisruptorOrderBook.OrderCommand> getRingBuffer() {
+        return ringBuffer;
+    }
+    
+    CommandClock getCommandClock() {
+        return commandClock;
+    }
+    
+    private void checkNotStarted() {
+        if (started) {
+            throw new IllegalStateException("Shard " + shardId + " is already running");
+        }
+    }
+    
+    private void captureSnapshot(DisruptorOrderBook.OrderCommand command, long sequence) {
+        if (snapshotStore == null) {
+            return;
+        }
+        List<SimpleOrderBook> delegates = new ArrayList<>(books.size());
+        for (DisruptorOrderBook book : books) {
+            delegates.add(book.getDelegate());
+        }
+        long journalSequence = sequenceOffset + sequence;
+        SnapshotCodec.Header header = new SnapshotCodec.Header(journalSequence,
+                command.getJournalSegment(), command.getJournalPosition(), IdGenerator.ORDERS.current());
+        snapshotStore.writeAsync(journalSequence, SnapshotCodec.encode(header, delegates));
+    }
+    
+    // Runs on the shard thread and hands each command to the book it targets
+    private class CommandDispatcher implements EventHandler<DisruptorOrderBook.OrderCommand> {
+        @Override
+        public void onEvent(DisruptorOrderBook.OrderCommand command, long sequence, boolean endOfBatch) {
+            if (command.getType() == CommandType.SNAPSHOT) {
+                captureSnapshot(command, sequence);
+            } else {
+                commandClock.set(command.getTimestamp());
+                command.getTarget().apply(command, sequence);
+            }
+            if (endOfBatch) {
+                for (int i = 0; i < books.size(); i++) {
+                    books.get(i).getDelegate().notifyEndOfBatch();
+                }
+            }
+        }
+    }
+    
+    // Fails the command's future and carries on with the next command
+    private class CommandExceptionHandler implements ExceptionHandler<DisruptorOrderBook.OrderCommand> {
+        @Override
+        public void handleEventException(Throwable ex, long sequence, DisruptorOrderBook.OrderCommand command) {
+            logger.error("Shard {} failed to apply {} command {} for order {}", shardId,
+                    command == null ? null : command.getType(), sequence,
+                    command == null ? 0 : command.getOrderId(), ex);
+            if (command != null) {
+                CompletableFuture<Boolean> future = command.getFuture();
+                if (future != null) {
+                    future.completeExceptionally(ex);
+                }
+                command.setOrder(null);
+                command.setOrderIds(null);
+                command.setFuture(null);
+            }
+        }
+        
+        @Override
+        public void handleOnStartException(Throwable ex) {
+            logger.error("Shard {} failed to start", shardId, ex);
+        }
+        
+        @Override
+        public void handleOnShutdownException(Throwable ex) {
+            logger.error("Shard {} failed to shut down", shardId, ex);
+        }
+    }
+    
+    // Applies journaled commands newer than the snapshot directly to the books
+    private class JournalReplay implements JournalReader.RecordHandler {
+        private final Map<String, SimpleOrderBook> booksBySymbol;
+        private long lastSequence;
+        private long applied;
+        
+        JournalReplay(Map<String, SimpleOrderBook> booksBySymbol, long lastSequence) {
+            this.booksBySymbol = booksBySymbol;
+            this.lastSequence = lastSequence;
+        }
+        
+        @Override
+        public void onRecord(ByteBuffer buffer) {
+            CommandCodec.Record record = CommandCodec.decode(buffer);
+            if (record.sequence <= lastSequence) {
+                return;
+            }
+            lastSequence = record.sequence;
+            
+            SimpleOrderBook book = record.bookSymbol == null ? null : booksBySymbol.get(record.bookSymbol);
+            if (book == null) {
+                return; // Snapshot markers, or instruments no longer listed on this shard
+            }
+            commandClock.set(record.timestamp);
+            switch (record.type) {
+                case ADD_ORDER:
+                    IdGenerator.ORDERS.advanceTo(record.orderId);
+                    book.addOrder(record.order);
+                    break;
+                case CANCEL_ORDER:
+                    book.cancelOrder(record.orderId);
+                    break;
+                case MODIFY_ORDER:
+                    book.modifyOrder(record.orderId, record.rawPrice, record.quantity);
+                    break;
+                case MASS_CANCEL:
+                    book.cancelOrders(record.orderIds, record.orderIds.length);
+                    break;
+                default:
+                    break;
+            }
+            applied++;
+        }
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.orderbook;
 
+import com.example.models.Instrument;
 import com.example.models.Order;
 import com.example.models.Trade;
 
@@ -7,6 +8,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface defining the essential operations for an order book.
@@ -31,6 +33,14 @@ public interface OrderBook {
      */
     boolean cancelOrder(UUID orderId);
     
+    /**
+     * Cancels an existing order by its engine-assigned ID.
+     * 
+     * @param orderId The engine ID of the order to cancel
+     * @return True if the order was successfully canceled, false if the order doesn't exist or can't be canceled
+     */
+    boolean cancelOrder(long orderId);
+    
     /**
      * Modifies an existing order in the order book.
      * 
@@ -41,6 +51,69 @@ public interface OrderBook {
      */
     boolean modifyOrder(UUID orderId, BigDecimal newPrice, BigInteger newQuantity);
     
+    /**
+     * Modifies an existing order by its engine-assigned ID using fixed-point values.
+     * 
+     * @param orderId The engine ID of the order to modify
+     * @param newRawPrice The new price at the instrument's scale ({@link Order#NO_PRICE} if unchanged)
+     * @param newQuantity The new quantity for the order (0 if unchanged)
+     * @return True if the order was successfully modified, false otherwise
+     */
+    boolean modifyOrder(long orderId, long newRawPrice, long newQuantity);
+    
+    /**
+     * Cancels a batch of orders by their engine-assigned IDs as a single command.
+     * 
+     * @param orderIds The engine IDs of the orders to cancel; the entry of each order that
+     *                 could not be canceled is set to 0
+     * @param count The number of IDs, from the start of the array
+     * @return The number of orders canceled
+     */
+    int cancelOrders(long[] orderIds, int count);
+    
+    /**
+     * Adds an order without waiting for a matching thread. Books that match on the
+     * caller's thread apply the order before returning a completed future.
+     * 
+     * @param order The order to be added
+     * @return A future completed with whether the order was added
+     */
+    default CompletableFuture<Boolean> addOrderAsync(Order order) {
+        return CompletableFuture.completedFuture(addOrder(order));
+    }
+    
+    /**
+     * Cancels an order without waiting for a matching thread.
+     * 
+     * @param orderId The engine ID of the order to cancel
+     * @return A future completed with whether the order was canceled
+     * @see #addOrderAsync(Order)
+     */
+    default CompletableFuture<Boolean> cancelOrderAsync(long orderId) {
+        return CompletableFuture.completedFuture(cancelOrder(orderId));
+    }
+    
+    /**
+     * Cancels a batch of orders without waiting for a matching thread. The entries of the
+     * orders that could not be canceled are set to 0 by the time the future completes.
+     * 
+     * @return A future completed with whether any order was canceled
+     * @see #cancelOrders(long[], int)
+     */
+    default CompletableFuture<Boolean> cancelOrdersAsync(long[] orderIds, int count) {
+        return CompletableFuture.completedFuture(cancelOrders(orderIds, count) > 0);
+    }
+    
+    /**
+     * Modifies an order without waiting for a matching thread.
+     * 
+     * @return A future completed with whether the order was modified
+     * @see #modifyOrder(long, long, long)
+     */
+    default CompletableFuture<Boolean> modifyOrderAsync(long orderId, long newRawPrice, long newQuantity) {
+        return CompletableFuture.completedFuture(modifyOrder(orderId, newRawPrice, newQuantity));
+    }
+    
     /**
      * Gets the best bid price (highest buy price) in the order book.
      * 
@@ -79,6 +152,14 @@ public interface OrderBook {
      */
     Order getOrder(UUID orderId);
     
+    /**
+     * Gets a specific order by its engine-assigned ID.
+     * 
+     * @param orderId The engine ID of the order to retrieve
+     * @return The order if found, null otherwise
+     */
+    Order getOrder(long orderId);
+    
     /**
      * Gets the trading symbol this order book is for.
      * 
@@ -86,6 +167,13 @@ public interface OrderBook {
      */
     String getSymbol();
     
+    /**
+     * Gets the instrument definition (price scale and tick size) this order book trades.
+     * 
+     * @return The instrument
+     */
+    Instrument getInstrument();
+    
     /**
      * Gets the recent trades that have occurred in this order book.
      * 
@@ -28,6 +28,17 @@ public interface OrderBookEventListener {
      */
     void onOrderCanceled(UUID orderId, Order order);
     
+    /**
+     * Called by the order book when an order is canceled. The default forwards to
+     * {@link #onOrderCanceled(UUID, Order)}; listeners that only need the engine ID
+     * can override this to avoid creating a UUID.
+     * 
+     * @param order The order that was canceled
+     */
+    default void onOrderCanceled(Order order) {
+        onOrderCanceled(order.getId(), order);
+    }
+    
     /**
      * Called when an order is modified in the order book.
      * 
@@ -37,6 +48,21 @@ public interface OrderBookEventListener {
      */
     void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity);
     
+    /**
+     * Called by the order book when an order is modified, with the old values in
+     * fixed-point form. The default converts them and forwards to
+     * {@link #onOrderModified(Order, BigDecimal, BigInteger)}.
+     * 
+     * @param order The order after modification
+     * @param oldRawPrice The price before modification, at the order's price scale
+     * @param oldQuantity The quantity before modification
+     */
+    default void onOrderModified(Order order, long oldRawPrice, long oldQuantity) {
+        onOrderModified(order,
+                oldRawPrice == Order.NO_PRICE ? null : BigDecimal.valueOf(oldRawPrice, order.getPriceScale()),
+                BigInteger.valueOf(oldQuantity));
+    }
+    
     /**
      * Called when a trade is executed in the order book.
      * 
@@ -59,4 +85,49 @@ public interface OrderBookEventListener {
      * @param oldBestAsk The old best ask price
      */
     void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk);
+    
+    /**
+     * Called whenever the total quantity or order count at a price level may have changed.
+     * Prices and quantities are in the book's fixed-point form, at the instrument's scale.
+     * 
+     * @param symbol The symbol of the book
+     * @param isBid True for the bid side, false for the ask side
+     * @param rawPrice The scaled price of the level
+     * @param quantity The total quantity now resting at the level, zero if the level is gone
+     * @param orderCount The number of orders now resting at the level
+     */
+    default void onPriceLevelChanged(String symbol, boolean isBid, long rawPrice, long quantity, int orderCount) {
+    }
+    
+    /**
+     * Called once an operation on the book has changed the best bid or ask, in price or
+     * in size. Prices are at the instrument's scale, {@link Order#NO_PRICE} for an empty side.
+     * 
+     * @param symbol The symbol of the book
+     * @param bidPrice The best bid price
+     * @param bidQuantity The total quantity at the best bid
+     * @param askPrice The best ask price
+     * @param askQuantity The total quantity at the best ask
+     */
+    default void onTopOfBookChanged(String symbol, long bidPrice, long bidQuantity, long askPrice, long askQuantity) {
+    }
+    
+    /**
+     * Called once the book has finished applying an operation, after every other event
+     * the operation caused.
+     * 
+     * @param symbol The symbol of the book
+     */
+    default void onCommandComplete(String symbol) {
+    }
+    
+    /**
+     * Called when the {@link MatchingShard} running the book has applied every command
+     * waiting on its ring, before it waits for more. Books that are not sequenced by a
+     * shard never call this.
+     * 
+     * @param symbol The symbol of the book
+     */
+    default void onEndOfBatch(String symbol) {
+    }
 }
\ No newline at end of file
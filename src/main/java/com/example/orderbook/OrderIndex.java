@@ -0,0 +1,179 @@
+package com.example.orderbook;
+
+import com.example.models.Order;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open-addressing hash index from long order ID to Order.
+ * Keys are primitive longs in a flat array probed linearly, and deletion shifts
+ * entries back instead of leaving tombstones, so lookups, inserts and removals
+ * allocate nothing once the table has grown to its working size.
+ * <p>
+ * The index has a single writer. Lookups from other threads are best-effort: they
+ * never see a wrong order (the value is checked against the key), but may miss an
+ * order that is being moved concurrently.
+ */
+public final class OrderIndex {
+    private static final long EMPTY = 0L; // Order IDs start at 1
+    private static final int DEFAULT_CAPACITY = 1024;
+    
+    private long[] keys;
+    private Order[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    
+    public OrderIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public OrderIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+    
+    /**
+     * @param orderId The order ID
+     * @return The indexed order, or null if there is none
+     */
+    public Order get(long orderId) {
+        long[] keys = this.keys;
+        Order[] values = this.values;
+        int mask = keys.length - 1;
+        for (int i = hash(orderId) & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            long key = keys[i];
+            if (key == orderId) {
+                Order order = values[i];
+                return order != null && order.getRawId() == orderId ? order : null;
+            }
+            if (key == EMPTY) {
+                return null;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Indexes an order under its ID, replacing any order with the same ID.
+     * 
+     * @param order The order
+     */
+    public void put(Order order) {
+        long orderId = order.getRawId();
+        for (int i = hash(orderId) & mask; ; i = (i + 1) & mask) {
+            long key = keys[i];
+            if (key == EMPTY) {
+                values[i] = order;
+                keys[i] = orderId;
+                if (++size > resizeThreshold) {
+                    allocate(keys.length << 1);
+                }
+                return;
+            }
+            if (key == orderId) {
+                values[i] = order;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * @param orderId The order ID
+     * @return The removed order, or null if there was none
+     */
+    public Order remove(long orderId) {
+        for (int i = hash(orderId) & mask; ; i = (i + 1) & mask) {
+            long key = keys[i];
+            if (key == EMPTY) {
+                return null;
+            }
+            if (key == orderId) {
+                Order removed = values[i];
+                shiftBack(i);
+                size--;
+                return removed;
+            }
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Appends every indexed order to the given list.
+     * 
+     * @param target The list to fill
+     */
+    public void copyTo(List<Order> target) {
+        Order[] values = this.values;
+        for (Order order : values) {
+            if (order != null) {
+                target.add(order);
+            }
+        }
+    }
+    
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+    
+    // Backward-shift deletion keeps probe sequences intact without tombstones
+    private void shiftBack(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            long key = keys[i];
+            if (key == EMPTY) {
+                break;
+            }
+            int home = hash(key) & mask;
+            // Move the entry into the hole unless its home slot lies cyclically in (hole, i]
+            boolean stays = hole <= i ? (hole < home && home <= i) : (hole < home || home <= i);
+            if (!stays) {
+                keys[hole] = key;
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+    }
+    
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        Order[] oldValues = values;
+        
+        long[] newKeys = new long[capacity];
+        Order[] newValues = new Order[capacity];
+        int newMask = capacity - 1;
+        if (oldKeys != null) {
+            for (int j = 0; j < oldKeys.length; j++) {
+                long key = oldKeys[j];
+                if (key != EMPTY) {
+                    int i = hash(key) & newMask;
+                    while (newKeys[i] != EMPTY) {
+                        i = (i + 1) & newMask;
+                    }
+                    newKeys[i] = key;
+                    newValues[i] = oldValues[j];
+                }
+            }
+        }
+        
+        this.values = newValues;
+        this.keys = newKeys;
+        this.mask = newMask;
+        this.resizeThreshold = capacity >> 1; // Load factor 0.5
+    }
+    
+    private static int hash(long key) {
+        // Fibonacci hashing spreads sequential IDs across the table
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
\ No newline at end of file
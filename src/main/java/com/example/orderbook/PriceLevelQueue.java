@@ -0,0 +1,121 @@
+package com.example.orderbook;
+
+import com.example.models.Order;
+
+/**
+ * The resting orders at a single price on one side of the book, in time priority.
+ * This is an intrusive doubly-linked queue: each order carries its own links and a
+ * reference back to its level, so appending, removing any order (cancel, fill) and
+ * reducing quantity in place are all constant time and allocation free.
+ * The level also keeps running totals of open quantity and order count so depth
+ * queries never have to walk the orders; all quantity changes to resting orders
+ * must therefore go through {@link #fill} and {@link #updateQuantity}.
+ */
+public final class PriceLevelQueue {
+    private long price;
+    private Order head;
+    private Order tail;
+    private int size;
+    private long totalQuantity;
+    
+    PriceLevelQueue(long price) {
+        this.price = price;
+    }
+    
+    long getPrice() {
+        return price;
+    }
+    
+    // Only valid while the level is empty; lets ladder slots be reused
+    void setPrice(long price) {
+        this.price = price;
+    }
+    
+    boolean isEmpty() {
+        return head == null;
+    }
+    
+    /**
+     * @return The number of orders resting at this price
+     */
+    int getOrderCount() {
+        return size;
+    }
+    
+    /**
+     * @return The order with time priority at this price, or null if the level is empty
+     */
+    Order peek() {
+        return head;
+    }
+    
+    void add(Order order) {
+        order.setLevel(this);
+        order.setPrevInLevel(tail);
+        order.setNextInLevel(null);
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.setNextInLevel(order);
+        }
+        tail = order;
+        size++;
+        totalQuantity += order.getRawRemainingQuantity();
+    }
+    
+    boolean remove(Order order) {
+        if (order.getLevel() != this) {
+            return false;
+        }
+        
+        Order prev = order.getPrevInLevel();
+        Order next = order.getNextInLevel();
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.setNextInLevel(next);
+        }
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.setPrevInLevel(prev);
+        }
+        
+        order.setLevel(null);
+        order.setPrevInLevel(null);
+        order.setNextInLevel(null);
+        size--;
+        totalQuantity -= order.getRawRemainingQuantity();
+        return true;
+    }
+    
+    /**
+     * Records an execution against an order resting at this level.
+     * 
+     * @param order The resting order
+     * @param quantity The executed quantity
+     */
+    void fill(Order order, long quantity) {
+        order.setRawFilledQuantity(order.getRawFilledQuantity() + quantity);
+        totalQuantity -= quantity;
+    }
+    
+    /**
+     * Changes the total quantity of an order resting at this level without
+     * affecting its position in the queue.
+     * 
+     * @param order The resting order
+     * @param quantity The new total (not remaining) quantity
+     */
+    void updateQuantity(Order order, long quantity) {
+        totalQuantity += quantity - order.getRawQuantity();
+        order.setRawQuantity(quantity);
+    }
+    
+    /**
+     * @return The total remaining quantity of all orders at this price
+     */
+    long getTotalQuantity() {
+        return totalQuantity;
+    }
+}
\ No newline at end of file
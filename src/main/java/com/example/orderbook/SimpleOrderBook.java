@@ -1,34 +1,88 @@
 package com.example.orderbook;
 
+import com.example.models.IdGenerator;
+import com.example.models.Instrument;
+import com.example.models.NanoClock;
 import com.example.models.Order;
 import com.example.models.OrderSide;
 import com.example.models.OrderStatus;
 import com.example.models.Trade;
+import com.example.models.TradePool;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A simple implementation of the OrderBook interface.
+ * Prices and quantities are kept as scaled longs at the instrument's price scale;
+ * BigDecimal values only appear at the interface boundary.
+ * <p>
+ * Orders taken from an {@link com.example.models.OrderPool} are dropped from the book and
+ * released once they are filled or canceled. If the book is given a {@link TradePool},
+ * trades are recycled as soon as listeners have been notified. With both, adding,
+ * canceling and matching orders on a ladder book allocates nothing in steady state.
+ * <p>
+ * Recent trades are copied onto a fixed-size {@link TradeTape}, which other threads
+ * can read without locking.
  */
 public class SimpleOrderBook implements OrderBook {
+    public static final int DEFAULT_TRADE_TAPE_DEPTH = 1024;
+    
+    private final Instrument instrument;
     private final String symbol;
-    private final Map<UUID, Order> orders;
-    private final NavigableMap<BigDecimal, List<Order>> bidOrders;
-    private final NavigableMap<BigDecimal, List<Order>> askOrders;
-    private final List<Trade> recentTrades;
-    private final List<OrderBookEventListener> listeners;
+    private final OrderIndex orders;
+    private final BookSide bidOrders;
+    private final BookSide askOrders;
+    private final TradeTape tradeTape;
+    private final TradePool tradePool;
+    // Copy-on-write snapshot, so notifying listeners never allocates an iterator
+    private volatile OrderBookEventListener[] listeners;
+    private long lastTradeId;
+    // Best bid and ask as last reported to listeners
+    private long topBidPrice = Order.NO_PRICE;
+    private long topBidQuantity;
+    private long topAskPrice = Order.NO_PRICE;
+    private long topAskQuantity;
+    // Time source for trades and order updates; replaced with the command clock when sequenced
+    private NanoClock clock = NanoClock.SYSTEM;
     
     public SimpleOrderBook(String symbol) {
-        this.symbol = symbol;
-        this.orders = new ConcurrentHashMap<>();
-        this.bidOrders = new TreeMap<>(Collections.reverseOrder()); // Highest price first
-        this.askOrders = new TreeMap<>(); // Lowest price first
-        this.recentTrades = new ArrayList<>();
-        this.listeners = new CopyOnWriteArrayList<>();
+        this(Instrument.of(symbol));
+    }
+    
+    public SimpleOrderBook(Instrument instrument) {
+        this(instrument, null);
+    }
+    
+    /**
+     * @param instrument The instrument traded in this book
+     * @param tradePool Pool to draw trades from, or null to allocate a new trade per fill
+     */
+    public SimpleOrderBook(Instrument instrument, TradePool tradePool) {
+        this(instrument, tradePool, DEFAULT_TRADE_TAPE_DEPTH);
+    }
+    
+    /**
+     * @param instrument The instrument traded in this book
+     * @param tradePool Pool to draw trades from, or null to allocate a new trade per fill
+     * @param tradeTapeDepth The number of recent trades to keep
+     */
+    public SimpleOrderBook(Instrument instrument, TradePool tradePool, int tradeTapeDepth) {
+        this(instrument, new TreeBookSide(true), new TreeBookSide(false), tradePool, tradeTapeDepth);
+    }
+    
+    // Lets other implementations reuse the matching logic over a different side structure
+    SimpleOrderBook(Instrument instrument, BookSide bidOrders, BookSide askOrders, TradePool tradePool,
+                    int tradeTapeDepth) {
+        this.instrument = instrument;
+        this.symbol = instrument.getSymbol();
+        this.orders = new OrderIndex();
+        this.bidOrders = bidOrders; // Highest price first
+        this.askOrders = askOrders; // Lowest price first
+        this.tradeTape = new TradeTape(tradeTapeDepth);
+        this.tradePool = tradePool;
+        this.listeners = new OrderBookEventListener[0];
     }
     
     @Override
@@ -37,125 +91,193 @@ public class SimpleOrderBook implements OrderBook {
             return false;
         }
         
-        orders.put(order.getId(), order);
+        // Bring the order onto the instrument's scale and tick grid
+        long rawPrice = instrument.rescale(order.getRawPrice(), order.getPriceScale());
+        if (!instrument.isValidPrice(rawPrice)) {
+            return false;
+        }
+        boolean isBid = order.getSide() == OrderSide.BUY;
+        BookSide bookSide = isBid ? bidOrders : askOrders;
+        if (!bookSide.accepts(rawPrice)) {
+            return false;
+        }
+        if (order.getPriceScale() != instrument.getPriceScale()) {
+            order.setRawPrice(rawPrice, instrument.getPriceScale());
+        }
         
-        NavigableMap<BigDecimal, List<Order>> orderMap = order.getSide() == OrderSide.BUY ? bidOrders : askOrders;
-        orderMap.computeIfAbsent(order.getPrice(), k -> new ArrayList<>()).add(order);
+        // Indexed only once it rests, so a failed add leaves nothing behind
+        bookSide.add(order);
+        orders.put(order);
         
         // Notify listeners
         for (OrderBookEventListener listener : listeners) {
             listener.onOrderAdded(order);
         }
+        notifyLevelChanged(isBid, order.getLevel());
         
         // Match orders
-        List<Trade> trades = matchOrders();
+        match(null);
+        notifyTopOfBook();
+        notifyCommandComplete();
         
         return true;
     }
     
     @Override
     public boolean cancelOrder(UUID orderId) {
+        return cancelOrder(IdGenerator.fromUuid(orderId));
+    }
+    
+    @Override
+    public boolean cancelOrder(long orderId) {
         Order order = orders.get(orderId);
-        if (order == null) {
+        if (order == null || order.getLevel() == null) {
+            // Unknown, or filled and no longer resting in the book
             return false;
         }
         
-        NavigableMap<BigDecimal, List<Order>> orderMap = order.getSide() == OrderSide.BUY ? bidOrders : askOrders;
-        List<Order> ordersAtPrice = orderMap.get(order.getPrice());
-        if (ordersAtPrice != null) {
-            ordersAtPrice.remove(order);
-            if (ordersAtPrice.isEmpty()) {
-                orderMap.remove(order.getPrice());
-            }
-        }
+        boolean isBid = order.getSide() == OrderSide.BUY;
+        BookSide bookSide = isBid ? bidOrders : askOrders;
+        PriceLevelQueue level = order.getLevel();
+        bookSide.remove(order);
         
         orders.remove(orderId);
         order.setStatus(OrderStatus.CANCELED);
+        order.setUpdatedNanos(clock.nanoTime());
         
         // Notify listeners
         for (OrderBookEventListener listener : listeners) {
-            listener.onOrderCanceled(orderId, order);
+            listener.onOrderCanceled(order);
         }
+        notifyLevelChanged(isBid, level);
+        notifyTopOfBook();
+        notifyCommandComplete();
         
+        order.release();
         return true;
     }
     
+    @Override
+    public int cancelOrders(long[] orderIds, int count) {
+        int canceled = 0;
+        for (int i = 0; i < count; i++) {
+            if (cancelOrder(orderIds[i])) {
+                canceled++;
+            } else {
+                orderIds[i] = 0;
+            }
+        }
+        return canceled;
+    }
+    
     @Override
     public boolean modifyOrder(UUID orderId, BigDecimal newPrice, BigInteger newQuantity) {
+        long newRawPrice = Order.NO_PRICE;
+        if (newPrice != null) {
+            newRawPrice = instrument.toRawPrice(newPrice);
+            if (newRawPrice == Order.NO_PRICE) {
+                return false;
+            }
+        }
+        return modifyOrder(IdGenerator.fromUuid(orderId), newRawPrice,
+                newQuantity != null ? newQuantity.longValueExact() : 0);
+    }
+    
+    @Override
+    public boolean modifyOrder(long orderId, long newRawPrice, long newQuantity) {
         Order order = orders.get(orderId);
-        if (order == null) {
+        if (order == null || order.getLevel() == null) {
+            // Unknown, or no longer resting in the book
             return false;
         }
         
-        BigDecimal oldPrice = order.getPrice();
-        BigInteger oldQuantity = order.getQuantity();
-        
-        // Remove from old price level
-        NavigableMap<BigDecimal, List<Order>> orderMap = order.getSide() == OrderSide.BUY ? bidOrders : askOrders;
-        List<Order> ordersAtPrice = orderMap.get(oldPrice);
-        if (ordersAtPrice != null) {
-            ordersAtPrice.remove(order);
-            if (ordersAtPrice.isEmpty()) {
-                orderMap.remove(oldPrice);
-            }
+        boolean isBid = order.getSide() == OrderSide.BUY;
+        BookSide bookSide = isBid ? bidOrders : askOrders;
+        if (newRawPrice == Order.NO_PRICE) {
+            newRawPrice = order.getRawPrice();
+        } else if (!instrument.isValidPrice(newRawPrice) || !bookSide.accepts(newRawPrice)) {
+            return false;
         }
         
-        // Update order
-        if (newPrice != null) {
-            order.setPrice(newPrice);
-        }
-        if (newQuantity != null) {
-            order.setQuantity(newQuantity);
+        long newRawQuantity = newQuantity > 0 ? newQuantity : order.getRawQuantity();
+        if (newRawQuantity <= order.getRawFilledQuantity()) {
+            return false;
         }
         
-        // Add to new price level
-        orderMap.computeIfAbsent(order.getPrice(), k -> new ArrayList<>()).add(order);
+        long oldRawPrice = order.getRawPrice();
+        long oldRawQuantity = order.getRawQuantity();
+        
+        PriceLevelQueue oldLevel = order.getLevel();
+        if (newRawPrice == order.getRawPrice() && newRawQuantity <= order.getRawQuantity()) {
+            // Reducing quantity at the same price keeps time priority and is done in place
+            order.getLevel().updateQuantity(order, newRawQuantity);
+        } else {
+            // Any other change loses priority: move to the back of the new price level
+            bookSide.remove(order);
+            order.setRawPrice(newRawPrice, instrument.getPriceScale());
+            order.setRawQuantity(newRawQuantity);
+            bookSide.add(order);
+        }
+        order.setUpdatedNanos(clock.nanoTime());
         
         // Notify listeners
         for (OrderBookEventListener listener : listeners) {
-            listener.onOrderModified(order, oldPrice, oldQuantity);
+            listener.onOrderModified(order, oldRawPrice, oldRawQuantity);
         }
+        if (order.getLevel() != oldLevel) {
+            notifyLevelChanged(isBid, oldLevel);
+        }
+        notifyLevelChanged(isBid, order.getLevel());
         
         // Match orders
-        List<Trade> trades = matchOrders();
+        match(null);
+        notifyTopOfBook();
+        notifyCommandComplete();
         
         return true;
     }
     
     @Override
     public BigDecimal getBestBidPrice() {
-        return bidOrders.isEmpty() ? null : bidOrders.firstKey();
+        return bidOrders.isEmpty() ? null : instrument.toPrice(bidOrders.bestLevel().getPrice());
     }
     
     @Override
     public BigDecimal getBestAskPrice() {
-        return askOrders.isEmpty() ? null : askOrders.firstKey();
+        return askOrders.isEmpty() ? null : instrument.toPrice(askOrders.bestLevel().getPrice());
     }
     
     @Override
     public BigInteger getQuantityAtPriceLevel(BigDecimal price, boolean isBid) {
-        NavigableMap<BigDecimal, List<Order>> orderMap = isBid ? bidOrders : askOrders;
-        List<Order> ordersAtPrice = orderMap.get(price);
-        
-        if (ordersAtPrice == null || ordersAtPrice.isEmpty()) {
+        long rawPrice = instrument.toRawPrice(price);
+        if (rawPrice == Order.NO_PRICE) {
             return BigInteger.ZERO;
         }
         
-        BigInteger totalQuantity = BigInteger.ZERO;
-        for (Order order : ordersAtPrice) {
-            totalQuantity = totalQuantity.add(order.getQuantity().subtract(order.getFilledQuantity()));
+        BookSide bookSide = isBid ? bidOrders : askOrders;
+        PriceLevelQueue level = bookSide.getLevel(rawPrice);
+        
+        if (level == null || level.isEmpty()) {
+            return BigInteger.ZERO;
         }
         
-        return totalQuantity;
+        return BigInteger.valueOf(level.getTotalQuantity());
     }
     
     @Override
     public List<Order> getAllOrders() {
-        return new ArrayList<>(orders.values());
+        List<Order> result = new ArrayList<>(orders.size());
+        orders.copyTo(result);
+        return result;
     }
     
     @Override
     public Order getOrder(UUID orderId) {
+        return orders.get(IdGenerator.fromUuid(orderId));
+    }
+    
+    @Override
+    public Order getOrder(long orderId) {
         return orders.get(orderId);
     }
     
@@ -164,134 +286,298 @@ public class SimpleOrderBook implements OrderBook {
         return symbol;
     }
     
+    @Override
+    public Instrument getInstrument() {
+        return instrument;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Safe to call from any thread. At most the tape depth is returned, and the trades
+     * are copies taken from the tape.
+     */
     @Override
     public List<Trade> getRecentTrades(int limit) {
-        int size = Math.min(limit, recentTrades.size());
-        return new ArrayList<>(recentTrades.subList(recentTrades.size() - size, recentTrades.size()));
+        return tradeTape.latest(limit);
+    }
+    
+    /**
+     * @return The tape holding this book's recent trades
+     */
+    public TradeTape getTradeTape() {
+        return tradeTape;
     }
     
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When the book recycles trades through a {@link TradePool} the trades are no longer
+     * valid once this method returns, so the returned list is always empty.
+     */
     @Override
     public List<Trade> matchOrders() {
         List<Trade> newTrades = new ArrayList<>();
+        match(tradePool == null ? newTrades : null);
+        notifyTopOfBook();
+        notifyCommandComplete();
+        return newTrades;
+    }
+    
+    /**
+     * Crosses the book until the best bid is below the best ask.
+     * 
+     * @param newTrades Collects the trades created, or null if the caller doesn't need them
+     */
+    private void match(List<Trade> newTrades) {
+        long lastPrice = Order.NO_PRICE;
         
         while (!bidOrders.isEmpty() && !askOrders.isEmpty()) {
-            BigDecimal bestBidPrice = bidOrders.firstKey();
-            BigDecimal bestAskPrice = askOrders.firstKey();
+            PriceLevelQueue bestBid = bidOrders.bestLevel();
+            PriceLevelQueue bestAsk = askOrders.bestLevel();
+            long bestBidPrice = bestBid.getPrice();
+            long bestAskPrice = bestAsk.getPrice();
             
             // If best bid is less than best ask, no match is possible
-            if (bestBidPrice.compareTo(bestAskPrice) < 0) {
+            if (bestBidPrice < bestAskPrice) {
                 break;
             }
             
-            List<Order> bestBidOrders = bidOrders.get(bestBidPrice);
-            List<Order> bestAskOrders = askOrders.get(bestAskPrice);
-            
-            Order bidOrder = bestBidOrders.get(0);
-            Order askOrder = bestAskOrders.get(0);
+            Order bidOrder = bestBid.peek();
+            Order askOrder = bestAsk.peek();
             
             // Calculate match quantity
-            BigInteger bidRemaining = bidOrder.getQuantity().subtract(bidOrder.getFilledQuantity());
-            BigInteger askRemaining = askOrder.getQuantity().subtract(askOrder.getFilledQuantity());
-            BigInteger matchQuantity = bidRemaining.min(askRemaining);
+            long matchQuantity = Math.min(bidOrder.getRawRemainingQuantity(), askOrder.getRawRemainingQuantity());
             
             // Create trade at ask price (taker pays)
-            Trade trade = new Trade(
-                bidOrder.getId(),
-                askOrder.getId(),
-                symbol,
-                bestAskPrice,
-                matchQuantity,
-                BigDecimal.ZERO, // TODO: Calculate fee
-                symbol
-            );
+            Trade trade = tradePool != null
+                    ? tradePool.acquire(++lastTradeId, bidOrder.getRawId(), askOrder.getRawId(), symbol,
+                            bestAskPrice, instrument.getPriceScale(), matchQuantity, BigDecimal.ZERO, symbol,
+                            clock.nanoTime())
+                    : new Trade(
+                            ++lastTradeId,
+                            bidOrder.getRawId(),
+                            askOrder.getRawId(),
+                            symbol,
+                            bestAskPrice,
+                            instrument.getPriceScale(),
+                            matchQuantity,
+                            BigDecimal.ZERO, // TODO: Calculate fee
+                            symbol,
+                            clock.nanoTime()
+                    );
+            lastPrice = bestAskPrice;
             
-            // Update filled quantities
-            bidOrder.setFilledQuantity(bidOrder.getFilledQuantity().add(matchQuantity));
-            askOrder.setFilledQuantity(askOrder.getFilledQuantity().add(matchQuantity));
+            // Update filled quantities (and the level totals with them)
+            bestBid.fill(bidOrder, matchQuantity);
+            bestAsk.fill(askOrder, matchQuantity);
             
             // Update order status
-            if (bidOrder.getFilledQuantity().compareTo(bidOrder.getQuantity()) >= 0) {
+            boolean bidFilled = bidOrder.getRawRemainingQuantity() <= 0;
+            if (bidFilled) {
                 bidOrder.setStatus(OrderStatus.FILLED);
-                bestBidOrders.remove(bidOrder);
-                if (bestBidOrders.isEmpty()) {
-                    bidOrders.remove(bestBidPrice);
-                }
-            } else if (bidOrder.getFilledQuantity().compareTo(BigInteger.ZERO) > 0) {
+                bidOrders.remove(bidOrder);
+            } else if (bidOrder.getRawFilledQuantity() > 0) {
                 // Order is partially filled
                 bidOrder.setStatus(OrderStatus.PARTIALLY_FILLED);
             }
             
-            if (askOrder.getFilledQuantity().compareTo(askOrder.getQuantity()) >= 0) {
+            boolean askFilled = askOrder.getRawRemainingQuantity() <= 0;
+            if (askFilled) {
                 askOrder.setStatus(OrderStatus.FILLED);
-                bestAskOrders.remove(askOrder);
-                if (bestAskOrders.isEmpty()) {
-                    askOrders.remove(bestAskPrice);
-                }
-            } else if (askOrder.getFilledQuantity().compareTo(BigInteger.ZERO) > 0) {
+                askOrders.remove(askOrder);
+            } else if (askOrder.getRawFilledQuantity() > 0) {
                 // Order is partially filled
                 askOrder.setStatus(OrderStatus.PARTIALLY_FILLED);
             }
+            bidOrder.setUpdatedNanos(trade.getExecutionNanos());
+            askOrder.setUpdatedNanos(trade.getExecutionNanos());
             
-            // Add trade to recent trades
-            recentTrades.add(trade);
-            newTrades.add(trade);
+            tradeTape.append(trade);
             
             // Notify listeners
             for (OrderBookEventListener listener : listeners) {
                 listener.onTradeExecuted(trade);
             }
+            notifyLevelChanged(true, bestBid);
+            notifyLevelChanged(false, bestAsk);
+            
+            if (tradePool != null) {
+                tradePool.release(trade);
+            } else if (newTrades != null) {
+                newTrades.add(trade);
+            }
+            
+            if (bidFilled) {
+                retire(bidOrder);
+            }
+            if (askFilled) {
+                retire(askOrder);
+            }
         }
         
-        return newTrades;
+        if (lastPrice != Order.NO_PRICE) {
+            bidOrders.onTrade(lastPrice);
+            askOrders.onTrade(lastPrice);
+        }
+    }
+    
+    // Filled orders stay queryable unless they are pooled, in which case they are recycled
+    private void retire(Order order) {
+        if (order.isPooled()) {
+            orders.remove(order.getRawId());
+            order.release();
+        }
     }
     
     @Override
     public MarketDepth getMarketDepth(int levels) {
-        List<MarketDepth.PriceLevel> bids = new ArrayList<>();
-        List<MarketDepth.PriceLevel> asks = new ArrayList<>();
+        List<MarketDepth.PriceLevel> bids = collectLevels(bidOrders, levels);
+        List<MarketDepth.PriceLevel> asks = collectLevels(askOrders, levels);
+        return new MarketDepth(symbol, bids, asks);
+    }
+    
+    private List<MarketDepth.PriceLevel> collectLevels(BookSide bookSide, int levels) {
+        List<MarketDepth.PriceLevel> result = new ArrayList<>();
         
-        int bidCount = 0;
-        for (Map.Entry<BigDecimal, List<Order>> entry : bidOrders.entrySet()) {
-            if (bidCount >= levels) break;
+        for (PriceLevelQueue level = bookSide.bestLevel(); level != null; level = bookSide.nextLevel(level)) {
+            if (result.size() >= levels) break;
             
-            BigDecimal price = entry.getKey();
-            List<Order> ordersAtPrice = entry.getValue();
-            BigInteger totalQuantity = BigInteger.ZERO;
-            
-            for (Order order : ordersAtPrice) {
-                totalQuantity = totalQuantity.add(order.getQuantity().subtract(order.getFilledQuantity()));
-            }
-            
-            bids.add(new MarketDepth.PriceLevel(price, totalQuantity, ordersAtPrice.size()));
-            bidCount++;
+            result.add(new MarketDepth.PriceLevel(
+                    level.getPrice(), instrument.getPriceScale(), level.getTotalQuantity(), level.getOrderCount()));
         }
         
-        int askCount = 0;
-        for (Map.Entry<BigDecimal, List<Order>> entry : askOrders.entrySet()) {
-            if (askCount >= levels) break;
-            
-            BigDecimal price = entry.getKey();
-            List<Order> ordersAtPrice = entry.getValue();
-            BigInteger totalQuantity = BigInteger.ZERO;
-            
-            for (Order order : ordersAtPrice) {
-                totalQuantity = totalQuantity.add(order.getQuantity().subtract(order.getFilledQuantity()));
-            }
-            
-            asks.add(new MarketDepth.PriceLevel(price, totalQuantity, ordersAtPrice.size()));
-            askCount++;
+        return result;
+    }
+    
+    /**
+     * Reports the best bid and ask if either has moved or changed size since the last report.
+     */
+    private void notifyTopOfBook() {
+        PriceLevelQueue bestBid = bidOrders.bestLevel();
+        PriceLevelQueue bestAsk = askOrders.bestLevel();
+        long bidPrice = bestBid == null ? Order.NO_PRICE : bestBid.getPrice();
+        long bidQuantity = bestBid == null ? 0 : bestBid.getTotalQuantity();
+        long askPrice = bestAsk == null ? Order.NO_PRICE : bestAsk.getPrice();
+        long askQuantity = bestAsk == null ? 0 : bestAsk.getTotalQuantity();
+        if (bidPrice == topBidPrice && bidQuantity == topBidQuantity
+                && askPrice == topAskPrice && askQuantity == topAskQuantity) {
+            return;
         }
         
-        return new MarketDepth(symbol, bids, asks);
+        long oldBidPrice = topBidPrice;
+        long oldAskPrice = topAskPrice;
+        topBidPrice = bidPrice;
+        topBidQuantity = bidQuantity;
+        topAskPrice = askPrice;
+        topAskQuantity = askQuantity;
+        
+        OrderBookEventListener[] listeners = this.listeners;
+        if (listeners.length == 0) {
+            return;
+        }
+        if (bidPrice != oldBidPrice) {
+            BigDecimal newBestBid = instrument.toPrice(bidPrice);
+            BigDecimal oldBestBid = instrument.toPrice(oldBidPrice);
+            for (OrderBookEventListener listener : listeners) {
+                listener.onBestBidChanged(newBestBid, oldBestBid);
+            }
+        }
+        if (askPrice != oldAskPrice) {
+            BigDecimal newBestAsk = instrument.toPrice(askPrice);
+            BigDecimal oldBestAsk = instrument.toPrice(oldAskPrice);
+            for (OrderBookEventListener listener : listeners) {
+                listener.onBestAskChanged(newBestAsk, oldBestAsk);
+            }
+        }
+        for (OrderBookEventListener listener : listeners) {
+            listener.onTopOfBookChanged(symbol, bidPrice, bidQuantity, askPrice, askQuantity);
+        }
+    }
+    
+    private void notifyCommandComplete() {
+        for (OrderBookEventListener listener : listeners) {
+            listener.onCommandComplete(symbol);
+        }
+    }
+    
+    /**
+     * Tells listeners that the thread applying commands to this book has caught up with
+     * its input for now.
+     */
+    void notifyEndOfBatch() {
+        for (OrderBookEventListener listener : listeners) {
+            listener.onEndOfBatch(symbol);
+        }
+    }
+    
+    private void notifyLevelChanged(boolean isBid, PriceLevelQueue level) {
+        for (OrderBookEventListener listener : listeners) {
+            listener.onPriceLevelChanged(symbol, isBid, level.getPrice(), level.getTotalQuantity(),
+                    level.getOrderCount());
+        }
+    }
+    
+    /**
+     * Replaces the time source used for trades and order updates, so that a sequenced
+     * book can stamp everything with the time of the command being applied.
+     */
+    void setClock(NanoClock clock) {
+        this.clock = clock;
+    }
+    
+    long getLastTradeId() {
+        return lastTradeId;
+    }
+    
+    void setLastTradeId(long lastTradeId) {
+        this.lastTradeId = lastTradeId;
+    }
+    
+    /**
+     * Puts an order back into the book as it was, without matching or notifying listeners.
+     * Orders must be restored in time priority order.
+     */
+    void restoreOrder(Order order) {
+        orders.put(order);
+        BookSide bookSide = order.getSide() == OrderSide.BUY ? bidOrders : askOrders;
+        bookSide.add(order);
+    }
+    
+    /**
+     * Appends the resting orders on one side, best price first and in time priority
+     * within each price.
+     */
+    void collectRestingOrders(boolean isBid, List<Order> target) {
+        BookSide bookSide = isBid ? bidOrders : askOrders;
+        for (PriceLevelQueue level = bookSide.bestLevel(); level != null; level = bookSide.nextLevel(level)) {
+            for (Order order = level.peek(); order != null; order = order.getNextInLevel()) {
+                target.add(order);
+            }
+        }
     }
     
     @Override
-    public boolean registerListener(OrderBookEventListener listener) {
-        return listeners.add(listener);
+    public synchronized boolean registerListener(OrderBookEventListener listener) {
+        OrderBookEventListener[] current = listeners;
+        OrderBookEventListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+        return true;
     }
     
     @Override
-    public boolean unregisterListener(OrderBookEventListener listener) {
-        return listeners.remove(listener);
+    public synchronized boolean unregisterListener(OrderBookEventListener listener) {
+        OrderBookEventListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(listener)) {
+                OrderBookEventListener[] updated = new OrderBookEventListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return true;
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.example.orderbook;
+
+import com.example.models.Instrument;
+import com.example.models.Order;
+import com.example.models.OrderSide;
+import com.example.models.OrderStatus;
+import com.example.models.OrderType;
+import com.example.models.TimeInForce;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary image of every book on a shard: the journal sequence it reflects, where in
+ * the journal replay resumes, the order ID high-water mark and, per book, the trade ID
+ * counter and the resting orders in time priority.
+ */
+final class SnapshotCodec {
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int VERSION = 1;
+    private static final int ORDER_LENGTH = 8 + 4 + 8 + 8 + 8 + 1 + 8 + 8;
+    
+    /**
+     * What a snapshot says about the journal and the ID counters.
+     */
+    static final class Header {
+        final long sequence;
+        final int journalSegment;
+        final int journalPosition;
+        final long maxOrderId;
+        
+        Header(long sequence, int journalSegment, int journalPosition, long maxOrderId) {
+            this.sequence = sequence;
+            this.journalSegment = journalSegment;
+            this.journalPosition = journalPosition;
+            this.maxOrderId = maxOrderId;
+        }
+    }
+    
+    private SnapshotCodec() {
+    }
+    
+    /**
+     * Serialises the books; runs on the shard thread, so it only copies state into memory.
+     */
+    static ByteBuffer encode(Header header, List<SimpleOrderBook> books) {
+        List<List<Order>> bookOrders = new ArrayList<>(books.size());
+        int length = 4 + 4 + 8 + 4 + 4 + 8 + 4;
+        for (SimpleOrderBook book : books) {
+            List<Order> orders = new ArrayList<>();
+            book.collectRestingOrders(true, orders);
+            book.collectRestingOrders(false, orders);
+            bookOrders.add(orders);
+            
+            length += stringLength(book.getSymbol()) + 4 + 8 + 8 + 4;
+            for (Order order : orders) {
+                length += ORDER_LENGTH + stringLength(order.getClientOrderId());
+            }
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(header.sequence);
+        buffer.putInt(header.journalSegment);
+        buffer.putInt(header.journalPosition);
+        buffer.putLong(header.maxOrderId);
+        buffer.putInt(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            SimpleOrderBook book = books.get(i);
+            Instrument instrument = book.getInstrument();
+            CommandCodec.putString(buffer, book.getSymbol());
+            buffer.putInt(instrument.getPriceScale());
+            buffer.putLong(instrument.getTickSize());
+            buffer.putLong(book.getLastTradeId());
+            List<Order> orders = bookOrders.get(i);
+            buffer.putInt(orders.size());
+            for (Order order : orders) {
+                buffer.putLong(order.getRawId());
+                buffer.put((byte) order.getSide().ordinal());
+                buffer.put((byte) order.getType().ordinal());
+                buffer.put((byte) order.getTimeInForce().ordinal());
+                buffer.put((byte) order.getStatus().ordinal());
+                buffer.putLong(order.getRawPrice());
+                buffer.putLong(order.getRawQuantity());
+                buffer.putLong(order.getRawFilledQuantity());
+                buffer.put((byte) order.getPriceScale());
+                buffer.putLong(order.getCreatedNanos());
+                buffer.putLong(order.getUpdatedNanos());
+                CommandCodec.putString(buffer, order.getClientOrderId());
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+    
+    /**
+     * Restores the resting orders and trade counters into empty books.
+     * 
+     * @param buffer The snapshot
+     * @param books The shard's books by symbol
+     * @return The snapshot header
+     * @throws IllegalStateException If the snapshot does not match the listed instruments
+     */
+    static Header restore(ByteBuffer buffer, Map<String, SimpleOrderBook> books) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalStateException("Not a supported snapshot");
+        }
+        Header header = new Header(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getLong());
+        
+        int bookCount = buffer.getInt();
+        for (int i = 0; i < bookCount; i++) {
+            String symbol = CommandCodec.getString(buffer);
+            int priceScale = buffer.getInt();
+            long tickSize = buffer.getLong();
+            SimpleOrderBook book = books.get(symbol);
+            if (book == null) {
+                throw new IllegalStateException("Snapshot contains unlisted instrument " + symbol);
+            }
+            Instrument instrument = book.getInstrument();
+            if (instrument.getPriceScale() != priceScale || instrument.getTickSize() != tickSize) {
+                throw new IllegalStateException("Instrument definition changed since snapshot: " + instrument);
+            }
+            book.setLastTradeId(buffer.getLong());
+            
+            int orderCount = buffer.getInt();
+            for (int j = 0; j < orderCount; j++) {
+                long id = buffer.getLong();
+                OrderSide side = OrderSide.values()[buffer.get()];
+                OrderType type = OrderType.values()[buffer.get()];
+                TimeInForce timeInForce = TimeInForce.values()[buffer.get()];
+                OrderStatus status = OrderStatus.values()[buffer.get()];
+                long rawPrice = buffer.getLong();
+                long quantity = buffer.getLong();
+                long filledQuantity = buffer.getLong();
+                int orderScale = buffer.get();
+                long createdNanos = buffer.getLong();
+                long updatedNanos = buffer.getLong();
+                String clientOrderId = CommandCodec.getString(buffer);
+                book.restoreOrder(Order.restore(id, symbol, type, side, rawPrice, orderScale, quantity,
+                        filledQuantity, status, timeInForce, clientOrderId, createdNanos, updatedNanos));
+            }
+        }
+        return header;
+    }
+    
+    private static int stringLength(String value) {
+        return 2 + (value == null ? 0 : value.length());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.example.orderbook;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writes shard snapshots to disk on a background thread and finds the latest one on recovery.
+ * Each snapshot is written to a temporary file, forced to disk and then atomically
+ * renamed, so a crash mid-write never leaves a partial snapshot behind. Only the most
+ * recent few snapshots are kept.
+ */
+public class SnapshotStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotStore.class);
+    private static final String SUFFIX = ".snapshot";
+    private static final int SNAPSHOTS_KEPT = 2;
+    
+    private final Path directory;
+    private final String name;
+    private final ExecutorService writer;
+    
+    /**
+     * @param directory The directory holding the snapshot files
+     * @param name The snapshot file prefix, normally the shard's journal name
+     */
+    public SnapshotStore(Path directory, String name) throws IOException {
+        this.directory = directory;
+        this.name = name;
+        Files.createDirectories(directory);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Queues a snapshot for writing; returns immediately.
+     * 
+     * @param sequence The journal sequence the snapshot reflects
+     * @param data The encoded snapshot
+     */
+    void writeAsync(long sequence, ByteBuffer data) {
+        writer.execute(() -> {
+            try {
+                write(sequence, data);
+            } catch (IOException e) {
+                logger.error("Failed to write snapshot {} for {}", sequence, name, e);
+            }
+        });
+    }
+    
+    /**
+     * @return The most recent snapshot, or null if there is none
+     */
+    ByteBuffer loadLatest() throws IOException {
+        List<Path> snapshots = snapshots();
+        if (snapshots.isEmpty()) {
+            return null;
+        }
+        Path latest = snapshots.get(snapshots.size() - 1);
+        logger.info("Loading snapshot {}", latest);
+        return ByteBuffer.wrap(Files.readAllBytes(latest));
+    }
+    
+    /**
+     * Waits for queued snapshots to be written, then stops the writer thread.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void write(long sequence, ByteBuffer data) throws IOException {
+        Path target = directory.resolve(String.format("%s-%019d%s", name, sequence, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Wrote snapshot {}", target);
+        
+        List<Path> snapshots = snapshots();
+        for (int i = 0; i < snapshots.size() - SNAPSHOTS_KEPT; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+    
+    // Zero-padded sequences make name order the same as sequence order
+    private List<Path> snapshots() throws IOException {
+        List<Path> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String fileName = path.getFileName().toString();
+                return fileName.startsWith(name + "-") && fileName.endsWith(SUFFIX);
+            }).forEach(result::add);
+        }
+        result.sort(null);
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.example.orderbook;
+
+import com.example.models.Trade;
+
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the most recent trades in a book.
+ * All slots are allocated up front and a trade is copied into a slot rather than
+ * retained, so the tape never grows and works with pooled trades.
+ * <p>
+ * There must be a single writer (the thread that runs the book); appends never block
+ * or allocate. Any number of threads may read without locking: every slot is guarded
+ * by a sequence lock, and a reader that races with the writer either retries the slot
+ * or, if the writer has lapped it, leaves that trade out.
+ */
+public final class TradeTape {
+    private static final int MAX_READ_ATTEMPTS = 4;
+    
+    private final Slot[] slots;
+    private final int mask;
+    // Number of trades ever appended; only written by the writer thread
+    private volatile long published;
+    
+    /**
+     * @param capacity The number of trades kept, rounded up to a power of two
+     */
+    public TradeTape(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid tape size: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+    }
+    
+    /**
+     * Copies a trade onto the tape, overwriting the oldest one if the tape is full.
+     * Must only be called from the writer thread.
+     */
+    public void append(Trade trade) {
+        long sequence = published;
+        Slot slot = slots[(int) sequence & mask];
+        // Odd version: the slot is being written
+        slot.version = 2 * sequence + 1;
+        VarHandle.storeStoreFence();
+        slot.id = trade.getRawId();
+        slot.buyOrderId = trade.getRawBuyOrderId();
+        slot.sellOrderId = trade.getRawSellOrderId();
+        slot.symbol = trade.getSymbol();
+        slot.rawPrice = trade.getRawPrice();
+        slot.priceScale = trade.getPriceScale();
+        slot.quantity = trade.getRawQuantity();
+        slot.fee = trade.getFee();
+        slot.feeSymbol = trade.getFeeSymbol();
+        slot.executionNanos = trade.getExecutionNanos();
+        slot.version = 2 * sequence + 2;
+        published = sequence + 1;
+    }
+    
+    /**
+     * Reads up to limit of the most recent trades, oldest first.
+     * The trades returned are copies and stay valid after the tape moves on.
+     * 
+     * @param limit The maximum number of trades to return
+     * @return The trades
+     */
+    public List<Trade> latest(int limit) {
+        long end = published;
+        long start = Math.max(0, end - Math.min(limit, slots.length));
+        List<Trade> trades = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Trade trade = read(sequence);
+            if (trade != null) {
+                trades.add(trade);
+            }
+        }
+        return trades;
+    }
+    
+    /**
+     * @return The number of trades ever appended
+     */
+    public long getPublishedCount() {
+        return published;
+    }
+    
+    /**
+     * @return The number of trades the tape can hold
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+    
+    /**
+     * Takes a consistent copy of one trade.
+     * 
+     * @return The trade, or null if it has already been overwritten
+     */
+    private Trade read(long sequence) {
+        Slot slot = slots[(int) sequence & mask];
+        long expected = 2 * sequence + 2;
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long before = slot.version;
+            if (before > expected) {
+                return null;
+            }
+            if (before == expected) {
+                long id = slot.id;
+                long buyOrderId = slot.buyOrderId;
+                long sellOrderId = slot.sellOrderId;
+                String symbol = slot.symbol;
+                long rawPrice = slot.rawPrice;
+                int priceScale = slot.priceScale;
+                long quantity = slot.quantity;
+                BigDecimal fee = slot.fee;
+                String feeSymbol = slot.feeSymbol;
+                long executionNanos = slot.executionNanos;
+                VarHandle.loadLoadFence();
+                if (slot.version == expected) {
+                    return new Trade(id, buyOrderId, sellOrderId, symbol, rawPrice, priceScale, quantity,
+                            fee, feeSymbol, executionNanos);
+                }
+            }
+            Thread.onSpinWait();
+        }
+        return null;
+    }
+    
+    private static final class Slot {
+        volatile long version;
+        long id;
+        long buyOrderId;
+        long sellOrderId;
+        String symbol;
+        long rawPrice;
+        int priceScale;
+        long quantity;
+        BigDecimal fee;
+        String feeSymbol;
+        long executionNanos;
+    }
+}
\ No newline at end of file
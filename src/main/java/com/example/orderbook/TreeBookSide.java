@@ -0,0 +1,55 @@
+package com.example.orderbook;
+
+import com.example.models.Order;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Book side backed by a red-black tree of price levels.
+ */
+final class TreeBookSide implements BookSide {
+    private final NavigableMap<Long, PriceLevelQueue> levels;
+    
+    TreeBookSide(boolean bid) {
+        // Highest price first for bids, lowest price first for asks
+        this.levels = bid ? new TreeMap<>(Collections.reverseOrder()) : new TreeMap<>();
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return levels.isEmpty();
+    }
+    
+    @Override
+    public PriceLevelQueue bestLevel() {
+        Map.Entry<Long, PriceLevelQueue> entry = levels.firstEntry();
+        return entry == null ? null : entry.getValue();
+    }
+    
+    @Override
+    public PriceLevelQueue nextLevel(PriceLevelQueue level) {
+        Map.Entry<Long, PriceLevelQueue> entry = levels.higherEntry(level.getPrice());
+        return entry == null ? null : entry.getValue();
+    }
+    
+    @Override
+    public PriceLevelQueue getLevel(long price) {
+        return levels.get(price);
+    }
+    
+    @Override
+    public void add(Order order) {
+        levels.computeIfAbsent(order.getRawPrice(), PriceLevelQueue::new).add(order);
+    }
+    
+    @Override
+    public void remove(Order order) {
+        PriceLevelQueue level = order.getLevel();
+        if (level != null && level.remove(order) && level.isEmpty()) {
+            levels.remove(level.getPrice());
+        }
+    }
+}
\ No newline at end of file
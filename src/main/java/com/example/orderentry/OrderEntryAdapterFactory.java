@@ -34,4 +34,23 @@ public class OrderEntryAdapterFactory {
                 throw new IllegalArgumentException("Unsupported protocol type: " + type);
         }
     }
+    
+    /**
+     * Creates an order entry adapter for the specified protocol that trades every instrument
+     * the router has a book for.
+     * 
+     * @param type The protocol type
+     * @param router Routes each order to the book of its symbol
+     * @return The order entry adapter
+     */
+    public static OrderEntryHandler createAdapter(ProtocolType type, OrderRouter router) {
+        switch (type) {
+            case FIX:
+                return new FixOrderEntryAdapter(router);
+            case BINARY:
+                return new BinaryOrderEntryAdapter(router);
+            default:
+                throw new IllegalArgumentException("Unsupported protocol type: " + type);
+        }
+    }
 }
\ No newline at end of file
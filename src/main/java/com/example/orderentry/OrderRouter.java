@@ -0,0 +1,304 @@
+package com.example.orderentry;
+
+import com.example.models.Order;
+import com.example.models.OrderStatus;
+import com.example.models.SymbolRegistry;
+import com.example.models.Trade;
+import com.example.orderbook.OrderBook;
+import com.example.orderbook.OrderBookEventListener;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes order entry to the book of each listed instrument, so one gateway session can
+ * trade every instrument.
+ * <p>
+ * Books are held in an array indexed by interned symbol ID: a symbol, given as a String
+ * or straight as the bytes of a protocol field, resolves to its book with one probe of
+ * the {@link SymbolRegistry} and one array read. Cancels and modifications carry only an
+ * order ID, so the book each order was entered into is remembered by engine order ID
+ * until the order leaves it. The router listens to every book it routes to and forgets
+ * an order's route on the matching thread as soon as the order is canceled or filled.
+ * <p>
+ * Books are added at startup; lookups take no lock and are safe from any thread.
+ */
+public final class OrderRouter {
+    private final SymbolRegistry symbols;
+    // Book of each symbol, by symbol ID; null for symbols registered without a book
+    private volatile OrderBook[] books = new OrderBook[0];
+    private final Map<Long, OrderBook> orderBooks = new ConcurrentHashMap<>();
+    
+    public OrderRouter() {
+        this(new SymbolRegistry());
+    }
+    
+    /**
+     * @param symbols Interns the symbols of the books; may be shared with protocol decoders
+     */
+    public OrderRouter(SymbolRegistry symbols) {
+        this.symbols = symbols;
+    }
+    
+    /**
+     * @return A router to the given books
+     */
+    public static OrderRouter of(OrderBook... books) {
+        OrderRouter router = new OrderRouter();
+        for (OrderBook book : books) {
+            router.addOrderBook(book);
+        }
+        return router;
+    }
+    
+    /**
+     * Routes the book's symbol to it.
+     * 
+     * @return The symbol's ID
+     * @throws IllegalArgumentException If another book is already routed for the symbol
+     */
+    public synchronized int addOrderBook(OrderBook book) {
+        int symbolId = symbols.register(book.getSymbol());
+        OrderBook[] current = books;
+        if (symbolId < current.length && current[symbolId] != null && current[symbolId] != book) {
+            throw new IllegalArgumentException("Order book already routed for " + book.getSymbol());
+        }
+        if (symbolId < current.length && current[symbolId] == book) {
+            return symbolId;
+        }
+        OrderBook[] updated = Arrays.copyOf(current, Math.max(current.length, symbolId + 1));
+        updated[symbolId] = book;
+        book.registerListener(new RouteRemover(book));
+        books = updated;
+        return symbolId;
+    }
+    
+    public SymbolRegistry getSymbols() {
+        return symbols;
+    }
+    
+    /**
+     * @return The book of the symbol, or null if the symbol is not routed
+     */
+    public OrderBook getOrderBook(int symbolId) {
+        OrderBook[] current = books;
+        return symbolId >= 0 && symbolId < current.length ? current[symbolId] : null;
+    }
+    
+    /**
+     * @return The book of the symbol, or null if the symbol is not routed
+     */
+    public OrderBook getOrderBook(String symbol) {
+        return symbol == null ? null : getOrderBook(symbols.getId(symbol));
+    }
+    
+    /**
+     * Resolves a book from the ASCII bytes of a symbol field, without allocating.
+     * 
+     * @see SymbolRegistry#getId(ByteBuffer, int, int)
+     */
+    public OrderBook getOrderBook(ByteBuffer buffer, int offset, int length) {
+        return getOrderBook(symbols.getId(buffer, offset, length));
+    }
+    
+    /**
+     * @return Every routed book, in symbol ID order
+     */
+    public List<OrderBook> getOrderBooks() {
+        List<OrderBook> routed = new ArrayList<>();
+        for (OrderBook book : books) {
+            if (book != null) {
+                routed.add(book);
+            }
+        }
+        return routed;
+    }
+    
+    /**
+     * Remembers the book an order was entered into. Add the route before the book can
+     * act on the order, so its removal when the order is filled or canceled comes after.
+     */
+    public void addRoute(long orderId, OrderBook book) {
+        orderBooks.put(orderId, book);
+    }
+    
+    /**
+     * @return The book the order was entered into, or null if it is not known
+     */
+    public OrderBook route(long orderId) {
+        return orderBooks.get(orderId);
+    }
+    
+    public void removeRoute(long orderId) {
+        orderBooks.remove(orderId);
+    }
+    
+    /**
+     * Looks an order up in the book it was entered into, forgetting the route once the
+     * order has left the book.
+     * 
+     * @return The order, or null if it is not known or no longer in its book
+     */
+    public Order getOrder(long orderId) {
+        OrderBook book = orderBooks.get(orderId);
+        if (book == null) {
+            return null;
+        }
+        Order order = book.getOrder(orderId);
+        if (order == null) {
+            orderBooks.remove(orderId);
+        }
+        return order;
+    }
+    
+    /**
+     * Cancels orders that may be spread across books, with one batch command per book.
+     * The routes of the orders are forgotten as their books cancel them, so an order a
+     * book could not cancel keeps its route.
+     * 
+     * @param orderIds The engine IDs of the orders; the entry of each order that could not
+     *                 be canceled is set to 0
+     * @param count The number of IDs, from the start of the array
+     * @return The number of orders canceled
+     * @see OrderBook#cancelOrders(long[], int)
+     */
+    public int cancelOrders(long[] orderIds, int count) {
+        int canceled = 0;
+        for (Map.Entry<OrderBook, Batch> entry : batch(orderIds, count).entrySet()) {
+            Batch batch = entry.getValue();
+            canceled += entry.getKey().cancelOrders(batch.orderIds, batch.count);
+            batch.copyTo(orderIds, true);
+        }
+        return canceled;
+    }
+    
+    /**
+     * Like {@link #cancelOrders(long[], int)}, but queues the batches without waiting for
+     * the books' matching threads. A batch its book fails to apply counts as not canceled.
+     * 
+     * @param orderIds The engine IDs of the orders; the entry of each order that could not
+     *                 be canceled is set to 0 by the time the future completes
+     * @param count The number of IDs, from the start of the array
+     * @return A future completed with the number of orders canceled
+     */
+    public CompletableFuture<Integer> cancelOrdersAsync(long[] orderIds, int count) {
+        Map<OrderBook, Batch> batches = batch(orderIds, count);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[batches.size()];
+        int i = 0;
+        for (Map.Entry<OrderBook, Batch> entry : batches.entrySet()) {
+            Batch batch = entry.getValue();
+            futures[i++] = entry.getKey().cancelOrdersAsync(batch.orderIds, batch.count)
+                    .handle((result, failure) -> {
+                        batch.copyTo(orderIds, failure == null);
+                        return result;
+                    });
+        }
+        return CompletableFuture.allOf(futures).thenApply(done -> {
+            int canceled = 0;
+            for (int j = 0; j < count; j++) {
+                if (orderIds[j] != 0) {
+                    canceled++;
+                }
+            }
+            return canceled;
+        });
+    }
+    
+    private Map<OrderBook, Batch> batch(long[] orderIds, int count) {
+        Map<OrderBook, Batch> batches = new IdentityHashMap<>();
+        for (int i = 0; i < count; i++) {
+            OrderBook book = orderIds[i] == 0 ? null : orderBooks.get(orderIds[i]);
+            if (book == null) {
+                orderIds[i] = 0;
+            } else {
+                batches.computeIfAbsent(book, b -> new Batch(count)).add(orderIds[i], i);
+            }
+        }
+        return batches;
+    }
+    
+    // Forgets the routes of the orders that leave the book
+    private final class RouteRemover implements OrderBookEventListener {
+        private final OrderBook book;
+        
+        RouteRemover(OrderBook book) {
+            this.book = book;
+        }
+        
+        @Override
+        public void onTradeExecuted(Trade trade) {
+            removeIfFilled(trade.getRawBuyOrderId());
+            removeIfFilled(trade.getRawSellOrderId());
+        }
+        
+        private void removeIfFilled(long orderId) {
+            // Called before a filled order is retired, so it can still be looked up
+            Order order = book.getOrder(orderId);
+            if (order == null || order.getStatus() == OrderStatus.FILLED) {
+                orderBooks.remove(orderId, book);
+            }
+        }
+        
+        @Override
+        public void onOrderCanceled(Order order) {
+            orderBooks.remove(order.getRawId(), book);
+        }
+        
+        @Override
+        public void onOrderCanceled(UUID orderId, Order order) {
+        }
+        
+        @Override
+        public void onOrderAdded(Order order) {
+        }
+        
+        @Override
+        public void onOrderModified(Order order, long oldRawPrice, long oldQuantity) {
+        }
+        
+        @Override
+        public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {
+        }
+        
+        @Override
+        public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {
+        }
+        
+        @Override
+        public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {
+        }
+    }
+    
+    // The orders of one book and where they came from in the caller's array
+    private static final class Batch {
+        final long[] orderIds;
+        final int[] positions;
+        int count;
+        
+        Batch(int capacity) {
+            this.orderIds = new long[capacity];
+            this.positions = new int[capacity];
+        }
+        
+        void add(long orderId, int position) {
+            orderIds[count] = orderId;
+            positions[count++] = position;
+        }
+        
+        // Writes back which orders were canceled, or that none was if the batch failed
+        void copyTo(long[] callerOrderIds, boolean applied) {
+            for (int i = 0; i < count; i++) {
+                callerOrderIds[positions[i]] = applied ? orderIds[i] : 0;
+            }
+        }
+    }
+}
\ No newline at end of file
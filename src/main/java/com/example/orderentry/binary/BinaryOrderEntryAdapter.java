@@ -1,12 +1,17 @@
 package com.example.orderentry.binary;
 
+import com.example.models.IdGenerator;
 import com.example.models.Order;
 import com.example.models.OrderSide;
-import com.example.models.OrderType;
+import com.example.models.SymbolRegistry;
 import com.example.models.TimeInForce;
+import com.example.models.Trade;
+import com.example.orderbook.BackpressureException;
 import com.example.orderbook.OrderBook;
+import com.example.orderbook.OrderBookEventListener;
 import com.example.orderentry.OrderEntryCallback;
 import com.example.orderentry.OrderEntryHandler;
+import com.example.orderentry.OrderRouter;
 import com.example.orderentry.OrderStatusResponse;
 
 import java.math.BigDecimal;
@@ -14,41 +19,117 @@ import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.List;
 
 /**
  * Binary protocol adapter for order entry.
  * This class implements a custom binary protocol for high-performance order entry.
+ * Messages are read and written in place through reused flyweights, so the binary
+ * methods must be called from one thread at a time, normally the gateway's, which also
+ * runs the tasks that write the answers to order requests.
  */
 public class BinaryOrderEntryAdapter implements OrderEntryHandler {
     
-    private final OrderBook orderBook;
+    // Prices on the wire are longs scaled by 10^8
+    private static final int PRICE_SCALE = BinaryProtocol.PRICE_SCALE;
+    
+    private static final long[] POWERS_OF_TEN = new long[19];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+    
+    private final OrderRouter router;
+    private final SymbolRegistry symbols;
     private final List<OrderEntryCallback> callbacks;
-    private final Map<String, UUID> clientOrderIdMap;
+    // Orders entered through the OrderEntryHandler methods; each binary session has its own
+    private final SessionOrders handlerOrders;
+    // The session of each open order, to send it the order's fills and forget it once it leaves its book
+    private final Map<Long, SessionOrders> orderSessions;
+    private final NewOrderDecoder newOrderDecoder;
+    private final CancelDecoder cancelDecoder;
+    private final CancelReplaceDecoder cancelReplaceDecoder;
+    private final MassCancelDecoder massCancelDecoder;
+    private final HeartbeatDecoder heartbeatDecoder;
+    private final ExecutionReportEncoder executionReportEncoder;
+    private final MassCancelReportEncoder massCancelReportEncoder;
+    private final HeartbeatEncoder heartbeatEncoder;
+    private final RejectEncoder rejectEncoder;
+    private final OrderStatusEncoder orderStatusEncoder;
     
     public BinaryOrderEntryAdapter(OrderBook orderBook) {
-        this.orderBook = orderBook;
+        this(orderBook, new SymbolRegistry());
+    }
+    
+    /**
+     * @param orderBook The book orders are sent to
+     * @param symbols Interns the symbols accepted on the wire; the book's symbol is registered
+     */
+    public BinaryOrderEntryAdapter(OrderBook orderBook, SymbolRegistry symbols) {
+        this(routerFor(orderBook, symbols));
+    }
+    
+    /**
+     * @param router Routes each order to the book of its symbol; its symbols are the ones
+     *               accepted on the wire. Fills are reported from the books it routes now
+     */
+    public BinaryOrderEntryAdapter(OrderRouter router) {
+        this.router = router;
+        this.symbols = router.getSymbols();
         this.callbacks = new CopyOnWriteArrayList<>();
-        this.clientOrderIdMap = new ConcurrentHashMap<>();
+        this.handlerOrders = new SessionOrders();
+        this.orderSessions = new ConcurrentHashMap<>();
+        this.newOrderDecoder = new NewOrderDecoder(symbols);
+        this.cancelDecoder = new CancelDecoder();
+        this.cancelReplaceDecoder = new CancelReplaceDecoder();
+        this.massCancelDecoder = new MassCancelDecoder(symbols);
+        this.heartbeatDecoder = new HeartbeatDecoder();
+        this.executionReportEncoder = new ExecutionReportEncoder();
+        this.massCancelReportEncoder = new MassCancelReportEncoder();
+        this.heartbeatEncoder = new HeartbeatEncoder();
+        this.rejectEncoder = new RejectEncoder();
+        this.orderStatusEncoder = new OrderStatusEncoder();
+        FillReporter fillReporter = new FillReporter();
+        for (OrderBook orderBook : router.getOrderBooks()) {
+            orderBook.registerListener(fillReporter);
+        }
+    }
+    
+    private static OrderRouter routerFor(OrderBook orderBook, SymbolRegistry symbols) {
+        OrderRouter router = new OrderRouter(symbols);
+        router.addOrderBook(orderBook);
+        return router;
     }
     
     @Override
     public UUID submitOrder(Order order) {
         // Implementation similar to FIX adapter
-        if (order.getClientOrderId() != null) {
-            clientOrderIdMap.put(order.getClientOrderId(), order.getId());
+        OrderBook orderBook = router.getOrderBook(order.getSymbol());
+        if (orderBook != null) {
+            // Known before the book can fill it, so its fills find it
+            router.addRoute(order.getRawId(), orderBook);
+            enter(handlerOrders, order);
         }
-        
-        boolean success = orderBook.addOrder(order);
+        boolean success = orderBook != null && orderBook.addOrder(order);
         
         if (success) {
+            if (!SessionOrders.isOpen(order)) {
+                leave(handlerOrders, order.getRawId());
+            }
             for (OrderEntryCallback callback : callbacks) {
                 callback.onOrderAccepted(order.getId(), order.getClientOrderId());
             }
             return order.getId();
         } else {
+            router.removeRoute(order.getRawId());
+            leave(handlerOrders, order.getRawId());
             for (OrderEntryCallback callback : callbacks) {
                 callback.onOrderRejected(order.getClientOrderId(), "Order rejected by order book");
             }
@@ -61,33 +142,28 @@ public class BinaryOrderEntryAdapter implements OrderEntryHandler {
     @Override
     public boolean cancelOrder(UUID orderId, String clientOrderId) {
         if (orderId == null && clientOrderId != null) {
-            orderId = clientOrderIdMap.get(clientOrderId);
-            if (orderId == null) {
+            long id = handlerOrders.resolve(0, clientOrderId);
+            if (id == 0) {
                 return false;
             }
+            orderId = IdGenerator.toUuid(id);
         }
         
-        boolean success = orderBook.cancelOrder(orderId);
-        
-        if (success) {
-            for (OrderEntryCallback callback : callbacks) {
-                callback.onOrderCanceled(orderId);
-            }
-        }
-        
-        return success;
+        return cancelById(IdGenerator.fromUuid(orderId));
     }
     
     @Override
     public boolean modifyOrder(UUID orderId, String clientOrderId, BigDecimal newPrice, BigInteger newQuantity) {
         if (orderId == null && clientOrderId != null) {
-            orderId = clientOrderIdMap.get(clientOrderId);
-            if (orderId == null) {
+            long id = handlerOrders.resolve(0, clientOrderId);
+            if (id == 0) {
                 return false;
             }
+            orderId = IdGenerator.toUuid(id);
         }
         
-        boolean success = orderBook.modifyOrder(orderId, newPrice, newQuantity);
+        OrderBook orderBook = router.route(IdGenerator.fromUuid(orderId));
+        boolean success = orderBook != null && orderBook.modifyOrder(orderId, newPrice, newQuantity);
         
         if (success) {
             for (OrderEntryCallback callback : callbacks) {
@@ -101,15 +177,15 @@ public class BinaryOrderEntryAdapter implements OrderEntryHandler {
         
         return success;
     }
-
+    
     @Override
     public Order getOrder(UUID orderId) {
-        return orderBook.getOrder(orderId);
+        return router.getOrder(IdGenerator.fromUuid(orderId));
     }
     
     @Override
     public OrderStatusResponse getOrderStatus(UUID orderId) {
-        Order order = orderBook.getOrder(orderId);
+        Order order = getOrder(orderId);
         if (order == null) {
             return null;
         }
@@ -134,135 +210,543 @@ public class BinaryOrderEntryAdapter implements OrderEntryHandler {
      * @return The order ID if successful, null otherwise
      */
     public UUID processNewOrderMessage(ByteBuffer buffer) {
-        // Example binary protocol format:
-        // Bytes 0-1: Message type (1 = new order)
-        // Bytes 2-17: Client order ID (as string)
-        // Bytes 18-33: Symbol (as string)
-        // Byte 34: Side (1 = buy, 2 = sell)
-        // Byte 35: Order type (1 = market, 2 = limit)
-        // Bytes 36-43: Price (as long, scaled by 10^8)
-        // Bytes 44-51: Quantity (as long)
-        // Byte 52: Time in force (0 = day, 1 = GTC, 2 = IOC, 3 = FOK)
-        
-        byte[] clientOrderIdBytes = new byte[16];
-        buffer.position(2);
-        buffer.get(clientOrderIdBytes);
-        String clientOrderId = new String(clientOrderIdBytes).trim();
-        
-        byte[] symbolBytes = new byte[16];
-        buffer.get(symbolBytes);
-        String symbol = new String(symbolBytes).trim();
-        
-        byte side = buffer.get();
-        byte orderType = buffer.get();
-        
-        long priceRaw = buffer.getLong();
-        BigDecimal price = BigDecimal.valueOf(priceRaw, 8); // Scale by 10^8
-        
-        long quantityRaw = buffer.getLong();
-        BigInteger quantity = BigInteger.valueOf(quantityRaw);
-        
-        byte timeInForce = buffer.get();
-        
-        // Convert to internal types
-        OrderSide orderSide = side == 1 ? OrderSide.BUY : OrderSide.SELL;
-        OrderType type = orderType == 1 ? OrderType.MARKET : OrderType.LIMIT;
-        TimeInForce tif = convertBinaryTimeInForce(timeInForce);
-        
-        // Create and submit order
-        Order order = new Order(symbol, type, orderSide, price, quantity, tif, clientOrderId);
+        Order order = decodeNewOrder(buffer, 0);
+        if (order == null) {
+            for (OrderEntryCallback callback : callbacks) {
+                callback.onOrderRejected(newOrderDecoder.clientOrderId(), "Unknown symbol or invalid time in force");
+            }
+            return null;
+        }
         return submitOrder(order);
     }
     
-    private TimeInForce convertBinaryTimeInForce(byte tif) {
-        switch (tif) {
-            case 0: return TimeInForce.DAY;
-            case 1: return TimeInForce.GTC;
-            case 2: return TimeInForce.IOC;
-            case 3: return TimeInForce.FOK;
-            default: throw new IllegalArgumentException("Invalid binary time in force: " + tif);
+    /**
+     * Applies one request of the binary session protocol and answers it through the
+     * channel. The request is read at absolute offsets, its buffer's position is left
+     * unchanged, and it may be overwritten once this returns. Cancels, replaces and mass
+     * cancels only reach the orders entered on the channel's session; any other order is
+     * answered as unknown. New orders, cancels,
+     * replaces and mass cancels are queued to their books without waiting, and answered
+     * once the books have applied them; the callbacks are called on the thread that
+     * completed them. A message that cannot be decoded or applied is answered by a reject.
+     * 
+     * @param request Holds the request
+     * @param offset Where the request starts
+     * @param length The length of the request
+     * @param channel Receives the answer
+     * @see BinaryProtocol
+     */
+    public void processMessage(ByteBuffer request, int offset, int length, ResponseChannel channel) {
+        Executor reply = channel.answer();
+        short type = length < 2 ? 0 : BinaryProtocol.getType(request, offset);
+        int minimumLength = BinaryProtocol.getMinimumLength(type);
+        if (minimumLength < 0) {
+            reject(type, BinaryProtocol.UNKNOWN_MESSAGE_TYPE, request, offset, length, channel, reply);
+            return;
+        }
+        if (length < minimumLength) {
+            reject(type, BinaryProtocol.MESSAGE_TOO_SHORT, request, offset, length, channel, reply);
+            return;
+        }
+        switch (type) {
+            case BinaryProtocol.NEW_ORDER:
+                processNewOrder(request, offset, channel, reply);
+                break;
+            case BinaryProtocol.CANCEL:
+                processCancel(request, offset, length, channel, reply);
+                break;
+            case BinaryProtocol.CANCEL_REPLACE:
+                processCancelReplace(request, offset, length, channel, reply);
+                break;
+            case BinaryProtocol.MASS_CANCEL:
+                processMassCancel(request, offset, length, channel, reply);
+                break;
+            case BinaryProtocol.HEARTBEAT:
+                processHeartbeat(request, offset, length, channel, reply);
+                break;
+            default:
+                // Known to the schema, but answers or session messages handled by the server
+                reject(type, BinaryProtocol.UNKNOWN_MESSAGE_TYPE, request, offset, length, channel, reply);
+                break;
+        }
+    }
+    
+    private void processNewOrder(ByteBuffer request, int offset, ResponseChannel channel, Executor reply) {
+        Order order = decodeNewOrder(request, offset);
+        if (order == null) {
+            new Answer(channel, reply, BinaryProtocol.NEW_ORDER, newOrderDecoder.clientOrderId())
+                    .report(BinaryProtocol.REJECTED, 0, null).send();
+            return;
+        }
+        Answer answer = new Answer(channel, reply, BinaryProtocol.NEW_ORDER, order.getClientOrderId());
+        OrderBook orderBook = router.getOrderBook(order.getSymbol());
+        long orderId = order.getRawId();
+        SessionOrders orders = channel.orders();
+        // Known before the book has the order, so a cancel sent straight after it finds it
+        router.addRoute(orderId, orderBook);
+        enter(orders, order);
+        orderBook.addOrderAsync(order).whenComplete((accepted, failure) -> {
+            if (failure != null || !accepted) {
+                router.removeRoute(orderId);
+                leave(orders, orderId);
+            } else if (!SessionOrders.isOpen(order)) {
+                leave(orders, orderId);
+            }
+            if (failure != null) {
+                answer.failed(failure).send();
+                return;
+            }
+            for (OrderEntryCallback callback : callbacks) {
+                if (accepted) {
+                    callback.onOrderAccepted(order.getId(), order.getClientOrderId());
+                } else {
+                    callback.onOrderRejected(order.getClientOrderId(), "Order rejected by order book");
+                }
+            }
+            answer.report(accepted ? BinaryProtocol.ACCEPTED : BinaryProtocol.REJECTED, orderId, order).send();
+        });
+    }
+    
+    private void processCancel(ByteBuffer request, int offset, int length, ResponseChannel channel, Executor reply) {
+        CancelDecoder decoder = cancelDecoder.wrap(request, offset, length);
+        String clientOrderId = decoder.clientOrderId();
+        SessionOrders orders = channel.orders();
+        long orderId = orders.resolve(decoder.orderId(), clientOrderId);
+        OrderBook orderBook = orderId == 0 ? null : router.route(orderId);
+        Answer answer = new Answer(channel, reply, BinaryProtocol.CANCEL, clientOrderId);
+        if (orderBook == null) {
+            answer.report(BinaryProtocol.CANCEL_REJECTED, orderId, null).send();
+            return;
         }
+        orderBook.cancelOrderAsync(orderId).whenComplete((canceled, failure) -> {
+            if (failure != null) {
+                answer.failed(failure).send();
+                return;
+            }
+            if (canceled) {
+                router.removeRoute(orderId);
+                leave(orders, orderId);
+                notifyCanceled(orderId);
+            }
+            answer.report(canceled ? BinaryProtocol.CANCELED : BinaryProtocol.CANCEL_REJECTED,
+                    orderId, orderBook.getOrder(orderId)).send();
+        });
+    }
+    
+    private void processCancelReplace(ByteBuffer request, int offset, int length,
+                                      ResponseChannel channel, Executor reply) {
+        CancelReplaceDecoder decoder = cancelReplaceDecoder.wrap(request, offset, length);
+        String clientOrderId = decoder.clientOrderId();
+        String newClientOrderId = decoder.hasNewClientOrderId() ? decoder.newClientOrderId() : null;
+        SessionOrders orders = channel.orders();
+        long orderId = orders.resolve(decoder.orderId(), clientOrderId);
+        OrderBook orderBook = orderId == 0 ? null : router.route(orderId);
+        long wirePrice = decoder.price();
+        long quantity = decoder.quantity();
+        long newRawPrice = Order.NO_PRICE;
+        if (orderBook != null && wirePrice != 0) {
+            newRawPrice = orderBook.getInstrument().rescale(wirePrice, PRICE_SCALE);
+        }
+        if (orderBook == null || (wirePrice != 0 && newRawPrice == Order.NO_PRICE) || quantity < 0) {
+            if (orderId != 0) {
+                notifyModified(orderId, false);
+            }
+            new Answer(channel, reply, BinaryProtocol.CANCEL_REPLACE, clientOrderId)
+                    .report(BinaryProtocol.REPLACE_REJECTED, orderId, orderId == 0 ? null : router.getOrder(orderId))
+                    .send();
+            return;
+        }
+        orderBook.modifyOrderAsync(orderId, newRawPrice, quantity).whenComplete((replaced, failure) -> {
+            if (failure != null) {
+                new Answer(channel, reply, BinaryProtocol.CANCEL_REPLACE, clientOrderId).failed(failure).send();
+                return;
+            }
+            if (replaced && newClientOrderId != null) {
+                orders.rename(orderId, newClientOrderId);
+            }
+            notifyModified(orderId, replaced);
+            new Answer(channel, reply, BinaryProtocol.CANCEL_REPLACE,
+                    replaced && newClientOrderId != null ? newClientOrderId : clientOrderId)
+                    .report(replaced ? BinaryProtocol.REPLACED : BinaryProtocol.REPLACE_REJECTED,
+                            orderId, orderBook.getOrder(orderId))
+                    .send();
+        });
+    }
+    
+    private void processMassCancel(ByteBuffer request, int offset, int length,
+                                   ResponseChannel channel, Executor reply) {
+        MassCancelDecoder decoder = massCancelDecoder.wrap(request, offset, length);
+        Answer answer = new Answer(channel, reply, BinaryProtocol.MASS_CANCEL, decoder.clientRequestId());
+        String symbol = null;
+        if (!decoder.allSymbols()) {
+            int symbolId = decoder.symbolId();
+            if (symbolId == SymbolRegistry.UNKNOWN) {
+                answer.massCancelReport(BinaryProtocol.MASS_CANCEL_REJECTED, 0).send();
+                return;
+            }
+            symbol = symbols.getSymbol(symbolId);
+        }
+        // Left in the session and routed until the book cancels them, so a batch the engine
+        // cannot take leaves them open and cancelable rather than lost
+        long[] orderIds = channel.orders().select(symbol, decoder.side());
+        if (orderIds.length == 0) {
+            answer.massCancelReport(BinaryProtocol.MASS_CANCEL_DONE, 0).send();
+            return;
+        }
+        router.cancelOrdersAsync(orderIds, orderIds.length).whenComplete((canceled, failure) -> {
+            if (failure != null) {
+                answer.failed(failure).send();
+                return;
+            }
+            notifyCanceled(orderIds, orderIds.length);
+            answer.massCancelReport(BinaryProtocol.MASS_CANCEL_DONE, canceled).send();
+        });
+    }
+    
+    private void processHeartbeat(ByteBuffer request, int offset, int length,
+                                  ResponseChannel channel, Executor reply) {
+        HeartbeatDecoder decoder = heartbeatDecoder.wrap(request, offset, length);
+        if (decoder.schemaVersion() < 1) {
+            reject(BinaryProtocol.HEARTBEAT, BinaryProtocol.UNSUPPORTED_VERSION, request, offset, length,
+                    channel, reply);
+            return;
+        }
+        new Answer(channel, reply, BinaryProtocol.HEARTBEAT, null).heartbeat(decoder.timestamp()).send();
+    }
+    
+    private void reject(short type, byte reason, ByteBuffer request, int offset, int length,
+                        ResponseChannel channel, Executor reply) {
+        String clientOrderId = null;
+        // New orders, cancels, replaces and mass cancels all lead with the client's ID
+        boolean hasClientOrderId = type >= BinaryProtocol.NEW_ORDER && type <= BinaryProtocol.MASS_CANCEL;
+        if (hasClientOrderId && length >= 2 + BinaryProtocol.CLIENT_ORDER_ID_LENGTH) {
+            clientOrderId = BinaryProtocol.readText(request, offset + 2, BinaryProtocol.CLIENT_ORDER_ID_LENGTH);
+        }
+        new Answer(channel, reply, type, clientOrderId).rejected(reason).send();
     }
     
     /**
-     * Encodes an order status response into a binary message.
+     * Cancels every open order entered through the {@link OrderEntryHandler} methods that
+     * matches the filter, waiting for the books. Orders entered on binary sessions are
+     * left to their sessions.
      * 
-     * @param response The order status response
-     * @return The binary encoded message
+     * @param symbol The symbol to cancel, or null for every symbol
+     * @param side The side to cancel, or null for both sides
+     * @return The number of orders canceled
      */
-    public ByteBuffer encodeOrderStatusResponse(OrderStatusResponse response) {
-        // Example binary response format:
-        // Bytes 0-1: Message type (101 = order status)
-        // Bytes 2-17: Order ID (UUID as bytes)
-        // Bytes 18-33: Client order ID (as string)
-        // Byte 34: Status (1 = new, 2 = partially filled, 3 = filled, 4 = canceled, 5 = rejected)
-        // Bytes 35-42: Price (as long, scaled by 10^8)
-        // Bytes 43-50: Quantity (as long)
-        // Bytes 51-58: Filled quantity (as long)
-        // Bytes 59-74: Symbol (as string)
-        // Bytes 75-138: Message (as string, up to 64 chars)
+    public int massCancel(String symbol, OrderSide side) {
+        // Forgotten as the book cancels them
+        long[] orderIds = handlerOrders.select(symbol, side);
+        // One engine command per book rather than a round trip per order
+        int canceled = router.cancelOrders(orderIds, orderIds.length);
+        if (canceled > 0) {
+            notifyCanceled(orderIds, orderIds.length);
+        }
+        return canceled;
+    }
+    
+    /**
+     * @return The order, or null if no book trades the symbol or the time in force is invalid
+     */
+    private Order decodeNewOrder(ByteBuffer buffer, int offset) {
+        NewOrderDecoder decoder = newOrderDecoder.wrap(buffer, offset);
+        int symbolId = decoder.symbolId();
+        TimeInForce timeInForce = decoder.timeInForce();
+        if (router.getOrderBook(symbolId) == null || timeInForce == null) {
+            return null;
+        }
+        // The interned symbol is reused; the order book rescales the price to the instrument's scale
+        return new Order(symbols.getSymbol(symbolId), decoder.orderType(), decoder.side(), decoder.price(),
+                PRICE_SCALE, decoder.quantity(), timeInForce, decoder.clientOrderId());
+    }
+    
+    private boolean cancelById(long orderId) {
+        OrderBook orderBook = router.route(orderId);
+        boolean success = orderBook != null && orderBook.cancelOrder(orderId);
+        if (success) {
+            router.removeRoute(orderId);
+            handlerOrders.remove(orderId);
+            notifyCanceled(orderId);
+        }
+        return success;
+    }
+    
+    private void enter(SessionOrders orders, Order order) {
+        orders.add(order);
+        orderSessions.put(order.getRawId(), orders);
+    }
+    
+    private void leave(SessionOrders orders, long orderId) {
+        orders.remove(orderId);
+        orderSessions.remove(orderId, orders);
+    }
+    
+    /**
+     * Hands the orders a connection entered before logging on over to its session.
+     */
+    void moveOrders(SessionOrders from, SessionOrders to) {
+        for (long orderId : from.moveTo(to)) {
+            orderSessions.put(orderId, to);
+        }
+    }
+    
+    // Sends the fill to the session of the order, if it has a channel, and forgets the
+    // order once it is filled
+    private void reportFill(long orderId, Trade trade) {
+        SessionOrders orders = orderSessions.get(orderId);
+        Order order = orders == null ? null : orders.getOrder(orderId);
+        if (order == null) {
+            return;
+        }
+        boolean filled = !SessionOrders.isOpen(order);
+        String clientOrderId = orders.getClientOrderId(orderId);
+        if (filled) {
+            leave(orders, orderId);
+        }
+        ResponseChannel channel = orders.channel();
+        if (channel != null) {
+            channel.send(new Answer(null, null, BinaryProtocol.EXECUTION_REPORT, clientOrderId)
+                    .report(filled ? BinaryProtocol.FILLED : BinaryProtocol.PARTIALLY_FILLED, orderId, order)
+                    .fill(trade.getRawQuantity(), toWirePrice(trade.getRawPrice(), trade.getPriceScale())));
+        }
+    }
+    
+    private void notifyCanceled(long orderId) {
+        if (!callbacks.isEmpty()) {
+            UUID id = IdGenerator.toUuid(orderId);
+            for (OrderEntryCallback callback : callbacks) {
+                callback.onOrderCanceled(id);
+            }
+        }
+    }
+    
+    // Reports the orders of a batch whose entries were left set, which are the ones canceled
+    private void notifyCanceled(long[] orderIds, int count) {
+        if (!callbacks.isEmpty()) {
+            for (int i = 0; i < count; i++) {
+                if (orderIds[i] != 0) {
+                    notifyCanceled(orderIds[i]);
+                }
+            }
+        }
+    }
+    
+    private void notifyModified(long orderId, boolean modified) {
+        if (!callbacks.isEmpty()) {
+            UUID id = IdGenerator.toUuid(orderId);
+            for (OrderEntryCallback callback : callbacks) {
+                if (modified) {
+                    callback.onOrderModified(id);
+                } else {
+                    callback.onOrderModificationRejected(id, "Order modification rejected");
+                }
+            }
+        }
+    }
+    
+    /**
+     * The answer to a request, or a fill, captured by the thread that completed it and
+     * written by the connection's thread, which alone uses the encoders.
+     */
+    private final class Answer implements Runnable, Consumer<ResponseChannel> {
+        private final ResponseChannel channel;
+        private final Executor reply;
+        private final short requestType;
+        private final String clientId;
+        private byte event;
+        private byte rejectReason;
+        private long orderId;
+        private long leavesQuantity;
+        private long cumQuantity;
+        private long lastQuantity;
+        private long lastPrice;
+        private int canceledCount;
+        private long timestamp;
         
-        ByteBuffer buffer = ByteBuffer.allocate(139);
+        Answer(ResponseChannel channel, Executor reply, short requestType, String clientId) {
+            this.channel = channel;
+            this.reply = reply;
+            this.requestType = requestType;
+            this.clientId = clientId;
+        }
         
-        // Message type
-        buffer.putShort((short) 101);
+        Answer report(byte event, long orderId, Order order) {
+            this.event = event;
+            this.orderId = orderId;
+            this.leavesQuantity = order != null && SessionOrders.isOpen(order) ? order.getRawRemainingQuantity() : 0;
+            this.cumQuantity = order == null ? 0 : order.getRawFilledQuantity();
+            return this;
+        }
         
-        // Order ID
-        buffer.putLong(response.getOrderId().getMostSignificantBits());
-        buffer.putLong(response.getOrderId().getLeastSignificantBits());
+        /**
+         * @param lastPrice The price of the fill on the wire
+         */
+        Answer fill(long lastQuantity, long lastPrice) {
+            this.lastQuantity = lastQuantity;
+            this.lastPrice = lastPrice;
+            return this;
+        }
         
-        // Client order ID
-        byte[] clientOrderIdBytes = new byte[16];
-        if (response.getClientOrderId() != null) {
-            byte[] sourceBytes = response.getClientOrderId().getBytes();
-            System.arraycopy(sourceBytes, 0, clientOrderIdBytes, 0, 
-                    Math.min(sourceBytes.length, clientOrderIdBytes.length));
-        }
-        buffer.put(clientOrderIdBytes);
+        Answer massCancelReport(byte result, int canceledCount) {
+            this.event = result;
+            this.canceledCount = canceledCount;
+            return this;
+        }
         
-        // Status
-        buffer.put(convertStatusToBinary(response.getStatus()));
+        Answer heartbeat(long timestamp) {
+            this.timestamp = timestamp;
+            return this;
+        }
+        
+        Answer rejected(byte reason) {
+            this.rejectReason = reason;
+            return this;
+        }
         
-        // Price
-        long priceRaw = response.getPrice().scaleByPowerOfTen(8).longValue();
-        buffer.putLong(priceRaw);
+        /**
+         * A request the book did not take is rejected as such; one that failed while being
+         * applied may have taken effect, so it is never reported as rejected or done.
+         */
+        Answer failed(Throwable failure) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            return rejected(cause instanceof BackpressureException
+                    ? BinaryProtocol.ENGINE_BUSY : BinaryProtocol.ENGINE_FAILURE);
+        }
+        
+        void send() {
+            reply.execute(this);
+        }
+        
+        @Override
+        public void run() {
+            accept(channel);
+        }
+        
+        @Override
+        public void accept(ResponseChannel channel) {
+            ByteBuffer response = channel.responseBuffer();
+            int responseOffset = channel.beginResponse();
+            if (rejectReason != 0) {
+                rejectEncoder.wrap(response, responseOffset).refType(requestType).reason(rejectReason)
+                        .clientOrderId(clientId);
+                channel.endResponse(RejectEncoder.LENGTH);
+            } else if (requestType == BinaryProtocol.HEARTBEAT) {
+                heartbeatEncoder.wrap(response, responseOffset).timestamp(timestamp);
+                channel.endResponse(HeartbeatEncoder.LENGTH);
+            } else if (requestType == BinaryProtocol.MASS_CANCEL) {
+                massCancelReportEncoder.wrap(response, responseOffset).clientRequestId(clientId)
+                        .result(event).canceledCount(canceledCount);
+                channel.endResponse(MassCancelReportEncoder.LENGTH);
+            } else {
+                executionReportEncoder.wrap(response, responseOffset).event(event).clientOrderId(clientId)
+                        .orderId(orderId).leavesQuantity(leavesQuantity).cumQuantity(cumQuantity)
+                        .lastQuantity(lastQuantity).lastPrice(lastPrice);
+                channel.endResponse(ExecutionReportEncoder.LENGTH);
+            }
+        }
+    }
+    
+    /**
+     * Reports the fills of the orders entered over binary, and forgets the orders canceled
+     * by any means, as the books apply them.
+     */
+    private final class FillReporter implements OrderBookEventListener {
+        @Override
+        public void onTradeExecuted(Trade trade) {
+            reportFill(trade.getRawBuyOrderId(), trade);
+            reportFill(trade.getRawSellOrderId(), trade);
+        }
+        
+        @Override
+        public void onOrderCanceled(Order order) {
+            SessionOrders orders = orderSessions.remove(order.getRawId());
+            if (orders != null) {
+                orders.remove(order.getRawId());
+            }
+        }
+        
+        @Override
+        public void onOrderCanceled(UUID orderId, Order order) {
+        }
         
-        // Quantity
-        buffer.putLong(response.getQuantity().longValue());
+        @Override
+        public void onOrderAdded(Order order) {
+        }
         
-        // Filled quantity
-        buffer.putLong(response.getFilledQuantity().longValue());
+        @Override
+        public void onOrderModified(Order order, long oldRawPrice, long oldQuantity) {
+        }
         
-        // Symbol
-        byte[] symbolBytes = new byte[16];
-        if (response.getSymbol() != null) {
-            byte[] sourceBytes = response.getSymbol().getBytes();
-            System.arraycopy(sourceBytes, 0, symbolBytes, 0, 
-                    Math.min(sourceBytes.length, symbolBytes.length));
-        }
-        buffer.put(symbolBytes);
+        @Override
+        public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {
+        }
         
-        // Message
-        byte[] messageBytes = new byte[64];
-        if (response.getMessage() != null) {
-            byte[] sourceBytes = response.getMessage().getBytes();
-            System.arraycopy(sourceBytes, 0, messageBytes, 0, 
-                    Math.min(sourceBytes.length, messageBytes.length));
-        }
-        buffer.put(messageBytes);
+        @Override
+        public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {
+        }
         
-        buffer.flip();
+        @Override
+        public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {
+        }
+    }
+    
+    /**
+     * Encodes an order status response into a binary message.
+     * 
+     * @param response The order status response
+     * @return The binary encoded message
+     */
+    public ByteBuffer encodeOrderStatusResponse(OrderStatusResponse response) {
+        ByteBuffer buffer = ByteBuffer.allocate(OrderStatusEncoder.LENGTH);
+        encode(new OrderStatusEncoder(), response, buffer, 0);
         return buffer;
     }
     
-    private byte convertStatusToBinary(com.example.models.OrderStatus status) {
-        switch (status) {
-            case NEW: return 1;
-            case PARTIALLY_FILLED: return 2;
-            case FILLED: return 3;
-            case CANCELED: return 4;
-            case REJECTED: return 5;
-            default: return 0;
+    /**
+     * Writes the status of an order into a caller-owned buffer, straight from the order's
+     * fixed-point fields, without allocating.
+     * 
+     * @param order The order
+     * @param message Free text for the client, truncated to 64 characters
+     * @param buffer Receives the message
+     * @param offset Where to write it; the buffer's position is left unchanged
+     * @return The length of the message
+     */
+    public int encodeOrderStatus(Order order, CharSequence message, ByteBuffer buffer, int offset) {
+        orderStatusEncoder.wrap(buffer, offset)
+                .orderId(0L, order.getRawId())
+                .clientOrderId(order.getClientOrderId())
+                .status(order.getStatus())
+                .price(toWirePrice(order.getRawPrice(), order.getPriceScale()))
+                .quantity(order.getRawQuantity())
+                .filledQuantity(order.getRawFilledQuantity())
+                .symbol(order.getSymbol())
+                .message(message);
+        return OrderStatusEncoder.LENGTH;
+    }
+    
+    static void encode(OrderStatusEncoder encoder, OrderStatusResponse response, ByteBuffer buffer, int offset) {
+        encoder.wrap(buffer, offset)
+                .orderId(response.getOrderId().getMostSignificantBits(),
+                        response.getOrderId().getLeastSignificantBits())
+                .clientOrderId(response.getClientOrderId())
+                .status(response.getStatus())
+                .price(response.getPrice() != null
+                        ? response.getPrice().scaleByPowerOfTen(PRICE_SCALE).longValue() : 0L)
+                .quantity(response.getQuantity().longValue())
+                .filledQuantity(response.getFilledQuantity().longValue())
+                .symbol(response.getSymbol())
+                .message(response.getMessage());
+    }
+    
+    // Market orders have no price, which goes on the wire as 0
+    private static long toWirePrice(long rawPrice, int priceScale) {
+        if (rawPrice == Order.NO_PRICE) {
+            return 0L;
         }
+        return priceScale <= PRICE_SCALE
+                ? rawPrice * POWERS_OF_TEN[PRICE_SCALE - priceScale]
+                : rawPrice / POWERS_OF_TEN[priceScale - PRICE_SCALE];
     }
 }
\ No newline at end of file
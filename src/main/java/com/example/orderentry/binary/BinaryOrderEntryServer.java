@@ -0,0 +1,702 @@
+package com.example.orderentry.binary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking TCP server for the binary order-entry protocol.
+ * <p>
+ * A single selector thread accepts connections, reads length-framed messages into a
+ * direct buffer per session, hands each complete message to the
+ * {@link BinaryOrderEntryAdapter} and writes its answer into the session's direct
+ * output buffer. The adapter queues order requests to the matching engine without
+ * waiting; their answers come back as tasks that the selector thread runs between
+ * selects, in the order of the requests, so it never waits on a matching thread. Room
+ * for the answer of every request still with the engine is kept in the output buffer. When a client stops reading and
+ * its output buffer fills up, the server stops reading from that client until the
+ * backlog has been written.
+ * <p>
+ * When the server has a session store directory, a connection can log on to a named
+ * session. Its answers are then sequenced and appended to the session's
+ * {@link MappedSessionStore} by the server thread as they are written, and resent
+ * straight from the mapped file on reconnect or on a retransmit request. While a resend
+ * is being written the session's requests wait, as do logons and retransmit requests
+ * while answers are still due, so answers always reach the client in sequence. A
+ * session whose connection drops stays logged on until its last answer is stored, and
+ * its orders can be canceled or replaced again once it has logged back on.
+ * 
+ * @see BinaryProtocol
+ */
+public class BinaryOrderEntryServer {
+    private static final Logger logger = LoggerFactory.getLogger(BinaryOrderEntryServer.class);
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final long SELECT_TIMEOUT_MILLIS = 100;
+    // Room a session's output must have before another request is processed
+    private static final int MAX_RESPONSE_FRAME = BinaryProtocol.FRAME_HEADER_LENGTH
+            + BinaryProtocol.SEQUENCED_HEADER_LENGTH + BinaryProtocol.MAX_RESPONSE_LENGTH;
+    
+    private final BinaryOrderEntryAdapter adapter;
+    private final InetSocketAddress address;
+    private final int bufferSize;
+    private final Path storeDirectory;
+    private final int storeCapacity;
+    // Session layer state, only touched by the server thread
+    private final Map<String, MappedSessionStore> stores = new HashMap<>();
+    private final Map<String, Session> loggedOn = new HashMap<>();
+    // The orders of each named session, which it keeps across connections
+    private final Map<String, SessionOrders> sessionOrders = new HashMap<>();
+    // Stores the fills of each named session while no connection is logged on to it
+    private final Map<String, Session> offlineSessions = new HashMap<>();
+    private final LogonDecoder logonDecoder = new LogonDecoder();
+    private final RetransmitRequestDecoder retransmitRequestDecoder = new RetransmitRequestDecoder();
+    private final LogonAcceptedEncoder logonAcceptedEncoder = new LogonAcceptedEncoder();
+    private final SequencedMessageEncoder sequencedMessageEncoder = new SequencedMessageEncoder();
+    private final RejectEncoder rejectEncoder = new RejectEncoder();
+    // Sessions with answers completed by the matching threads, to be written by the server thread
+    private final Queue<Session> completions = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    // Sessions answered since the last select, whose waiting requests may now go
+    private final List<Session> answeredSessions = new ArrayList<>();
+    // Bound once, so selecting does not allocate a new lambda on every pass
+    private final Consumer<SelectionKey> keyHandler = this::handleKey;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile int sessionCount;
+    
+    public BinaryOrderEntryServer(BinaryOrderEntryAdapter adapter, InetSocketAddress address) {
+        this(adapter, address, DEFAULT_BUFFER_SIZE);
+    }
+    
+    /**
+     * Creates a server without a session store; logons are rejected.
+     */
+    public BinaryOrderEntryServer(BinaryOrderEntryAdapter adapter, InetSocketAddress address, int bufferSize) {
+        this(adapter, address, bufferSize, null, MappedSessionStore.DEFAULT_CAPACITY);
+    }
+    
+    public BinaryOrderEntryServer(BinaryOrderEntryAdapter adapter, InetSocketAddress address, Path storeDirectory) {
+        this(adapter, address, DEFAULT_BUFFER_SIZE, storeDirectory, MappedSessionStore.DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param adapter Applies the requests; only ever called from the server thread, which
+     *                also runs the tasks that answer them
+     * @param address The address to listen on; port 0 picks a free port
+     * @param bufferSize The size of each session's input and output buffers
+     * @param storeDirectory Holds a {@link MappedSessionStore} per session, or null to reject logons
+     * @param storeCapacity The size of each new session store file in bytes
+     */
+    public BinaryOrderEntryServer(BinaryOrderEntryAdapter adapter, InetSocketAddress address, int bufferSize,
+                                  Path storeDirectory, int storeCapacity) {
+        if (bufferSize < BinaryProtocol.FRAME_HEADER_LENGTH + BinaryProtocol.MAX_REQUEST_LENGTH) {
+            throw new IllegalArgumentException("Buffer size " + bufferSize + " cannot hold a request");
+        }
+        this.adapter = adapter;
+        this.address = address;
+        this.bufferSize = bufferSize;
+        this.storeDirectory = storeDirectory;
+        this.storeCapacity = storeCapacity;
+    }
+    
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(this::run, "binary-order-entry");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Binary order entry listening on {}", serverChannel.getLocalAddress());
+    }
+    
+    /**
+     * @return The port the server is listening on, or -1 if it is not running
+     */
+    public int getLocalPort() {
+        ServerSocketChannel channel = serverChannel;
+        return channel == null ? -1 : channel.socket().getLocalPort();
+    }
+    
+    public int getSessionCount() {
+        return sessionCount;
+    }
+    
+    /**
+     * Stops the server thread, closes every session and closes the session stores.
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+            for (MappedSessionStore store : stores.values()) {
+                store.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close binary order entry server", e);
+        }
+        stores.clear();
+        loggedOn.clear();
+        sessionOrders.clear();
+        offlineSessions.clear();
+        sessionCount = 0;
+    }
+    
+    private void run() {
+        while (running) {
+            try {
+                selector.select(keyHandler, SELECT_TIMEOUT_MILLIS);
+            } catch (IOException e) {
+                logger.error("Binary order entry selector failed", e);
+                return;
+            }
+            runCompletions();
+        }
+    }
+    
+    /**
+     * Writes the answers the matching threads have completed, then sends them and
+     * carries on with the requests that were waiting for them.
+     */
+    private void runCompletions() {
+        wakeupPending.set(false);
+        for (Session session = completions.poll(); session != null; session = completions.poll()) {
+            // Cleared first, so an answer completed while these are written queues the session again
+            session.completing.set(false);
+            writeAnswers(session);
+            if (!session.answered) {
+                session.answered = true;
+                answeredSessions.add(session);
+            }
+        }
+        for (int i = 0; i < answeredSessions.size(); i++) {
+            Session session = answeredSessions.get(i);
+            session.answered = false;
+            if (session.closed) {
+                continue;
+            }
+            try {
+                processFrames(session);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Closing binary session {}: {}", session.remoteAddress, e.toString());
+                close(session);
+            }
+        }
+        answeredSessions.clear();
+    }
+    
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Session session = (Session) key.attachment();
+        try {
+            if (key.isWritable()) {
+                flush(session);
+                // Answers and requests left waiting for output space can go now
+                writeAnswers(session);
+                processFrames(session);
+            }
+            if (key.isValid() && key.isReadable()) {
+                if (session.channel.read(session.input) < 0) {
+                    close(session);
+                    return;
+                }
+                processFrames(session);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Closing binary session {}: {}", session.remoteAddress, e.toString());
+            close(session);
+        }
+    }
+    
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Session session = new Session(channel, bufferSize);
+            session.key = channel.register(selector, SelectionKey.OP_READ, session);
+            sessionCount++;
+            logger.info("Binary session opened from {}", session.remoteAddress);
+        } catch (IOException e) {
+            logger.warn("Failed to accept binary session", e);
+        }
+    }
+    
+    /**
+     * Handles every complete frame in the session's input, as long as there is room for
+     * the answers, then writes the answers out. Frames left waiting for room or for a
+     * resend are picked up again once writing has caught up.
+     */
+    private void processFrames(Session session) throws IOException {
+        int processed;
+        do {
+            processed = processBufferedFrames(session);
+        } while (session.stalled && processed > 0 && session.resend == null && hasRoom(session));
+    }
+    
+    // Whether the output has room for the answers still due and that of one more request
+    private static boolean hasRoom(Session session) {
+        return session.output.remaining() >= (long) (session.answersDue() + 1) * MAX_RESPONSE_FRAME;
+    }
+    
+    /**
+     * Queues the fills sent to the session behind its answers, then writes the answers that
+     * are ready, up to the first one still with the engine or until the output is full.
+     */
+    private void writeAnswers(Session session) {
+        Consumer<ResponseChannel> report;
+        while ((report = session.reports.poll()) != null) {
+            ResponseChannel target = session.orders.channel();
+            if (target != session && target != null) {
+                // Sent before the session moved to another connection, or went offline
+                target.send(report);
+            } else {
+                session.queue(report);
+            }
+        }
+        Session.Answer answer;
+        while ((answer = session.nextAnswer()) != null && answer.isReady()
+                && (session.closed || session.output.remaining() >= MAX_RESPONSE_FRAME)) {
+            session.answersWritten++;
+            session.current = answer;
+            answer.write();
+            session.current = null;
+            if (session.closed) {
+                // Stored for the session's next logon; there is no one to write it to
+                session.output.clear();
+            }
+        }
+        if (session.closed && session.channel != null && session.store != null && session.answersDue() == 0) {
+            session.logout();
+        }
+    }
+    
+    /**
+     * @return The number of frames processed
+     */
+    private int processBufferedFrames(Session session) throws IOException {
+        ByteBuffer input = session.input;
+        input.flip();
+        session.stalled = false;
+        int processed = 0;
+        while (input.remaining() >= BinaryProtocol.FRAME_HEADER_LENGTH) {
+            if (session.resend != null) {
+                // Answers to later requests must wait for the resend
+                session.stalled = true;
+                break;
+            }
+            int start = input.position();
+            int length = input.getShort(start) & 0xFFFF;
+            if (length > input.capacity() - BinaryProtocol.FRAME_HEADER_LENGTH) {
+                throw new IllegalArgumentException("Frame of " + length + " bytes does not fit the session buffer");
+            }
+            if (input.remaining() < BinaryProtocol.FRAME_HEADER_LENGTH + length) {
+                break;
+            }
+            int messageOffset = start + BinaryProtocol.FRAME_HEADER_LENGTH;
+            short type = length < 2 ? 0 : BinaryProtocol.getType(input, messageOffset);
+            boolean sessionMessage = type == BinaryProtocol.LOGON || type == BinaryProtocol.RETRANSMIT_REQUEST;
+            if (sessionMessage && session.answersDue() > 0) {
+                // Answers still due are sequenced before a logon or resend changes the stream
+                session.stalled = true;
+                break;
+            }
+            if (!hasRoom(session)) {
+                flush(session);
+                if (!hasRoom(session)) {
+                    session.stalled = true;
+                    break;
+                }
+            }
+            if (sessionMessage) {
+                processSessionMessage(session, type, input, messageOffset, length);
+            } else {
+                // Heartbeats are answered unsequenced
+                session.unsequenced = type == BinaryProtocol.HEARTBEAT;
+                adapter.processMessage(input, messageOffset, length, session);
+                writeAnswers(session);
+            }
+            input.position(messageOffset + length);
+            processed++;
+        }
+        input.compact();
+        flush(session);
+        return processed;
+    }
+    
+    private void processSessionMessage(Session session, short type, ByteBuffer input, int offset, int length) {
+        if (length < BinaryProtocol.getMinimumLength(type)) {
+            sessionReject(session, type, BinaryProtocol.MESSAGE_TOO_SHORT);
+        } else if (type == BinaryProtocol.LOGON) {
+            logon(session, logonDecoder.wrap(input, offset, length));
+        } else if (session.store == null) {
+            sessionReject(session, type, BinaryProtocol.NOT_LOGGED_ON);
+        } else {
+            RetransmitRequestDecoder decoder = retransmitRequestDecoder.wrap(input, offset, length);
+            long fromSeqNo = decoder.fromSeqNo();
+            if (fromSeqNo < 1 || fromSeqNo >= session.store.getNextSeqNo() || decoder.count() < 1) {
+                sessionReject(session, type, BinaryProtocol.SEQUENCE_OUT_OF_RANGE);
+            } else {
+                session.resend = session.store.frames(fromSeqNo, decoder.count());
+            }
+        }
+    }
+    
+    /**
+     * Binds the connection to its session and its orders, answers with the session's next
+     * sequence number and resends every stored answer from the one the client expects next.
+     */
+    private void logon(Session session, LogonDecoder decoder) {
+        String sessionId = decoder.sessionId();
+        if (storeDirectory == null || session.store != null || !MappedSessionStore.isValidSessionId(sessionId)
+                || loggedOn.containsKey(sessionId)) {
+            logger.warn("Rejecting logon to binary session {} from {}", sessionId, session.remoteAddress);
+            sessionReject(session, BinaryProtocol.LOGON, BinaryProtocol.LOGON_REJECTED);
+            return;
+        }
+        Session offline = offlineSessions.get(sessionId);
+        if (offline != null) {
+            // Fills sent while the session was offline are stored before it is resent
+            writeAnswers(offline);
+        }
+        MappedSessionStore store = stores.get(sessionId);
+        if (store == null) {
+            try {
+                store = new MappedSessionStore(storeDirectory, sessionId, storeCapacity);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open binary session store " + sessionId, e);
+            }
+            stores.put(sessionId, store);
+        }
+        long nextSeqNo = Math.max(1, decoder.nextSeqNo());
+        if (nextSeqNo > store.getNextSeqNo()) {
+            // The client has seen answers this session never sent
+            sessionReject(session, BinaryProtocol.LOGON, BinaryProtocol.SEQUENCE_OUT_OF_RANGE);
+            return;
+        }
+        session.store = store;
+        loggedOn.put(sessionId, session);
+        // Orders entered before the logon join the session's; none of their answers is due
+        SessionOrders orders = sessionOrders.computeIfAbsent(sessionId, id -> new SessionOrders());
+        adapter.moveOrders(session.orders, orders);
+        session.orders = orders;
+        orders.attach(session);
+        ByteBuffer output = session.output;
+        logonAcceptedEncoder.wrap(output, output.position() + BinaryProtocol.FRAME_HEADER_LENGTH)
+                .nextSeqNo(store.getNextSeqNo());
+        endFrame(output, LogonAcceptedEncoder.LENGTH);
+        if (nextSeqNo < store.getNextSeqNo()) {
+            session.resend = store.frames(nextSeqNo, store.getNextSeqNo() - nextSeqNo);
+        }
+        logger.info("Binary session {} logged on from {}, resending from {} to {}", sessionId,
+                session.remoteAddress, nextSeqNo, store.getNextSeqNo() - 1);
+    }
+    
+    private void sessionReject(Session session, short type, byte reason) {
+        ByteBuffer output = session.output;
+        rejectEncoder.wrap(output, output.position() + BinaryProtocol.FRAME_HEADER_LENGTH)
+                .refType(type).reason(reason).clientOrderId(null);
+        endFrame(output, RejectEncoder.LENGTH);
+    }
+    
+    // Writes the length header of the message just written after the output's position and moves past it
+    private static void endFrame(ByteBuffer output, int messageLength) {
+        output.putShort(output.position(), (short) messageLength);
+        output.position(output.position() + BinaryProtocol.FRAME_HEADER_LENGTH + messageLength);
+    }
+    
+    /**
+     * Writes as much of the session's pending output as the socket takes, then any resend
+     * from its store, which goes straight from the mapped file.
+     */
+    private void flush(Session session) throws IOException {
+        ByteBuffer output = session.output;
+        if (output.position() > 0) {
+            output.flip();
+            session.channel.write(output);
+            output.compact();
+        }
+        if (session.resend != null && output.position() == 0) {
+            session.channel.write(session.resend);
+            if (!session.resend.hasRemaining()) {
+                session.resend = null;
+            }
+        }
+        int interestOps = session.stalled ? 0 : SelectionKey.OP_READ;
+        if (output.position() > 0 || session.resend != null) {
+            interestOps |= SelectionKey.OP_WRITE;
+        }
+        if (session.key.interestOps() != interestOps) {
+            session.key.interestOps(interestOps);
+        }
+    }
+    
+    private void close(Session session) {
+        session.key.cancel();
+        session.closed = true;
+        if (session.store != null && session.answersDue() == 0) {
+            session.logout();
+        }
+        try {
+            session.channel.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close binary session {}", session.remoteAddress, e);
+        }
+        sessionCount--;
+        logger.info("Binary session closed from {}", session.remoteAddress);
+    }
+    
+    /**
+     * A connection, and the channel its answers are written to. Only the server thread
+     * touches its state; answers completed and fills sent on other threads reach it
+     * through {@link #completions}. A session without a connection stands in for a named
+     * session that is offline, and only stores the fills sent to it.
+     */
+    private final class Session implements ResponseChannel {
+        private final SocketChannel channel;
+        private final ByteBuffer input;
+        private final ByteBuffer output;
+        private final String remoteAddress;
+        private SelectionKey key;
+        // Requests are waiting for the client to read its reports, or for answers still due
+        private boolean stalled;
+        // The store of the session logged on to, or null before logon
+        private MappedSessionStore store;
+        // Stored answers still to be resent, a view of the store's mapping
+        private ByteBuffer resend;
+        // The connection's own orders until it logs on, then those of its session
+        private SessionOrders orders = new SessionOrders();
+        // Answers reserved by the adapter, in the order of the requests, and fills queued behind
+        // them: a ring of slots by sequence, reused once written, which only grows if fills
+        // outrun a client that stopped reading
+        private Answer[] answers;
+        private long answersReserved;
+        private long answersWritten;
+        // Whether the session is already in the completions, so it is queued once per pass
+        private final AtomicBoolean completing = new AtomicBoolean();
+        // Fills sent from any thread, not yet queued
+        private final Queue<Consumer<ResponseChannel>> reports = new ConcurrentLinkedQueue<>();
+        // Whether the request being processed is answered unsequenced
+        private boolean unsequenced;
+        // The answer being written, and where its frame starts
+        private Answer current;
+        private int frameStart;
+        private boolean answered;
+        private boolean closed;
+        
+        Session(SocketChannel channel, int bufferSize) throws IOException {
+            this.channel = channel;
+            this.input = ByteBuffer.allocateDirect(bufferSize);
+            this.output = ByteBuffer.allocateDirect(bufferSize);
+            this.remoteAddress = String.valueOf(channel.getRemoteAddress());
+            this.answers = answerRing(bufferSize / MAX_RESPONSE_FRAME + 1);
+            orders.attach(this);
+        }
+        
+        // An offline named session, which writes each fill into a scratch buffer and stores it
+        Session(MappedSessionStore store, SessionOrders orders) {
+            this.channel = null;
+            this.input = null;
+            this.output = ByteBuffer.allocateDirect(MAX_RESPONSE_FRAME);
+            this.remoteAddress = "offline";
+            this.store = store;
+            this.orders = orders;
+            this.closed = true;
+            this.answers = answerRing(2);
+        }
+        
+        @Override
+        public Executor answer() {
+            return reserve(unsequenced);
+        }
+        
+        @Override
+        public void send(Consumer<ResponseChannel> message) {
+            reports.offer(message);
+            complete();
+        }
+        
+        // Queues a fill behind the answers reserved so far, as one that is ready
+        void queue(Consumer<ResponseChannel> report) {
+            reserve(false).report = report;
+        }
+        
+        int answersDue() {
+            return (int) (answersReserved - answersWritten);
+        }
+        
+        // The answer to write next, or null if none is due
+        Answer nextAnswer() {
+            return answersWritten == answersReserved ? null : answers[(int) answersWritten & (answers.length - 1)];
+        }
+        
+        private Answer reserve(boolean unsequenced) {
+            if (answersDue() == answers.length) {
+                growAnswers();
+            }
+            return answers[(int) answersReserved++ & (answers.length - 1)].reset(unsequenced);
+        }
+        
+        // Moves the answers due to a ring twice the size, each to the slot of its sequence
+        private void growAnswers() {
+            Answer[] grown = new Answer[answers.length * 2];
+            for (long sequence = answersWritten; sequence < answersReserved; sequence++) {
+                grown[(int) sequence & (grown.length - 1)] = answers[(int) sequence & (answers.length - 1)];
+            }
+            for (int i = 0; i < grown.length; i++) {
+                if (grown[i] == null) {
+                    grown[i] = new Answer();
+                }
+            }
+            answers = grown;
+        }
+        
+        // A power of two slots, so a sequence maps to its slot with a mask
+        private Answer[] answerRing(int minSize) {
+            Answer[] ring = new Answer[Integer.highestOneBit(Math.max(2, minSize) * 2 - 1)];
+            for (int i = 0; i < ring.length; i++) {
+                ring[i] = new Answer();
+            }
+            return ring;
+        }
+        
+        // Has the server thread write the session's answers on its next pass
+        void complete() {
+            if (completing.compareAndSet(false, true)) {
+                completions.offer(this);
+            }
+            if (Thread.currentThread() != thread && wakeupPending.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+        
+        @Override
+        public SessionOrders orders() {
+            return orders;
+        }
+        
+        @Override
+        public ByteBuffer responseBuffer() {
+            return output;
+        }
+        
+        @Override
+        public int beginResponse() {
+            frameStart = output.position();
+            int messageOffset = frameStart + BinaryProtocol.FRAME_HEADER_LENGTH;
+            if (store == null || current.unsequenced) {
+                return messageOffset;
+            }
+            return sequencedMessageEncoder.wrap(output, messageOffset).seqNo(store.getNextSeqNo()).messageOffset();
+        }
+        
+        @Override
+        public void endResponse(int length) {
+            if (store == null || current.unsequenced) {
+                endFrame(output, length);
+            } else {
+                endFrame(output, BinaryProtocol.SEQUENCED_HEADER_LENGTH + length);
+                store.append(output, frameStart, output.position() - frameStart);
+            }
+        }
+        
+        // The store stays open for the session's next logon, and keeps the fills sent meanwhile
+        void logout() {
+            String sessionId = store.getSessionId();
+            loggedOn.remove(sessionId, this);
+            if (orders.channel() == this) {
+                orders.attach(offlineSessions.computeIfAbsent(sessionId, id -> new Session(store, orders)));
+            }
+            store = null;
+        }
+        
+        /**
+         * A slot of the answer ring: the answer to one request, written once the adapter has
+         * handed over its task, or a fill queued behind the answers. Reserved again for a
+         * later request once written.
+         */
+        private final class Answer implements Executor {
+            private boolean unsequenced;
+            private Consumer<ResponseChannel> report;
+            private volatile Runnable task;
+            
+            Answer reset(boolean unsequenced) {
+                this.unsequenced = unsequenced;
+                this.report = null;
+                this.task = null;
+                return this;
+            }
+            
+            boolean isReady() {
+                return report != null || task != null;
+            }
+            
+            // Lets go of the task and fill, which belong to the request answered
+            void write() {
+                Consumer<ResponseChannel> report = this.report;
+                Runnable task = this.task;
+                this.report = null;
+                this.task = null;
+                if (report != null) {
+                    report.accept(Session.this);
+                } else {
+                    task.run();
+                }
+            }
+            
+            @Override
+            public void execute(Runnable task) {
+                this.task = task;
+                if (Thread.currentThread() != thread) {
+                    complete();
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,205 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Schema of the native binary order-entry session.
+ * <p>
+ * On the socket every message is framed by a 2-byte unsigned big-endian length that
+ * does not count itself. Messages are big-endian, start with a 2-byte type and keep
+ * their fields at fixed offsets, so they can be read and written in place by the
+ * flyweight codecs of this package. Text fields are ASCII, padded on the right with
+ * spaces or NULs, and a blank field means "not set". Prices are longs scaled by 10^8.
+ * <p>
+ * Messages of schema version {@value #SCHEMA_VERSION}; the codec of each message
+ * documents its layout:
+ * <pre>
+ * type  message            direction  length  codecs
+ *    1  new order          in         53      {@link NewOrderEncoder}, {@link NewOrderDecoder}
+ *    2  cancel             in         26      {@link CancelEncoder}, {@link CancelDecoder}
+ *    3  cancel/replace     in         58 (42) {@link CancelReplaceEncoder}, {@link CancelReplaceDecoder}
+ *    4  mass cancel        in         35      {@link MassCancelEncoder}, {@link MassCancelDecoder}
+ *    5  heartbeat          both       11      {@link HeartbeatEncoder}, {@link HeartbeatDecoder}
+ *    6  logon              in         26      {@link LogonEncoder}, {@link LogonDecoder}
+ *    7  retransmit request in         14      {@link RetransmitRequestEncoder}, {@link RetransmitRequestDecoder}
+ *  101  order status       out        139     {@link OrderStatusEncoder}
+ *  102  execution report   out        59 (27) {@link ExecutionReportEncoder}, {@link ExecutionReportDecoder}
+ *  103  reject             out        21      {@link RejectEncoder}, {@link RejectDecoder}
+ *  104  mass cancel report out        23      {@link MassCancelReportEncoder}, {@link MassCancelReportDecoder}
+ *  105  logon accepted     out        10      {@link LogonAcceptedEncoder}, {@link LogonAcceptedDecoder}
+ *  106  sequenced          out        10+     {@link SequencedMessageEncoder}, {@link SequencedMessageDecoder}
+ * </pre>
+ * The schema evolves by appending fields only; a length in brackets is the message's
+ * length in version 1. A receiver accepts any message at least as long as the first
+ * version of its type, reads the fields it knows and ignores the rest, and decoders
+ * return 0 for fields the sender's version did not have. Peers announce their version
+ * in the heartbeat.
+ * <p>
+ * Every request is answered by exactly one message: an execution report for new
+ * orders, cancels and cancel/replaces, a mass cancel report for a mass cancel, a
+ * heartbeat for a heartbeat, and a reject for anything that cannot be decoded or that
+ * the matching engine could not apply. Answers keep the order of the requests.
+ * <p>
+ * Each time an order trades, the session that entered it is also sent an execution
+ * report, partially filled or filled, with the quantity and price of the fill. It
+ * follows the answers already due, including that of the order's own new order.
+ * <p>
+ * A connection may log on to a named session. From then on every answer other than a
+ * heartbeat is wrapped in a sequenced message, numbered from 1 for the life of the
+ * session and kept in the server's session store, fills of the session's orders
+ * included, even while no connection is logged on. A client that reconnects logs on with
+ * the next sequence number it expects and is resent everything it missed; one that sees
+ * a gap asks for a retransmit. Logons and retransmit requests are answered unsequenced,
+ * by a logon acceptance or a reject.
+ */
+public final class BinaryProtocol {
+    public static final byte SCHEMA_VERSION = 4;
+    
+    public static final int FRAME_HEADER_LENGTH = 2;
+    
+    public static final short NEW_ORDER = 1;
+    public static final short CANCEL = 2;
+    public static final short CANCEL_REPLACE = 3;
+    public static final short MASS_CANCEL = 4;
+    public static final short HEARTBEAT = 5;
+    public static final short LOGON = 6;
+    public static final short RETRANSMIT_REQUEST = 7;
+    public static final short ORDER_STATUS = 101;
+    public static final short EXECUTION_REPORT = 102;
+    public static final short REJECT = 103;
+    public static final short MASS_CANCEL_REPORT = 104;
+    public static final short LOGON_ACCEPTED = 105;
+    public static final short SEQUENCED = 106;
+    
+    public static final int NEW_ORDER_LENGTH = 53;
+    public static final int CANCEL_LENGTH = 26;
+    public static final int CANCEL_REPLACE_LENGTH = 58;
+    public static final int MASS_CANCEL_LENGTH = 35;
+    public static final int HEARTBEAT_LENGTH = 11;
+    public static final int LOGON_LENGTH = 26;
+    public static final int RETRANSMIT_REQUEST_LENGTH = 14;
+    public static final int ORDER_STATUS_LENGTH = 139;
+    public static final int EXECUTION_REPORT_LENGTH = 59;
+    public static final int REJECT_LENGTH = 21;
+    public static final int MASS_CANCEL_REPORT_LENGTH = 23;
+    public static final int LOGON_ACCEPTED_LENGTH = 10;
+    /** The length of a sequenced message without the answer it wraps. */
+    public static final int SEQUENCED_HEADER_LENGTH = 10;
+    
+    // Lengths in version 1 of the messages that have grown since
+    static final int CANCEL_REPLACE_V1_LENGTH = 42;
+    static final int EXECUTION_REPORT_V1_LENGTH = 27;
+    
+    /** The longest answer to a request. */
+    public static final int MAX_RESPONSE_LENGTH = EXECUTION_REPORT_LENGTH;
+    /** The longest request of this version. */
+    public static final int MAX_REQUEST_LENGTH = CANCEL_REPLACE_LENGTH;
+    
+    // Execution report events
+    public static final byte ACCEPTED = 1;
+    public static final byte REJECTED = 2;
+    public static final byte CANCELED = 3;
+    public static final byte CANCEL_REJECTED = 4;
+    public static final byte REPLACED = 5;
+    public static final byte REPLACE_REJECTED = 6;
+    public static final byte PARTIALLY_FILLED = 7;
+    public static final byte FILLED = 8;
+    
+    // Reject reasons
+    public static final byte UNKNOWN_MESSAGE_TYPE = 1;
+    public static final byte MESSAGE_TOO_SHORT = 2;
+    public static final byte UNSUPPORTED_VERSION = 3;
+    public static final byte NOT_LOGGED_ON = 4;
+    public static final byte LOGON_REJECTED = 5;
+    public static final byte SEQUENCE_OUT_OF_RANGE = 6;
+    /** The matching engine was too far behind to take the request, which was not applied. */
+    public static final byte ENGINE_BUSY = 7;
+    /** The matching engine failed while applying the request, which may have taken effect. */
+    public static final byte ENGINE_FAILURE = 8;
+    
+    // Mass cancel report results
+    public static final byte MASS_CANCEL_DONE = 0;
+    public static final byte MASS_CANCEL_REJECTED = 1;
+    
+    /** Prices on the wire are longs scaled by 10^8. */
+    public static final int PRICE_SCALE = 8;
+    public static final int CLIENT_ORDER_ID_LENGTH = 16;
+    public static final int SYMBOL_LENGTH = 16;
+    public static final int SESSION_ID_LENGTH = 16;
+    
+    private BinaryProtocol() {
+    }
+    
+    public static short getType(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset);
+    }
+    
+    /**
+     * @return The shortest valid message of the type, which is its length in the schema
+     *         version that introduced it, or -1 if the type is unknown
+     */
+    public static int getMinimumLength(short type) {
+        switch (type) {
+            case NEW_ORDER: return NEW_ORDER_LENGTH;
+            case CANCEL: return CANCEL_LENGTH;
+            case CANCEL_REPLACE: return CANCEL_REPLACE_V1_LENGTH;
+            case MASS_CANCEL: return MASS_CANCEL_LENGTH;
+            case HEARTBEAT: return HEARTBEAT_LENGTH;
+            case LOGON: return LOGON_LENGTH;
+            case RETRANSMIT_REQUEST: return RETRANSMIT_REQUEST_LENGTH;
+            case ORDER_STATUS: return ORDER_STATUS_LENGTH;
+            case EXECUTION_REPORT: return EXECUTION_REPORT_V1_LENGTH;
+            case REJECT: return REJECT_LENGTH;
+            case MASS_CANCEL_REPORT: return MASS_CANCEL_REPORT_LENGTH;
+            case LOGON_ACCEPTED: return LOGON_ACCEPTED_LENGTH;
+            case SEQUENCED: return SEQUENCED_HEADER_LENGTH;
+            default: return -1;
+        }
+    }
+    
+    /**
+     * Reads a padded ASCII field, dropping the padding.
+     */
+    public static String readText(ByteBuffer buffer, int offset, int length) {
+        int end = textLength(buffer, offset, length);
+        char[] chars = new char[end];
+        for (int i = 0; i < end; i++) {
+            chars[i] = (char) (buffer.get(offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * @return The length of a padded ASCII field without its padding; 0 for a blank field
+     */
+    public static int textLength(ByteBuffer buffer, int offset, int length) {
+        int end = length;
+        while (end > 0) {
+            byte b = buffer.get(offset + end - 1);
+            if (b != 0 && b != ' ') {
+                break;
+            }
+            end--;
+        }
+        return end;
+    }
+    
+    /**
+     * Writes an ASCII field, padding it with NULs and truncating it to length.
+     */
+    public static void writeText(ByteBuffer buffer, int offset, int length, CharSequence text) {
+        int textLength = text == null ? 0 : Math.min(text.length(), length);
+        for (int i = 0; i < length; i++) {
+            buffer.put(offset + i, i < textLength ? (byte) text.charAt(i) : 0);
+        }
+    }
+    
+    /**
+     * Copies a fixed-width field byte for byte, padding included.
+     */
+    public static void copyText(ByteBuffer source, int sourceOffset, ByteBuffer buffer, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            buffer.put(offset + i, source.get(sourceOffset + i));
+        }
+    }
+}
\ No newline at end of file
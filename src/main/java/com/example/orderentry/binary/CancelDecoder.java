@@ -0,0 +1,42 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary cancel message; getters read in place.
+ * <pre>
+ *  0  short    type           {@link BinaryProtocol#CANCEL}
+ *  2  char[16] clientOrderId  the order to cancel, looked up when orderId is 0
+ * 18  long     orderId        as returned in the acceptance
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class CancelDecoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.CANCEL_LENGTH;
+    
+    static final int CLIENT_ORDER_ID_OFFSET = 2;
+    static final int ORDER_ID_OFFSET = 18;
+    
+    public CancelDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    /**
+     * @return Where the 16-byte client order ID field starts in the wrapped buffer
+     */
+    public int clientOrderIdOffset() {
+        return offset + CLIENT_ORDER_ID_OFFSET;
+    }
+    
+    /**
+     * @return The client order ID, or null if the field is blank
+     */
+    public String clientOrderId() {
+        return getText(CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH);
+    }
+    
+    public long orderId() {
+        return buffer.getLong(offset + ORDER_ID_OFFSET);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary cancel message in place. The layout is documented on
+ * {@link CancelDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class CancelEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.CANCEL_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type.
+     */
+    public CancelEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.CANCEL);
+        return this;
+    }
+    
+    public CancelEncoder clientOrderId(CharSequence clientOrderId) {
+        putText(CancelDecoder.CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, clientOrderId);
+        return this;
+    }
+    
+    public CancelEncoder orderId(long orderId) {
+        buffer.putLong(offset + CancelDecoder.ORDER_ID_OFFSET, orderId);
+        return this;
+    }
+}
\ No newline at end of file
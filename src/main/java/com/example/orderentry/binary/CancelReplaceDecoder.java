@@ -0,0 +1,84 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary cancel/replace message; getters read in place.
+ * <pre>
+ *  0  short    type              {@link BinaryProtocol#CANCEL_REPLACE}
+ *  2  char[16] clientOrderId     the order to replace, looked up when orderId is 0
+ * 18  long     orderId           as returned in the acceptance
+ * 26  long     price             scaled by 10^8, 0 to keep the current price
+ * 34  long     quantity          0 to keep the current quantity
+ * 42  char[16] newClientOrderId  since version 2; blank to keep the client order ID
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class CancelReplaceDecoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.CANCEL_REPLACE_LENGTH;
+    
+    static final int CLIENT_ORDER_ID_OFFSET = 2;
+    static final int ORDER_ID_OFFSET = 18;
+    static final int PRICE_OFFSET = 26;
+    static final int QUANTITY_OFFSET = 34;
+    static final int NEW_CLIENT_ORDER_ID_OFFSET = 42;
+    
+    public CancelReplaceDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    /**
+     * @return Where the 16-byte client order ID field starts in the wrapped buffer
+     */
+    public int clientOrderIdOffset() {
+        return offset + CLIENT_ORDER_ID_OFFSET;
+    }
+    
+    /**
+     * @return The client order ID, or null if the field is blank
+     */
+    public String clientOrderId() {
+        return getText(CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH);
+    }
+    
+    public long orderId() {
+        return buffer.getLong(offset + ORDER_ID_OFFSET);
+    }
+    
+    /**
+     * @return The new price scaled by 10^{@link BinaryProtocol#PRICE_SCALE}, or 0
+     */
+    public long price() {
+        return buffer.getLong(offset + PRICE_OFFSET);
+    }
+    
+    public long quantity() {
+        return buffer.getLong(offset + QUANTITY_OFFSET);
+    }
+    
+    /**
+     * @return Whether the message carries a new client order ID; never for version 1
+     */
+    public boolean hasNewClientOrderId() {
+        return hasField(NEW_CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH)
+                && BinaryProtocol.textLength(buffer, offset + NEW_CLIENT_ORDER_ID_OFFSET,
+                        BinaryProtocol.CLIENT_ORDER_ID_LENGTH) > 0;
+    }
+    
+    /**
+     * @return Where the new client order ID field starts in the wrapped buffer; only
+     *         valid if {@link #hasNewClientOrderId()}
+     */
+    public int newClientOrderIdOffset() {
+        return offset + NEW_CLIENT_ORDER_ID_OFFSET;
+    }
+    
+    /**
+     * @return The new client order ID, or null if there is none
+     */
+    public String newClientOrderId() {
+        return hasNewClientOrderId()
+                ? getText(NEW_CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH) : null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary cancel/replace message in place. The layout is
+ * documented on {@link CancelReplaceDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class CancelReplaceEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.CANCEL_REPLACE_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type. The new client order
+     * ID starts out blank.
+     */
+    public CancelReplaceEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.CANCEL_REPLACE);
+        putText(CancelReplaceDecoder.NEW_CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, null);
+        return this;
+    }
+    
+    public CancelReplaceEncoder clientOrderId(CharSequence clientOrderId) {
+        putText(CancelReplaceDecoder.CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, clientOrderId);
+        return this;
+    }
+    
+    public CancelReplaceEncoder orderId(long orderId) {
+        buffer.putLong(offset + CancelReplaceDecoder.ORDER_ID_OFFSET, orderId);
+        return this;
+    }
+    
+    /**
+     * @param price The new price scaled by 10^{@link BinaryProtocol#PRICE_SCALE}, or 0
+     *              to keep the current price
+     */
+    public CancelReplaceEncoder price(long price) {
+        buffer.putLong(offset + CancelReplaceDecoder.PRICE_OFFSET, price);
+        return this;
+    }
+    
+    /**
+     * @param quantity The new quantity, or 0 to keep the current quantity
+     */
+    public CancelReplaceEncoder quantity(long quantity) {
+        buffer.putLong(offset + CancelReplaceDecoder.QUANTITY_OFFSET, quantity);
+        return this;
+    }
+    
+    public CancelReplaceEncoder newClientOrderId(CharSequence newClientOrderId) {
+        putText(CancelReplaceDecoder.NEW_CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH,
+                newClientOrderId);
+        return this;
+    }
+}
\ No newline at end of file
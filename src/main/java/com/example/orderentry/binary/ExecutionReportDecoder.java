@@ -0,0 +1,81 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary execution report; getters read in place.
+ * <pre>
+ *  0  short    type            {@link BinaryProtocol#EXECUTION_REPORT}
+ *  2  byte     event           {@link BinaryProtocol#ACCEPTED}, {@link BinaryProtocol#REJECTED},
+ *                              {@link BinaryProtocol#CANCELED}, {@link BinaryProtocol#CANCEL_REJECTED},
+ *                              {@link BinaryProtocol#REPLACED}, {@link BinaryProtocol#REPLACE_REJECTED},
+ *                              {@link BinaryProtocol#PARTIALLY_FILLED} or {@link BinaryProtocol#FILLED}
+ *  3  char[16] clientOrderId   from the request; the new one after a replace
+ * 19  long     orderId         0 if the order is unknown
+ * 27  long     leavesQuantity  since version 2; what is still open after the request
+ * 35  long     cumQuantity     since version 2; what has been filled so far
+ * 43  long     lastQuantity    since version 4; the quantity of this fill, 0 if not a fill
+ * 51  long     lastPrice       since version 4; the price of this fill, 0 if not a fill
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class ExecutionReportDecoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.EXECUTION_REPORT_LENGTH;
+    
+    static final int EVENT_OFFSET = 2;
+    static final int CLIENT_ORDER_ID_OFFSET = 3;
+    static final int ORDER_ID_OFFSET = 19;
+    static final int LEAVES_QUANTITY_OFFSET = 27;
+    static final int CUM_QUANTITY_OFFSET = 35;
+    static final int LAST_QUANTITY_OFFSET = 43;
+    static final int LAST_PRICE_OFFSET = 51;
+    
+    public ExecutionReportDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    public byte event() {
+        return buffer.get(offset + EVENT_OFFSET);
+    }
+    
+    /**
+     * @return The client order ID, or null if the field is blank
+     */
+    public String clientOrderId() {
+        return getText(CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH);
+    }
+    
+    public long orderId() {
+        return buffer.getLong(offset + ORDER_ID_OFFSET);
+    }
+    
+    /**
+     * @return The open quantity, or 0 in a version 1 report
+     */
+    public long leavesQuantity() {
+        return getLong(LEAVES_QUANTITY_OFFSET);
+    }
+    
+    /**
+     * @return The filled quantity, or 0 in a version 1 report
+     */
+    public long cumQuantity() {
+        return getLong(CUM_QUANTITY_OFFSET);
+    }
+    
+    /**
+     * @return The quantity of the fill, or 0 if the report is not a fill or from before version 4
+     */
+    public long lastQuantity() {
+        return getLong(LAST_QUANTITY_OFFSET);
+    }
+    
+    /**
+     * @return The price of the fill scaled by 10^8, or 0 if the report is not a fill or
+     *         from before version 4
+     */
+    public long lastPrice() {
+        return getLong(LAST_PRICE_OFFSET);
+    }
+}
\ No newline at end of file
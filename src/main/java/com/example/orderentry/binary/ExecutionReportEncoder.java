@@ -0,0 +1,69 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary execution report in place. The layout is documented
+ * on {@link ExecutionReportDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class ExecutionReportEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.EXECUTION_REPORT_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type.
+     */
+    public ExecutionReportEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.EXECUTION_REPORT);
+        return this;
+    }
+    
+    public ExecutionReportEncoder event(byte event) {
+        buffer.put(offset + ExecutionReportDecoder.EVENT_OFFSET, event);
+        return this;
+    }
+    
+    public ExecutionReportEncoder clientOrderId(CharSequence clientOrderId) {
+        putText(ExecutionReportDecoder.CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, clientOrderId);
+        return this;
+    }
+    
+    /**
+     * Copies the client order ID byte for byte from a request, without decoding it.
+     */
+    public ExecutionReportEncoder clientOrderId(ByteBuffer source, int sourceOffset) {
+        copyText(ExecutionReportDecoder.CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH,
+                source, sourceOffset);
+        return this;
+    }
+    
+    public ExecutionReportEncoder orderId(long orderId) {
+        buffer.putLong(offset + ExecutionReportDecoder.ORDER_ID_OFFSET, orderId);
+        return this;
+    }
+    
+    public ExecutionReportEncoder leavesQuantity(long leavesQuantity) {
+        buffer.putLong(offset + ExecutionReportDecoder.LEAVES_QUANTITY_OFFSET, leavesQuantity);
+        return this;
+    }
+    
+    public ExecutionReportEncoder cumQuantity(long cumQuantity) {
+        buffer.putLong(offset + ExecutionReportDecoder.CUM_QUANTITY_OFFSET, cumQuantity);
+        return this;
+    }
+    
+    public ExecutionReportEncoder lastQuantity(long lastQuantity) {
+        buffer.putLong(offset + ExecutionReportDecoder.LAST_QUANTITY_OFFSET, lastQuantity);
+        return this;
+    }
+    
+    /**
+     * @param lastPrice The price of the fill scaled by 10^8
+     */
+    public ExecutionReportEncoder lastPrice(long lastPrice) {
+        buffer.putLong(offset + ExecutionReportDecoder.LAST_PRICE_OFFSET, lastPrice);
+        return this;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary heartbeat; getters read in place. Either side may send one at
+ * any time and the server answers each with its own, echoing the timestamp so that the
+ * client can measure the round trip.
+ * <pre>
+ *  0  short  type           {@link BinaryProtocol#HEARTBEAT}
+ *  2  byte   schemaVersion  the highest schema version the sender understands
+ *  3  long   timestamp      chosen by the client, echoed by the server
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class HeartbeatDecoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.HEARTBEAT_LENGTH;
+    
+    static final int SCHEMA_VERSION_OFFSET = 2;
+    static final int TIMESTAMP_OFFSET = 3;
+    
+    public HeartbeatDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    public byte schemaVersion() {
+        return buffer.get(offset + SCHEMA_VERSION_OFFSET);
+    }
+    
+    public long timestamp() {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary heartbeat in place. The layout is documented on
+ * {@link HeartbeatDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class HeartbeatEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.HEARTBEAT_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type and
+     * {@link BinaryProtocol#SCHEMA_VERSION}.
+     */
+    public HeartbeatEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.HEARTBEAT);
+        return schemaVersion(BinaryProtocol.SCHEMA_VERSION);
+    }
+    
+    public HeartbeatEncoder schemaVersion(byte schemaVersion) {
+        buffer.put(offset + HeartbeatDecoder.SCHEMA_VERSION_OFFSET, schemaVersion);
+        return this;
+    }
+    
+    public HeartbeatEncoder timestamp(long timestamp) {
+        buffer.putLong(offset + HeartbeatDecoder.TIMESTAMP_OFFSET, timestamp);
+        return this;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary logon acceptance; getters read in place. The server sends it
+ * unsequenced, right before resending the stored answers the client asked for.
+ * <pre>
+ *  0  short  type       {@link BinaryProtocol#LOGON_ACCEPTED}
+ *  2  long   nextSeqNo  the sequence number of the server's next new answer
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class LogonAcceptedDecoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.LOGON_ACCEPTED_LENGTH;
+    
+    static final int NEXT_SEQ_NO_OFFSET = 2;
+    
+    public LogonAcceptedDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    public long nextSeqNo() {
+        return buffer.getLong(offset + NEXT_SEQ_NO_OFFSET);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary logon acceptance in place. The layout is documented on
+ * {@link LogonAcceptedDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class LogonAcceptedEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.LOGON_ACCEPTED_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type.
+     */
+    public LogonAcceptedEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.LOGON_ACCEPTED);
+        return this;
+    }
+    
+    public LogonAcceptedEncoder nextSeqNo(long nextSeqNo) {
+        buffer.putLong(offset + LogonAcceptedDecoder.NEXT_SEQ_NO_OFFSET, nextSeqNo);
+        return this;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary logon; getters read in place. A logon binds the connection to
+ * a named session whose answers are sequenced and stored, and asks the server to resend
+ * every stored answer from nextSeqNo on.
+ * <pre>
+ *  0  short    type       {@link BinaryProtocol#LOGON}
+ *  2  char[16] sessionId  letters, digits, '-', '_' and '.'
+ * 18  long     nextSeqNo  the next sequence number the client expects; 0 or 1 for a new session
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class LogonDecoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.LOGON_LENGTH;
+    
+    static final int SESSION_ID_OFFSET = 2;
+    static final int NEXT_SEQ_NO_OFFSET = 18;
+    
+    public LogonDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    /**
+     * @return Where the 16-byte session ID field starts in the wrapped buffer
+     */
+    public int sessionIdOffset() {
+        return offset + SESSION_ID_OFFSET;
+    }
+    
+    /**
+     * @return The session ID, or null if the field is blank
+     */
+    public String sessionId() {
+        return getText(SESSION_ID_OFFSET, BinaryProtocol.SESSION_ID_LENGTH);
+    }
+    
+    public long nextSeqNo() {
+        return buffer.getLong(offset + NEXT_SEQ_NO_OFFSET);
+    }
+}
\ No newline at end of file
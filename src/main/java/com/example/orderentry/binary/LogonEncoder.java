@@ -0,0 +1,32 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary logon in place. The layout is documented on
+ * {@link LogonDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class LogonEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.LOGON_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type.
+     */
+    public LogonEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.LOGON);
+        return this;
+    }
+    
+    public LogonEncoder sessionId(CharSequence sessionId) {
+        putText(LogonDecoder.SESSION_ID_OFFSET, BinaryProtocol.SESSION_ID_LENGTH, sessionId);
+        return this;
+    }
+    
+    public LogonEncoder nextSeqNo(long nextSeqNo) {
+        buffer.putLong(offset + LogonDecoder.NEXT_SEQ_NO_OFFSET, nextSeqNo);
+        return this;
+    }
+}
\ No newline at end of file
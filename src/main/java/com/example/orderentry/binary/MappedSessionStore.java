@@ -0,0 +1,164 @@
+package com.example.orderentry.binary;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Outbound message store of one binary session, written through a memory-mapped,
+ * pre-allocated file. Each answer is stored as the complete frame that went on the
+ * wire, so stored answers can be resent by writing a slice of the mapping straight to
+ * the socket, without copying them back out.
+ * <p>
+ * Frames are appended back to back and numbered from 1 in the order they were stored.
+ * A frame's length header is written after the rest of it, so a frame torn by a crash
+ * reads as the end of the data. Reopening a store picks up after the last complete
+ * frame. Stored frames are never forced to disk, so they survive a process crash but
+ * not a power loss.
+ * <p>
+ * A store has a single writer thread, the gateway's, and is not thread-safe.
+ */
+public final class MappedSessionStore implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 64 * 1024 * 1024;
+    private static final String SUFFIX = ".session";
+    private static final int PAGE_SIZE = 4096;
+    
+    private final String sessionId;
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    // Start of each stored frame; frame n starts at offsets[n - 1]
+    private int[] offsets;
+    private int count;
+    private int position;
+    
+    /**
+     * Opens the store of a session, creating it if it does not exist.
+     * 
+     * @param directory The directory holding the session files
+     * @param sessionId The session, which names the file
+     * @param capacity The size of the file in bytes; an existing larger file keeps its size
+     */
+    public MappedSessionStore(Path directory, String sessionId, int capacity) throws IOException {
+        if (capacity < PAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid session store capacity: " + capacity);
+        }
+        Files.createDirectories(directory);
+        this.sessionId = sessionId;
+        this.file = new RandomAccessFile(directory.resolve(sessionId + SUFFIX).toFile(), "rw");
+        boolean created = file.length() == 0;
+        if (file.length() < capacity) {
+            file.setLength(capacity);
+        }
+        this.buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+        this.offsets = new int[1024];
+        if (created) {
+            // Touch every page up front so storing never takes a page fault
+            for (int i = 0; i < buffer.capacity(); i += PAGE_SIZE) {
+                buffer.put(i, (byte) 0);
+            }
+        } else {
+            recover();
+        }
+    }
+    
+    /**
+     * @return Whether a session ID can name a store file
+     */
+    public static boolean isValidSessionId(String sessionId) {
+        if (sessionId == null || sessionId.isEmpty() || sessionId.startsWith(".")) {
+            return false;
+        }
+        for (int i = 0; i < sessionId.length(); i++) {
+            char c = sessionId.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public String getSessionId() {
+        return sessionId;
+    }
+    
+    /**
+     * @return The sequence number the next stored frame gets
+     */
+    public long getNextSeqNo() {
+        return count + 1L;
+    }
+    
+    /**
+     * Copies a complete frame, length header included, to the end of the store. The
+     * frame's length header must already hold its length.
+     * 
+     * @param source Holds the frame; its position is left unchanged
+     * @param offset Where the frame starts
+     * @param length The length of the frame, header included
+     * @return The frame's sequence number
+     * @throws IllegalStateException If the store is full
+     */
+    public long append(ByteBuffer source, int offset, int length) {
+        if (position + length + BinaryProtocol.FRAME_HEADER_LENGTH > buffer.capacity()) {
+            // Keep room for the zero length that ends the data
+            throw new IllegalStateException("Session store " + sessionId + " is full");
+        }
+        int header = BinaryProtocol.FRAME_HEADER_LENGTH;
+        for (int i = header; i < length; i++) {
+            buffer.put(position + i, source.get(offset + i));
+        }
+        buffer.putShort(position, source.getShort(offset));
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        offsets[count++] = position;
+        position += length;
+        return count;
+    }
+    
+    /**
+     * Returns stored frames for resending, as a view of the mapping rather than a copy.
+     * 
+     * @param fromSeqNo The first frame, from 1 to {@link #getNextSeqNo()} - 1
+     * @param maxCount The most frames to return
+     * @return A buffer positioned at the first frame and limited to the end of the last
+     */
+    public ByteBuffer frames(long fromSeqNo, long maxCount) {
+        if (fromSeqNo < 1 || fromSeqNo > count || maxCount < 1) {
+            throw new IllegalArgumentException("No stored frames from " + fromSeqNo + " in session " + sessionId);
+        }
+        int first = (int) (fromSeqNo - 1);
+        long end = Math.min(count, first + maxCount);
+        ByteBuffer frames = buffer.duplicate();
+        frames.limit(end == count ? position : offsets[(int) end]);
+        frames.position(offsets[first]);
+        return frames;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+    
+    private void recover() {
+        int header = BinaryProtocol.FRAME_HEADER_LENGTH;
+        while (position + header <= buffer.capacity()) {
+            int length = header + (buffer.getShort(position) & 0xFFFF);
+            if (length == header || position + length > buffer.capacity()) {
+                break; // End of data, or a frame torn by a crash
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = position;
+            position += length;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.orderentry.binary;
+
+import com.example.models.OrderSide;
+import com.example.models.SymbolRegistry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary mass cancel message; getters read in place.
+ * <pre>
+ *  0  short    type             {@link BinaryProtocol#MASS_CANCEL}
+ *  2  char[16] clientRequestId  echoed in the mass cancel report
+ * 18  char[16] symbol           blank for every symbol
+ * 34  byte     side             0 both sides, 1 buy, 2 sell
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class MassCancelDecoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.MASS_CANCEL_LENGTH;
+    
+    static final int CLIENT_REQUEST_ID_OFFSET = 2;
+    static final int SYMBOL_OFFSET = 18;
+    static final int SIDE_OFFSET = 34;
+    
+    private final SymbolRegistry symbols;
+    
+    /**
+     * @param symbols Resolves the symbol field to an ID
+     */
+    public MassCancelDecoder(SymbolRegistry symbols) {
+        this.symbols = symbols;
+    }
+    
+    public MassCancelDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    /**
+     * @return Where the 16-byte client request ID field starts in the wrapped buffer
+     */
+    public int clientRequestIdOffset() {
+        return offset + CLIENT_REQUEST_ID_OFFSET;
+    }
+    
+    /**
+     * @return The client request ID, or null if the field is blank
+     */
+    public String clientRequestId() {
+        return getText(CLIENT_REQUEST_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH);
+    }
+    
+    /**
+     * @return Whether the symbol field is blank, which selects every symbol
+     */
+    public boolean allSymbols() {
+        return BinaryProtocol.textLength(buffer, offset + SYMBOL_OFFSET, BinaryProtocol.SYMBOL_LENGTH) == 0;
+    }
+    
+    /**
+     * @return The interned ID of the symbol, or {@link SymbolRegistry#UNKNOWN}
+     */
+    public int symbolId() {
+        return symbols.getId(buffer, offset + SYMBOL_OFFSET, BinaryProtocol.SYMBOL_LENGTH);
+    }
+    
+    /**
+     * @return The side to cancel, or null for both sides
+     */
+    public OrderSide side() {
+        switch (buffer.get(offset + SIDE_OFFSET)) {
+            case 1: return OrderSide.BUY;
+            case 2: return OrderSide.SELL;
+            default: return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.orderentry.binary;
+
+import com.example.models.OrderSide;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary mass cancel message in place. The layout is
+ * documented on {@link MassCancelDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class MassCancelEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.MASS_CANCEL_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type.
+     */
+    public MassCancelEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.MASS_CANCEL);
+        return this;
+    }
+    
+    public MassCancelEncoder clientRequestId(CharSequence clientRequestId) {
+        putText(MassCancelDecoder.CLIENT_REQUEST_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, clientRequestId);
+        return this;
+    }
+    
+    /**
+     * @param symbol The symbol, or null for every symbol
+     */
+    public MassCancelEncoder symbol(CharSequence symbol) {
+        putText(MassCancelDecoder.SYMBOL_OFFSET, BinaryProtocol.SYMBOL_LENGTH, symbol);
+        return this;
+    }
+    
+    /**
+     * @param side The side, or null for both sides
+     */
+    public MassCancelEncoder side(OrderSide side) {
+        byte code = side == null ? 0 : (byte) (side == OrderSide.BUY ? 1 : 2);
+        buffer.put(offset + MassCancelDecoder.SIDE_OFFSET, code);
+        return this;
+    }
+}
\ No newline at end of file
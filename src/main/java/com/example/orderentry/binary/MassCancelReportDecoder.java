@@ -0,0 +1,42 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary mass cancel report; getters read in place.
+ * <pre>
+ *  0  short    type             {@link BinaryProtocol#MASS_CANCEL_REPORT}
+ *  2  char[16] clientRequestId  from the mass cancel
+ * 18  int      canceledCount    the number of orders canceled
+ * 22  byte     result           {@link BinaryProtocol#MASS_CANCEL_DONE} or
+ *                               {@link BinaryProtocol#MASS_CANCEL_REJECTED} for an unknown symbol
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class MassCancelReportDecoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.MASS_CANCEL_REPORT_LENGTH;
+    
+    static final int CLIENT_REQUEST_ID_OFFSET = 2;
+    static final int CANCELED_COUNT_OFFSET = 18;
+    static final int RESULT_OFFSET = 22;
+    
+    public MassCancelReportDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    /**
+     * @return The client request ID, or null if the field is blank
+     */
+    public String clientRequestId() {
+        return getText(CLIENT_REQUEST_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH);
+    }
+    
+    public int canceledCount() {
+        return buffer.getInt(offset + CANCELED_COUNT_OFFSET);
+    }
+    
+    public byte result() {
+        return buffer.get(offset + RESULT_OFFSET);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary mass cancel report in place. The layout is documented
+ * on {@link MassCancelReportDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class MassCancelReportEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.MASS_CANCEL_REPORT_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type.
+     */
+    public MassCancelReportEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.MASS_CANCEL_REPORT);
+        return this;
+    }
+    
+    public MassCancelReportEncoder clientRequestId(CharSequence clientRequestId) {
+        putText(MassCancelReportDecoder.CLIENT_REQUEST_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH,
+                clientRequestId);
+        return this;
+    }
+    
+    /**
+     * Copies the client request ID byte for byte from the mass cancel.
+     */
+    public MassCancelReportEncoder clientRequestId(ByteBuffer source, int sourceOffset) {
+        copyText(MassCancelReportDecoder.CLIENT_REQUEST_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH,
+                source, sourceOffset);
+        return this;
+    }
+    
+    public MassCancelReportEncoder canceledCount(int canceledCount) {
+        buffer.putInt(offset + MassCancelReportDecoder.CANCELED_COUNT_OFFSET, canceledCount);
+        return this;
+    }
+    
+    public MassCancelReportEncoder result(byte result) {
+        buffer.put(offset + MassCancelReportDecoder.RESULT_OFFSET, result);
+        return this;
+    }
+}
\ No newline at end of file
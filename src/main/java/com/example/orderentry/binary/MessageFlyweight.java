@@ -0,0 +1,45 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Shared state of the message codecs: the wrapped buffer, the offset of the message and,
+ * when decoding, its length. Fields are accessed at absolute offsets, so the buffer's
+ * position and limit are never touched.
+ */
+abstract class MessageFlyweight {
+    ByteBuffer buffer;
+    int offset;
+    int length;
+    
+    final void reset(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+    
+    // Fields appended by a later schema version are missing from an older sender's messages
+    final boolean hasField(int fieldOffset, int fieldLength) {
+        return length >= fieldOffset + fieldLength;
+    }
+    
+    final long getLong(int fieldOffset) {
+        return hasField(fieldOffset, 8) ? buffer.getLong(offset + fieldOffset) : 0L;
+    }
+    
+    // Null for a blank field
+    final String getText(int fieldOffset, int fieldLength) {
+        if (BinaryProtocol.textLength(buffer, offset + fieldOffset, fieldLength) == 0) {
+            return null;
+        }
+        return BinaryProtocol.readText(buffer, offset + fieldOffset, fieldLength);
+    }
+    
+    final void putText(int fieldOffset, int fieldLength, CharSequence text) {
+        BinaryProtocol.writeText(buffer, offset + fieldOffset, fieldLength, text);
+    }
+    
+    final void copyText(int fieldOffset, int fieldLength, ByteBuffer source, int sourceOffset) {
+        BinaryProtocol.copyText(source, sourceOffset, buffer, offset + fieldOffset, fieldLength);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.example.orderentry.binary;
+
+import com.example.models.OrderSide;
+import com.example.models.OrderType;
+import com.example.models.SymbolRegistry;
+import com.example.models.TimeInForce;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary new order message. {@link #wrap} points it at a message and
+ * every getter reads its field in place, so decoding allocates nothing; the symbol is
+ * resolved to its interned ID and the client order ID can be compared or copied as bytes.
+ * <pre>
+ *  0  short    type           {@link BinaryProtocol#NEW_ORDER}
+ *  2  char[16] clientOrderId
+ * 18  char[16] symbol
+ * 34  byte     side           1 buy, 2 sell
+ * 35  byte     orderType      1 market, 2 limit
+ * 36  long     price          scaled by 10^8
+ * 44  long     quantity
+ * 52  byte     timeInForce    0 day, 1 GTC, 2 IOC, 3 FOK
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class NewOrderDecoder {
+    public static final int LENGTH = BinaryProtocol.NEW_ORDER_LENGTH;
+    
+    static final int CLIENT_ORDER_ID_OFFSET = 2;
+    static final int SYMBOL_OFFSET = 18;
+    static final int SIDE_OFFSET = 34;
+    static final int ORDER_TYPE_OFFSET = 35;
+    static final int PRICE_OFFSET = 36;
+    static final int QUANTITY_OFFSET = 44;
+    static final int TIME_IN_FORCE_OFFSET = 52;
+    
+    private final SymbolRegistry symbols;
+    private ByteBuffer buffer;
+    private int offset;
+    
+    /**
+     * @param symbols Resolves the symbol field to an ID
+     */
+    public NewOrderDecoder(SymbolRegistry symbols) {
+        this.symbols = symbols;
+    }
+    
+    public NewOrderDecoder wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+    
+    /**
+     * @return The interned ID of the symbol, or {@link SymbolRegistry#UNKNOWN}
+     */
+    public int symbolId() {
+        return symbols.getId(buffer, offset + SYMBOL_OFFSET, BinaryProtocol.SYMBOL_LENGTH);
+    }
+    
+    /**
+     * @return Where the 16-byte client order ID field starts in the wrapped buffer
+     */
+    public int clientOrderIdOffset() {
+        return offset + CLIENT_ORDER_ID_OFFSET;
+    }
+    
+    /**
+     * Copies the raw client order ID field, padding included.
+     */
+    public void getClientOrderId(byte[] destination, int destinationOffset) {
+        for (int i = 0; i < BinaryProtocol.CLIENT_ORDER_ID_LENGTH; i++) {
+            destination[destinationOffset + i] = buffer.get(offset + CLIENT_ORDER_ID_OFFSET + i);
+        }
+    }
+    
+    /**
+     * @return The client order ID without its padding, or null if the field is blank.
+     *         Unlike the other getters this creates a String.
+     */
+    public String clientOrderId() {
+        String clientOrderId = BinaryProtocol.readText(buffer, offset + CLIENT_ORDER_ID_OFFSET,
+                BinaryProtocol.CLIENT_ORDER_ID_LENGTH);
+        return clientOrderId.isEmpty() ? null : clientOrderId;
+    }
+    
+    public OrderSide side() {
+        return buffer.get(offset + SIDE_OFFSET) == 1 ? OrderSide.BUY : OrderSide.SELL;
+    }
+    
+    public OrderType orderType() {
+        return buffer.get(offset + ORDER_TYPE_OFFSET) == 1 ? OrderType.MARKET : OrderType.LIMIT;
+    }
+    
+    /**
+     * @return The price scaled by 10^{@link BinaryProtocol#PRICE_SCALE}
+     */
+    public long price() {
+        return buffer.getLong(offset + PRICE_OFFSET);
+    }
+    
+    public long quantity() {
+        return buffer.getLong(offset + QUANTITY_OFFSET);
+    }
+    
+    /**
+     * @return The time in force, or null if the code is not valid
+     */
+    public TimeInForce timeInForce() {
+        switch (buffer.get(offset + TIME_IN_FORCE_OFFSET)) {
+            case 0: return TimeInForce.DAY;
+            case 1: return TimeInForce.GTC;
+            case 2: return TimeInForce.IOC;
+            case 3: return TimeInForce.FOK;
+            default: return null;
+        }
+    }
+}
\ No newline at end of file
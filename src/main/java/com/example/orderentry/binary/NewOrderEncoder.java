@@ -0,0 +1,71 @@
+package com.example.orderentry.binary;
+
+import com.example.models.OrderSide;
+import com.example.models.OrderType;
+import com.example.models.TimeInForce;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary new order message in place, for clients and tests.
+ * The layout is documented on {@link NewOrderDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class NewOrderEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.NEW_ORDER_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type.
+     */
+    public NewOrderEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.NEW_ORDER);
+        return this;
+    }
+    
+    public NewOrderEncoder clientOrderId(CharSequence clientOrderId) {
+        putText(NewOrderDecoder.CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, clientOrderId);
+        return this;
+    }
+    
+    public NewOrderEncoder symbol(CharSequence symbol) {
+        putText(NewOrderDecoder.SYMBOL_OFFSET, BinaryProtocol.SYMBOL_LENGTH, symbol);
+        return this;
+    }
+    
+    public NewOrderEncoder side(OrderSide side) {
+        buffer.put(offset + NewOrderDecoder.SIDE_OFFSET, (byte) (side == OrderSide.BUY ? 1 : 2));
+        return this;
+    }
+    
+    public NewOrderEncoder orderType(OrderType orderType) {
+        buffer.put(offset + NewOrderDecoder.ORDER_TYPE_OFFSET, (byte) (orderType == OrderType.MARKET ? 1 : 2));
+        return this;
+    }
+    
+    /**
+     * @param price The price scaled by 10^{@link BinaryProtocol#PRICE_SCALE}
+     */
+    public NewOrderEncoder price(long price) {
+        buffer.putLong(offset + NewOrderDecoder.PRICE_OFFSET, price);
+        return this;
+    }
+    
+    public NewOrderEncoder quantity(long quantity) {
+        buffer.putLong(offset + NewOrderDecoder.QUANTITY_OFFSET, quantity);
+        return this;
+    }
+    
+    public NewOrderEncoder timeInForce(TimeInForce timeInForce) {
+        byte code;
+        switch (timeInForce) {
+            case DAY: code = 0; break;
+            case IOC: code = 2; break;
+            case FOK: code = 3; break;
+            default: code = 1; break;
+        }
+        buffer.put(offset + NewOrderDecoder.TIME_IN_FORCE_OFFSET, code);
+        return this;
+    }
+}
\ No newline at end of file
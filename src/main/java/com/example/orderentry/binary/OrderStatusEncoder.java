@@ -0,0 +1,112 @@
+package com.example.orderentry.binary;
+
+import com.example.models.OrderStatus;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary order status message in place. {@link #wrap} points it
+ * at a caller-owned buffer, typically a session's reused direct output buffer, and each
+ * setter writes one field at its fixed offset without touching the buffer's position.
+ * Text fields are written character by character, truncated and NUL-padded, so nothing
+ * is allocated.
+ * <pre>
+ *   0  short    type           {@link #TYPE}
+ *   2  long     orderIdHigh    most significant bits of the order's UUID
+ *  10  long     orderIdLow     least significant bits of the order's UUID
+ *  18  char[16] clientOrderId
+ *  34  byte     status         1 new, 2 partially filled, 3 filled, 4 canceled, 5 rejected
+ *  35  long     price          scaled by 10^8
+ *  43  long     quantity
+ *  51  long     filledQuantity
+ *  59  char[16] symbol
+ *  75  char[64] message
+ * </pre>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class OrderStatusEncoder {
+    public static final short TYPE = BinaryProtocol.ORDER_STATUS;
+    public static final int LENGTH = BinaryProtocol.ORDER_STATUS_LENGTH;
+    public static final int MESSAGE_LENGTH = 64;
+    
+    private static final int ORDER_ID_OFFSET = 2;
+    private static final int CLIENT_ORDER_ID_OFFSET = 18;
+    private static final int STATUS_OFFSET = 34;
+    private static final int PRICE_OFFSET = 35;
+    private static final int QUANTITY_OFFSET = 43;
+    private static final int FILLED_QUANTITY_OFFSET = 51;
+    private static final int SYMBOL_OFFSET = 59;
+    private static final int TEXT_OFFSET = 75;
+    
+    private ByteBuffer buffer;
+    private int offset;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type.
+     */
+    public OrderStatusEncoder wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        buffer.putShort(offset, TYPE);
+        return this;
+    }
+    
+    public OrderStatusEncoder orderId(long mostSignificantBits, long leastSignificantBits) {
+        buffer.putLong(offset + ORDER_ID_OFFSET, mostSignificantBits);
+        buffer.putLong(offset + ORDER_ID_OFFSET + 8, leastSignificantBits);
+        return this;
+    }
+    
+    public OrderStatusEncoder clientOrderId(CharSequence clientOrderId) {
+        writeText(CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, clientOrderId);
+        return this;
+    }
+    
+    public OrderStatusEncoder status(OrderStatus status) {
+        buffer.put(offset + STATUS_OFFSET, toBinary(status));
+        return this;
+    }
+    
+    /**
+     * @param price The price scaled by 10^{@link BinaryProtocol#PRICE_SCALE}
+     */
+    public OrderStatusEncoder price(long price) {
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        return this;
+    }
+    
+    public OrderStatusEncoder quantity(long quantity) {
+        buffer.putLong(offset + QUANTITY_OFFSET, quantity);
+        return this;
+    }
+    
+    public OrderStatusEncoder filledQuantity(long filledQuantity) {
+        buffer.putLong(offset + FILLED_QUANTITY_OFFSET, filledQuantity);
+        return this;
+    }
+    
+    public OrderStatusEncoder symbol(CharSequence symbol) {
+        writeText(SYMBOL_OFFSET, BinaryProtocol.SYMBOL_LENGTH, symbol);
+        return this;
+    }
+    
+    public OrderStatusEncoder message(CharSequence message) {
+        writeText(TEXT_OFFSET, MESSAGE_LENGTH, message);
+        return this;
+    }
+    
+    private void writeText(int fieldOffset, int length, CharSequence text) {
+        BinaryProtocol.writeText(buffer, offset + fieldOffset, length, text);
+    }
+    
+    private static byte toBinary(OrderStatus status) {
+        switch (status) {
+            case NEW: return 1;
+            case PARTIALLY_FILLED: return 2;
+            case FILLED: return 3;
+            case CANCELED: return 4;
+            case REJECTED: return 5;
+            default: return 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary reject; getters read in place. A reject answers a message the
+ * server could not decode, a logon or retransmit request it refused, or an order
+ * request the matching engine could not apply; requests that the engine applies but
+ * refuses are answered by an execution report or mass cancel report instead.
+ * <pre>
+ *  0  short    type           {@link BinaryProtocol#REJECT}
+ *  2  short    refType        the type of the rejected message
+ *  4  byte     reason         {@link BinaryProtocol#UNKNOWN_MESSAGE_TYPE}, {@link BinaryProtocol#MESSAGE_TOO_SHORT},
+ *                             {@link BinaryProtocol#UNSUPPORTED_VERSION}, for order requests
+ *                             {@link BinaryProtocol#ENGINE_BUSY} or {@link BinaryProtocol#ENGINE_FAILURE},
+ *                             or for logons and retransmit requests {@link BinaryProtocol#NOT_LOGGED_ON},
+ *                             {@link BinaryProtocol#LOGON_REJECTED} or {@link BinaryProtocol#SEQUENCE_OUT_OF_RANGE}
+ *  5  char[16] clientOrderId  copied from the rejected message if it had one, blank otherwise
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class RejectDecoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.REJECT_LENGTH;
+    
+    static final int REF_TYPE_OFFSET = 2;
+    static final int REASON_OFFSET = 4;
+    static final int CLIENT_ORDER_ID_OFFSET = 5;
+    
+    public RejectDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    public short refType() {
+        return buffer.getShort(offset + REF_TYPE_OFFSET);
+    }
+    
+    public byte reason() {
+        return buffer.get(offset + REASON_OFFSET);
+    }
+    
+    /**
+     * @return The client order ID, or null if the field is blank
+     */
+    public String clientOrderId() {
+        return getText(CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary reject in place. The layout is documented on
+ * {@link RejectDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class RejectEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.REJECT_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type. The client order ID
+     * starts out blank.
+     */
+    public RejectEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.REJECT);
+        return clientOrderId(null);
+    }
+    
+    public RejectEncoder refType(short refType) {
+        buffer.putShort(offset + RejectDecoder.REF_TYPE_OFFSET, refType);
+        return this;
+    }
+    
+    public RejectEncoder reason(byte reason) {
+        buffer.put(offset + RejectDecoder.REASON_OFFSET, reason);
+        return this;
+    }
+    
+    public RejectEncoder clientOrderId(CharSequence clientOrderId) {
+        putText(RejectDecoder.CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, clientOrderId);
+        return this;
+    }
+    
+    /**
+     * Copies the client order ID byte for byte from the rejected message.
+     */
+    public RejectEncoder clientOrderId(ByteBuffer source, int sourceOffset) {
+        copyText(RejectDecoder.CLIENT_ORDER_ID_OFFSET, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, source, sourceOffset);
+        return this;
+    }
+}
\ No newline at end of file
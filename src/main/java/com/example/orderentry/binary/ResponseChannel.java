@@ -0,0 +1,62 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Where a {@link BinaryOrderEntryAdapter} writes the answers to one connection's
+ * requests.
+ * <p>
+ * Order requests are answered once their book has applied them, so the adapter
+ * reserves each request's answer with {@link #answer()} and later hands the task that
+ * writes it to the returned executor, from whichever thread completed the request. The
+ * channel runs the tasks on the thread that processes the connection's requests, in the
+ * order of the requests, and each task writes its answer between a call to
+ * {@link #beginResponse()} and one to {@link #endResponse(int)}. Fills of the session's
+ * orders are queued behind them with {@link #send}.
+ */
+public interface ResponseChannel {
+    
+    /**
+     * Reserves the answer to the request being processed.
+     * 
+     * @return Takes the one task that writes the answer, from any thread; the channel may
+     *         hand the same executor out again for a later request once the task has run,
+     *         so it must not be used after that
+     */
+    Executor answer();
+    
+    /**
+     * Queues a message that answers no request, such as a fill, from any thread. The
+     * channel hands itself to the message on the connection's thread, after the answers
+     * reserved so far, and the message is written like an answer.
+     */
+    void send(Consumer<ResponseChannel> message);
+    
+    /**
+     * @return The orders entered on the connection's session, the only ones its requests
+     *         may cancel or replace
+     */
+    SessionOrders orders();
+    
+    /**
+     * @return The buffer the answers are written into
+     */
+    ByteBuffer responseBuffer();
+    
+    /**
+     * Starts an answer.
+     * 
+     * @return Where to write it in the response buffer, with room for
+     *         {@link BinaryProtocol#MAX_RESPONSE_LENGTH} bytes
+     */
+    int beginResponse();
+    
+    /**
+     * Sends the answer written since {@link #beginResponse()}.
+     * 
+     * @param length The length of the answer
+     */
+    void endResponse(int length);
+}
\ No newline at end of file
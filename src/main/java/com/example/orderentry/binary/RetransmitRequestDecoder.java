@@ -0,0 +1,34 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over a binary retransmit request; getters read in place. A client that sees a
+ * gap in the sequence numbers of its answers asks for the missing ones, which the server
+ * resends from its session store exactly as they were first sent.
+ * <pre>
+ *  0  short  type       {@link BinaryProtocol#RETRANSMIT_REQUEST}
+ *  2  long   fromSeqNo  the first answer to resend
+ * 10  int    count      how many answers to resend; cut short at the last answer sent
+ * </pre>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class RetransmitRequestDecoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.RETRANSMIT_REQUEST_LENGTH;
+    
+    static final int FROM_SEQ_NO_OFFSET = 2;
+    static final int COUNT_OFFSET = 10;
+    
+    public RetransmitRequestDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    public long fromSeqNo() {
+        return buffer.getLong(offset + FROM_SEQ_NO_OFFSET);
+    }
+    
+    public int count() {
+        return buffer.getInt(offset + COUNT_OFFSET);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes a binary retransmit request in place. The layout is documented on
+ * {@link RetransmitRequestDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class RetransmitRequestEncoder extends MessageFlyweight {
+    public static final int LENGTH = BinaryProtocol.RETRANSMIT_REQUEST_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type.
+     */
+    public RetransmitRequestEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, LENGTH);
+        buffer.putShort(offset, BinaryProtocol.RETRANSMIT_REQUEST);
+        return this;
+    }
+    
+    public RetransmitRequestEncoder fromSeqNo(long fromSeqNo) {
+        buffer.putLong(offset + RetransmitRequestDecoder.FROM_SEQ_NO_OFFSET, fromSeqNo);
+        return this;
+    }
+    
+    public RetransmitRequestEncoder count(int count) {
+        buffer.putInt(offset + RetransmitRequestDecoder.COUNT_OFFSET, count);
+        return this;
+    }
+}
\ No newline at end of file
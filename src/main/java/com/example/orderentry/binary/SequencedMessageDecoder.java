@@ -0,0 +1,43 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over the header of a sequenced message; getters read in place. Once a
+ * connection has logged on, every answer other than a heartbeat is wrapped in one and
+ * numbered from 1 for the life of the session, across reconnects.
+ * <pre>
+ *  0  short  type     {@link BinaryProtocol#SEQUENCED}
+ *  2  long   seqNo    the answer's sequence number in the session
+ * 10  ...    message  the answer, up to the end of the frame
+ * </pre>
+ * Resent answers are byte for byte the ones first sent; a client recognises them by
+ * their sequence number.
+ * <p>
+ * A decoder is reused message after message and is not thread-safe.
+ */
+public final class SequencedMessageDecoder extends MessageFlyweight {
+    public static final int HEADER_LENGTH = BinaryProtocol.SEQUENCED_HEADER_LENGTH;
+    
+    static final int SEQ_NO_OFFSET = 2;
+    
+    public SequencedMessageDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        reset(buffer, offset, length);
+        return this;
+    }
+    
+    public long seqNo() {
+        return buffer.getLong(offset + SEQ_NO_OFFSET);
+    }
+    
+    /**
+     * @return Where the wrapped answer starts in the buffer
+     */
+    public int messageOffset() {
+        return offset + HEADER_LENGTH;
+    }
+    
+    public int messageLength() {
+        return length - HEADER_LENGTH;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.example.orderentry.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight that writes the header of a sequenced message in place; the answer is written
+ * right after it. The layout is documented on {@link SequencedMessageDecoder}.
+ * <p>
+ * An encoder is reused message after message and is not thread-safe.
+ */
+public final class SequencedMessageEncoder extends MessageFlyweight {
+    public static final int HEADER_LENGTH = BinaryProtocol.SEQUENCED_HEADER_LENGTH;
+    
+    /**
+     * Points the encoder at a buffer and writes the message type.
+     */
+    public SequencedMessageEncoder wrap(ByteBuffer buffer, int offset) {
+        reset(buffer, offset, HEADER_LENGTH);
+        buffer.putShort(offset, BinaryProtocol.SEQUENCED);
+        return this;
+    }
+    
+    public SequencedMessageEncoder seqNo(long seqNo) {
+        buffer.putLong(offset + SequencedMessageDecoder.SEQ_NO_OFFSET, seqNo);
+        return this;
+    }
+    
+    /**
+     * @return Where the answer goes in the buffer
+     */
+    public int messageOffset() {
+        return offset + HEADER_LENGTH;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+package com.example.orderentry.binary;
+
+import com.example.models.Order;
+import com.example.models.OrderSide;
+import com.example.models.OrderStatus;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The open orders entered on one binary session, which alone may cancel, replace or
+ * mass cancel them.
+ * <p>
+ * Client order IDs are resolved among the session's own orders, so sessions may reuse
+ * each other's, and an engine order ID sent by a session that did not enter the order,
+ * over binary or FIX, does not resolve at all. Orders are added when they are sent to
+ * their book and removed when they are canceled or filled. The session's fills are sent
+ * to the channel attached to it. Safe to use from the gateway thread and the matching
+ * threads at once.
+ */
+public final class SessionOrders {
+    // Engine order ID of each open order's current client order ID
+    private final Map<String, Long> clientOrderIds = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> orders = new ConcurrentHashMap<>();
+    private volatile ResponseChannel channel;
+    
+    /**
+     * @param channel Where the fills of the session's orders are sent from now on, or null
+     *                to drop them
+     */
+    public void attach(ResponseChannel channel) {
+        this.channel = channel;
+    }
+    
+    /**
+     * @return Where the fills of the session's orders are sent, or null if nowhere
+     */
+    public ResponseChannel channel() {
+        return channel;
+    }
+    
+    void add(Order order) {
+        long orderId = order.getRawId();
+        String clientOrderId = order.getClientOrderId();
+        orders.put(orderId, new Entry(order, clientOrderId));
+        if (clientOrderId != null) {
+            clientOrderIds.put(clientOrderId, orderId);
+        }
+    }
+    
+    void remove(long orderId) {
+        Entry entry = orders.remove(orderId);
+        if (entry != null) {
+            forget(entry, orderId);
+        }
+    }
+    
+    /**
+     * Moves the order's client order ID to the one it was replaced with.
+     */
+    void rename(long orderId, String newClientOrderId) {
+        Entry entry = orders.get(orderId);
+        if (entry == null) {
+            return;
+        }
+        forget(entry, orderId);
+        entry.clientOrderId = newClientOrderId;
+        clientOrderIds.put(newClientOrderId, orderId);
+    }
+    
+    /**
+     * @return The open order, or null if the session has no such open order
+     */
+    Order getOrder(long orderId) {
+        Entry entry = orders.get(orderId);
+        return entry == null ? null : entry.order;
+    }
+    
+    /**
+     * @return The current client order ID of the open order, or null if it has none
+     */
+    String getClientOrderId(long orderId) {
+        Entry entry = orders.get(orderId);
+        return entry == null ? null : entry.clientOrderId;
+    }
+    
+    /**
+     * @param orderId The engine order ID of the request, or 0 to look the client order ID up
+     * @return The engine order ID, or 0 if the session has no such open order
+     */
+    long resolve(long orderId, String clientOrderId) {
+        if (orderId == 0) {
+            Long id = clientOrderId == null ? null : clientOrderIds.get(clientOrderId);
+            return id == null ? 0 : id;
+        }
+        return orders.containsKey(orderId) ? orderId : 0;
+    }
+    
+    /**
+     * Finds the open orders that match the filter. They stay the session's until their
+     * book reports them canceled, so a cancel the book refuses leaves them where they were.
+     * 
+     * @param symbol The symbol, or null for every symbol
+     * @param side The side, or null for both sides
+     * @return The engine IDs of the open orders that match
+     */
+    long[] select(String symbol, OrderSide side) {
+        long[] orderIds = new long[orders.size()];
+        int count = 0;
+        for (Map.Entry<Long, Entry> mapping : orders.entrySet()) {
+            Order order = mapping.getValue().order;
+            // Filled since it was entered, and about to be reported so
+            if (!isOpen(order)) {
+                continue;
+            }
+            if ((symbol == null || symbol.equals(order.getSymbol())) && (side == null || side == order.getSide())) {
+                if (count == orderIds.length) {
+                    orderIds = Arrays.copyOf(orderIds, count * 2 + 1);
+                }
+                orderIds[count++] = mapping.getKey();
+            }
+        }
+        return count == orderIds.length ? orderIds : Arrays.copyOf(orderIds, count);
+    }
+    
+    /**
+     * Hands every order over to the other session's orders, such as when a connection
+     * logs on to a named session. No request of this session may be in flight.
+     * 
+     * @return The engine IDs of the orders moved
+     */
+    long[] moveTo(SessionOrders other) {
+        long[] orderIds = new long[orders.size()];
+        int count = 0;
+        for (Map.Entry<Long, Entry> mapping : orders.entrySet()) {
+            Entry entry = mapping.getValue();
+            other.orders.put(mapping.getKey(), entry);
+            if (entry.clientOrderId != null) {
+                other.clientOrderIds.put(entry.clientOrderId, mapping.getKey());
+            }
+            if (count == orderIds.length) {
+                orderIds = Arrays.copyOf(orderIds, count * 2 + 1);
+            }
+            orderIds[count++] = mapping.getKey();
+        }
+        orders.clear();
+        clientOrderIds.clear();
+        return count == orderIds.length ? orderIds : Arrays.copyOf(orderIds, count);
+    }
+    
+    static boolean isOpen(Order order) {
+        return order.getStatus() == OrderStatus.NEW || order.getStatus() == OrderStatus.PARTIALLY_FILLED;
+    }
+    
+    private void forget(Entry entry, long orderId) {
+        if (entry.clientOrderId != null) {
+            clientOrderIds.remove(entry.clientOrderId, orderId);
+        }
+    }
+    
+    private static final class Entry {
+        private final Order order;
+        private volatile String clientOrderId;
+        
+        Entry(Order order, String clientOrderId) {
+            this.order = order;
+            this.clientOrderId = clientOrderId;
+        }
+    }
+}
\ No newline at end of file
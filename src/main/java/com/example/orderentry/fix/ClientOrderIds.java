@@ -0,0 +1,131 @@
+package com.example.orderentry.fix;
+
+import com.example.models.Order;
+import com.example.models.OrderSide;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ClOrdIDs of the open orders entered on one FIX session, which alone may cancel,
+ * replace or mass cancel them.
+ * <p>
+ * Sessions may reuse each other's ClOrdIDs, and an OrigClOrdID sent on one session never
+ * resolves to an order entered on another. Orders are added when they are sent to their
+ * book and removed when they are canceled or filled, so a mass cancel only goes through
+ * the session's open orders. The outcome of the session's requests, and what happens to
+ * its orders, is also reported to the session's own callback. Safe to use from the
+ * session threads and the matching threads at once.
+ */
+public final class ClientOrderIds {
+    // Engine order ID of each open order's current ClOrdID
+    private final Map<String, Long> orderIds = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> orders = new ConcurrentHashMap<>();
+    private final FixSessionCallback callback;
+    
+    public ClientOrderIds() {
+        this(null);
+    }
+    
+    /**
+     * @param callback Told about the session's requests and orders, besides the adapter's
+     *                 callbacks; null for none
+     */
+    public ClientOrderIds(FixSessionCallback callback) {
+        this.callback = callback;
+    }
+    
+    /**
+     * @return The engine ID of the session's open order with the ClOrdID, or 0 if the
+     *         session has no such open order
+     */
+    public long resolve(String clientOrderId) {
+        Long orderId = clientOrderId == null ? null : orderIds.get(clientOrderId);
+        return orderId == null ? 0 : orderId;
+    }
+    
+    /**
+     * @return The current ClOrdID of the session's open order, or null if the session has
+     *         no such open order
+     */
+    public String getClientOrderId(long orderId) {
+        Entry entry = orders.get(orderId);
+        return entry == null ? null : entry.clientOrderId;
+    }
+    
+    /**
+     * @param symbol The symbol, or null for every symbol
+     * @param side The side, or null for both sides
+     * @return The engine IDs of the session's open orders that match
+     */
+    public long[] getOrderIds(String symbol, OrderSide side) {
+        long[] result = new long[orders.size()];
+        int count = 0;
+        for (Map.Entry<Long, Entry> mapping : orders.entrySet()) {
+            Order order = mapping.getValue().order;
+            if ((symbol == null || symbol.equals(order.getSymbol())) && (side == null || side == order.getSide())) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2 + 1);
+                }
+                result[count++] = mapping.getKey();
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+    
+    /**
+     * @return The number of open orders the session has
+     */
+    public int size() {
+        return orders.size();
+    }
+    
+    FixSessionCallback callback() {
+        return callback;
+    }
+    
+    /**
+     * @return The session's open order, or null if the session has no such open order
+     */
+    Order getOrder(long orderId) {
+        Entry entry = orders.get(orderId);
+        return entry == null ? null : entry.order;
+    }
+    
+    void add(Order order) {
+        orders.put(order.getRawId(), new Entry(order, order.getClientOrderId()));
+        orderIds.put(order.getClientOrderId(), order.getRawId());
+    }
+    
+    void remove(long orderId) {
+        Entry entry = orders.remove(orderId);
+        if (entry != null) {
+            orderIds.remove(entry.clientOrderId, orderId);
+        }
+    }
+    
+    /**
+     * Moves the order to the ClOrdID it was replaced with.
+     */
+    void rename(long orderId, String newClientOrderId) {
+        Entry entry = orders.get(orderId);
+        if (entry == null) {
+            return;
+        }
+        orderIds.remove(entry.clientOrderId, orderId);
+        entry.clientOrderId = newClientOrderId;
+        orderIds.put(newClientOrderId, orderId);
+    }
+    
+    private static final class Entry {
+        // Its symbol and side never change, so mass cancels filter on them without the book
+        private final Order order;
+        private volatile String clientOrderId;
+        
+        Entry(Order order, String clientOrderId) {
+            this.order = order;
+            this.clientOrderId = clientOrderId;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.example.orderentry.fix;
+
+import com.example.models.Order;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses and writes FIX decimal field values (prices and quantities) as scaled longs,
+ * without going through double or BigDecimal.
+ */
+public final class FixDecimal {
+    
+    private FixDecimal() {
+    }
+    
+    /**
+     * Parses a FIX decimal such as "101.25", "-3" or "100.000" at a fixed scale. Digits
+     * past the scale are accepted only if they are zeros, so no value is ever rounded.
+     * 
+     * @param value The field value as sent
+     * @param scale The number of decimal places of the result
+     * @return The value times 10^scale, or {@link Order#NO_PRICE} if the value is null,
+     *         malformed, does not fit a long or cannot be represented exactly at the scale
+     */
+    public static long parse(CharSequence value, int scale) {
+        if (value == null) {
+            return Order.NO_PRICE;
+        }
+        return parse(null, value, 0, value.length(), scale);
+    }
+    
+    /**
+     * Parses a FIX decimal from its ASCII bytes, without allocating.
+     * 
+     * @see #parse(CharSequence, int)
+     */
+    public static long parse(ByteBuffer buffer, int offset, int length, int scale) {
+        return parse(buffer, null, offset, length, scale);
+    }
+    
+    /**
+     * Writes a scaled long as a FIX decimal, e.g. 15007 at scale 2 as "150.07". Trailing
+     * zeros of the fraction are kept.
+     * 
+     * @param buffer Receives the ASCII digits at absolute offsets
+     * @param offset Where to write
+     * @param value The value times 10^scale
+     * @param scale The number of decimal places of value
+     * @return The number of bytes written
+     */
+    public static int write(ByteBuffer buffer, int offset, long value, int scale) {
+        int start = offset;
+        if (value < 0) {
+            buffer.put(offset++, (byte) '-');
+            // Long.MIN_VALUE has no positive counterpart and is never a price
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        // At least one digit before the point
+        int width = Math.max(digits, scale + 1) + (scale > 0 ? 1 : 0);
+        int position = offset + width;
+        for (int i = 0; i < scale; i++) {
+            buffer.put(--position, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        if (scale > 0) {
+            buffer.put(--position, (byte) '.');
+        }
+        do {
+            buffer.put(--position, (byte) ('0' + value % 10));
+            value /= 10;
+        } while (position > offset);
+        return offset + width - start;
+    }
+    
+    // Reads from the buffer if there is one, otherwise from the text
+    private static long parse(ByteBuffer buffer, CharSequence text, int offset, int length, int scale) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        char first = i < end ? charAt(buffer, text, i) : 0;
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long result = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            char c = charAt(buffer, text, i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return Order.NO_PRICE;
+            }
+            digits++;
+            if (fractionDigits >= 0) {
+                if (fractionDigits == scale) {
+                    if (c != '0') {
+                        return Order.NO_PRICE;
+                    }
+                    continue;
+                }
+                fractionDigits++;
+            }
+            if (result > (Long.MAX_VALUE - (c - '0')) / 10) {
+                return Order.NO_PRICE;
+            }
+            result = result * 10 + (c - '0');
+        }
+        if (digits == 0) {
+            return Order.NO_PRICE;
+        }
+        for (int d = Math.max(fractionDigits, 0); d < scale; d++) {
+            if (result > Long.MAX_VALUE / 10) {
+                return Order.NO_PRICE;
+            }
+            result *= 10;
+        }
+        return negative ? -result : result;
+    }
+    
+    private static char charAt(ByteBuffer buffer, CharSequence text, int index) {
+        return buffer != null ? (char) (buffer.get(index) & 0xFF) : text.charAt(index);
+    }
+}
\ No newline at end of file
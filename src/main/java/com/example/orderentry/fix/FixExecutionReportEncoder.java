@@ -0,0 +1,252 @@
+package com.example.orderentry.fix;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes FIX 4.4 execution reports (35=8) in place into a caller-owned buffer.
+ * <p>
+ * The header up to MsgSeqNum is precomputed per session when the encoder is created,
+ * with BodyLength as a fixed-width, zero-padded placeholder; {@link #finish()} fills it
+ * in and appends the checksum, so a report is written in one pass without allocating.
+ * Body fields are appended in the order their setters are called.
+ * <p>
+ * An encoder belongs to one session, is reused report after report and is not thread-safe.
+ * <p>
+ * Nothing on the FIX gateway's path uses it yet: the gateway's reports must go through
+ * QuickFIX/J, which assigns their sequence numbers and stores them for resends, so
+ * {@link com.example.exchange.fix.ExchangeFixApplication} still builds them as QuickFIX/J messages.
+ */
+public final class FixExecutionReportEncoder {
+    // Zero-padded BodyLength digits; reports are far shorter than 10^4 bytes
+    private static final int BODY_LENGTH_DIGITS = 4;
+    private static final int MAX_BODY_LENGTH = 9999;
+    private static final byte SOH = FixMessageDecoder.SOH;
+    
+    // Tags only execution reports carry
+    private static final int AVG_PX = 6;
+    private static final int CUM_QTY = 14;
+    private static final int EXEC_ID = 17;
+    private static final int LAST_PX = 31;
+    private static final int LAST_QTY = 32;
+    private static final int ORD_STATUS = 39;
+    private static final int TEXT = 58;
+    private static final int EXEC_TYPE = 150;
+    private static final int LEAVES_QTY = 151;
+    
+    private final byte[] header;
+    // Offset of the BodyLength digits and of MsgType within the header
+    private final int bodyLengthOffset;
+    private final int bodyOffset;
+    
+    private ByteBuffer buffer;
+    private int offset;
+    private int position;
+    
+    /**
+     * @param senderCompId SenderCompID (49) of the reports, the exchange's side of the session
+     * @param targetCompId TargetCompID (56) of the reports, the client's side
+     */
+    public FixExecutionReportEncoder(String senderCompId, String targetCompId) {
+        String prefix = "8=FIX.4.4\u00019=";
+        String header = prefix + "0000\u000135=8\u000149=" + senderCompId + "\u000156=" + targetCompId + "\u000134=";
+        this.header = header.getBytes(StandardCharsets.US_ASCII);
+        this.bodyLengthOffset = prefix.length();
+        this.bodyOffset = bodyLengthOffset + BODY_LENGTH_DIGITS + 1;
+    }
+    
+    /**
+     * Starts a report with the session header.
+     * 
+     * @param buffer Receives the report at absolute offsets; its position is not used
+     * @param offset Where the report starts
+     * @param msgSeqNum MsgSeqNum (34)
+     * @param sendingTimeMillis SendingTime (52), in milliseconds since the epoch
+     */
+    public FixExecutionReportEncoder wrap(ByteBuffer buffer, int offset, long msgSeqNum, long sendingTimeMillis) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.position = offset;
+        for (byte b : header) {
+            buffer.put(position++, b);
+        }
+        putLong(msgSeqNum);
+        buffer.put(position++, SOH);
+        putTag(FixMessageDecoder.SENDING_TIME);
+        putTimestamp(sendingTimeMillis);
+        buffer.put(position++, SOH);
+        return this;
+    }
+    
+    public FixExecutionReportEncoder orderId(long orderId) {
+        putTag(FixMessageDecoder.ORDER_ID);
+        putLong(orderId);
+        return endField();
+    }
+    
+    public FixExecutionReportEncoder execId(long execId) {
+        putTag(EXEC_ID);
+        putLong(execId);
+        return endField();
+    }
+    
+    public FixExecutionReportEncoder clOrdId(CharSequence clOrdId) {
+        return text(FixMessageDecoder.CL_ORD_ID, clOrdId);
+    }
+    
+    public FixExecutionReportEncoder origClOrdId(CharSequence origClOrdId) {
+        return text(FixMessageDecoder.ORIG_CL_ORD_ID, origClOrdId);
+    }
+    
+    public FixExecutionReportEncoder execType(char execType) {
+        return character(EXEC_TYPE, execType);
+    }
+    
+    public FixExecutionReportEncoder ordStatus(char ordStatus) {
+        return character(ORD_STATUS, ordStatus);
+    }
+    
+    public FixExecutionReportEncoder symbol(CharSequence symbol) {
+        return text(FixMessageDecoder.SYMBOL, symbol);
+    }
+    
+    public FixExecutionReportEncoder side(char side) {
+        return character(FixMessageDecoder.SIDE, side);
+    }
+    
+    public FixExecutionReportEncoder orderQty(long orderQty) {
+        return decimal(FixMessageDecoder.ORDER_QTY, orderQty, 0);
+    }
+    
+    /**
+     * @param rawPrice Price (44) times 10^scale
+     */
+    public FixExecutionReportEncoder price(long rawPrice, int scale) {
+        return decimal(FixMessageDecoder.PRICE, rawPrice, scale);
+    }
+    
+    public FixExecutionReportEncoder leavesQty(long leavesQty) {
+        return decimal(LEAVES_QTY, leavesQty, 0);
+    }
+    
+    public FixExecutionReportEncoder cumQty(long cumQty) {
+        return decimal(CUM_QTY, cumQty, 0);
+    }
+    
+    public FixExecutionReportEncoder avgPx(long rawAvgPx, int scale) {
+        return decimal(AVG_PX, rawAvgPx, scale);
+    }
+    
+    public FixExecutionReportEncoder lastQty(long lastQty) {
+        return decimal(LAST_QTY, lastQty, 0);
+    }
+    
+    public FixExecutionReportEncoder lastPx(long rawLastPx, int scale) {
+        return decimal(LAST_PX, rawLastPx, scale);
+    }
+    
+    public FixExecutionReportEncoder text(CharSequence text) {
+        return text(TEXT, text);
+    }
+    
+    /**
+     * Fills in BodyLength and appends the checksum.
+     * 
+     * @return The length of the report
+     * @throws IllegalStateException If the body is too long for the BodyLength placeholder
+     */
+    public int finish() {
+        int bodyLength = position - (offset + bodyOffset);
+        if (bodyLength > MAX_BODY_LENGTH) {
+            throw new IllegalStateException("Execution report body of " + bodyLength + " bytes is too long");
+        }
+        int digits = offset + bodyLengthOffset + BODY_LENGTH_DIGITS;
+        for (int i = 0; i < BODY_LENGTH_DIGITS; i++) {
+            buffer.put(--digits, (byte) ('0' + bodyLength % 10));
+            bodyLength /= 10;
+        }
+        int checksum = 0;
+        for (int i = offset; i < position; i++) {
+            checksum += buffer.get(i);
+        }
+        checksum &= 0xFF;
+        putTag(FixMessageDecoder.CHECK_SUM);
+        buffer.put(position++, (byte) ('0' + checksum / 100));
+        buffer.put(position++, (byte) ('0' + checksum / 10 % 10));
+        buffer.put(position++, (byte) ('0' + checksum % 10));
+        buffer.put(position++, SOH);
+        return position - offset;
+    }
+    
+    private FixExecutionReportEncoder text(int tag, CharSequence value) {
+        if (value != null) {
+            putTag(tag);
+            for (int i = 0; i < value.length(); i++) {
+                buffer.put(position++, (byte) value.charAt(i));
+            }
+            endField();
+        }
+        return this;
+    }
+    
+    private FixExecutionReportEncoder character(int tag, char value) {
+        putTag(tag);
+        buffer.put(position++, (byte) value);
+        return endField();
+    }
+    
+    private FixExecutionReportEncoder decimal(int tag, long value, int scale) {
+        putTag(tag);
+        position += FixDecimal.write(buffer, position, value, scale);
+        return endField();
+    }
+    
+    private FixExecutionReportEncoder endField() {
+        buffer.put(position++, SOH);
+        return this;
+    }
+    
+    private void putTag(int tag) {
+        putLong(tag);
+        buffer.put(position++, (byte) '=');
+    }
+    
+    private void putLong(long value) {
+        position += FixDecimal.write(buffer, position, value, 0);
+    }
+    
+    // UTCTimestamp as yyyyMMdd-HH:mm:ss.SSS
+    private void putTimestamp(long epochMillis) {
+        long days = Math.floorDiv(epochMillis, 86_400_000L);
+        int millisOfDay = (int) Math.floorMod(epochMillis, 86_400_000L);
+        // Civil date from days since 1970-01-01 (H. Hinnant's algorithm)
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        putDigits(year, 4);
+        putDigits(month, 2);
+        putDigits(day, 2);
+        buffer.put(position++, (byte) '-');
+        putDigits(millisOfDay / 3_600_000, 2);
+        buffer.put(position++, (byte) ':');
+        putDigits(millisOfDay / 60_000 % 60, 2);
+        buffer.put(position++, (byte) ':');
+        putDigits(millisOfDay / 1000 % 60, 2);
+        buffer.put(position++, (byte) '.');
+        putDigits(millisOfDay % 1000, 3);
+    }
+    
+    private void putDigits(int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            buffer.put(position + i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        position += width;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,288 @@
+package com.example.orderentry.fix;
+
+import com.example.models.Order;
+import com.example.models.SymbolRegistry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over one FIX 4.4 tag-value message held in a buffer. Wrapping a message
+ * scans it once, checks its framing, body length and checksum, and records where the
+ * value of each tag used by order entry starts; getters then read those values in place.
+ * Tags outside that set are skipped, and repeating groups are not supported.
+ * <p>
+ * Only the string getters allocate. A decoder is reused message after message and is
+ * not thread-safe.
+ * <p>
+ * Nothing on the FIX gateway's path uses it yet: QuickFIX/J reads the sessions' bytes
+ * and hands {@link com.example.exchange.fix.ExchangeFixApplication} parsed messages, with no hook for the raw
+ * ones. It is the codec for a future embedded FIX acceptor, tested and benchmarked on
+ * its own.
+ */
+public final class FixMessageDecoder {
+    public static final byte SOH = 1;
+    
+    public static final int BEGIN_STRING = 8;
+    public static final int BODY_LENGTH = 9;
+    public static final int MSG_TYPE = 35;
+    public static final int MSG_SEQ_NUM = 34;
+    public static final int SENDER_COMP_ID = 49;
+    public static final int TARGET_COMP_ID = 56;
+    public static final int SENDING_TIME = 52;
+    public static final int CL_ORD_ID = 11;
+    public static final int ORIG_CL_ORD_ID = 41;
+    public static final int ORDER_ID = 37;
+    public static final int SYMBOL = 55;
+    public static final int SIDE = 54;
+    public static final int ORD_TYPE = 40;
+    public static final int PRICE = 44;
+    public static final int ORDER_QTY = 38;
+    public static final int TIME_IN_FORCE = 59;
+    public static final int TRANSACT_TIME = 60;
+    public static final int CHECK_SUM = 10;
+    
+    // "10=" + three digits + SOH
+    private static final int TRAILER_LENGTH = 7;
+    private static final int SLOTS = 18;
+    
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+    private boolean valid;
+    // Value offset and length of each known tag, by slot; a length of -1 means absent
+    private final int[] valueOffsets = new int[SLOTS];
+    private final int[] valueLengths = new int[SLOTS];
+    
+    /**
+     * Finds the end of the first complete message in a stream of bytes, from its
+     * BeginString and BodyLength.
+     * 
+     * @param buffer Holds the stream
+     * @param offset Where the message starts
+     * @param available How many bytes of the stream have arrived
+     * @return The length of the message, 0 if it has not fully arrived, or -1 if the
+     *         bytes do not start with a BeginString and BodyLength
+     */
+    public static int messageLength(ByteBuffer buffer, int offset, int available) {
+        int end = offset + available;
+        int i = offset;
+        // 8=...<SOH>
+        if (available < 2 || buffer.get(i) != '8' || buffer.get(i + 1) != '=') {
+            return available < 2 ? 0 : -1;
+        }
+        while (i < end && buffer.get(i) != SOH) {
+            i++;
+        }
+        if (i + 3 > end) {
+            return 0;
+        }
+        i++;
+        if (buffer.get(i) != '9' || buffer.get(i + 1) != '=') {
+            return -1;
+        }
+        i += 2;
+        int bodyLength = 0;
+        for (; i < end && buffer.get(i) != SOH; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9' || bodyLength > 1_000_000) {
+                return -1;
+            }
+            bodyLength = bodyLength * 10 + (b - '0');
+        }
+        if (i >= end) {
+            return 0;
+        }
+        int total = i + 1 - offset + bodyLength + TRAILER_LENGTH;
+        return total <= available ? total : 0;
+    }
+    
+    /**
+     * Points the decoder at a message and scans it.
+     * 
+     * @param buffer Holds the message; its position and limit are not used
+     * @param offset Where the message starts
+     * @param length The length of the message, trailer included
+     * @return This decoder; check {@link #isValid()} before reading fields
+     */
+    public FixMessageDecoder wrap(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            valueLengths[slot] = -1;
+        }
+        valid = scan();
+        return this;
+    }
+    
+    /**
+     * @return Whether the message is framed correctly and its body length and checksum match
+     */
+    public boolean isValid() {
+        return valid;
+    }
+    
+    /**
+     * @return The MsgType of the message if it is a single character, such as 'D', or 0
+     */
+    public char msgType() {
+        int slot = slot(MSG_TYPE);
+        return valueLengths[slot] == 1 ? (char) buffer.get(valueOffsets[slot]) : 0;
+    }
+    
+    public boolean has(int tag) {
+        int slot = slot(tag);
+        return slot >= 0 && valueLengths[slot] >= 0;
+    }
+    
+    /**
+     * @return Where the tag's value starts in the buffer; only valid if {@link #has} the tag
+     */
+    public int valueOffset(int tag) {
+        return valueOffsets[slot(tag)];
+    }
+    
+    /**
+     * @return The length of the tag's value, or -1 if the message does not have it
+     */
+    public int valueLength(int tag) {
+        int slot = slot(tag);
+        return slot < 0 ? -1 : valueLengths[slot];
+    }
+    
+    /**
+     * @return The first character of the tag's value, or 0 if the message does not have it
+     */
+    public char getChar(int tag) {
+        int slot = slot(tag);
+        return slot < 0 || valueLengths[slot] <= 0 ? 0 : (char) (buffer.get(valueOffsets[slot]) & 0xFF);
+    }
+    
+    /**
+     * @return The tag's value as a scaled long, or {@link Order#NO_PRICE} if it is absent or
+     *         cannot be represented exactly at the scale
+     * @see FixDecimal#parse(ByteBuffer, int, int, int)
+     */
+    public long getDecimal(int tag, int scale) {
+        int slot = slot(tag);
+        if (slot < 0 || valueLengths[slot] < 0) {
+            return Order.NO_PRICE;
+        }
+        return FixDecimal.parse(buffer, valueOffsets[slot], valueLengths[slot], scale);
+    }
+    
+    /**
+     * Resolves Symbol (55) in place, without creating a String.
+     * 
+     * @return The symbol's ID, or {@link SymbolRegistry#UNKNOWN} if it is absent or not registered
+     */
+    public int getSymbolId(SymbolRegistry symbols) {
+        int slot = slot(SYMBOL);
+        if (valueLengths[slot] <= 0) {
+            return SymbolRegistry.UNKNOWN;
+        }
+        return symbols.getId(buffer, valueOffsets[slot], valueLengths[slot]);
+    }
+    
+    /**
+     * @return The tag's value, or null if the message does not have it
+     */
+    public String getString(int tag) {
+        int slot = slot(tag);
+        if (slot < 0 || valueLengths[slot] < 0) {
+            return null;
+        }
+        char[] chars = new char[valueLengths[slot]];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (buffer.get(valueOffsets[slot] + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+    
+    private boolean scan() {
+        int end = offset + length;
+        int i = offset;
+        int fieldIndex = 0;
+        int bodyStart = -1;
+        int checksumStart = -1;
+        while (i < end) {
+            int fieldStart = i;
+            int tag = 0;
+            for (; i < end && buffer.get(i) != '='; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9' || tag > 100_000) {
+                    return false;
+                }
+                tag = tag * 10 + (b - '0');
+            }
+            if (i == fieldStart || i >= end) {
+                return false;
+            }
+            int valueStart = i + 1;
+            i = valueStart;
+            while (i < end && buffer.get(i) != SOH) {
+                i++;
+            }
+            if (i >= end) {
+                return false;
+            }
+            // BeginString, BodyLength and MsgType lead, in that order
+            if ((fieldIndex == 0 && tag != BEGIN_STRING) || (fieldIndex == 1 && tag != BODY_LENGTH)
+                    || (fieldIndex == 2 && tag != MSG_TYPE)) {
+                return false;
+            }
+            if (fieldIndex == 2) {
+                bodyStart = fieldStart;
+            }
+            if (tag == CHECK_SUM) {
+                checksumStart = fieldStart;
+            }
+            int slot = slot(tag);
+            if (slot >= 0 && valueLengths[slot] < 0) {
+                valueOffsets[slot] = valueStart;
+                valueLengths[slot] = i - valueStart;
+            }
+            fieldIndex++;
+            i++;
+            if (tag == CHECK_SUM) {
+                break;
+            }
+        }
+        if (checksumStart < 0 || i != end || bodyStart < 0) {
+            return false;
+        }
+        long bodyLength = getDecimal(BODY_LENGTH, 0);
+        if (bodyLength != checksumStart - bodyStart) {
+            return false;
+        }
+        int checksum = 0;
+        for (int j = offset; j < checksumStart; j++) {
+            checksum += buffer.get(j);
+        }
+        return getDecimal(CHECK_SUM, 0) == (checksum & 0xFF);
+    }
+    
+    private static int slot(int tag) {
+        switch (tag) {
+            case BEGIN_STRING: return 0;
+            case BODY_LENGTH: return 1;
+            case MSG_TYPE: return 2;
+            case MSG_SEQ_NUM: return 3;
+            case SENDER_COMP_ID: return 4;
+            case TARGET_COMP_ID: return 5;
+            case SENDING_TIME: return 6;
+            case CL_ORD_ID: return 7;
+            case ORIG_CL_ORD_ID: return 8;
+            case ORDER_ID: return 9;
+            case SYMBOL: return 10;
+            case SIDE: return 11;
+            case ORD_TYPE: return 12;
+            case PRICE: return 13;
+            case ORDER_QTY: return 14;
+            case TIME_IN_FORCE: return 15;
+            case TRANSACT_TIME: return 16;
+            case CHECK_SUM: return 17;
+            default: return -1;
+        }
+    }
+}
\ No newline at end of file
@@ -1,18 +1,27 @@
 package com.example.orderentry.fix;
 
+import com.example.models.IdGenerator;
+import com.example.models.Instrument;
 import com.example.models.Order;
 import com.example.models.OrderSide;
+import com.example.models.OrderStatus;
 import com.example.models.OrderType;
 import com.example.models.TimeInForce;
+import com.example.models.Trade;
+import com.example.orderbook.BackpressureException;
 import com.example.orderbook.OrderBook;
+import com.example.orderbook.OrderBookEventListener;
 import com.example.orderentry.OrderEntryCallback;
 import com.example.orderentry.OrderEntryHandler;
+import com.example.orderentry.OrderRouter;
 import com.example.orderentry.OrderStatusResponse;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.List;
@@ -23,92 +32,168 @@ import java.util.List;
  */
 public class FixOrderEntryAdapter implements OrderEntryHandler {
     
-    private final OrderBook orderBook;
+    // TimeInForce (59) when the client leaves it out
+    private static final char DEFAULT_TIME_IN_FORCE = '0';
+    
+    private final OrderRouter router;
     private final List<OrderEntryCallback> callbacks;
-    private final Map<String, UUID> clientOrderIdMap;
+    // ClOrdIDs of the orders entered without a session; each FIX session has its own
+    private final ClientOrderIds handlerOrders;
+    // The ClOrdIDs each open order is in, to forget it there when it leaves the book
+    private final Map<Long, ClientOrderIds> orderScopes;
     
     public FixOrderEntryAdapter(OrderBook orderBook) {
-        this.orderBook = orderBook;
+        this(OrderRouter.of(orderBook));
+    }
+    
+    /**
+     * @param router Routes each order to the book of its symbol; filled orders are
+     *               forgotten from the books it routes now
+     */
+    public FixOrderEntryAdapter(OrderRouter router) {
+        this.router = router;
         this.callbacks = new CopyOnWriteArrayList<>();
-        this.clientOrderIdMap = new ConcurrentHashMap<>();
+        this.handlerOrders = new ClientOrderIds();
+        this.orderScopes = new ConcurrentHashMap<>();
+        SessionReporter reporter = new SessionReporter();
+        for (OrderBook orderBook : router.getOrderBooks()) {
+            orderBook.registerListener(reporter);
+        }
     }
     
     @Override
     public UUID submitOrder(Order order) {
-        // Store client order ID mapping if provided
+        return submitOrder(order, router.getOrderBook(order.getSymbol()), handlerOrders);
+    }
+    
+    private UUID submitOrder(Order order, OrderBook orderBook, ClientOrderIds orders) {
+        if (orderBook == null) {
+            notifyRejected(orders, order.getClientOrderId(), "Order rejected by order book");
+            return null;
+        }
+        // Known by its route and ClOrdID before the book can act on it
+        long orderId = order.getRawId();
+        router.addRoute(orderId, orderBook);
         if (order.getClientOrderId() != null) {
-            clientOrderIdMap.put(order.getClientOrderId(), order.getId());
+            enter(orders, order);
         }
         
-        boolean success = orderBook.addOrder(order);
-        
-        if (success) {
-            // Notify callbacks
-            for (OrderEntryCallback callback : callbacks) {
-                callback.onOrderAccepted(order.getId(), order.getClientOrderId());
-            }
-            return order.getId();
-        } else {
-            // Notify callbacks of rejection
-            for (OrderEntryCallback callback : callbacks) {
-                callback.onOrderRejected(order.getClientOrderId(), "Order rejected by order book");
+        // Not waited for, so an order still queued for a busy matching thread is never taken
+        // for a rejected one while it goes on to rest in the book
+        CompletableFuture<Boolean> added = orderBook.addOrderAsync(order).whenComplete((accepted, failure) -> {
+            if (failure == null && accepted) {
+                // The session was told as the order went into the book, ahead of its fills
+                for (OrderEntryCallback callback : callbacks) {
+                    callback.onOrderAccepted(order.getId(), order.getClientOrderId());
+                }
+            } else if (failure == null || isBackpressure(failure)) {
+                // Not in the book
+                router.removeRoute(orderId);
+                leave(orderId);
+                notifyRejected(orders, order.getClientOrderId(),
+                        failure == null ? "Order rejected by order book" : "Matching engine busy");
             }
-            return null;
-        }
+            // Any other failure may have left the order in the book, so it stays known
+        });
+        return refused(added) ? null : order.getId();
     }
     
     @Override
     public boolean cancelOrder(UUID orderId, String clientOrderId) {
         // Resolve order ID from client order ID if needed
         if (orderId == null && clientOrderId != null) {
-            orderId = clientOrderIdMap.get(clientOrderId);
-            if (orderId == null) {
+            long id = handlerOrders.resolve(clientOrderId);
+            if (id == 0) {
                 return false;
             }
+            orderId = IdGenerator.toUuid(id);
         }
         
-        boolean success = orderBook.cancelOrder(orderId);
-        
-        if (success) {
-            // Notify callbacks
-            for (OrderEntryCallback callback : callbacks) {
-                callback.onOrderCanceled(orderId);
-            }
+        return cancelOrder(IdGenerator.fromUuid(orderId), null, null);
+    }
+    
+    /**
+     * Cancels an order as a FIX order cancel request does. The outcome is reported to the
+     * session's callback once the book has applied the cancel.
+     * 
+     * @param orders The ClOrdIDs of the session the request was sent on
+     * @param clientOrderId ClOrdID (11) of the request
+     * @param origClientOrderId OrigClOrdID (41), the order's current ClOrdID on that session
+     * @return False if the session has no open order by that ClOrdID or the book refused
+     *         the cancel, true if it was canceled or is still queued for its book
+     */
+    public boolean cancelByClientOrderId(ClientOrderIds orders, String clientOrderId, String origClientOrderId) {
+        long orderId = orders.resolve(origClientOrderId);
+        if (orderId == 0) {
+            notifyCancelRejected(orders, null, clientOrderId, origClientOrderId, "Unknown order");
+            return false;
+        }
+        return cancelOrder(orderId, clientOrderId, origClientOrderId);
+    }
+    
+    /**
+     * @param origClientOrderId The ClOrdID the request named the order by, or null if the
+     *                          order's session did not send the request
+     */
+    private boolean cancelOrder(long engineId, String clientOrderId, String origClientOrderId) {
+        // Looked up first, as the book's cancel event makes the order leave its session
+        ClientOrderIds orders = orderScopes.get(engineId);
+        Order order = orders == null ? null : orders.getOrder(engineId);
+        String currentClientOrderId = order == null ? null : orders.getClientOrderId(engineId);
+        OrderBook orderBook = router.route(engineId);
+        if (orderBook == null) {
+            notifyCancelRejected(orders, order, clientOrderId, origClientOrderId, "Cancel rejected");
+            return false;
         }
         
-        return success;
+        CompletableFuture<Boolean> canceled = orderBook.cancelOrderAsync(engineId).whenComplete((success, failure) -> {
+            if (failure == null && success) {
+                router.removeRoute(engineId);
+                leave(engineId);
+                // A request of the order's session is acknowledged under its own ClOrdID
+                if (origClientOrderId != null) {
+                    notifyCanceled(orders, engineId, order, clientOrderId, origClientOrderId);
+                } else {
+                    notifyCanceled(orders, engineId, order, currentClientOrderId, null);
+                }
+            } else if (failure == null || isBackpressure(failure)) {
+                notifyCancelRejected(orders, order, clientOrderId, origClientOrderId,
+                        failure == null ? "Cancel rejected" : "Matching engine busy");
+            }
+        });
+        return !refused(canceled);
     }
     
     @Override
     public boolean modifyOrder(UUID orderId, String clientOrderId, BigDecimal newPrice, BigInteger newQuantity) {
         // Resolve order ID from client order ID if needed
         if (orderId == null && clientOrderId != null) {
-            orderId = clientOrderIdMap.get(clientOrderId);
-            if (orderId == null) {
+            long id = handlerOrders.resolve(clientOrderId);
+            if (id == 0) {
                 return false;
             }
+            orderId = IdGenerator.toUuid(id);
         }
         
-        boolean success = orderBook.modifyOrder(orderId, newPrice, newQuantity);
-        
-        if (success) {
-            // Notify callbacks
-            for (OrderEntryCallback callback : callbacks) {
-                callback.onOrderModified(orderId);
-            }
-        } else {
-            // Notify callbacks of rejection
-            for (OrderEntryCallback callback : callbacks) {
-                callback.onOrderModificationRejected(orderId, "Order modification rejected");
-            }
+        long engineId = IdGenerator.fromUuid(orderId);
+        // Taken first, as the order may be filled and leave its session while it is modified
+        ClientOrderIds orders = orderScopes.get(engineId);
+        Order order = orders == null ? null : orders.getOrder(engineId);
+        // Not a request of the order's session, so its ClOrdID stays as it is
+        String currentClientOrderId = order == null ? null : orders.getClientOrderId(engineId);
+        OrderBook orderBook = router.route(engineId);
+        long newRawPrice = orderBook == null ? Order.NO_PRICE : orderBook.getInstrument().toRawPrice(newPrice);
+        if (orderBook == null || (newPrice != null && newRawPrice == Order.NO_PRICE)) {
+            notifyModified(orders, engineId, order, currentClientOrderId, null, "Order modification rejected");
+            return false;
         }
-        
-        return success;
+        return modifyOrder(orders, engineId, order, orderBook, newRawPrice,
+                newQuantity != null ? newQuantity.longValueExact() : 0, currentClientOrderId, null);
     }
     
     @Override
     public OrderStatusResponse getOrderStatus(UUID orderId) {
-        Order order = orderBook.getOrder(orderId);
+        Order order = getOrder(orderId);
         if (order == null) {
             return null;
         }
@@ -118,7 +203,7 @@ public class FixOrderEntryAdapter implements OrderEntryHandler {
     
     @Override
     public Order getOrder(UUID orderId) {
-        return orderBook.getOrder(orderId);
+        return router.getOrder(IdGenerator.fromUuid(orderId));
     }
     
     @Override
@@ -135,51 +220,473 @@ public class FixOrderEntryAdapter implements OrderEntryHandler {
     // These would integrate with your FIX engine
     
     /**
-     * Processes a FIX new order single message.
+     * Processes a FIX new order single message given as a tag map, for tests and tools.
+     * The FIX application uses {@link #processNewOrderSingle(String, String, char, char, CharSequence,
+     * CharSequence, char)}, which this delegates to.
      * 
      * @param fixMessage The FIX message as a map of tag-value pairs
      * @return The order ID if successful, null otherwise
      */
     public UUID processNewOrderSingle(Map<Integer, String> fixMessage) {
-        // Extract fields from FIX message
-        String clientOrderId = fixMessage.get(11); // ClOrdID
-        String symbol = fixMessage.get(55); // Symbol
-        String sideStr = fixMessage.get(54); // Side
-        String typeStr = fixMessage.get(40); // OrdType
-        String priceStr = fixMessage.get(44); // Price
-        String quantityStr = fixMessage.get(38); // OrderQty
-        String timeInForceStr = fixMessage.get(59); // TimeInForce
+        String timeInForce = fixMessage.get(59); // TimeInForce
+        return processNewOrderSingle(
+                fixMessage.get(11), // ClOrdID
+                fixMessage.get(55), // Symbol
+                toChar(fixMessage.get(54)), // Side
+                toChar(fixMessage.get(40)), // OrdType
+                fixMessage.get(44), // Price
+                fixMessage.get(38), // OrderQty
+                timeInForce == null ? DEFAULT_TIME_IN_FORCE : toChar(timeInForce));
+    }
+    
+    /**
+     * Builds an order straight from the field values of a FIX new order single and
+     * submits it to the book of its symbol, among the orders entered without a session.
+     * 
+     * @return The order ID if successful, null if the order was rejected
+     * @see #processNewOrderSingle(ClientOrderIds, String, String, char, char, CharSequence,
+     *      CharSequence, char)
+     */
+    public UUID processNewOrderSingle(String clientOrderId, String symbol, char side, char orderType,
+                                      CharSequence price, CharSequence quantity, char timeInForce) {
+        return processNewOrderSingle(handlerOrders, clientOrderId, symbol, side, orderType, price, quantity,
+                timeInForce);
+    }
+    
+    /**
+     * Builds an order straight from the field values of a FIX new order single and
+     * submits it to the book of its symbol. Price and quantity are parsed from their text
+     * into the book's fixed-point representation, so they are never rounded.
+     * 
+     * @param orders The ClOrdIDs of the session the order was sent on
+     * @param clientOrderId ClOrdID (11)
+     * @param symbol Symbol (55)
+     * @param side Side (54)
+     * @param orderType OrdType (40)
+     * @param price Price (44) as sent; ignored for market orders
+     * @param quantity OrderQty (38) as sent; must be a whole number
+     * @param timeInForce TimeInForce (59), '0' (day) if the client did not set it
+     * @return The order ID if successful, null if the order was rejected, in which case
+     *         the callbacks have been told why
+     */
+    public UUID processNewOrderSingle(ClientOrderIds orders, String clientOrderId, String symbol, char side,
+                                      char orderType, CharSequence price, CharSequence quantity, char timeInForce) {
+        OrderBook orderBook = router.getOrderBook(symbol);
+        int priceScale = orderBook == null ? 0 : orderBook.getInstrument().getPriceScale();
+        return processNewOrderSingle(orders, clientOrderId, orderBook, side, orderType,
+                FixDecimal.parse(price, priceScale), FixDecimal.parse(quantity, 0), timeInForce);
+    }
+    
+    /**
+     * Processes one FIX message read straight from the wire. New order singles (35=D),
+     * order cancel requests (35=F) and order cancel/replace requests (35=G) are applied;
+     * their outcome is reported to the callbacks as for the other entry points. ClOrdIDs
+     * are resolved among the orders entered without a session.
+     * <p>
+     * Only for a caller that reads FIX itself: {@link com.example.exchange.fix.ExchangeFixApplication} receives
+     * QuickFIX/J's parsed messages and uses the other entry points, so the gateway does
+     * not call this yet.
+     * 
+     * @param message A valid message
+     * @return False if the message is not one of those types
+     */
+    public boolean processMessage(FixMessageDecoder message) {
+        switch (message.msgType()) {
+            case 'D': {
+                // Resolved from the symbol's bytes; the order carries the interned symbol
+                OrderBook orderBook = router.getOrderBook(message.getSymbolId(router.getSymbols()));
+                int priceScale = orderBook == null ? 0 : orderBook.getInstrument().getPriceScale();
+                char timeInForce = message.has(FixMessageDecoder.TIME_IN_FORCE)
+                        ? message.getChar(FixMessageDecoder.TIME_IN_FORCE) : DEFAULT_TIME_IN_FORCE;
+                processNewOrderSingle(
+                        handlerOrders,
+                        message.getString(FixMessageDecoder.CL_ORD_ID),
+                        orderBook,
+                        message.getChar(FixMessageDecoder.SIDE),
+                        message.getChar(FixMessageDecoder.ORD_TYPE),
+                        message.getDecimal(FixMessageDecoder.PRICE, priceScale),
+                        message.getDecimal(FixMessageDecoder.ORDER_QTY, 0),
+                        timeInForce);
+                return true;
+            }
+            case 'F':
+                cancelByClientOrderId(handlerOrders, message.getString(FixMessageDecoder.CL_ORD_ID),
+                        message.getString(FixMessageDecoder.ORIG_CL_ORD_ID));
+                return true;
+            case 'G': {
+                long orderId = handlerOrders.resolve(message.getString(FixMessageDecoder.ORIG_CL_ORD_ID));
+                long price = message.getDecimal(FixMessageDecoder.PRICE, priceScale(orderId));
+                // A price that was sent but cannot be used must not mean "keep the price"
+                boolean validPrice = price != Order.NO_PRICE || !message.has(FixMessageDecoder.PRICE);
+                replaceOrder(handlerOrders, orderId, message.getString(FixMessageDecoder.ORIG_CL_ORD_ID),
+                        message.getString(FixMessageDecoder.CL_ORD_ID), price,
+                        message.getDecimal(FixMessageDecoder.ORDER_QTY, 0), validPrice);
+                return true;
+            }
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Replaces the price and quantity of an order entered without a session, as a FIX
+     * order cancel/replace request does, and moves it to its new client order ID.
+     * 
+     * @param origClientOrderId OrigClOrdID (41), the order's current client order ID
+     * @param clientOrderId ClOrdID (11), the order's client order ID from now on
+     * @param newRawPrice The new price at the instrument's scale, or {@link Order#NO_PRICE} to keep it
+     * @param newQuantity The new quantity
+     * @return Whether the order was replaced, or is still queued for its book
+     */
+    public boolean replaceOrder(String origClientOrderId, String clientOrderId, long newRawPrice, long newQuantity) {
+        return replaceOrder(handlerOrders, handlerOrders.resolve(origClientOrderId), origClientOrderId,
+                clientOrderId, newRawPrice, newQuantity, true);
+    }
+    
+    /**
+     * Replaces an order entered without a session from its OrderCancelReplaceRequest
+     * field values.
+     * 
+     * @return Whether the order was replaced, or is still queued for its book
+     * @see #replaceOrder(ClientOrderIds, String, String, CharSequence, CharSequence)
+     */
+    public boolean replaceOrder(String origClientOrderId, String clientOrderId, CharSequence price,
+                                CharSequence quantity) {
+        return replaceOrder(handlerOrders, origClientOrderId, clientOrderId, price, quantity);
+    }
+    
+    /**
+     * Replaces an order from its OrderCancelReplaceRequest field values, parsing the price
+     * and quantity straight to the instrument's scale. The outcome is reported to the
+     * session's callback once the book has applied the replace.
+     * 
+     * @param orders The ClOrdIDs of the session the request was sent on
+     * @param origClientOrderId OrigClOrdID (41), the order's current ClOrdID on that session
+     * @param clientOrderId ClOrdID (11), the order's ClOrdID from now on
+     * @param price Price (44) as sent, or null to keep the price
+     * @param quantity OrderQty (38) as sent
+     * @return False if the session has no open order by that ClOrdID or the replace was
+     *         refused, true if it was applied or is still queued for the book
+     */
+    public boolean replaceOrder(ClientOrderIds orders, String origClientOrderId, String clientOrderId,
+                                CharSequence price, CharSequence quantity) {
+        long orderId = orders.resolve(origClientOrderId);
+        long rawPrice = FixDecimal.parse(price, priceScale(orderId));
+        return replaceOrder(orders, orderId, origClientOrderId, clientOrderId, rawPrice,
+                FixDecimal.parse(quantity, 0), price == null || rawPrice != Order.NO_PRICE);
+    }
+    
+    private boolean replaceOrder(ClientOrderIds orders, long engineId, String origClientOrderId,
+                                 String clientOrderId, long newRawPrice, long newQuantity, boolean validPrice) {
+        if (engineId == 0) {
+            notifyModified(orders, 0, null, clientOrderId, origClientOrderId, "Unknown order");
+            return false;
+        }
+        Order order = orders.getOrder(engineId);
+        OrderBook orderBook = router.route(engineId);
+        if (!validPrice || orderBook == null || newQuantity <= 0 || newQuantity == Order.NO_PRICE) {
+            notifyModified(orders, engineId, order, clientOrderId, origClientOrderId, "Order modification rejected");
+            return false;
+        }
+        return modifyOrder(orders, engineId, order, orderBook, newRawPrice, newQuantity, clientOrderId,
+                origClientOrderId);
+    }
+    
+    /**
+     * Queues the modification for the order's book and reports it once the book has
+     * applied it, moving the order to its new ClOrdID if it was replaced.
+     * 
+     * @return False if the book refused the modification, true if it was applied or is
+     *         still queued for the book
+     */
+    private boolean modifyOrder(ClientOrderIds orders, long engineId, Order order, OrderBook orderBook,
+                                long newRawPrice, long newQuantity, String clientOrderId, String origClientOrderId) {
+        CompletableFuture<Boolean> modified = orderBook.modifyOrderAsync(engineId, newRawPrice, newQuantity)
+                .whenComplete((success, failure) -> {
+                    if (failure != null && !isBackpressure(failure)) {
+                        // May have been applied, so it is reported as neither
+                        return;
+                    }
+                    boolean applied = failure == null && success;
+                    if (applied && orders != null && clientOrderId != null
+                            && !clientOrderId.equals(origClientOrderId)) {
+                        orders.rename(engineId, clientOrderId);
+                    }
+                    notifyModified(orders, engineId, order, clientOrderId, origClientOrderId, applied ? null
+                            : failure == null ? "Order modification rejected" : "Matching engine busy");
+                });
+        return !refused(modified);
+    }
+    
+    /**
+     * Cancels a batch of orders with one engine command per book, such as the orders a
+     * mass cancel covers, and notifies the callbacks, including the callback of its
+     * session, of each order canceled.
+     * 
+     * @param orderIds The engine IDs of the orders; the entry of each order that could not
+     *                 be canceled is set to 0
+     * @param count The number of IDs, from the start of the array
+     * @return The number of orders canceled
+     * @see OrderRouter#cancelOrders(long[], int)
+     */
+    public int cancelOrders(long[] orderIds, int count) {
+        // Taken first, as the book's cancel events make the orders leave their sessions
+        ClientOrderIds[] scopes = new ClientOrderIds[count];
+        Order[] orders = new Order[count];
+        String[] clientOrderIds = new String[count];
+        for (int i = 0; i < count; i++) {
+            scopes[i] = orderIds[i] == 0 ? null : orderScopes.get(orderIds[i]);
+            if (scopes[i] != null) {
+                orders[i] = scopes[i].getOrder(orderIds[i]);
+                clientOrderIds[i] = scopes[i].getClientOrderId(orderIds[i]);
+            }
+        }
+        int canceled = router.cancelOrders(orderIds, count);
+        if (canceled > 0) {
+            for (int i = 0; i < count; i++) {
+                if (orderIds[i] != 0) {
+                    leave(orderIds[i]);
+                    notifyCanceled(scopes[i], orderIds[i], orders[i], clientOrderIds[i], null);
+                }
+            }
+        }
+        return canceled;
+    }
+    
+    /**
+     * @return The order entered without a session that is currently known by a client
+     *         order ID, or null if there is none
+     */
+    public UUID getOrderId(String clientOrderId) {
+        long orderId = handlerOrders.resolve(clientOrderId);
+        return orderId == 0 ? null : IdGenerator.toUuid(orderId);
+    }
+    
+    private void enter(ClientOrderIds orders, Order order) {
+        orders.add(order);
+        orderScopes.put(order.getRawId(), orders);
+    }
+    
+    private void leave(long orderId) {
+        ClientOrderIds orders = orderScopes.remove(orderId);
+        if (orders != null) {
+            orders.remove(orderId);
+        }
+    }
+    
+    // The scale of the book the order is in, for parsing its new price
+    private int priceScale(long orderId) {
+        OrderBook orderBook = orderId == 0 ? null : router.route(orderId);
+        return orderBook == null ? 0 : orderBook.getInstrument().getPriceScale();
+    }
+    
+    private UUID processNewOrderSingle(ClientOrderIds orders, String clientOrderId, OrderBook orderBook, char side,
+                                       char orderType, long rawPrice, long rawQuantity, char timeInForce) {
+        OrderSide orderSide = convertFixSide(side);
+        OrderType type = convertFixOrderType(orderType);
+        TimeInForce tif = convertFixTimeInForce(timeInForce);
+        if (type == OrderType.MARKET) {
+            rawPrice = Order.NO_PRICE;
+        }
         
-        // Convert to internal types
-        OrderSide side = convertFixSide(sideStr);
-        OrderType type = convertFixOrderType(typeStr);
-        BigDecimal price = new BigDecimal(priceStr);
-        BigInteger quantity = new BigInteger(quantityStr);
-        TimeInForce timeInForce = convertFixTimeInForce(timeInForceStr);
+        String reason = null;
+        if (orderBook == null) {
+            reason = "Unknown symbol";
+        } else if (orderSide == null || type == null || tif == null) {
+            reason = "Invalid side, order type or time in force";
+        } else if (type == OrderType.LIMIT && rawPrice == Order.NO_PRICE) {
+            reason = "Invalid price";
+        } else if (rawQuantity == Order.NO_PRICE || rawQuantity <= 0) {
+            reason = "Invalid quantity";
+        }
+        if (reason != null) {
+            notifyRejected(orders, clientOrderId, reason);
+            return null;
+        }
         
-        // Create and submit order
-        Order order = new Order(symbol, type, side, price, quantity, timeInForce, clientOrderId);
-        return submitOrder(order);
+        Instrument instrument = orderBook.getInstrument();
+        Order order = new Order(instrument.getSymbol(), type, orderSide, rawPrice, instrument.getPriceScale(),
+                rawQuantity, tif, clientOrderId);
+        return submitOrder(order, orderBook, orders);
+    }
+    
+    // The adapter's callbacks, then the callback of the order's session, if it has one
+    private void notifyRejected(ClientOrderIds orders, String clientOrderId, String reason) {
+        for (OrderEntryCallback callback : callbacks) {
+            callback.onOrderRejected(clientOrderId, reason);
+        }
+        if (orders.callback() != null) {
+            orders.callback().onOrderRejected(clientOrderId, reason);
+        }
+    }
+    
+    /**
+     * @param order The order, as looked up before it was canceled, or null if it has no session
+     * @param clientOrderId ClOrdID of the cancel request, or the order's own if its session
+     *                      did not send the request
+     * @param origClientOrderId The ClOrdID the request named the order by, or null if the
+     *                          session did not send the request
+     */
+    private void notifyCanceled(ClientOrderIds orders, long engineId, Order order, String clientOrderId,
+                                String origClientOrderId) {
+        UUID orderId = IdGenerator.toUuid(engineId);
+        for (OrderEntryCallback callback : callbacks) {
+            callback.onOrderCanceled(orderId);
+        }
+        if (order != null && orders.callback() != null) {
+            orders.callback().onOrderCanceled(order, clientOrderId, origClientOrderId);
+        }
     }
     
-    // Helper methods to convert FIX values to internal enums
-    private OrderSide convertFixSide(String side) {
-        if ("1".equals(side)) return OrderSide.BUY;
-        if ("2".equals(side)) return OrderSide.SELL;
-        throw new IllegalArgumentException("Invalid FIX side: " + side);
+    /**
+     * @param engineId The order's engine ID, or 0 if the request named no open order
+     * @param order The order, as looked up before the request was applied
+     * @param clientOrderId The order's ClOrdID from now on
+     * @param origClientOrderId The ClOrdID the request named the order by, or null if the
+     *                          session did not send the request
+     * @param rejectReason Why the modification was refused, or null if it was applied
+     */
+    private void notifyModified(ClientOrderIds orders, long engineId, Order order, String clientOrderId,
+                                String origClientOrderId, String rejectReason) {
+        if (engineId != 0) {
+            UUID orderId = IdGenerator.toUuid(engineId);
+            for (OrderEntryCallback callback : callbacks) {
+                if (rejectReason == null) {
+                    callback.onOrderModified(orderId);
+                } else {
+                    callback.onOrderModificationRejected(orderId, rejectReason);
+                }
+            }
+        }
+        FixSessionCallback own = orders == null ? null : orders.callback();
+        if (own != null) {
+            if (rejectReason == null) {
+                own.onOrderReplaced(order, clientOrderId, origClientOrderId);
+            } else if (origClientOrderId != null) {
+                own.onReplaceRejected(order, clientOrderId, origClientOrderId, rejectReason);
+            }
+        }
     }
     
-    private OrderType convertFixOrderType(String type) {
-        if ("1".equals(type)) return OrderType.MARKET;
-        if ("2".equals(type)) return OrderType.LIMIT;
-        throw new IllegalArgumentException("Invalid FIX order type: " + type);
+    // Only the session that sent the cancel request is told it was refused
+    private void notifyCancelRejected(ClientOrderIds orders, Order order, String clientOrderId,
+                                      String origClientOrderId, String reason) {
+        if (origClientOrderId != null && orders != null && orders.callback() != null) {
+            orders.callback().onCancelRejected(order, clientOrderId, origClientOrderId, reason);
+        }
     }
     
-    private TimeInForce convertFixTimeInForce(String tif) {
-        if ("0".equals(tif)) return TimeInForce.DAY;
-        if ("1".equals(tif)) return TimeInForce.GTC;
-        if ("3".equals(tif)) return TimeInForce.IOC;
-        if ("4".equals(tif)) return TimeInForce.FOK;
-        throw new IllegalArgumentException("Invalid FIX time in force: " + tif);
+    // True only if the book has already refused the request; books that match on another
+    // thread answer later, through the callbacks
+    private static boolean refused(CompletableFuture<Boolean> result) {
+        if (!result.isDone()) {
+            return false;
+        }
+        try {
+            return !result.join();
+        } catch (CompletionException e) {
+            return isBackpressure(e);
+        }
+    }
+    
+    // A request the book could not queue was never applied
+    private static boolean isBackpressure(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        return cause instanceof BackpressureException;
+    }
+    
+    // Reports the sessions' orders as they go into the book and are filled, and forgets the
+    // ClOrdIDs of the orders that leave the book without a cancel request
+    private final class SessionReporter implements OrderBookEventListener {
+        @Override
+        public void onTradeExecuted(Trade trade) {
+            reportFill(trade.getRawBuyOrderId(), trade);
+            reportFill(trade.getRawSellOrderId(), trade);
+        }
+        
+        // Looked up in its session, as the router may already have forgotten a filled order's route
+        private void reportFill(long orderId, Trade trade) {
+            ClientOrderIds orders = orderScopes.get(orderId);
+            Order order = orders == null ? null : orders.getOrder(orderId);
+            if (order == null) {
+                return;
+            }
+            String clientOrderId = orders.getClientOrderId(orderId);
+            if (order.getStatus() == OrderStatus.FILLED) {
+                leave(orderId);
+            }
+            UUID id = order.getId();
+            for (OrderEntryCallback callback : callbacks) {
+                callback.onOrderFilled(id, trade);
+            }
+            if (orders.callback() != null) {
+                orders.callback().onOrderFilled(order, clientOrderId, trade);
+            }
+        }
+        
+        @Override
+        public void onOrderCanceled(Order order) {
+            leave(order.getRawId());
+        }
+        
+        @Override
+        public void onOrderCanceled(UUID orderId, Order order) {
+        }
+        
+        @Override
+        public void onOrderAdded(Order order) {
+            ClientOrderIds orders = orderScopes.get(order.getRawId());
+            if (orders != null && orders.callback() != null && orders.getOrder(order.getRawId()) == order) {
+                orders.callback().onOrderAccepted(order, orders.getClientOrderId(order.getRawId()));
+            }
+        }
+        
+        @Override
+        public void onOrderModified(Order order, long oldRawPrice, long oldQuantity) {
+        }
+        
+        @Override
+        public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {
+        }
+        
+        @Override
+        public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {
+        }
+        
+        @Override
+        public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {
+        }
+    }
+    
+    private static char toChar(String value) {
+        return value == null || value.length() != 1 ? 0 : value.charAt(0);
+    }
+    
+    // Helper methods to convert FIX values to internal enums; null for values we do not support
+    private static OrderSide convertFixSide(char side) {
+        switch (side) {
+            case '1': return OrderSide.BUY;
+            case '2': return OrderSide.SELL;
+            default: return null;
+        }
+    }
+    
+    private static OrderType convertFixOrderType(char type) {
+        switch (type) {
+            case '1': return OrderType.MARKET;
+            case '2': return OrderType.LIMIT;
+            default: return null;
+        }
+    }
+    
+    private static TimeInForce convertFixTimeInForce(char tif) {
+        switch (tif) {
+            case '0': return TimeInForce.DAY;
+            case '1': return TimeInForce.GTC;
+            case '3': return TimeInForce.IOC;
+            case '4': return TimeInForce.FOK;
+            default: return null;
+        }
     }
 }
\ No newline at end of file
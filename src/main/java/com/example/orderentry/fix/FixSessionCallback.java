@@ -0,0 +1,80 @@
+package com.example.orderentry.fix;
+
+import com.example.models.Order;
+import com.example.models.Trade;
+
+/**
+ * Callback interface for the orders of one FIX session.
+ * Unlike {@link com.example.orderentry.OrderEntryCallback} it is given the order and the
+ * ClOrdIDs the session's reports carry, as the session knows them when the event happens.
+ * Called on the thread the book matches on, or that completed the request, which for a
+ * book with its own matching thread is that thread; the order is only read during the call.
+ */
+public interface FixSessionCallback {
+    
+    /**
+     * Called when the order book accepts a new order, as it goes into the book and before
+     * any of its fills.
+     * 
+     * @param order The accepted order
+     * @param clientOrderId ClOrdID (11) of the new order
+     */
+    void onOrderAccepted(Order order, String clientOrderId);
+    
+    /**
+     * Called when a new order is rejected.
+     * 
+     * @param clientOrderId ClOrdID (11) of the new order
+     * @param reason The reason for rejection
+     */
+    void onOrderRejected(String clientOrderId, String reason);
+    
+    /**
+     * Called when an order is filled, partially or completely.
+     * 
+     * @param order The filled order, with the fill already applied
+     * @param clientOrderId The order's ClOrdID (11)
+     * @param trade The trade that filled it; only valid during the call
+     */
+    void onOrderFilled(Order order, String clientOrderId, Trade trade);
+    
+    /**
+     * Called when an order is canceled.
+     * 
+     * @param order The canceled order
+     * @param clientOrderId ClOrdID (11) of the cancel request, or the order's own if the
+     *                      session did not send the request
+     * @param origClientOrderId OrigClOrdID (41) of the cancel request, or null if the
+     *                          session did not send the request
+     */
+    void onOrderCanceled(Order order, String clientOrderId, String origClientOrderId);
+    
+    /**
+     * Called when an order cancel request is refused; the order is left as it was.
+     * 
+     * @param order The order, or null if the session has no such open order
+     * @param clientOrderId ClOrdID (11) of the request
+     * @param origClientOrderId OrigClOrdID (41) of the request
+     * @param reason The reason for rejection
+     */
+    void onCancelRejected(Order order, String clientOrderId, String origClientOrderId, String reason);
+    
+    /**
+     * Called when an order cancel/replace request is applied.
+     * 
+     * @param order The replaced order
+     * @param clientOrderId ClOrdID (11) of the request, the order's ClOrdID from now on
+     * @param origClientOrderId OrigClOrdID (41) of the request, the order's previous ClOrdID
+     */
+    void onOrderReplaced(Order order, String clientOrderId, String origClientOrderId);
+    
+    /**
+     * Called when an order cancel/replace request is refused; the order is left as it was.
+     * 
+     * @param order The order, or null if the session has no such open order
+     * @param clientOrderId ClOrdID (11) of the request
+     * @param origClientOrderId OrigClOrdID (41) of the request
+     * @param reason The reason for rejection
+     */
+    void onReplaceRejected(Order order, String clientOrderId, String origClientOrderId, String reason);
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.engine;
+
+import com.example.journal.FlushPolicy;
+import com.example.models.*;
+import com.example.orderbook.OrderBook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MatchingEngineTest {
+    
+    private MatchingEngine engine;
+    
+    @BeforeEach
+    public void setUp() {
+        engine = new MatchingEngine(4);
+        for (int i = 0; i < 16; i++) {
+            engine.addInstrument(Instrument.of("SYM" + i));
+        }
+        engine.start();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        engine.shutdown();
+    }
+    
+    @Test
+    public void testInstrumentsAreSpreadAcrossShards() {
+        int[] perShard = new int[engine.getShardCount()];
+        for (String symbol : engine.getSymbols()) {
+            perShard[engine.getShardId(symbol)]++;
+        }
+        for (int count : perShard) {
+            assertEquals(4, count);
+        }
+        assertEquals(-1, engine.getShardId("UNKNOWN"));
+        assertNull(engine.getOrderBook("UNKNOWN"));
+    }
+    
+    @Test
+    public void testDuplicateListingRejected() {
+        assertThrows(IllegalArgumentException.class, () -> engine.addInstrument(Instrument.of("SYM0")));
+    }
+    
+    @Test
+    public void testCommandsRouteToTheirOwnBook() {
+        Set<Integer> shardsUsed = new HashSet<>();
+        for (String symbol : engine.getSymbols()) {
+            OrderBook book = engine.getOrderBook(symbol);
+            assertTrue(book.addOrder(new Order(symbol, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("10.00"), new BigInteger("5"))));
+            assertTrue(book.addOrder(new Order(symbol, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("10.00"), new BigInteger("2"))));
+            // Orders for another symbol are rejected by the book they were sent to
+            assertFalse(book.addOrder(new Order("OTHER", OrderType.LIMIT, OrderSide.BUY, new BigDecimal("10.00"), new BigInteger("2"))));
+            shardsUsed.add(engine.getShardId(symbol));
+        }
+        
+        for (String symbol : engine.getSymbols()) {
+            OrderBook book = engine.getOrderBook(symbol);
+            assertEquals(new BigInteger("3"), book.getQuantityAtPriceLevel(new BigDecimal("10.00"), false));
+            assertEquals(1, book.getRecentTrades(10).size());
+        }
+        assertEquals(4, shardsUsed.size());
+    }
+    
+    @Test
+    public void testRecoveryListsInstrumentsOnTheirJournaledShards(@TempDir Path directory) throws Exception {
+        MatchingEngine first = new MatchingEngine(2);
+        first.enableJournal(directory, FlushPolicy.NONE);
+        first.addInstrument(Instrument.of("A"));
+        first.addInstrument(Instrument.of("B"));
+        first.recover();
+        first.start();
+        assertTrue(first.getOrderBook("B").addOrder(new Order("B", OrderType.LIMIT, OrderSide.SELL,
+                new BigDecimal("10.00"), new BigInteger("5"))));
+        int shardOfB = first.getShardId("B");
+        first.shutdown();
+        
+        // Listed in another order, B still goes back to the shard whose journal holds it
+        MatchingEngine second = new MatchingEngine(2);
+        second.enableJournal(directory, FlushPolicy.NONE);
+        second.addInstrument(Instrument.of("B"));
+        second.addInstrument(Instrument.of("A"));
+        assertEquals(shardOfB, second.getShardId("B"));
+        assertEquals(1, second.recover());
+        assertEquals(new BigInteger("5"), second.getOrderBook("B").getQuantityAtPriceLevel(new BigDecimal("10.00"), false));
+    }
+    
+    @Test
+    public void testRecoveryRefusesAChangedLayout(@TempDir Path directory) throws Exception {
+        MatchingEngine first = new MatchingEngine(2);
+        first.enableJournal(directory, FlushPolicy.NONE);
+        first.addInstrument(Instrument.of("A"));
+        first.addInstrument(Instrument.of("B"));
+        first.start();
+        first.shutdown();
+        
+        // With fewer shards B cannot return to shard 1
+        MatchingEngine fewerShards = new MatchingEngine(1);
+        fewerShards.enableJournal(directory, FlushPolicy.NONE);
+        fewerShards.addInstrument(Instrument.of("A"));
+        fewerShards.addInstrument(Instrument.of("B"));
+        assertThrows(IllegalStateException.class, fewerShards::recover);
+        
+        MatchingEngine delisted = new MatchingEngine(2);
+        delisted.enableJournal(directory, FlushPolicy.NONE);
+        delisted.addInstrument(Instrument.of("A"));
+        assertThrows(IllegalStateException.class, delisted::recover);
+    }
+}
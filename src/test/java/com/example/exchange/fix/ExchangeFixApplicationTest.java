@@ -0,0 +1,276 @@
+package com.example.exchange.fix;
+
+import com.example.models.Instrument;
+import com.example.orderbook.SimpleOrderBook;
+import com.example.orderentry.fix.FixOrderEntryAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import quickfix.DefaultSessionFactory;
+import quickfix.MemoryStoreFactory;
+import quickfix.Message;
+import quickfix.Responder;
+import quickfix.ScreenLogFactory;
+import quickfix.Session;
+import quickfix.SessionID;
+import quickfix.SessionFactory;
+import quickfix.SessionSettings;
+import quickfix.field.*;
+import quickfix.fix44.Logon;
+import quickfix.fix44.NewOrderSingle;
+import quickfix.fix44.OrderCancelReplaceRequest;
+import quickfix.fix44.OrderCancelRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExchangeFixApplicationTest {
+    
+    private final SessionID sessionId = new SessionID("FIX.4.4", "EXCHANGE", "CLIENT");
+    private final CapturingResponder responder = new CapturingResponder();
+    private SimpleOrderBook orderBook;
+    private ExchangeFixApplication application;
+    private Session session;
+    private int clientSeqNum;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        orderBook = new SimpleOrderBook(Instrument.of("AAPL"));
+        application = new ExchangeFixApplication(new FixOrderEntryAdapter(orderBook), 1);
+        SessionSettings settings = new SessionSettings();
+        settings.setString(sessionId, SessionFactory.SETTING_CONNECTION_TYPE, "acceptor");
+        settings.setString(sessionId, Session.SETTING_NON_STOP_SESSION, "Y");
+        settings.setString(sessionId, Session.SETTING_USE_DATA_DICTIONARY, "N");
+        session = new DefaultSessionFactory(application, new MemoryStoreFactory(),
+                new ScreenLogFactory(false, false, false)).create(sessionId, settings);
+        session.setResponder(responder);
+        session.next(fromClient(new Logon(new EncryptMethod(EncryptMethod.NONE_OTHER), new HeartBtInt(30))));
+        assertTrue(session.isLoggedOn());
+    }
+    
+    @AfterEach
+    public void tearDown() throws Exception {
+        responder.gate.countDown();
+        application.close();
+        session.close();
+    }
+    
+    @Test
+    public void testExecutionReportsAreBatchedOffTheMatchingThread() throws Exception {
+        responder.gate = new CountDownLatch(1);
+        session.next(newOrder("1", "150.00"));
+        // The outbound worker is now stuck writing the first report, as to a slow client
+        assertTrue(responder.blocked.await(5, TimeUnit.SECONDS));
+        session.next(newOrder("2", "149.00"));
+        session.next(newOrder("3", "148.00"));
+        
+        responder.gate.countDown();
+        List<String> writes = responder.awaitReports(3);
+        
+        // Accepting the orders did not wait for the socket, and the reports queued meanwhile
+        // went out together in one write, in sequence
+        assertEquals(2, writes.size());
+        assertEquals(1, count(writes.get(0), "\u000135=8\u0001"));
+        assertEquals(2, count(writes.get(1), "\u000135=8\u0001"));
+        assertTrue(writes.get(1).indexOf("\u000111=2\u0001") < writes.get(1).indexOf("\u000111=3\u0001"));
+        for (String thread : responder.reportThreads) {
+            assertTrue(thread.startsWith("fix-outbound-"), thread);
+        }
+    }
+    
+    @Test
+    public void testReportsGoToTheSessionThatEnteredTheOrder() throws Exception {
+        session.next(newOrder("1", "150.00"));
+        // Another session reuses the ClOrdID for an order of its own
+        application.onNewOrderSingle(order("1", "149.00"), new SessionID("FIX.4.4", "EXCHANGE", "OTHER"));
+        
+        session.next(fromClient(replace("1", "2", "150.00", "0")));
+        
+        // The order is still live, so the refused replace is a cancel reject, not a rejected order
+        String[] messages = String.join("", responder.awaitMessages("35=9", 1)).split("(?=8=FIX)");
+        assertEquals(2, messages.length);
+        String reject = messages[1];
+        assertTrue(reject.contains("\u000135=9\u0001"), reject);
+        assertTrue(reject.contains("\u0001434=2\u0001"), reject);
+        assertTrue(reject.contains("\u000111=2\u0001"), reject);
+        assertTrue(reject.contains("\u000141=1\u0001"), reject);
+        assertTrue(reject.contains("\u000139=0\u0001"), reject);
+    }
+    
+    @Test
+    public void testReplaceIsAcknowledgedUnderTheNewClOrdID() throws Exception {
+        session.next(newOrder("1", "150.00"));
+        session.next(fromClient(replace("1", "2", "150.50", "80")));
+        session.next(fromClient(replace("2", "3", "150.75", "80")));
+        
+        // Split apart, as reports queued together go out in one write
+        String[] reports = String.join("", responder.awaitReports(3)).split("(?=8=FIX)");
+        assertEquals(3, reports.length);
+        for (int i = 1; i < 3; i++) {
+            String report = reports[i];
+            assertTrue(report.contains("\u0001150=5\u0001"), report);
+            assertTrue(report.contains("\u000111=" + (i + 1) + "\u0001"), report);
+            assertTrue(report.contains("\u000141=" + i + "\u0001"), report);
+        }
+        assertEquals(new BigDecimal("150.75"), orderBook.getBestBidPrice());
+    }
+    
+    @Test
+    public void testFillsAreReportedToTheOrdersSession() throws Exception {
+        session.next(newOrder("1", "150.00"));
+        // Another session's sell trades against part of it
+        NewOrderSingle sell = order("9", "150.00");
+        sell.set(new Side(Side.SELL));
+        sell.setString(OrderQty.FIELD, "40");
+        application.onNewOrderSingle(sell, new SessionID("FIX.4.4", "EXCHANGE", "OTHER"));
+        
+        String[] reports = String.join("", responder.awaitReports(2)).split("(?=8=FIX)");
+        assertEquals(2, reports.length);
+        assertTrue(reports[0].contains("\u0001150=0\u0001"), reports[0]);
+        String fill = reports[1];
+        assertTrue(fill.contains("\u0001150=F\u0001"), fill);
+        assertTrue(fill.contains("\u000139=1\u0001"), fill);
+        assertTrue(fill.contains("\u000111=1\u0001"), fill);
+        assertTrue(fill.contains("\u000132=40\u0001"), fill);
+        // Prices at the instrument's scale, not as doubles
+        assertTrue(fill.contains("\u000131=150.00\u0001"), fill);
+        assertTrue(fill.contains("\u000144=150.00\u0001"), fill);
+        assertTrue(fill.contains("\u000114=40\u0001"), fill);
+        assertTrue(fill.contains("\u0001151=60\u0001"), fill);
+    }
+    
+    @Test
+    public void testCancelIsAcknowledgedToTheSession() throws Exception {
+        session.next(newOrder("1", "150.00"));
+        OrderCancelRequest cancel = new OrderCancelRequest(new OrigClOrdID("1"), new ClOrdID("2"),
+                new Side(Side.BUY), new TransactTime(LocalDateTime.now(ZoneOffset.UTC)));
+        cancel.set(new Symbol("AAPL"));
+        session.next(fromClient(cancel));
+        
+        String[] reports = String.join("", responder.awaitReports(2)).split("(?=8=FIX)");
+        assertEquals(2, reports.length);
+        String ack = reports[1];
+        assertTrue(ack.contains("\u0001150=4\u0001"), ack);
+        assertTrue(ack.contains("\u000139=4\u0001"), ack);
+        assertTrue(ack.contains("\u000111=2\u0001"), ack);
+        assertTrue(ack.contains("\u000141=1\u0001"), ack);
+        assertTrue(ack.contains("\u0001151=0\u0001"), ack);
+        assertNull(orderBook.getBestBidPrice());
+    }
+    
+    @Test
+    public void testCancelsOfAnotherSessionsOrdersAreRejected() throws Exception {
+        application.onNewOrderSingle(order("1", "150.00"), new SessionID("FIX.4.4", "EXCHANGE", "OTHER"));
+        assertEquals(new BigDecimal("150.00"), orderBook.getBestBidPrice());
+        
+        // The ClOrdID is only known on the other session
+        OrderCancelRequest cancel = new OrderCancelRequest(new OrigClOrdID("1"), new ClOrdID("2"),
+                new Side(Side.BUY), new TransactTime(LocalDateTime.now(ZoneOffset.UTC)));
+        cancel.set(new Symbol("AAPL"));
+        session.next(fromClient(cancel));
+        session.next(fromClient(replace("1", "3", "151.00", "100")));
+        
+        String rejects = String.join("", responder.awaitMessages("35=9", 2));
+        assertEquals(2, count(rejects, "\u000135=9\u0001"));
+        assertTrue(rejects.contains("\u000158=Unknown order\u0001"), rejects);
+        assertEquals(new BigDecimal("150.00"), orderBook.getBestBidPrice());
+    }
+    
+    private Message newOrder(String clOrdId, String price) {
+        return fromClient(order(clOrdId, price));
+    }
+    
+    private static NewOrderSingle order(String clOrdId, String price) {
+        NewOrderSingle order = new NewOrderSingle(new ClOrdID(clOrdId), new Side(Side.BUY),
+                new TransactTime(LocalDateTime.now(ZoneOffset.UTC)), new OrdType(OrdType.LIMIT));
+        order.set(new Symbol("AAPL"));
+        order.setString(Price.FIELD, price);
+        order.setString(OrderQty.FIELD, "100");
+        return order;
+    }
+    
+    private static OrderCancelReplaceRequest replace(String origClOrdId, String clOrdId, String price, String quantity) {
+        OrderCancelReplaceRequest replace = new OrderCancelReplaceRequest(new OrigClOrdID(origClOrdId),
+                new ClOrdID(clOrdId), new Side(Side.BUY), new TransactTime(LocalDateTime.now(ZoneOffset.UTC)),
+                new OrdType(OrdType.LIMIT));
+        replace.set(new Symbol("AAPL"));
+        replace.setString(Price.FIELD, price);
+        replace.setString(OrderQty.FIELD, quantity);
+        return replace;
+    }
+    
+    private Message fromClient(Message message) {
+        message.getHeader().setString(SenderCompID.FIELD, "CLIENT");
+        message.getHeader().setString(TargetCompID.FIELD, "EXCHANGE");
+        message.getHeader().setInt(MsgSeqNum.FIELD, ++clientSeqNum);
+        message.getHeader().setField(new SendingTime(LocalDateTime.now(ZoneOffset.UTC)));
+        return message;
+    }
+    
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Stands in for the socket. Writes of execution reports and cancel rejects wait on the
+     * gate, as they would on a client that reads slowly.
+     */
+    private static final class CapturingResponder implements Responder {
+        private final List<String> reports = new ArrayList<>();
+        private final List<String> reportThreads = new ArrayList<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        
+        @Override
+        public boolean send(String data) {
+            if (!data.contains("\u000135=8\u0001") && !data.contains("\u000135=9\u0001")) {
+                return true;
+            }
+            blocked.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                reports.add(data);
+                reportThreads.add(Thread.currentThread().getName());
+                notifyAll();
+            }
+            return true;
+        }
+        
+        List<String> awaitReports(int count) throws InterruptedException {
+            return awaitMessages("35=8", count);
+        }
+        
+        synchronized List<String> awaitMessages(String msgType, int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (count(String.join("", reports), "\u0001" + msgType + "\u0001") < count
+                    && System.currentTimeMillis() < deadline) {
+                wait(100);
+            }
+            return new ArrayList<>(reports);
+        }
+        
+        @Override
+        public void disconnect() {
+        }
+        
+        @Override
+        public String getRemoteAddress() {
+            return "test";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.example.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedJournalTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    public void testRecordsRollAcrossSegmentsAndReadBackInOrder() throws Exception {
+        try (MappedJournal journal = new MappedJournal(directory, "test", 4096, FlushPolicy.BATCH)) {
+            for (long i = 0; i < 1000; i++) {
+                ByteBuffer buffer = journal.claim(16);
+                buffer.putLong(i);
+                buffer.putLong(i * i);
+                journal.commit();
+                if (i % 10 == 9) {
+                    journal.endOfBatch();
+                }
+            }
+        }
+        
+        // 1000 records of 20 bytes cannot fit in one 4 KiB segment
+        assertTrue(MappedJournal.segments(directory, "test").size() > 1);
+        
+        List<Long> values = new ArrayList<>();
+        long count = new JournalReader(directory, "test").readAll(record -> {
+            assertEquals(16, record.remaining());
+            long value = record.getLong();
+            assertEquals(value * value, record.getLong());
+            values.add(value);
+        });
+        
+        assertEquals(1000, count);
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i, values.get(i));
+        }
+    }
+    
+    @Test
+    public void testReopenStartsNewSegment() throws Exception {
+        for (int run = 0; run < 2; run++) {
+            try (MappedJournal journal = new MappedJournal(directory, "test", 4096, FlushPolicy.MESSAGE)) {
+                journal.claim(8).putLong(run);
+                journal.commit();
+            }
+        }
+        
+        List<Long> values = new ArrayList<>();
+        new JournalReader(directory, "test").readAll(record -> values.add(record.getLong()));
+        assertEquals(List.of(0L, 1L), values);
+        assertEquals(2, MappedJournal.segments(directory, "test").size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.example.marketdata;
+
+import com.example.models.*;
+import com.example.orderbook.SimpleOrderBook;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MarketByOrderPublisherTest {
+    
+    /**
+     * Rebuilds resting orders from the feed: order ID to {side, price, open quantity}.
+     */
+    private static final class BookBuilder implements MarketByOrderListener {
+        final Map<Long, long[]> orders = new HashMap<>();
+        final List<Byte> types = new ArrayList<>();
+        long lastSequence;
+        String error;
+        
+        @Override
+        public void onMessage(ByteBuffer buffer) {
+            long sequence = MarketByOrderCodec.getSequence(buffer, 0);
+            if (sequence != lastSequence + 1 && error == null) {
+                error = "Gap after " + lastSequence + ": " + sequence;
+            }
+            lastSequence = sequence;
+            byte type = MarketByOrderCodec.getType(buffer, 0);
+            types.add(type);
+            long orderId = MarketByOrderCodec.getOrderId(buffer, 0);
+            long price = MarketByOrderCodec.getRawPrice(buffer, 0);
+            long quantity = MarketByOrderCodec.getQuantity(buffer, 0);
+            switch (type) {
+                case MarketByOrderCodec.ADD:
+                case MarketByOrderCodec.MODIFY:
+                    orders.put(orderId, new long[] {
+                            MarketByOrderCodec.getSide(buffer, 0).ordinal(), price, quantity});
+                    break;
+                case MarketByOrderCodec.CANCEL:
+                    orders.remove(orderId);
+                    break;
+                case MarketByOrderCodec.EXECUTE:
+                    execute(orderId, quantity);
+                    execute(MarketByOrderCodec.getOtherOrderId(buffer, 0), quantity);
+                    break;
+                default:
+                    error = "Unknown type " + type;
+            }
+        }
+        
+        private void execute(long orderId, long quantity) {
+            long[] order = orders.get(orderId);
+            order[2] -= quantity;
+            if (order[2] == 0) {
+                orders.remove(orderId);
+            }
+        }
+    }
+    
+    @Test
+    public void testMessagesRebuildTheBook() {
+        Instrument instrument = Instrument.of("BTC/USD");
+        SimpleOrderBook orderBook = new SimpleOrderBook(instrument);
+        MarketByOrderPublisher publisher = new MarketByOrderPublisher(1024);
+        assertEquals(0, publisher.addOrderBook(orderBook));
+        assertEquals(0, publisher.getBookId("BTC/USD"));
+        assertEquals(-1, publisher.getBookId("ETH/USD"));
+        BookBuilder builder = new BookBuilder();
+        publisher.addListener(builder);
+        publisher.start();
+        
+        Random random = new Random(11);
+        List<Order> live = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int action = random.nextInt(10);
+            if (action < 6 || live.isEmpty()) {
+                OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+                Order order = new Order(instrument, OrderType.LIMIT, side, 9980 + random.nextInt(40),
+                        1 + random.nextInt(10), TimeInForce.GTC, null);
+                orderBook.addOrder(order);
+                live.add(order);
+            } else if (action < 8) {
+                Order order = live.remove(random.nextInt(live.size()));
+                if (order.getLevel() != null) {
+                    orderBook.cancelOrder(order.getRawId());
+                }
+            } else {
+                Order order = live.get(random.nextInt(live.size()));
+                long newPrice = random.nextBoolean() ? Order.NO_PRICE : 9980 + random.nextInt(40);
+                orderBook.modifyOrder(order.getRawId(), newPrice, order.getRawQuantity() + random.nextInt(3) - 1);
+            }
+        }
+        publisher.shutdown();
+        
+        assertNull(builder.error);
+        assertTrue(builder.types.contains(MarketByOrderCodec.EXECUTE));
+        assertTrue(builder.types.contains(MarketByOrderCodec.MODIFY));
+        
+        Map<Long, long[]> expected = new HashMap<>();
+        for (Order order : orderBook.getAllOrders()) {
+            if (order.getLevel() != null) {
+                expected.put(order.getRawId(), new long[] {
+                        order.getSide().ordinal(), order.getRawPrice(), order.getRawRemainingQuantity()});
+            }
+        }
+        assertEquals(expected.keySet(), builder.orders.keySet());
+        for (Map.Entry<Long, long[]> entry : expected.entrySet()) {
+            assertArrayEquals(entry.getValue(), builder.orders.get(entry.getKey()), "Order " + entry.getKey());
+        }
+    }
+    
+    @Test
+    public void testFixedLayout() {
+        ByteBuffer buffer = ByteBuffer.allocate(MarketByOrderCodec.MESSAGE_LENGTH * 2);
+        MarketByOrderCodec.encode(buffer, MarketByOrderCodec.MESSAGE_LENGTH, MarketByOrderCodec.MODIFY, 3, 42L,
+                123456789L, 7L, 0L, OrderSide.SELL, 1000050L, 2, 15L, 0L, MarketByOrderCodec.FLAG_PRIORITY_KEPT);
+        
+        int offset = MarketByOrderCodec.MESSAGE_LENGTH;
+        assertEquals(42L, buffer.getLong(offset));
+        assertEquals(MarketByOrderCodec.MODIFY, buffer.get(offset + 60));
+        assertEquals(3, MarketByOrderCodec.getBookId(buffer, offset));
+        assertEquals(123456789L, MarketByOrderCodec.getTimestamp(buffer, offset));
+        assertEquals(7L, MarketByOrderCodec.getOrderId(buffer, offset));
+        assertEquals(OrderSide.SELL, MarketByOrderCodec.getSide(buffer, offset));
+        assertEquals(1000050L, MarketByOrderCodec.getRawPrice(buffer, offset));
+        assertEquals(2, MarketByOrderCodec.getPriceScale(buffer, offset));
+        assertEquals(15L, MarketByOrderCodec.getQuantity(buffer, offset));
+        assertEquals(MarketByOrderCodec.FLAG_PRIORITY_KEPT, MarketByOrderCodec.getFlags(buffer, offset));
+        // The first slot is untouched
+        assertEquals(0L, MarketByOrderCodec.getSequence(buffer, 0));
+    }
+}
\ No newline at end of file
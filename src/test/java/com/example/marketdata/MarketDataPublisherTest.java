@@ -0,0 +1,177 @@
+package com.example.marketdata;
+
+import com.example.models.*;
+import com.example.orderbook.MarketDepth;
+import com.example.orderbook.SimpleOrderBook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MarketDataPublisherTest {
+    private static final String SYMBOL = "BTC/USD";
+    
+    private SimpleOrderBook orderBook;
+    private Instrument instrument;
+    private MarketDataPublisher publisher;
+    private List<PriceLevelUpdate> updates;
+    private List<MarketDepth> snapshots;
+    private List<Long> snapshotSequences;
+    
+    @BeforeEach
+    public void setUp() {
+        instrument = Instrument.of(SYMBOL);
+        orderBook = new SimpleOrderBook(instrument);
+        publisher = new MarketDataPublisher(1024, 0, 5);
+        updates = new CopyOnWriteArrayList<>();
+        snapshots = new CopyOnWriteArrayList<>();
+        snapshotSequences = new CopyOnWriteArrayList<>();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        publisher.shutdown();
+    }
+    
+    private MarketDataListener recordingListener() {
+        return new MarketDataListener() {
+            @Override
+            public void onLevelUpdate(PriceLevelUpdate update) {
+                updates.add(update);
+            }
+            
+            @Override
+            public void onSnapshot(String symbol, long sequence, MarketDepth depth) {
+                snapshotSequences.add(sequence);
+                snapshots.add(depth);
+            }
+        };
+    }
+    
+    private Order limit(OrderSide side, long rawPrice, long quantity) {
+        return new Order(instrument, OrderType.LIMIT, side, rawPrice, quantity, TimeInForce.GTC, null);
+    }
+    
+    private static void awaitSequence(MarketDataPublisher publisher, long sequence) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (publisher.getSequence(SYMBOL) < sequence) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for sequence " + sequence);
+            Thread.sleep(1);
+        }
+    }
+    
+    @Test
+    public void testIncrementalUpdates() throws InterruptedException {
+        publisher.addOrderBook(orderBook);
+        publisher.addListener(recordingListener());
+        publisher.start();
+        
+        Order bid = limit(OrderSide.BUY, 10000, 5);
+        orderBook.addOrder(bid);                                // 1: NEW bid 100.00 x5
+        orderBook.addOrder(limit(OrderSide.BUY, 10000, 3));     // 2: CHANGE bid 100.00 x8
+        orderBook.addOrder(limit(OrderSide.SELL, 10100, 4));    // 3: NEW ask 101.00 x4
+        orderBook.cancelOrder(bid.getRawId());                  // 4: CHANGE bid 100.00 x3
+        orderBook.addOrder(limit(OrderSide.SELL, 10000, 3));    // 5: NEW ask 100.00, then trade: 6, 7: DELETE both
+        awaitSequence(publisher, 7);
+        
+        List<String> actual = new ArrayList<>();
+        for (PriceLevelUpdate update : updates) {
+            actual.add(update.getSequence() + " " + update.getAction() + " " + update.getSide() + " "
+                    + update.getPrice() + " " + update.getRawQuantity() + " " + update.getOrderCount());
+        }
+        assertEquals(List.of(
+                "1 NEW BUY 100.00 5 1",
+                "2 CHANGE BUY 100.00 8 2",
+                "3 NEW SELL 101.00 4 1",
+                "4 CHANGE BUY 100.00 3 1",
+                "5 NEW SELL 100.00 3 1",
+                "6 DELETE BUY 100.00 0 0",
+                "7 DELETE SELL 100.00 0 0"), actual);
+        
+        MarketDepth depth = publisher.getMarketDepth(SYMBOL);
+        assertTrue(depth.getBids().isEmpty());
+        assertEquals(1, depth.getAsks().size());
+        assertEquals(4L, depth.getBestAsk().getRawQuantity());
+    }
+    
+    @Test
+    public void testSnapshotPlusUpdatesRebuildTheBook() throws InterruptedException {
+        // Resting orders before the publisher starts are part of the initial state
+        orderBook.addOrder(limit(OrderSide.BUY, 9990, 10));
+        publisher.addOrderBook(orderBook);
+        publisher.start();
+        
+        Random random = new Random(7);
+        List<Order> live = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (i == 1000) {
+                // A late joiner starts from a snapshot
+                publisher.addListener(recordingListener());
+            }
+            int action = random.nextInt(10);
+            if (action < 6 || live.isEmpty()) {
+                OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+                Order order = limit(side, 9980 + random.nextInt(40), 1 + random.nextInt(10));
+                orderBook.addOrder(order);
+                live.add(order);
+            } else if (action < 8) {
+                orderBook.cancelOrder(live.remove(random.nextInt(live.size())).getRawId());
+            } else {
+                Order order = live.get(random.nextInt(live.size()));
+                orderBook.modifyOrder(order.getRawId(), Order.NO_PRICE, order.getRawQuantity() + 1);
+            }
+        }
+        publisher.shutdown();
+        long finalSequence = publisher.getSequence(SYMBOL);
+        
+        assertEquals(1, snapshots.size());
+        Map<Long, Long> bids = new TreeMap<>(Collections.reverseOrder());
+        Map<Long, Long> asks = new TreeMap<>();
+        for (MarketDepth.PriceLevel level : snapshots.get(0).getBids()) {
+            bids.put(level.getRawPrice(), level.getRawQuantity());
+        }
+        for (MarketDepth.PriceLevel level : snapshots.get(0).getAsks()) {
+            asks.put(level.getRawPrice(), level.getRawQuantity());
+        }
+        long expectedSequence = snapshotSequences.get(0) + 1;
+        for (PriceLevelUpdate update : updates) {
+            if (update.getSequence() <= snapshotSequences.get(0)) {
+                continue;
+            }
+            assertEquals(expectedSequence++, update.getSequence());
+            Map<Long, Long> side = update.getSide() == OrderSide.BUY ? bids : asks;
+            if (update.getAction() == PriceLevelUpdate.Action.DELETE) {
+                side.remove(update.getRawPrice());
+            } else {
+                side.put(update.getRawPrice(), update.getRawQuantity());
+            }
+        }
+        assertEquals(finalSequence + 1, expectedSequence);
+        
+        MarketDepth expected = orderBook.getMarketDepth(Integer.MAX_VALUE);
+        Map<Long, Long> expectedBids = new TreeMap<>(Collections.reverseOrder());
+        Map<Long, Long> expectedAsks = new TreeMap<>();
+        for (MarketDepth.PriceLevel level : expected.getBids()) {
+            expectedBids.put(level.getRawPrice(), level.getRawQuantity());
+        }
+        for (MarketDepth.PriceLevel level : expected.getAsks()) {
+            expectedAsks.put(level.getRawPrice(), level.getRawQuantity());
+        }
+        assertEquals(expectedBids, bids);
+        assertEquals(expectedAsks, asks);
+        
+        // The polled depth is trimmed to the configured number of levels
+        MarketDepth polled = publisher.getMarketDepth(SYMBOL);
+        assertTrue(polled.getBids().size() <= 5);
+        assertEquals(expected.getBestAsk().getRawPrice(), polled.getBestAsk().getRawPrice());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.example.marketdata;
+
+import com.example.models.*;
+import com.example.orderbook.SimpleOrderBook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopOfBookServiceTest {
+    private final TopOfBookService service = new TopOfBookService();
+    
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+    
+    private static Order limit(Instrument instrument, OrderSide side, long rawPrice, long quantity) {
+        return new Order(instrument, OrderType.LIMIT, side, rawPrice, quantity, TimeInForce.GTC, null);
+    }
+    
+    private static TopOfBook awaitVersion(List<TopOfBook> received, String symbol, long version)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            for (TopOfBook topOfBook : received) {
+                if (topOfBook.getSymbol().equals(symbol) && topOfBook.getVersion() == version) {
+                    return topOfBook;
+                }
+            }
+            Thread.sleep(1);
+        }
+        throw new AssertionError("Timed out waiting for version " + version + " of " + symbol);
+    }
+    
+    @Test
+    public void testTracksBestBidAndAsk() {
+        Instrument instrument = Instrument.of("BTC/USD");
+        SimpleOrderBook orderBook = new SimpleOrderBook(instrument);
+        orderBook.addOrder(limit(instrument, OrderSide.BUY, 10000L, 5));
+        service.addOrderBook(orderBook);
+        
+        TopOfBook topOfBook = service.getTopOfBook("BTC/USD");
+        assertEquals(10000L, topOfBook.getRawBidPrice());
+        assertEquals(5L, topOfBook.getBidQuantity());
+        assertNull(topOfBook.getAskPrice());
+        
+        orderBook.addOrder(limit(instrument, OrderSide.SELL, 10100L, 7));
+        orderBook.addOrder(limit(instrument, OrderSide.BUY, 10000L, 1));
+        topOfBook = service.getTopOfBook("BTC/USD");
+        assertEquals(6L, topOfBook.getBidQuantity());
+        assertEquals(new java.math.BigDecimal("101.00"), topOfBook.getAskPrice());
+        assertEquals(7L, topOfBook.getAskQuantity());
+        assertNull(service.getTopOfBook("ETH/USD"));
+    }
+    
+    @Test
+    public void testSlowSubscriberOnlySeesLatestState() throws InterruptedException {
+        Instrument btc = Instrument.of("BTC/USD");
+        Instrument eth = Instrument.of("ETH/USD");
+        SimpleOrderBook btcBook = new SimpleOrderBook(btc);
+        SimpleOrderBook ethBook = new SimpleOrderBook(eth);
+        service.addOrderBook(btcBook);
+        service.addOrderBook(ethBook);
+        
+        CountDownLatch firstDelivery = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<TopOfBook> slow = new CopyOnWriteArrayList<>();
+        service.subscribe(topOfBook -> {
+            slow.add(topOfBook);
+            firstDelivery.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<TopOfBook> fast = new CopyOnWriteArrayList<>();
+        service.subscribe(fast::add);
+        assertTrue(firstDelivery.await(5, TimeUnit.SECONDS));
+        
+        // The matching thread keeps going while the slow subscriber is stuck
+        for (int i = 1; i <= 1000; i++) {
+            btcBook.addOrder(limit(btc, OrderSide.BUY, 10000L + i, 1));
+        }
+        ethBook.addOrder(limit(eth, OrderSide.SELL, 300000L, 4));
+        
+        TopOfBook latest = awaitVersion(fast, "BTC/USD", 1000);
+        assertEquals(11000L, latest.getRawBidPrice());
+        
+        release.countDown();
+        TopOfBook slowLatest = awaitVersion(slow, "BTC/USD", 1000);
+        assertEquals(11000L, slowLatest.getRawBidPrice());
+        assertEquals(300000L, awaitVersion(slow, "ETH/USD", 1).getRawAskPrice());
+        // The backlog collapsed: the initial state, then at most one update per book
+        assertTrue(slow.size() <= 5, "Slow subscriber received " + slow.size() + " updates");
+        long previous = -1;
+        for (TopOfBook topOfBook : slow) {
+            if (topOfBook.getSymbol().equals("BTC/USD")) {
+                assertTrue(topOfBook.getVersion() > previous);
+                previous = topOfBook.getVersion();
+            }
+        }
+    }
+}
\ No newline at end of file
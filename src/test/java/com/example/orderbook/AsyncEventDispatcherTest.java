@@ -0,0 +1,150 @@
+package com.example.orderbook;
+
+import com.example.models.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncEventDispatcherTest {
+    
+    /**
+     * Records events as strings; can be held up until released.
+     */
+    private static final class RecordingListener implements OrderBookEventListener {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch release;
+        
+        RecordingListener(CountDownLatch release) {
+            this.release = release;
+        }
+        
+        private void record(String event) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        }
+        
+        @Override
+        public void onOrderAdded(Order order) {
+            record("added " + order.getRawId() + " " + order.getRawQuantity() + "@" + order.getPrice());
+        }
+        
+        @Override
+        public void onOrderCanceled(UUID orderId, Order order) {
+            record("canceled " + order.getRawId() + " " + order.getStatus());
+        }
+        
+        @Override
+        public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {
+            record("modified " + order.getRawId() + " " + oldQuantity + "@" + oldPrice
+                    + " -> " + order.getRawQuantity() + "@" + order.getPrice());
+        }
+        
+        @Override
+        public void onTradeExecuted(Trade trade) {
+            record("trade " + trade.getRawBuyOrderId() + "/" + trade.getRawSellOrderId() + " "
+                    + trade.getRawQuantity() + "@" + trade.getPrice());
+        }
+        
+        @Override
+        public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {
+            record("bid " + oldBestBid + " -> " + newBestBid);
+        }
+        
+        @Override
+        public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {
+            record("ask " + oldBestAsk + " -> " + newBestAsk);
+        }
+    }
+    
+    @Test
+    public void testSlowListenerDoesNotHoldUpMatching() throws InterruptedException {
+        Instrument instrument = Instrument.of("BTC/USD");
+        SimpleOrderBook orderBook = new SimpleOrderBook(instrument, new TradePool(16));
+        OrderPool orderPool = new OrderPool(16);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener slow = new RecordingListener(release);
+        RecordingListener fast = new RecordingListener(new CountDownLatch(0));
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(1024, BackpressurePolicy.BLOCK);
+        dispatcher.addListener(slow);
+        dispatcher.addListener(fast);
+        dispatcher.start();
+        orderBook.registerListener(dispatcher);
+        
+        // Pooled orders and trades are recycled before the listeners run, so they must see copies
+        Order sell = orderPool.acquire(instrument, OrderType.LIMIT, OrderSide.SELL, 10000L, 5, TimeInForce.GTC, null);
+        long sellId = sell.getRawId();
+        assertTrue(orderBook.addOrder(sell));
+        Order buy = orderPool.acquire(instrument, OrderType.LIMIT, OrderSide.BUY, 10000L, 5, TimeInForce.GTC, null);
+        long buyId = buy.getRawId();
+        assertTrue(orderBook.addOrder(buy));
+        Order resting = orderPool.acquire(instrument, OrderType.LIMIT, OrderSide.BUY, 9900L, 3, TimeInForce.GTC, null);
+        long restingId = resting.getRawId();
+        assertTrue(orderBook.addOrder(resting));
+        assertTrue(orderBook.modifyOrder(restingId, Order.NO_PRICE, 2));
+        assertTrue(orderBook.cancelOrder(restingId));
+        
+        List<String> expected = List.of(
+                "added " + sellId + " 5@100.00",
+                "ask null -> 100.00",
+                "added " + buyId + " 5@100.00",
+                "trade " + buyId + "/" + sellId + " 5@100.00",
+                "ask 100.00 -> null",
+                "added " + restingId + " 3@99.00",
+                "bid null -> 99.00",
+                "modified " + restingId + " 3@99.00 -> 2@99.00",
+                "canceled " + restingId + " CANCELED",
+                "bid 99.00 -> null");
+        
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getListenerSequence(fast) < dispatcher.getPublishedSequence() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, fast.events);
+        // Matching finished while the slow listener had not handled a single event
+        assertTrue(slow.events.isEmpty());
+        assertEquals(dispatcher.getPublishedSequence(), dispatcher.getListenerSequence(fast));
+        assertTrue(dispatcher.getListenerSequence(slow) < dispatcher.getPublishedSequence());
+        
+        release.countDown();
+        dispatcher.shutdown();
+        assertEquals(expected, slow.events);
+        assertEquals(dispatcher.getPublishedSequence(), dispatcher.getListenerSequence(slow));
+        assertEquals(0, dispatcher.getDroppedCount());
+    }
+    
+    @Test
+    public void testDropPolicyNeverWaits() throws InterruptedException {
+        Instrument instrument = Instrument.of("BTC/USD");
+        SimpleOrderBook orderBook = new SimpleOrderBook(instrument);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener stuck = new RecordingListener(release);
+        AsyncEventDispatcher dispatcher = new AsyncEventDispatcher(8, BackpressurePolicy.DROP);
+        dispatcher.addListener(stuck);
+        dispatcher.start();
+        orderBook.registerListener(dispatcher);
+        
+        for (int i = 0; i < 20; i++) {
+            orderBook.addOrder(new Order(instrument, OrderType.LIMIT, OrderSide.BUY, 10000L - i, 1,
+                    TimeInForce.GTC, null));
+        }
+        
+        // The stuck listener holds the first slot, so the ring filled up and the rest was discarded
+        assertEquals(7, dispatcher.getPublishedSequence());
+        assertTrue(dispatcher.getDroppedCount() > 0);
+        release.countDown();
+        dispatcher.shutdown();
+        assertEquals(7, dispatcher.getListenerSequence(stuck));
+        assertEquals(20, orderBook.getAllOrders().size());
+    }
+}
\ No newline at end of file
@@ -26,7 +26,7 @@ import java.util.concurrent.TimeUnit;
 @Warmup(iterations = 3, time = 5)
 @Measurement(iterations = 5, time = 5)
 public class DisruptorOrderBookBenchmark {
-
+    
     private SimpleOrderBook orderBook;
     private Random random;
     private static final String SYMBOL = "BTC/USD";
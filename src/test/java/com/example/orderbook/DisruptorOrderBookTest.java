@@ -0,0 +1,336 @@
+package com.example.orderbook;
+
+import com.example.journal.FlushPolicy;
+import com.example.journal.JournalReader;
+import com.example.journal.MappedJournal;
+import com.example.models.*;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DisruptorOrderBookTest {
+    
+    private static final String SYMBOL = "BTC/USD";
+    private static final int COMMANDS = 5000;
+    
+    private DisruptorOrderBook orderBook;
+    private final List<Long> sequences = new ArrayList<>();
+    private final CountDownLatch allDone = new CountDownLatch(COMMANDS);
+    
+    @BeforeEach
+    public void setUp() {
+        orderBook = new DisruptorOrderBook(Instrument.of(SYMBOL), (sequence, type, orderId, result) -> {
+            sequences.add(sequence);
+            allDone.countDown();
+        });
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        orderBook.shutdown();
+    }
+    
+    @Test
+    public void testSynchronousWrappersReportResults() {
+        Order order = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("100.00"), new BigInteger("5"));
+        assertTrue(orderBook.addOrder(order));
+        assertTrue(orderBook.modifyOrder(order.getId(), new BigDecimal("101.00"), null));
+        assertTrue(orderBook.cancelOrder(order.getId()));
+        
+        // Failures are reported as such rather than as "processed"
+        assertFalse(orderBook.cancelOrder(order.getId()));
+        assertFalse(orderBook.addOrder(new Order("ETH/USD", OrderType.LIMIT, OrderSide.BUY,
+                new BigDecimal("100.00"), new BigInteger("5"))));
+    }
+    
+    @Test
+    public void testPipelinedSubmissionsCompleteInSequenceOrder() throws Exception {
+        Instrument instrument = orderBook.getInstrument();
+        List<Long> submitted = new ArrayList<>();
+        for (int i = 0; i < COMMANDS; i++) {
+            Order order = new Order(instrument, OrderType.LIMIT, OrderSide.BUY, 10000L + i % 100, 1, TimeInForce.GTC, null);
+            submitted.add(orderBook.submitAddOrder(order));
+        }
+        
+        assertTrue(allDone.await(5, TimeUnit.SECONDS));
+        assertEquals(submitted, sequences);
+        assertEquals(COMMANDS, orderBook.getAllOrders().size());
+    }
+    
+    @Test
+    public void testAsyncFutureCompletesWithResult() throws Exception {
+        Order order = new Order(orderBook.getInstrument(), OrderType.LIMIT, OrderSide.SELL, 10100L, 3, TimeInForce.GTC, null);
+        CompletableFuture<Boolean> added = orderBook.addOrderAsync(order);
+        CompletableFuture<Boolean> canceled = orderBook.cancelOrderAsync(order.getRawId());
+        CompletableFuture<Boolean> canceledAgain = orderBook.cancelOrderAsync(order.getRawId());
+        
+        assertTrue(added.get(1, TimeUnit.SECONDS));
+        assertTrue(canceled.get(1, TimeUnit.SECONDS));
+        assertFalse(canceledAgain.get(1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testFailingCommandDoesNotHaltTheShard() throws Exception {
+        DisruptorOrderBook book = new DisruptorOrderBook(Instrument.of(SYMBOL), (sequence, type, orderId, result) -> {
+            if (type == CommandType.CANCEL_ORDER) {
+                throw new IllegalStateException("Listener failure");
+            }
+        });
+        try {
+            Order order = new Order(book.getInstrument(), OrderType.LIMIT, OrderSide.SELL, 10100L, 3, TimeInForce.GTC, null);
+            assertTrue(book.addOrderAsync(order).get(1, TimeUnit.SECONDS));
+            
+            CompletableFuture<Boolean> canceled = book.cancelOrderAsync(order.getRawId());
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> canceled.get(1, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof IllegalStateException);
+            
+            // The matching thread carries on with the next command
+            Order next = new Order(book.getInstrument(), OrderType.LIMIT, OrderSide.SELL, 10200L, 3, TimeInForce.GTC, null);
+            assertTrue(book.addOrderAsync(next).get(1, TimeUnit.SECONDS));
+        } finally {
+            book.shutdown();
+        }
+    }
+    
+    @Test
+    public void testAsyncCommandsFailInsteadOfWaitingForAFullRing() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MatchingShard shard = new MatchingShard(0, 4, new BlockingWaitStrategy());
+        DisruptorOrderBook book = new DisruptorOrderBook(new SimpleOrderBook(Instrument.of(SYMBOL)), shard,
+                (sequence, type, orderId, result) -> {
+                    stalled.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        shard.start();
+        try {
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            futures.add(book.addOrderAsync(new Order(book.getInstrument(), OrderType.LIMIT, OrderSide.BUY,
+                    10000L, 1, TimeInForce.GTC, null)));
+            assertTrue(stalled.await(1, TimeUnit.SECONDS));
+            for (int i = 1; i <= 8; i++) {
+                futures.add(book.addOrderAsync(new Order(book.getInstrument(), OrderType.LIMIT, OrderSide.BUY,
+                        10000L - i, 1, TimeInForce.GTC, null)));
+            }
+            
+            // The matching thread is stuck, so the ring filled up and the rest failed at once
+            CompletableFuture<Boolean> rejected = futures.get(futures.size() - 1);
+            assertTrue(rejected.isCompletedExceptionally());
+            ExecutionException failure = assertThrows(ExecutionException.class, rejected::get);
+            assertTrue(failure.getCause() instanceof BackpressureException);
+            
+            release.countDown();
+            int queued = 0;
+            for (CompletableFuture<Boolean> future : futures) {
+                if (!future.isCompletedExceptionally()) {
+                    assertTrue(future.get(1, TimeUnit.SECONDS));
+                    queued++;
+                }
+            }
+            assertEquals(queued, book.getAllOrders().size());
+            assertTrue(queued < futures.size());
+        } finally {
+            release.countDown();
+            shard.shutdown();
+        }
+    }
+    
+    @Test
+    public void testCommandsAreJournaledBeforeMatching(@TempDir Path directory) throws Exception {
+        MappedJournal journal = new MappedJournal(directory, "book", 1 << 20, FlushPolicy.BATCH);
+        DisruptorOrderBook journaledBook = new DisruptorOrderBook(Instrument.of(SYMBOL), null, journal);
+        Order order = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("100.00"), new BigInteger("5"),
+                TimeInForce.GTC, "client-1");
+        assertTrue(journaledBook.addOrder(order));
+        assertTrue(journaledBook.modifyOrder(order.getRawId(), 10001L, 7));
+        assertTrue(journaledBook.cancelOrder(order.getRawId()));
+        journaledBook.shutdown();
+        
+        List<CommandType> types = new ArrayList<>();
+        List<Long> sequences = new ArrayList<>();
+        new JournalReader(directory, "book").readAll(record -> {
+            CommandType type = CommandType.values()[record.get()];
+            types.add(type);
+            sequences.add(record.getLong());
+            assertTrue(record.getLong() > 0); // Timestamp
+            assertEquals(order.getRawId(), record.getLong());
+            assertEquals(SYMBOL, CommandCodec.getString(record));
+            if (type == CommandType.ADD_ORDER) {
+                assertEquals(OrderSide.BUY.ordinal(), record.get());
+                record.position(record.position() + 3);
+                assertEquals(10000L, record.getLong());
+                assertEquals(5L, record.getLong());
+                assertEquals(order.getCreatedNanos(), record.getLong());
+                assertEquals(SYMBOL, CommandCodec.getString(record));
+                assertEquals("client-1", CommandCodec.getString(record));
+            }
+        });
+        
+        assertEquals(List.of(CommandType.ADD_ORDER, CommandType.MODIFY_ORDER, CommandType.CANCEL_ORDER), types);
+        assertEquals(List.of(0L, 1L, 2L), sequences);
+    }
+    
+    @Test
+    public void testMassCancelIsOneJournaledCommand(@TempDir Path directory) throws Exception {
+        DisruptorOrderBook journaledBook = new DisruptorOrderBook(Instrument.of(SYMBOL), null,
+                new MappedJournal(directory, "book", 1 << 20, FlushPolicy.NONE));
+        long[] orderIds = new long[4];
+        for (int i = 0; i < 3; i++) {
+            Order order = new Order(journaledBook.getInstrument(), OrderType.LIMIT, OrderSide.BUY, 10000L + i, 1,
+                    TimeInForce.GTC, null);
+            assertTrue(journaledBook.addOrder(order));
+            orderIds[i] = order.getRawId();
+        }
+        long first = orderIds[0];
+        assertTrue(journaledBook.cancelOrder(first));
+        orderIds[3] = 999_999_999L;
+        
+        // Orders that are gone or unknown are zeroed, the rest canceled
+        assertEquals(2, journaledBook.cancelOrders(orderIds, 4));
+        assertArrayEquals(new long[] {0, first + 1, first + 2, 0}, orderIds);
+        assertTrue(journaledBook.getAllOrders().isEmpty());
+        journaledBook.shutdown();
+        
+        List<CommandType> types = new ArrayList<>();
+        new JournalReader(directory, "book").readAll(record -> types.add(CommandType.values()[record.get()]));
+        assertEquals(List.of(CommandType.ADD_ORDER, CommandType.ADD_ORDER, CommandType.ADD_ORDER,
+                CommandType.CANCEL_ORDER, CommandType.MASS_CANCEL), types);
+        
+        DisruptorOrderBook recovered = new DisruptorOrderBook(Instrument.of(SYMBOL), null,
+                new MappedJournal(directory, "book", 1 << 20, FlushPolicy.NONE));
+        assertTrue(recovered.getAllOrders().isEmpty());
+        recovered.shutdown();
+    }
+    
+    @Test
+    public void testRecoveryFromJournalReproducesTrades(@TempDir Path directory) throws Exception {
+        DisruptorOrderBook original = new DisruptorOrderBook(Instrument.of(SYMBOL), null,
+                new MappedJournal(directory, "book", 1 << 20, FlushPolicy.NONE));
+        runTradingSession(original, 0);
+        String expectedOrders = describeOrders(original);
+        String expectedTrades = describeTrades(original);
+        original.shutdown();
+        
+        DisruptorOrderBook recovered = new DisruptorOrderBook(Instrument.of(SYMBOL), null,
+                new MappedJournal(directory, "book", 1 << 20, FlushPolicy.NONE));
+        assertEquals(expectedOrders, describeOrders(recovered));
+        assertEquals(expectedTrades, describeTrades(recovered));
+        
+        // New orders never reuse a recovered ID
+        Order next = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("1.00"), BigInteger.ONE);
+        for (Order order : recovered.getAllOrders()) {
+            assertTrue(next.getRawId() > order.getRawId());
+        }
+        recovered.shutdown();
+    }
+    
+    @Test
+    public void testRecoveryFromSnapshotReplaysOnlyJournalTail(@TempDir Path directory) throws Exception {
+        MatchingShard shard = new MatchingShard(0);
+        DisruptorOrderBook original = new DisruptorOrderBook(new SimpleOrderBook(Instrument.of(SYMBOL)), shard, null);
+        shard.setJournal(new MappedJournal(directory, "shard", 1 << 20, FlushPolicy.NONE));
+        shard.setSnapshotStore(new SnapshotStore(directory, "shard"));
+        assertEquals(0, shard.recover());
+        shard.start();
+        
+        runTradingSession(original, 0);
+        shard.requestSnapshot();
+        int tailCommands = runTradingSession(original, 100);
+        String expectedOrders = describeOrders(original);
+        String expectedTrades = describeTrades(original);
+        shard.shutdown();
+        
+        MatchingShard recoveredShard = new MatchingShard(0);
+        DisruptorOrderBook recovered = new DisruptorOrderBook(new SimpleOrderBook(Instrument.of(SYMBOL)), recoveredShard, null);
+        recoveredShard.setJournal(new MappedJournal(directory, "shard", 1 << 20, FlushPolicy.NONE));
+        recoveredShard.setSnapshotStore(new SnapshotStore(directory, "shard"));
+        assertEquals(tailCommands, recoveredShard.recover());
+        recoveredShard.start();
+        
+        assertEquals(expectedOrders, describeOrders(recovered));
+        // Only trades from the replayed tail are kept in memory; they must match the originals
+        assertTrue(expectedTrades.endsWith(describeTrades(recovered)));
+        assertFalse(describeTrades(recovered).isEmpty());
+        
+        // Trade IDs continue from the snapshot
+        recovered.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("200.00"), new BigInteger("1")));
+        recovered.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("200.00"), new BigInteger("1")));
+        List<Trade> trades = recovered.getRecentTrades(2);
+        assertEquals(trades.get(0).getRawId() + 1, trades.get(1).getRawId());
+        recoveredShard.shutdown();
+    }
+    
+    /**
+     * Rests, crosses, modifies and cancels orders around a base price.
+     * 
+     * @return The number of commands sent
+     */
+    private static int runTradingSession(DisruptorOrderBook book, long priceOffset) {
+        Instrument instrument = book.getInstrument();
+        int commands = 0;
+        List<Order> resting = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Order bid = new Order(instrument, OrderType.LIMIT, OrderSide.BUY, 10000L + priceOffset - i % 5, 10 + i, TimeInForce.GTC, "b" + i);
+            Order ask = new Order(instrument, OrderType.LIMIT, OrderSide.SELL, 10002L + priceOffset + i % 5, 5 + i, TimeInForce.GTC, "a" + i);
+            book.addOrder(bid);
+            book.addOrder(ask);
+            resting.add(bid);
+            commands += 2;
+        }
+        for (int i = 0; i < 5; i++) {
+            book.addOrder(new Order(instrument, OrderType.LIMIT, OrderSide.SELL, 9998L + priceOffset, 7, TimeInForce.GTC, "x" + i));
+            commands++;
+        }
+        book.modifyOrder(resting.get(10).getRawId(), 10001L + priceOffset, 0);
+        book.cancelOrder(resting.get(12).getRawId());
+        commands += 2;
+        return commands;
+    }
+    
+    private static String describeOrders(OrderBook book) {
+        StringBuilder builder = new StringBuilder();
+        book.getAllOrders().stream()
+                .filter(order -> order.getStatus() == OrderStatus.NEW || order.getStatus() == OrderStatus.PARTIALLY_FILLED)
+                .sorted(java.util.Comparator.comparingLong(Order::getRawId))
+                .forEach(order -> builder.append(order.getRawId()).append(' ')
+                        .append(order.getSide()).append(' ')
+                        .append(order.getRawPrice()).append(' ')
+                        .append(order.getRawFilledQuantity()).append('/').append(order.getRawQuantity()).append(' ')
+                        .append(order.getStatus()).append(' ')
+                        .append(order.getClientOrderId()).append(' ')
+                        .append(order.getUpdatedNanos()).append('\n'));
+        builder.append(book.getMarketDepth(10));
+        return builder.toString();
+    }
+    
+    private static String describeTrades(OrderBook book) {
+        StringBuilder builder = new StringBuilder();
+        for (Trade trade : book.getRecentTrades(Integer.MAX_VALUE)) {
+            builder.append(trade.getRawId()).append(' ')
+                    .append(trade.getRawBuyOrderId()).append(' ')
+                    .append(trade.getRawSellOrderId()).append(' ')
+                    .append(trade.getRawPrice()).append(' ')
+                    .append(trade.getRawQuantity()).append(' ')
+                    .append(trade.getExecutionNanos()).append('\n');
+        }
+        return builder.toString();
+    }
+}
\ No newline at end of file
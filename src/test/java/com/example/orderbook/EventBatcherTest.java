@@ -0,0 +1,91 @@
+package com.example.orderbook;
+
+import com.example.models.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventBatcherTest {
+    
+    private static Order limit(Instrument instrument, OrderSide side, long rawPrice, long quantity) {
+        return new Order(instrument, OrderType.LIMIT, side, rawPrice, quantity, TimeInForce.GTC, null);
+    }
+    
+    @Test
+    public void testSweepArrivesAsOneBatch() {
+        Instrument instrument = Instrument.of("BTC/USD");
+        SimpleOrderBook orderBook = new SimpleOrderBook(instrument, new TradePool(8));
+        EventBatcher batcher = new EventBatcher();
+        List<String> batches = new ArrayList<>();
+        batcher.addListener(batch -> {
+            StringBuilder description = new StringBuilder();
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.getType(i) == EventBatch.EventType.TRADE_EXECUTED) {
+                    Trade trade = batch.getTrade(i);
+                    description.append("trade ").append(trade.getRawQuantity()).append('@').append(trade.getRawPrice());
+                } else {
+                    Order order = batch.getOrder(i);
+                    description.append(batch.getType(i)).append(' ').append(order.getRawQuantity());
+                }
+                description.append(", ");
+            }
+            description.append("top ").append(batch.getBidQuantity()).append('@').append(batch.getBidPrice())
+                    .append(' ').append(batch.getAskQuantity()).append('@').append(batch.getAskPrice());
+            batches.add(description.toString());
+        });
+        orderBook.registerListener(batcher);
+        
+        orderBook.addOrder(limit(instrument, OrderSide.SELL, 10000L, 2));
+        orderBook.addOrder(limit(instrument, OrderSide.SELL, 10100L, 3));
+        Order resting = limit(instrument, OrderSide.SELL, 10200L, 4);
+        orderBook.addOrder(resting);
+        batches.clear();
+        
+        Order sweep = limit(instrument, OrderSide.BUY, 10200L, 6);
+        orderBook.addOrder(sweep);
+        assertEquals(List.of("ORDER_ADDED 6, trade 2@10000, trade 3@10100, trade 1@10200, top 0@"
+                + Order.NO_PRICE + " 3@10200"), batches);
+        
+        batches.clear();
+        assertTrue(orderBook.modifyOrder(resting.getRawId(), Order.NO_PRICE, 2));
+        assertFalse(orderBook.cancelOrder(12345L));
+        assertEquals(1, batches.size());
+        assertTrue(batches.get(0).startsWith("ORDER_MODIFIED"));
+    }
+    
+    @Test
+    public void testCoalescesUntilEndOfDisruptorBatch() throws InterruptedException {
+        DisruptorOrderBook orderBook = new DisruptorOrderBook(Instrument.of("BTC/USD"));
+        try {
+            EventBatcher batcher = new EventBatcher(true);
+            List<Integer> commandCounts = new CopyOnWriteArrayList<>();
+            List<Integer> eventCounts = new CopyOnWriteArrayList<>();
+            batcher.addListener(batch -> {
+                commandCounts.add(batch.getCommandCount());
+                eventCounts.add(batch.size());
+            });
+            orderBook.registerListener(batcher);
+            
+            int commands = 200;
+            Instrument instrument = orderBook.getInstrument();
+            for (int i = 0; i < commands; i++) {
+                orderBook.submitAddOrder(limit(instrument, OrderSide.BUY, 10000L - i, 1));
+            }
+            
+            long deadline = System.currentTimeMillis() + 5000;
+            while (commandCounts.stream().mapToInt(Integer::intValue).sum() < commands
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(commands, commandCounts.stream().mapToInt(Integer::intValue).sum());
+            assertEquals(commands, eventCounts.stream().mapToInt(Integer::intValue).sum());
+            assertTrue(commandCounts.size() <= commands);
+        } finally {
+            orderBook.shutdown();
+        }
+    }
+}
\ No newline at end of file
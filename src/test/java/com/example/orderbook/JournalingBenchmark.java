@@ -0,0 +1,73 @@
+package com.example.orderbook;
+
+import com.example.journal.FlushPolicy;
+import com.example.journal.MappedJournal;
+import com.example.models.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of the journaling stage per command: encoding an add-order command into a
+ * memory-mapped segment without forcing it to disk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class JournalingBenchmark {
+    
+    private Path directory;
+    private MappedJournal journal;
+    private JournalingHandler handler;
+    private DisruptorOrderBook.OrderCommand command;
+    private long sequence;
+    
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = new MappedJournal(directory, "bench", FlushPolicy.NONE);
+        handler = new JournalingHandler(journal, 0);
+        
+        command = new DisruptorOrderBook.OrderCommand();
+        command.setType(CommandType.ADD_ORDER);
+        Order order = new Order(Instrument.of("BTC/USD"), OrderType.LIMIT, OrderSide.BUY, 1000000L, 10,
+                TimeInForce.GTC, "client-order-1");
+        command.setOrder(order);
+        command.setOrderId(order.getRawId());
+        command.setTimestamp(NanoClock.SYSTEM.nanoTime());
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+    
+    @Benchmark
+    public void journalAddOrder() {
+        handler.onEvent(command, sequence++, (sequence & 63) == 0);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(JournalingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.example.orderbook;
+
+import com.example.models.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the SimpleOrderBook behaviour against the ladder implementation, using a
+ * deliberately small ladder so that the tests exercise re-centring.
+ */
+public class LadderOrderBookTest extends SimpleOrderBookTest {
+    
+    @Override
+    protected SimpleOrderBook createOrderBook() {
+        return new LadderOrderBook(Instrument.of(SYMBOL), 16);
+    }
+    
+    @Override
+    protected SimpleOrderBook createPooledOrderBook(TradePool tradePool) {
+        return new LadderOrderBook(Instrument.of(SYMBOL), 16, tradePool);
+    }
+    
+    @Test
+    public void testRecenterKeepsRestingLevels() {
+        orderBook.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("100.00"), new BigInteger("1")));
+        orderBook.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("100.05"), new BigInteger("2")));
+        // Far outside the initial 16-tick window on both sides
+        orderBook.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("90.00"), new BigInteger("3")));
+        orderBook.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("120.00"), new BigInteger("4")));
+        
+        List<MarketDepth.PriceLevel> bids = orderBook.getMarketDepth(10).getBids();
+        assertEquals(4, bids.size());
+        assertEquals(new BigDecimal("120.00"), bids.get(0).getPrice());
+        assertEquals(new BigDecimal("100.05"), bids.get(1).getPrice());
+        assertEquals(new BigDecimal("100.00"), bids.get(2).getPrice());
+        assertEquals(new BigDecimal("90.00"), bids.get(3).getPrice());
+        assertEquals(new BigInteger("3"), orderBook.getQuantityAtPriceLevel(new BigDecimal("90.00"), true));
+    }
+    
+    @Test
+    public void testBestPriceWalksPastEmptyLevels() {
+        Order best = new Order(SYMBOL, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("100.00"), new BigInteger("5"));
+        orderBook.addOrder(best);
+        orderBook.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("100.07"), new BigInteger("5")));
+        
+        orderBook.cancelOrder(best.getId());
+        assertEquals(new BigDecimal("100.07"), orderBook.getBestAskPrice());
+        
+        // Sweep the remaining level through a buy far above it
+        orderBook.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("150.00"), new BigInteger("5")));
+        assertNull(orderBook.getBestAskPrice());
+        assertNull(orderBook.getBestBidPrice());
+        assertEquals(new BigDecimal("100.07"), orderBook.getRecentTrades(1).get(0).getPrice());
+    }
+    
+    @Test
+    public void testPricesOutsideTheLadderBandAreRejected() {
+        orderBook.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("100.00"), new BigInteger("1")));
+        Order resting = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("99.00"), new BigInteger("1"));
+        orderBook.addOrder(resting);
+        
+        // Valid, but further from the resting bids than the ladder may span
+        BigDecimal distant = new BigDecimal(LadderOrderBook.MAX_LADDER_SIZE).add(new BigDecimal("200.00"));
+        Order outlier = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, distant, new BigInteger("1"));
+        assertFalse(orderBook.addOrder(outlier));
+        assertNull(orderBook.getOrder(outlier.getRawId()));
+        assertFalse(orderBook.modifyOrder(resting.getId(), distant, null));
+        
+        assertEquals(new BigDecimal("100.00"), orderBook.getBestBidPrice());
+        assertEquals(2, orderBook.getMarketDepth(10).getBids().size());
+        assertEquals(new BigDecimal("99.00"), orderBook.getOrder(resting.getRawId()).getPrice());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.orderbook;
+
+import com.example.models.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderIndexTest {
+    
+    private static Order newOrder() {
+        return new Order("BTC/USD", OrderType.LIMIT, OrderSide.BUY, new BigDecimal("100.00"), BigInteger.ONE);
+    }
+    
+    @Test
+    public void testPutGetRemove() {
+        OrderIndex index = new OrderIndex(4);
+        Order order = newOrder();
+        
+        assertNull(index.get(order.getRawId()));
+        index.put(order);
+        assertSame(order, index.get(order.getRawId()));
+        assertEquals(1, index.size());
+        
+        assertSame(order, index.remove(order.getRawId()));
+        assertNull(index.get(order.getRawId()));
+        assertNull(index.remove(order.getRawId()));
+        assertEquals(0, index.size());
+    }
+    
+    @Test
+    public void testMatchesHashMapUnderRandomChurn() {
+        OrderIndex index = new OrderIndex(8);
+        Map<Long, Order> expected = new HashMap<>();
+        List<Order> live = new ArrayList<>();
+        Random random = new Random(42);
+        
+        for (int i = 0; i < 20000; i++) {
+            if (live.isEmpty() || random.nextInt(3) > 0) {
+                Order order = newOrder();
+                index.put(order);
+                expected.put(order.getRawId(), order);
+                live.add(order);
+            } else {
+                Order order = live.remove(random.nextInt(live.size()));
+                assertSame(order, index.remove(order.getRawId()));
+                expected.remove(order.getRawId());
+            }
+        }
+        
+        assertEquals(expected.size(), index.size());
+        for (Order order : live) {
+            assertSame(order, index.get(order.getRawId()));
+        }
+        List<Order> copied = new ArrayList<>();
+        index.copyTo(copied);
+        assertEquals(expected.size(), copied.size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.example.orderbook;
+
+import com.example.models.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state add/cancel/match loop over a ladder book with pooled orders and trades.
+ * Run with the GC profiler (as main() does) and check that gc.alloc.rate.norm stays
+ * at ~0 bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PooledOrderBookBenchmark {
+    
+    private static final int RESTING_ORDERS = 256;
+    private static final long MID_PRICE = 1000000L;
+    
+    private SimpleOrderBook orderBook;
+    private Instrument instrument;
+    private OrderPool orderPool;
+    private long[] restingIds;
+    private int nextSlot;
+    private Random random;
+    
+    @Setup
+    public void setup() {
+        instrument = Instrument.of("BTC/USD");
+        orderBook = new LadderOrderBook(instrument, LadderOrderBook.DEFAULT_LADDER_SIZE, new TradePool(1024));
+        orderPool = new OrderPool(4096, 2048);
+        restingIds = new long[RESTING_ORDERS];
+        random = new Random(42); // Fixed seed for reproducibility
+    }
+    
+    @Benchmark
+    public void addCancelMatch(Blackhole blackhole) {
+        // Cancel the order placed RESTING_ORDERS operations ago (it may have traded already)
+        long oldestId = restingIds[nextSlot];
+        if (oldestId != 0) {
+            blackhole.consume(orderBook.cancelOrder(oldestId));
+        }
+        
+        // Passive orders within 50 ticks of the mid, with one in eight crossing the spread
+        OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+        int offset = random.nextInt(8) == 0 ? -5 : random.nextInt(50) + 1;
+        long price = side == OrderSide.BUY ? MID_PRICE - offset : MID_PRICE + offset;
+        Order order = orderPool.acquire(instrument, OrderType.LIMIT, side, price,
+                random.nextInt(100) + 1, TimeInForce.GTC, null);
+        restingIds[nextSlot] = order.getRawId();
+        nextSlot = (nextSlot + 1) % RESTING_ORDERS;
+        blackhole.consume(orderBook.addOrder(order));
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PooledOrderBookBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
\ No newline at end of file
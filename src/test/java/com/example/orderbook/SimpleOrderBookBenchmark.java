@@ -23,14 +23,17 @@ import java.util.concurrent.TimeUnit;
 @Warmup(iterations = 3, time = 5)
 @Measurement(iterations = 5, time = 5)
 public class SimpleOrderBookBenchmark {
-
+    
     private SimpleOrderBook orderBook;
     private Random random;
     private static final String SYMBOL = "BTC/USD";
     
+    @Param({"tree", "ladder"})
+    public String bookType;
+    
     @Setup
     public void setup() {
-        orderBook = new SimpleOrderBook(SYMBOL);
+        orderBook = "ladder".equals(bookType) ? new LadderOrderBook(SYMBOL) : new SimpleOrderBook(SYMBOL);
         random = new Random(42); // Fixed seed for reproducibility
     }
     
@@ -70,6 +73,32 @@ public class SimpleOrderBookBenchmark {
         blackhole.consume(orderBook.getRecentTrades(10));
     }
     
+    @Benchmark
+    public void addOrderFixedPoint(Blackhole blackhole) {
+        // Builds the order directly from scaled longs, skipping BigDecimal entirely
+        OrderSide side = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+        long basePrice = side == OrderSide.BUY ? 1000000L : 1010000L;
+        Order order = new Order(
+            orderBook.getInstrument(),
+            OrderType.LIMIT,
+            side,
+            basePrice + random.nextInt(1000) * 100L,
+            random.nextInt(100) + 1,
+            TimeInForce.GTC,
+            null
+        );
+        boolean result = orderBook.addOrder(order);
+        blackhole.consume(result);
+    }
+    
+    @Benchmark
+    public void addAndCancelOrder(Blackhole blackhole) {
+        // Cancel-heavy flow: the order rests behind whatever is already at its level
+        Order order = createRandomOrder();
+        orderBook.addOrder(order);
+        blackhole.consume(orderBook.cancelOrder(order.getId()));
+    }
+    
     @Benchmark
     public void getMarketDepth(Blackhole blackhole) {
         MarketDepth depth = orderBook.getMarketDepth(10);
@@ -12,12 +12,20 @@ import static org.junit.jupiter.api.Assertions.*;
 
 public class SimpleOrderBookTest {
     
-    private SimpleOrderBook orderBook;
-    private static final String SYMBOL = "BTC/USD";
+    protected SimpleOrderBook orderBook;
+    protected static final String SYMBOL = "BTC/USD";
     
     @BeforeEach
     public void setUp() {
-        orderBook = new SimpleOrderBook(SYMBOL);
+        orderBook = createOrderBook();
+    }
+    
+    protected SimpleOrderBook createOrderBook() {
+        return new SimpleOrderBook(SYMBOL);
+    }
+    
+    protected SimpleOrderBook createPooledOrderBook(TradePool tradePool) {
+        return new SimpleOrderBook(Instrument.of(SYMBOL), tradePool);
     }
     
     @Test
@@ -273,4 +281,303 @@ public class SimpleOrderBookTest {
         assertEquals(new BigInteger("10"), buyOrder.getQuantity().subtract(buyOrder.getFilledQuantity()));
         assertEquals(BigInteger.ZERO, sellOrder.getQuantity().subtract(sellOrder.getFilledQuantity()));
     }
+    
+    @Test
+    public void testFixedPointOrderMatching() {
+        Instrument instrument = orderBook.getInstrument();
+        
+        // Prices are in hundredths at the default scale
+        Order buyOrder = new Order(instrument, OrderType.LIMIT, OrderSide.BUY, 1000000L, 20, TimeInForce.GTC, null);
+        Order sellOrder = new Order(instrument, OrderType.LIMIT, OrderSide.SELL, 990000L, 5, TimeInForce.GTC, null);
+        orderBook.addOrder(buyOrder);
+        orderBook.addOrder(sellOrder);
+        
+        Trade trade = orderBook.getRecentTrades(1).get(0);
+        assertEquals(990000L, trade.getRawPrice());
+        assertEquals(5L, trade.getRawQuantity());
+        assertEquals(new BigDecimal("9900.00"), trade.getPrice());
+        assertEquals(15L, buyOrder.getRawRemainingQuantity());
+        
+        MarketDepth.PriceLevel bestBid = orderBook.getMarketDepth(1).getBestBid();
+        assertEquals(1000000L, bestBid.getRawPrice());
+        assertEquals(15L, bestBid.getRawQuantity());
+    }
+    
+    @Test
+    public void testPriceRescaledToInstrumentScale() {
+        // A price given at scale 8 is normalized onto the book's scale
+        Order buyOrder = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, 1000000000000L, 8, 10, TimeInForce.GTC, null);
+        
+        assertTrue(orderBook.addOrder(buyOrder));
+        assertEquals(new BigDecimal("10000.00"), orderBook.getBestBidPrice());
+        assertEquals(1000000L, buyOrder.getRawPrice());
+        assertEquals(new BigInteger("10"), orderBook.getQuantityAtPriceLevel(new BigDecimal("10000"), true));
+    }
+    
+    @Test
+    public void testOffTickPriceRejected() {
+        SimpleOrderBook nickelBook = new SimpleOrderBook(new Instrument(SYMBOL, 2, 5));
+        
+        Order onTick = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("100.05"), new BigInteger("1"));
+        Order offTick = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("100.03"), new BigInteger("1"));
+        Order tooPrecise = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("100.051"), new BigInteger("1"));
+        
+        assertTrue(nickelBook.addOrder(onTick));
+        assertFalse(nickelBook.addOrder(offTick));
+        assertFalse(nickelBook.addOrder(tooPrecise));
+        assertEquals(1, nickelBook.getAllOrders().size());
+    }
+    
+    @Test
+    public void testQuantityReductionKeepsTimePriority() {
+        Order first = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("10000.00"), new BigInteger("10"));
+        Order second = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("10000.00"), new BigInteger("10"));
+        orderBook.addOrder(first);
+        orderBook.addOrder(second);
+        
+        // Reduce the first order in place; it should still trade ahead of the second
+        assertTrue(orderBook.modifyOrder(first.getId(), null, new BigInteger("4")));
+        assertEquals(new BigInteger("14"), orderBook.getQuantityAtPriceLevel(new BigDecimal("10000.00"), true));
+        
+        orderBook.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("10000.00"), new BigInteger("4")));
+        assertEquals(OrderStatus.FILLED, first.getStatus());
+        assertEquals(OrderStatus.NEW, second.getStatus());
+        
+        // Increasing quantity loses priority
+        Order third = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("10000.00"), new BigInteger("10"));
+        orderBook.addOrder(third);
+        assertTrue(orderBook.modifyOrder(second.getId(), null, new BigInteger("12")));
+        orderBook.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("10000.00"), new BigInteger("10")));
+        assertEquals(OrderStatus.FILLED, third.getStatus());
+        assertEquals(OrderStatus.NEW, second.getStatus());
+    }
+    
+    @Test
+    public void testFilledOrderCannotBeCanceled() {
+        List<Order> canceled = new java.util.ArrayList<>();
+        orderBook.registerListener(new OrderBookEventListener() {
+            @Override
+            public void onOrderAdded(Order order) {}
+            
+            @Override
+            public void onOrderCanceled(java.util.UUID orderId, Order order) {
+                canceled.add(order);
+            }
+            
+            @Override
+            public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {}
+            
+            @Override
+            public void onTradeExecuted(Trade trade) {}
+            
+            @Override
+            public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {}
+            
+            @Override
+            public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {}
+        });
+        
+        Instrument instrument = orderBook.getInstrument();
+        Order sell = new Order(instrument, OrderType.LIMIT, OrderSide.SELL, 10000L, 5, TimeInForce.GTC, null);
+        Order buy = new Order(instrument, OrderType.LIMIT, OrderSide.BUY, 10000L, 8, TimeInForce.GTC, null);
+        orderBook.addOrder(sell);
+        orderBook.addOrder(buy);
+        assertEquals(OrderStatus.FILLED, sell.getStatus());
+        
+        // Still queryable, but no longer resting
+        assertFalse(orderBook.cancelOrder(sell.getRawId()));
+        assertEquals(OrderStatus.FILLED, sell.getStatus());
+        long[] orderIds = {sell.getRawId(), buy.getRawId()};
+        assertEquals(1, orderBook.cancelOrders(orderIds, 2));
+        assertEquals(0, orderIds[0]);
+        assertEquals(List.of(buy), canceled);
+    }
+    
+    @Test
+    public void testCancelFromMiddleOfLevel() {
+        Order first = new Order(SYMBOL, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("10100.00"), new BigInteger("1"));
+        Order middle = new Order(SYMBOL, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("10100.00"), new BigInteger("2"));
+        Order last = new Order(SYMBOL, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("10100.00"), new BigInteger("3"));
+        orderBook.addOrder(first);
+        orderBook.addOrder(middle);
+        orderBook.addOrder(last);
+        
+        assertTrue(orderBook.cancelOrder(middle.getId()));
+        assertEquals(new BigInteger("4"), orderBook.getQuantityAtPriceLevel(new BigDecimal("10100.00"), false));
+        assertEquals(2, orderBook.getMarketDepth(1).getBestAsk().getOrderCount());
+        
+        // Filled and canceled orders can no longer be modified
+        assertFalse(orderBook.modifyOrder(middle.getId(), null, new BigInteger("5")));
+    }
+    
+    @Test
+    public void testLevelTotalsTrackFillsAndCancels() {
+        Order first = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("10000.00"), new BigInteger("10"));
+        Order second = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("10000.00"), new BigInteger("20"));
+        orderBook.addOrder(first);
+        orderBook.addOrder(second);
+        
+        // Partially fill the first order
+        orderBook.addOrder(new Order(SYMBOL, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("10000.00"), new BigInteger("4")));
+        MarketDepth.PriceLevel level = orderBook.getMarketDepth(1).getBestBid();
+        assertEquals(26L, level.getRawQuantity());
+        assertEquals(2, level.getOrderCount());
+        
+        // Cancel the partially filled order; only its open quantity leaves the level
+        orderBook.cancelOrder(first.getId());
+        level = orderBook.getMarketDepth(1).getBestBid();
+        assertEquals(20L, level.getRawQuantity());
+        assertEquals(1, level.getOrderCount());
+        
+        orderBook.modifyOrder(second.getId(), null, new BigInteger("15"));
+        assertEquals(new BigInteger("15"), orderBook.getQuantityAtPriceLevel(new BigDecimal("10000.00"), true));
+    }
+    
+    @Test
+    public void testEngineIdsAndProtocolIds() {
+        Order buyOrder = new Order(SYMBOL, OrderType.LIMIT, OrderSide.BUY, new BigDecimal("10000.00"), new BigInteger("5"));
+        Order sellOrder = new Order(SYMBOL, OrderType.LIMIT, OrderSide.SELL, new BigDecimal("10000.00"), new BigInteger("5"));
+        assertTrue(sellOrder.getRawId() > buyOrder.getRawId());
+        
+        orderBook.addOrder(buyOrder);
+        assertSame(buyOrder, orderBook.getOrder(buyOrder.getRawId()));
+        assertSame(buyOrder, orderBook.getOrder(buyOrder.getId()));
+        assertEquals(buyOrder.getRawId(), IdGenerator.fromUuid(buyOrder.getId()));
+        
+        orderBook.addOrder(sellOrder);
+        Trade trade = orderBook.getRecentTrades(1).get(0);
+        assertEquals(buyOrder.getRawId(), trade.getRawBuyOrderId());
+        assertEquals(sellOrder.getId(), trade.getSellOrderId());
+        assertEquals(1L, trade.getRawId());
+        
+        // UUIDs not issued by the engine never resolve to an order
+        assertNull(orderBook.getOrder(java.util.UUID.randomUUID()));
+    }
+    
+    @Test
+    public void testTradeIdsAreDistinctAcrossBooksAndFromOrderIds() {
+        SimpleOrderBook other = new SimpleOrderBook(Instrument.of("ETH/USD"));
+        List<Trade> trades = new java.util.ArrayList<>();
+        for (SimpleOrderBook book : List.of(orderBook, other)) {
+            Instrument instrument = book.getInstrument();
+            book.addOrder(new Order(instrument, OrderType.LIMIT, OrderSide.SELL, 10000L, 1, TimeInForce.GTC, null));
+            book.addOrder(new Order(instrument, OrderType.LIMIT, OrderSide.BUY, 10000L, 1, TimeInForce.GTC, null));
+            trades.add(book.getRecentTrades(1).get(0));
+        }
+        
+        // Both books numbered their first trade 1
+        assertEquals(trades.get(0).getRawId(), trades.get(1).getRawId());
+        assertNotEquals(trades.get(0).getId(), trades.get(1).getId());
+        assertNotEquals(IdGenerator.toUuid(trades.get(0).getRawId()), trades.get(0).getId());
+        assertEquals(0, IdGenerator.fromUuid(trades.get(0).getId()));
+    }
+    
+    @Test
+    public void testPooledOrdersAndTradesAreRecycled() {
+        TradePool tradePool = new TradePool(16);
+        OrderPool orderPool = new OrderPool(16);
+        SimpleOrderBook pooledBook = createPooledOrderBook(tradePool);
+        Instrument instrument = pooledBook.getInstrument();
+        
+        List<Long> tradeQuantities = new java.util.ArrayList<>();
+        pooledBook.registerListener(new OrderBookEventListener() {
+            @Override
+            public void onOrderAdded(Order order) {}
+            
+            @Override
+            public void onOrderCanceled(java.util.UUID orderId, Order order) {}
+            
+            @Override
+            public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {}
+            
+            @Override
+            public void onTradeExecuted(Trade trade) {
+                tradeQuantities.add(trade.getRawQuantity());
+            }
+            
+            @Override
+            public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {}
+            
+            @Override
+            public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {}
+        });
+        
+        for (int round = 0; round < 3; round++) {
+            Order resting = orderPool.acquire(instrument, OrderType.LIMIT, OrderSide.SELL, 1000000L, 5, TimeInForce.GTC, null);
+            long restingId = resting.getRawId();
+            assertTrue(pooledBook.addOrder(resting));
+            Order canceled = orderPool.acquire(instrument, OrderType.LIMIT, OrderSide.SELL, 1000100L, 5, TimeInForce.GTC, null);
+            assertTrue(pooledBook.addOrder(canceled));
+            assertTrue(pooledBook.cancelOrder(canceled.getRawId()));
+            assertTrue(pooledBook.addOrder(
+                    orderPool.acquire(instrument, OrderType.LIMIT, OrderSide.BUY, 1000000L, 5, TimeInForce.GTC, null)));
+            
+            // Filled orders leave the book and go back to the pool
+            assertNull(pooledBook.getOrder(restingId));
+            assertTrue(pooledBook.getAllOrders().isEmpty());
+        }
+        
+        assertEquals(List.of(5L, 5L, 5L), tradeQuantities);
+        // The tape keeps copies, so recent trades survive the pooled trades being recycled
+        List<Trade> recentTrades = pooledBook.getRecentTrades(10);
+        assertEquals(3, recentTrades.size());
+        assertEquals(5L, recentTrades.get(2).getRawQuantity());
+        // At most two orders were ever live at once
+        assertEquals(2, orderPool.getCreatedCount());
+        assertEquals(1, tradePool.getCreatedCount());
+    }
+    
+    @Test
+    public void testTopOfBookChangesAreReported() {
+        List<String> events = new java.util.ArrayList<>();
+        orderBook.registerListener(new OrderBookEventListener() {
+            @Override
+            public void onOrderAdded(Order order) {}
+            
+            @Override
+            public void onOrderCanceled(java.util.UUID orderId, Order order) {}
+            
+            @Override
+            public void onOrderModified(Order order, BigDecimal oldPrice, BigInteger oldQuantity) {}
+            
+            @Override
+            public void onTradeExecuted(Trade trade) {}
+            
+            @Override
+            public void onBestBidChanged(BigDecimal newBestBid, BigDecimal oldBestBid) {
+                events.add("bid " + oldBestBid + " -> " + newBestBid);
+            }
+            
+            @Override
+            public void onBestAskChanged(BigDecimal newBestAsk, BigDecimal oldBestAsk) {
+                events.add("ask " + oldBestAsk + " -> " + newBestAsk);
+            }
+            
+            @Override
+            public void onTopOfBookChanged(String symbol, long bidPrice, long bidQuantity, long askPrice,
+                                           long askQuantity) {
+                events.add("top " + bidQuantity + "@" + (bidPrice == Order.NO_PRICE ? "-" : bidPrice)
+                        + " " + askQuantity + "@" + (askPrice == Order.NO_PRICE ? "-" : askPrice));
+            }
+        });
+        
+        Instrument instrument = orderBook.getInstrument();
+        Order bid = new Order(instrument, OrderType.LIMIT, OrderSide.BUY, 10000L, 5, TimeInForce.GTC, null);
+        orderBook.addOrder(bid);
+        // Below the best bid: nothing at the top changes
+        orderBook.addOrder(new Order(instrument, OrderType.LIMIT, OrderSide.BUY, 9900L, 5, TimeInForce.GTC, null));
+        orderBook.addOrder(new Order(instrument, OrderType.LIMIT, OrderSide.SELL, 10100L, 2, TimeInForce.GTC, null));
+        // A partial fill changes the size but not the price
+        orderBook.addOrder(new Order(instrument, OrderType.LIMIT, OrderSide.SELL, 10000L, 3, TimeInForce.GTC, null));
+        orderBook.cancelOrder(bid.getRawId());
+        
+        assertEquals(List.of(
+                "bid null -> 100.00",
+                "top 5@10000 0@-",
+                "ask null -> 101.00",
+                "top 5@10000 2@10100",
+                "top 2@10000 2@10100",
+                "bid 100.00 -> 99.00",
+                "top 5@9900 2@10100"), events);
+    }
 }
\ No newline at end of file
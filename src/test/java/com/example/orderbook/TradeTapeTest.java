@@ -0,0 +1,77 @@
+package com.example.orderbook;
+
+import com.example.models.Trade;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TradeTapeTest {
+    
+    private static Trade newTrade(long id) {
+        // Every field is derived from the ID so that readers can spot torn copies
+        return new Trade(id, id * 2, id * 2 + 1, "BTC/USD", 1000000L + id, 2, id % 100 + 1,
+                BigDecimal.ZERO, "BTC/USD", id * 1000);
+    }
+    
+    @Test
+    public void testKeepsMostRecentTrades() {
+        TradeTape tape = new TradeTape(3);
+        assertEquals(4, tape.getCapacity());
+        assertTrue(tape.latest(10).isEmpty());
+        
+        for (long id = 1; id <= 6; id++) {
+            tape.append(newTrade(id));
+        }
+        
+        assertEquals(6, tape.getPublishedCount());
+        List<Trade> trades = tape.latest(10);
+        assertEquals(4, trades.size());
+        assertEquals(3L, trades.get(0).getRawId());
+        assertEquals(6L, trades.get(3).getRawId());
+        assertEquals(new BigDecimal("10000.06"), trades.get(3).getPrice());
+        assertEquals(6000L, trades.get(3).getExecutionNanos());
+        
+        List<Trade> lastTwo = tape.latest(2);
+        assertEquals(2, lastTwo.size());
+        assertEquals(5L, lastTwo.get(0).getRawId());
+    }
+    
+    @Test
+    public void testConcurrentReadersSeeConsistentTrades() throws InterruptedException {
+        TradeTape tape = new TradeTape(8);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        
+        Thread reader = new Thread(() -> {
+            while (running.get() && failure.get() == null) {
+                long previous = 0;
+                for (Trade trade : tape.latest(8)) {
+                    long id = trade.getRawId();
+                    if (id <= previous
+                            || trade.getRawBuyOrderId() != id * 2
+                            || trade.getRawSellOrderId() != id * 2 + 1
+                            || trade.getRawPrice() != 1000000L + id
+                            || trade.getRawQuantity() != id % 100 + 1
+                            || trade.getExecutionNanos() != id * 1000) {
+                        failure.set("Inconsistent read: " + trade);
+                    }
+                    previous = id;
+                }
+            }
+        });
+        reader.start();
+        
+        for (long id = 1; id <= 2_000_000 && failure.get() == null; id++) {
+            tape.append(newTrade(id));
+        }
+        running.set(false);
+        reader.join();
+        
+        assertNull(failure.get());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.example.orderentry.binary;
+
+import com.example.models.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a new order and encodes an order status over direct buffers with the
+ * flyweight codecs. Run with the GC profiler (as main() does) and check that
+ * gc.alloc.rate.norm stays at ~0 bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BinaryCodecBenchmark {
+    
+    private ByteBuffer request;
+    private ByteBuffer response;
+    private NewOrderDecoder decoder;
+    private OrderStatusEncoder encoder;
+    
+    @Setup
+    public void setup() {
+        SymbolRegistry symbols = new SymbolRegistry();
+        for (String symbol : new String[] {"BTC/USD", "ETH/USD", "SOL/USD", "AAPL", "MSFT", "GOOGL"}) {
+            symbols.register(symbol);
+        }
+        request = ByteBuffer.allocateDirect(NewOrderDecoder.LENGTH);
+        request.putShort(0, BinaryProtocol.NEW_ORDER);
+        BinaryProtocol.writeText(request, 2, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, "client-0000001");
+        BinaryProtocol.writeText(request, 18, BinaryProtocol.SYMBOL_LENGTH, "ETH/USD");
+        request.put(34, (byte) 1);
+        request.put(35, (byte) 2);
+        request.putLong(36, 3000_00000000L);
+        request.putLong(44, 10);
+        request.put(52, (byte) 1);
+        response = ByteBuffer.allocateDirect(OrderStatusEncoder.LENGTH);
+        decoder = new NewOrderDecoder(symbols);
+        encoder = new OrderStatusEncoder();
+    }
+    
+    @Benchmark
+    public void decodeNewOrder(Blackhole blackhole) {
+        NewOrderDecoder order = decoder.wrap(request, 0);
+        blackhole.consume(order.symbolId());
+        blackhole.consume(order.side());
+        blackhole.consume(order.orderType());
+        blackhole.consume(order.price());
+        blackhole.consume(order.quantity());
+        blackhole.consume(order.timeInForce());
+    }
+    
+    @Benchmark
+    public void encodeOrderStatus(Blackhole blackhole) {
+        encoder.wrap(response, 0)
+                .orderId(0L, 42L)
+                .clientOrderId("client-0000001")
+                .status(OrderStatus.PARTIALLY_FILLED)
+                .price(3000_00000000L)
+                .quantity(10)
+                .filledQuantity(4)
+                .symbol("ETH/USD")
+                .message("Order found");
+        blackhole.consume(response);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(BinaryCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,493 @@
+package com.example.orderentry.binary;
+
+import com.example.models.*;
+import com.example.orderbook.DisruptorOrderBook;
+import com.example.orderbook.MatchingShard;
+import com.example.orderbook.SimpleOrderBook;
+import com.example.orderentry.OrderRouter;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryCodecTest {
+    
+    private static ByteBuffer newOrder(String clientOrderId, String symbol, long price, long quantity, byte tif) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(NewOrderDecoder.LENGTH);
+        buffer.putShort(0, BinaryProtocol.NEW_ORDER);
+        BinaryProtocol.writeText(buffer, 2, BinaryProtocol.CLIENT_ORDER_ID_LENGTH, clientOrderId);
+        BinaryProtocol.writeText(buffer, 18, BinaryProtocol.SYMBOL_LENGTH, symbol);
+        buffer.put(34, (byte) 2);
+        buffer.put(35, (byte) 2);
+        buffer.putLong(36, price);
+        buffer.putLong(44, quantity);
+        buffer.put(52, tif);
+        return buffer;
+    }
+    
+    @Test
+    public void testSymbolsResolveFromPaddedBytes() {
+        SymbolRegistry symbols = new SymbolRegistry();
+        assertEquals(0, symbols.register("BTC/USD"));
+        assertEquals(1, symbols.register("ETH/USD"));
+        assertEquals(0, symbols.register("BTC/USD"));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i + 2, symbols.register("SYM" + i));
+        }
+        
+        ByteBuffer field = ByteBuffer.allocate(16);
+        BinaryProtocol.writeText(field, 0, 16, "ETH/USD");
+        assertEquals(1, symbols.getId(field, 0, 16));
+        BinaryProtocol.writeText(field, 0, 16, "SYM57   ");
+        assertEquals(59, symbols.getId(field, 0, 16));
+        assertEquals("SYM57", symbols.getSymbol(59));
+        BinaryProtocol.writeText(field, 0, 16, "ETH/US");
+        assertEquals(SymbolRegistry.UNKNOWN, symbols.getId(field, 0, 16));
+        assertEquals(SymbolRegistry.UNKNOWN, symbols.getId("XRP/USD"));
+        assertNull(symbols.getSymbol(102));
+    }
+    
+    @Test
+    public void testNewOrderDecoderReadsInPlace() {
+        SymbolRegistry symbols = new SymbolRegistry();
+        symbols.register("BTC/USD");
+        NewOrderDecoder decoder = new NewOrderDecoder(symbols);
+        
+        decoder.wrap(newOrder("abc", "BTC/USD", 101_50000000L, 7, (byte) 3), 0);
+        assertEquals(0, decoder.symbolId());
+        assertEquals(OrderSide.SELL, decoder.side());
+        assertEquals(OrderType.LIMIT, decoder.orderType());
+        assertEquals(101_50000000L, decoder.price());
+        assertEquals(7, decoder.quantity());
+        assertEquals(TimeInForce.FOK, decoder.timeInForce());
+        assertEquals("abc", decoder.clientOrderId());
+        
+        decoder.wrap(newOrder("", "ETH/USD", 1, 1, (byte) 9), 0);
+        assertEquals(SymbolRegistry.UNKNOWN, decoder.symbolId());
+        assertNull(decoder.timeInForce());
+        assertNull(decoder.clientOrderId());
+    }
+    
+    @Test
+    public void testOrderStatusEncodings() {
+        SimpleOrderBook orderBook = new SimpleOrderBook(Instrument.of("BTC/USD"));
+        BinaryOrderEntryAdapter adapter = new BinaryOrderEntryAdapter(orderBook);
+        UUID orderId = adapter.processNewOrderMessage(newOrder("abc", "BTC/USD", 101_50000000L, 7, (byte) 1));
+        assertNotNull(orderId);
+        assertNull(adapter.processNewOrderMessage(newOrder("def", "ETH/USD", 101_50000000L, 7, (byte) 1)));
+        
+        // Straight from the order, into a reused direct buffer
+        Order order = adapter.getOrder(orderId);
+        ByteBuffer direct = ByteBuffer.allocateDirect(256);
+        assertEquals(OrderStatusEncoder.LENGTH, adapter.encodeOrderStatus(order, "Order found", direct, 10));
+        
+        // Through the BigDecimal response, as before
+        ByteBuffer heap = adapter.encodeOrderStatusResponse(adapter.getOrderStatus(orderId));
+        assertEquals(OrderStatusEncoder.LENGTH, heap.remaining());
+        for (int i = 0; i < OrderStatusEncoder.LENGTH; i++) {
+            assertEquals(heap.get(i), direct.get(10 + i), "Byte " + i);
+        }
+        
+        assertEquals(OrderStatusEncoder.TYPE, heap.getShort(0));
+        assertEquals(orderId.getLeastSignificantBits(), heap.getLong(10));
+        assertEquals("abc", BinaryProtocol.readText(heap, 18, 16));
+        assertEquals(1, heap.get(34));
+        assertEquals(101_50000000L, heap.getLong(35));
+        assertEquals(7, heap.getLong(43));
+        assertEquals("BTC/USD", BinaryProtocol.readText(heap, 59, 16));
+        assertEquals("Order found", BinaryProtocol.readText(heap, 75, 64));
+        
+        BinaryOrderStatusResponse response = new BinaryOrderStatusResponse(orderId, null, OrderStatus.FILLED,
+                null, BigInteger.TEN, BigInteger.TEN, "BTC/USD", null);
+        ByteBuffer binary = response.toBinary();
+        assertEquals(3, binary.get(34));
+        assertEquals(0, binary.getLong(35));
+        assertEquals("", BinaryProtocol.readText(binary, 18, 16));
+        assertEquals(new BigDecimal("101.50"), order.getPrice());
+    }
+    
+    @Test
+    public void testSessionMessagesRoundTrip() {
+        SymbolRegistry symbols = new SymbolRegistry();
+        symbols.register("BTC/USD");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(128);
+        
+        new NewOrderEncoder().wrap(buffer, 4).clientOrderId("n-1").symbol("BTC/USD").side(OrderSide.SELL)
+                .orderType(OrderType.LIMIT).price(101_50000000L).quantity(7).timeInForce(TimeInForce.IOC);
+        NewOrderDecoder newOrder = new NewOrderDecoder(symbols).wrap(buffer, 4);
+        assertEquals("n-1", newOrder.clientOrderId());
+        assertEquals(0, newOrder.symbolId());
+        assertEquals(OrderSide.SELL, newOrder.side());
+        assertEquals(101_50000000L, newOrder.price());
+        assertEquals(TimeInForce.IOC, newOrder.timeInForce());
+        
+        new CancelEncoder().wrap(buffer, 4).clientOrderId("c-1").orderId(42);
+        CancelDecoder cancel = new CancelDecoder().wrap(buffer, 4, CancelDecoder.LENGTH);
+        assertEquals(BinaryProtocol.CANCEL, BinaryProtocol.getType(buffer, 4));
+        assertEquals("c-1", cancel.clientOrderId());
+        assertEquals(42, cancel.orderId());
+        
+        new CancelReplaceEncoder().wrap(buffer, 4).clientOrderId("r-1").orderId(42).price(99_00000000L)
+                .quantity(3).newClientOrderId("r-2");
+        CancelReplaceDecoder replace = new CancelReplaceDecoder().wrap(buffer, 4, CancelReplaceDecoder.LENGTH);
+        assertEquals("r-1", replace.clientOrderId());
+        assertEquals(42, replace.orderId());
+        assertEquals(99_00000000L, replace.price());
+        assertEquals(3, replace.quantity());
+        assertEquals("r-2", replace.newClientOrderId());
+        // A version 1 sender stops before the new client order ID
+        replace.wrap(buffer, 4, BinaryProtocol.CANCEL_REPLACE_V1_LENGTH);
+        assertFalse(replace.hasNewClientOrderId());
+        assertNull(replace.newClientOrderId());
+        
+        new MassCancelEncoder().wrap(buffer, 4).clientRequestId("m-1").symbol(null).side(OrderSide.BUY);
+        MassCancelDecoder massCancel = new MassCancelDecoder(symbols).wrap(buffer, 4, MassCancelDecoder.LENGTH);
+        assertEquals("m-1", massCancel.clientRequestId());
+        assertTrue(massCancel.allSymbols());
+        assertEquals(OrderSide.BUY, massCancel.side());
+        
+        new HeartbeatEncoder().wrap(buffer, 4).timestamp(123456789L);
+        HeartbeatDecoder heartbeat = new HeartbeatDecoder().wrap(buffer, 4, HeartbeatDecoder.LENGTH);
+        assertEquals(BinaryProtocol.SCHEMA_VERSION, heartbeat.schemaVersion());
+        assertEquals(123456789L, heartbeat.timestamp());
+        
+        new ExecutionReportEncoder().wrap(buffer, 4).event(BinaryProtocol.PARTIALLY_FILLED).clientOrderId("r-2")
+                .orderId(42).leavesQuantity(3).cumQuantity(2).lastQuantity(1).lastPrice(101_50000000L);
+        ExecutionReportDecoder report = new ExecutionReportDecoder().wrap(buffer, 4, ExecutionReportDecoder.LENGTH);
+        assertEquals(BinaryProtocol.PARTIALLY_FILLED, report.event());
+        assertEquals("r-2", report.clientOrderId());
+        assertEquals(42, report.orderId());
+        assertEquals(3, report.leavesQuantity());
+        assertEquals(2, report.cumQuantity());
+        assertEquals(1, report.lastQuantity());
+        assertEquals(101_50000000L, report.lastPrice());
+        // The fill was appended in version 4
+        report.wrap(buffer, 4, 43);
+        assertEquals(2, report.cumQuantity());
+        assertEquals(0, report.lastPrice());
+        // Quantities were appended in version 2
+        report.wrap(buffer, 4, BinaryProtocol.EXECUTION_REPORT_V1_LENGTH);
+        assertEquals(42, report.orderId());
+        assertEquals(0, report.leavesQuantity());
+        
+        new RejectEncoder().wrap(buffer, 4).refType((short) 99).reason(BinaryProtocol.UNKNOWN_MESSAGE_TYPE)
+                .clientOrderId("x-1");
+        RejectDecoder reject = new RejectDecoder().wrap(buffer, 4, RejectDecoder.LENGTH);
+        assertEquals(99, reject.refType());
+        assertEquals(BinaryProtocol.UNKNOWN_MESSAGE_TYPE, reject.reason());
+        assertEquals("x-1", reject.clientOrderId());
+        
+        new MassCancelReportEncoder().wrap(buffer, 4).clientRequestId("m-1").result(BinaryProtocol.MASS_CANCEL_DONE)
+                .canceledCount(12);
+        MassCancelReportDecoder massCancelReport = new MassCancelReportDecoder()
+                .wrap(buffer, 4, MassCancelReportDecoder.LENGTH);
+        assertEquals("m-1", massCancelReport.clientRequestId());
+        assertEquals(BinaryProtocol.MASS_CANCEL_DONE, massCancelReport.result());
+        assertEquals(12, massCancelReport.canceledCount());
+    }
+    
+    @Test
+    public void testMassCancelThroughAdapter() {
+        SimpleOrderBook orderBook = new SimpleOrderBook(Instrument.of("BTC/USD"));
+        BinaryOrderEntryAdapter adapter = new BinaryOrderEntryAdapter(orderBook);
+        ByteBuffer request = ByteBuffer.allocate(BinaryProtocol.MAX_REQUEST_LENGTH);
+        ByteBuffer response = ByteBuffer.allocate(BinaryProtocol.MAX_RESPONSE_LENGTH);
+        DirectChannel channel = new DirectChannel(response);
+        NewOrderEncoder newOrder = new NewOrderEncoder();
+        for (int i = 0; i < 3; i++) {
+            newOrder.wrap(request, 0).clientOrderId("b-" + i).symbol("BTC/USD").side(OrderSide.BUY)
+                    .orderType(OrderType.LIMIT).price((90 + i) * 100_000_000L).quantity(1)
+                    .timeInForce(TimeInForce.GTC);
+            adapter.processMessage(request, 0, NewOrderDecoder.LENGTH, channel);
+        }
+        newOrder.wrap(request, 0).clientOrderId("s-0").symbol("BTC/USD").side(OrderSide.SELL)
+                .orderType(OrderType.LIMIT).price(100 * 100_000_000L).quantity(1).timeInForce(TimeInForce.GTC);
+        adapter.processMessage(request, 0, NewOrderDecoder.LENGTH, channel);
+        
+        new MassCancelEncoder().wrap(request, 0).clientRequestId("m-1").symbol("ETH/USD").side(null);
+        adapter.processMessage(request, 0, MassCancelDecoder.LENGTH, channel);
+        assertEquals(MassCancelReportEncoder.LENGTH, channel.length);
+        MassCancelReportDecoder report = new MassCancelReportDecoder()
+                .wrap(response, 0, MassCancelReportDecoder.LENGTH);
+        assertEquals(BinaryProtocol.MASS_CANCEL_REJECTED, report.result());
+        
+        new MassCancelEncoder().wrap(request, 0).clientRequestId("m-2").symbol("BTC/USD").side(OrderSide.BUY);
+        adapter.processMessage(request, 0, MassCancelDecoder.LENGTH, channel);
+        assertEquals("m-2", report.clientRequestId());
+        assertEquals(BinaryProtocol.MASS_CANCEL_DONE, report.result());
+        assertEquals(3, report.canceledCount());
+        assertNull(orderBook.getBestBidPrice());
+        assertEquals(new BigDecimal("100.00"), orderBook.getBestAskPrice());
+        
+        new HeartbeatEncoder().wrap(request, 0).timestamp(77);
+        adapter.processMessage(request, 0, HeartbeatDecoder.LENGTH, channel);
+        assertEquals(HeartbeatEncoder.LENGTH, channel.length);
+        assertEquals(77, new HeartbeatDecoder().wrap(response, 0, HeartbeatDecoder.LENGTH).timestamp());
+    }
+    
+    @Test
+    public void testOrdersRouteToTheBookOfTheirSymbol() {
+        SimpleOrderBook btc = new SimpleOrderBook(Instrument.of("BTC/USD"));
+        SimpleOrderBook eth = new SimpleOrderBook(Instrument.of("ETH/USD"));
+        BinaryOrderEntryAdapter adapter = new BinaryOrderEntryAdapter(OrderRouter.of(btc, eth));
+        ByteBuffer request = ByteBuffer.allocate(BinaryProtocol.MAX_REQUEST_LENGTH);
+        ByteBuffer response = ByteBuffer.allocate(BinaryProtocol.MAX_RESPONSE_LENGTH);
+        DirectChannel channel = new DirectChannel(response);
+        ExecutionReportDecoder report = new ExecutionReportDecoder();
+        NewOrderEncoder newOrder = new NewOrderEncoder();
+        
+        String[] symbols = {"BTC/USD", "ETH/USD", "SOL/USD"};
+        for (int i = 0; i < symbols.length; i++) {
+            newOrder.wrap(request, 0).clientOrderId("c-" + i).symbol(symbols[i]).side(OrderSide.BUY)
+                    .orderType(OrderType.LIMIT).price((100 + i) * 100_000_000L).quantity(1)
+                    .timeInForce(TimeInForce.GTC);
+            adapter.processMessage(request, 0, NewOrderDecoder.LENGTH, channel);
+            report.wrap(response, 0, ExecutionReportDecoder.LENGTH);
+            assertEquals(i < 2 ? BinaryProtocol.ACCEPTED : BinaryProtocol.REJECTED, report.event());
+        }
+        assertEquals(new BigDecimal("100.00"), btc.getBestBidPrice());
+        assertEquals(new BigDecimal("101.00"), eth.getBestBidPrice());
+        
+        // Cancels and replaces by client order ID find the order's book
+        new CancelReplaceEncoder().wrap(request, 0).clientOrderId("c-1").orderId(0).newClientOrderId("c-1b")
+                .price(102 * 100_000_000L).quantity(0);
+        adapter.processMessage(request, 0, CancelReplaceDecoder.LENGTH, channel);
+        assertEquals(BinaryProtocol.REPLACED, report.wrap(response, 0, ExecutionReportDecoder.LENGTH).event());
+        assertEquals(new BigDecimal("102.00"), eth.getBestBidPrice());
+        new CancelEncoder().wrap(request, 0).clientOrderId("c-0").orderId(0);
+        adapter.processMessage(request, 0, CancelDecoder.LENGTH, channel);
+        assertEquals(BinaryProtocol.CANCELED, report.wrap(response, 0, ExecutionReportDecoder.LENGTH).event());
+        assertNull(btc.getBestBidPrice());
+        
+        new MassCancelEncoder().wrap(request, 0).clientRequestId("m-1").symbol(null).side(null);
+        adapter.processMessage(request, 0, MassCancelDecoder.LENGTH, channel);
+        assertEquals(1, new MassCancelReportDecoder().wrap(response, 0, MassCancelReportDecoder.LENGTH)
+                .canceledCount());
+        assertNull(eth.getBestBidPrice());
+    }
+    
+    @Test
+    public void testSessionsOnlyReachTheirOwnOrders() {
+        SimpleOrderBook orderBook = new SimpleOrderBook(Instrument.of("BTC/USD"));
+        BinaryOrderEntryAdapter adapter = new BinaryOrderEntryAdapter(orderBook);
+        ByteBuffer request = ByteBuffer.allocate(BinaryProtocol.MAX_REQUEST_LENGTH);
+        ByteBuffer response = ByteBuffer.allocate(BinaryProtocol.MAX_RESPONSE_LENGTH);
+        DirectChannel owner = new DirectChannel(response);
+        DirectChannel other = new DirectChannel(response);
+        ExecutionReportDecoder report = new ExecutionReportDecoder();
+        new NewOrderEncoder().wrap(request, 0).clientOrderId("c-1").symbol("BTC/USD").side(OrderSide.BUY)
+                .orderType(OrderType.LIMIT).price(100 * 100_000_000L).quantity(1).timeInForce(TimeInForce.GTC);
+        adapter.processMessage(request, 0, NewOrderDecoder.LENGTH, owner);
+        long orderId = report.wrap(response, 0, ExecutionReportDecoder.LENGTH).orderId();
+        // Entered straight into the book, as over FIX
+        Order foreign = new Order("BTC/USD", OrderType.LIMIT, OrderSide.BUY, new BigDecimal("99.00"),
+                BigInteger.ONE, TimeInForce.GTC, "f-1");
+        assertTrue(orderBook.addOrder(foreign));
+        
+        // Neither the other session's ClOrdID nor its engine order ID reach the order
+        new CancelEncoder().wrap(request, 0).clientOrderId("c-1").orderId(0);
+        adapter.processMessage(request, 0, CancelDecoder.LENGTH, other);
+        assertEquals(BinaryProtocol.CANCEL_REJECTED, report.wrap(response, 0, ExecutionReportDecoder.LENGTH).event());
+        new CancelEncoder().wrap(request, 0).clientOrderId("x").orderId(orderId);
+        adapter.processMessage(request, 0, CancelDecoder.LENGTH, other);
+        assertEquals(BinaryProtocol.CANCEL_REJECTED, report.wrap(response, 0, ExecutionReportDecoder.LENGTH).event());
+        new CancelReplaceEncoder().wrap(request, 0).clientOrderId("x").orderId(orderId).price(101 * 100_000_000L)
+                .quantity(0);
+        adapter.processMessage(request, 0, CancelReplaceDecoder.LENGTH, other);
+        assertEquals(BinaryProtocol.REPLACE_REJECTED, report.wrap(response, 0, ExecutionReportDecoder.LENGTH).event());
+        new CancelEncoder().wrap(request, 0).clientOrderId("x").orderId(foreign.getRawId());
+        adapter.processMessage(request, 0, CancelDecoder.LENGTH, owner);
+        assertEquals(BinaryProtocol.CANCEL_REJECTED, report.wrap(response, 0, ExecutionReportDecoder.LENGTH).event());
+        new MassCancelEncoder().wrap(request, 0).clientRequestId("m-1").symbol(null).side(null);
+        adapter.processMessage(request, 0, MassCancelDecoder.LENGTH, other);
+        assertEquals(0, new MassCancelReportDecoder().wrap(response, 0, MassCancelReportDecoder.LENGTH)
+                .canceledCount());
+        assertEquals(2, orderBook.getAllOrders().size());
+        
+        new CancelEncoder().wrap(request, 0).clientOrderId("c-1").orderId(0);
+        adapter.processMessage(request, 0, CancelDecoder.LENGTH, owner);
+        assertEquals(BinaryProtocol.CANCELED, report.wrap(response, 0, ExecutionReportDecoder.LENGTH).event());
+        assertEquals(orderId, report.orderId());
+        assertEquals(new BigDecimal("99.00"), orderBook.getBestBidPrice());
+    }
+    
+    @Test
+    public void testOrderRequestsAreAnsweredOnceTheBookHasAppliedThem() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MatchingShard shard = new MatchingShard(0, 4, new BlockingWaitStrategy());
+        DisruptorOrderBook orderBook = new DisruptorOrderBook(new SimpleOrderBook(Instrument.of("BTC/USD")), shard,
+                (sequence, type, orderId, result) -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        shard.start();
+        try {
+            BinaryOrderEntryAdapter adapter = new BinaryOrderEntryAdapter(orderBook);
+            ByteBuffer request = ByteBuffer.allocate(BinaryProtocol.MAX_REQUEST_LENGTH);
+            ByteBuffer response = ByteBuffer.allocate(BinaryProtocol.MAX_RESPONSE_LENGTH);
+            BlockingQueue<Runnable> answers = new LinkedBlockingQueue<>();
+            DirectChannel channel = new DirectChannel(response) {
+                @Override
+                public Executor answer() {
+                    return answers::add;
+                }
+            };
+            NewOrderEncoder newOrder = new NewOrderEncoder();
+            for (int i = 0; i < 8; i++) {
+                newOrder.wrap(request, 0).clientOrderId("c-" + i).symbol("BTC/USD").side(OrderSide.BUY)
+                        .orderType(OrderType.LIMIT).price((90 + i) * 100_000_000L).quantity(1)
+                        .timeInForce(TimeInForce.GTC);
+                adapter.processMessage(request, 0, NewOrderDecoder.LENGTH, channel);
+            }
+            
+            // The gateway did not wait for the stalled matching thread: the orders beyond the
+            // ring's four slots are rejected as not taken, and the rest are not answered yet
+            assertEquals(-1, channel.length);
+            assertEquals(4, answers.size());
+            RejectDecoder reject = new RejectDecoder();
+            for (int i = 4; i < 8; i++) {
+                answers.poll().run();
+                reject.wrap(response, 0, RejectDecoder.LENGTH);
+                assertEquals(BinaryProtocol.NEW_ORDER, reject.refType());
+                assertEquals(BinaryProtocol.ENGINE_BUSY, reject.reason());
+                assertEquals("c-" + i, reject.clientOrderId());
+            }
+            
+            release.countDown();
+            ExecutionReportDecoder report = new ExecutionReportDecoder();
+            for (int i = 0; i < 4; i++) {
+                Runnable answer = answers.poll(1, TimeUnit.SECONDS);
+                assertNotNull(answer);
+                answer.run();
+                report.wrap(response, 0, ExecutionReportDecoder.LENGTH);
+                assertEquals(BinaryProtocol.ACCEPTED, report.event());
+                assertEquals("c-" + i, report.clientOrderId());
+            }
+            assertEquals(4, orderBook.getAllOrders().size());
+        } finally {
+            release.countDown();
+            shard.shutdown();
+        }
+    }
+    
+    @Test
+    public void testMassCancelTheEngineCannotTakeLeavesTheOrdersOpen() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MatchingShard shard = new MatchingShard(0, 4, new BlockingWaitStrategy());
+        DisruptorOrderBook orderBook = new DisruptorOrderBook(new SimpleOrderBook(Instrument.of("BTC/USD")), shard,
+                (sequence, type, orderId, result) -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        shard.start();
+        try {
+            BinaryOrderEntryAdapter adapter = new BinaryOrderEntryAdapter(orderBook);
+            ByteBuffer request = ByteBuffer.allocate(BinaryProtocol.MAX_REQUEST_LENGTH);
+            ByteBuffer response = ByteBuffer.allocate(BinaryProtocol.MAX_RESPONSE_LENGTH);
+            BlockingQueue<Runnable> answers = new LinkedBlockingQueue<>();
+            DirectChannel channel = new DirectChannel(response) {
+                @Override
+                public Executor answer() {
+                    return answers::add;
+                }
+            };
+            NewOrderEncoder newOrder = new NewOrderEncoder();
+            for (int i = 0; i < 4; i++) {
+                newOrder.wrap(request, 0).clientOrderId("c-" + i).symbol("BTC/USD").side(OrderSide.BUY)
+                        .orderType(OrderType.LIMIT).price((90 + i) * 100_000_000L).quantity(1)
+                        .timeInForce(TimeInForce.GTC);
+                adapter.processMessage(request, 0, NewOrderDecoder.LENGTH, channel);
+            }
+            
+            // The ring is full of the stalled orders, so the batch is not taken
+            new MassCancelEncoder().wrap(request, 0).clientRequestId("m-1").symbol(null).side(null);
+            adapter.processMessage(request, 0, MassCancelDecoder.LENGTH, channel);
+            MassCancelReportDecoder massCancelReport = new MassCancelReportDecoder();
+            answers.poll(1, TimeUnit.SECONDS).run();
+            massCancelReport.wrap(response, 0, MassCancelReportDecoder.LENGTH);
+            assertEquals("m-1", massCancelReport.clientRequestId());
+            assertEquals(0, massCancelReport.canceledCount());
+            
+            release.countDown();
+            for (int i = 0; i < 4; i++) {
+                answers.poll(1, TimeUnit.SECONDS).run();
+            }
+            assertEquals(4, orderBook.getAllOrders().size());
+            
+            // The orders are still the session's and routed, so the next mass cancel reaches them
+            new MassCancelEncoder().wrap(request, 0).clientRequestId("m-2").symbol(null).side(null);
+            adapter.processMessage(request, 0, MassCancelDecoder.LENGTH, channel);
+            Runnable answer = answers.poll(1, TimeUnit.SECONDS);
+            assertNotNull(answer);
+            answer.run();
+            massCancelReport.wrap(response, 0, MassCancelReportDecoder.LENGTH);
+            assertEquals("m-2", massCancelReport.clientRequestId());
+            assertEquals(4, massCancelReport.canceledCount());
+            assertTrue(orderBook.getAllOrders().isEmpty());
+        } finally {
+            release.countDown();
+            shard.shutdown();
+        }
+    }
+    
+    /**
+     * Writes every answer at the start of the buffer as soon as it is handed over.
+     */
+    private static class DirectChannel implements ResponseChannel {
+        private final ByteBuffer buffer;
+        private final SessionOrders orders = new SessionOrders();
+        int length = -1;
+        
+        DirectChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+            orders.attach(this);
+        }
+        
+        @Override
+        public Executor answer() {
+            return Runnable::run;
+        }
+        
+        @Override
+        public void send(Consumer<ResponseChannel> message) {
+            message.accept(this);
+        }
+        
+        @Override
+        public SessionOrders orders() {
+            return orders;
+        }
+        
+        @Override
+        public ByteBuffer responseBuffer() {
+            return buffer;
+        }
+        
+        @Override
+        public int beginResponse() {
+            return 0;
+        }
+        
+        @Override
+        public void endResponse(int length) {
+            this.length = length;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,426 @@
+package com.example.orderentry.binary;
+
+import com.example.models.Instrument;
+import com.example.models.Order;
+import com.example.models.OrderSide;
+import com.example.models.OrderType;
+import com.example.models.TimeInForce;
+import com.example.orderbook.DisruptorOrderBook;
+import com.example.orderbook.SimpleOrderBook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryOrderEntryServerTest {
+    
+    private SimpleOrderBook orderBook;
+    private BinaryOrderEntryServer server;
+    
+    @BeforeEach
+    public void setUp() throws IOException {
+        orderBook = new SimpleOrderBook(Instrument.of("BTC/USD"));
+        server = new BinaryOrderEntryServer(new BinaryOrderEntryAdapter(orderBook),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        server.shutdown();
+    }
+    
+    private SocketChannel connect() throws IOException {
+        return connect(server);
+    }
+    
+    private static SocketChannel connect(BinaryOrderEntryServer server) throws IOException {
+        return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()));
+    }
+    
+    private static void newOrder(ByteBuffer buffer, String clientOrderId, OrderSide side, long price, long quantity) {
+        int offset = frame(buffer, BinaryProtocol.NEW_ORDER_LENGTH);
+        new NewOrderEncoder().wrap(buffer, offset)
+                .clientOrderId(clientOrderId)
+                .symbol("BTC/USD")
+                .side(side)
+                .orderType(OrderType.LIMIT)
+                .price(price)
+                .quantity(quantity)
+                .timeInForce(TimeInForce.GTC);
+    }
+    
+    private static void cancel(ByteBuffer buffer, String clientOrderId, long orderId) {
+        int offset = frame(buffer, BinaryProtocol.CANCEL_LENGTH);
+        new CancelEncoder().wrap(buffer, offset).clientOrderId(clientOrderId).orderId(orderId);
+    }
+    
+    private static void replace(ByteBuffer buffer, long orderId, long price, long quantity) {
+        int offset = frame(buffer, BinaryProtocol.CANCEL_REPLACE_LENGTH);
+        new CancelReplaceEncoder().wrap(buffer, offset).clientOrderId(null).orderId(orderId).price(price)
+                .quantity(quantity);
+    }
+    
+    // Writes the frame header and reserves the message, returning its offset
+    private static int frame(ByteBuffer buffer, int length) {
+        int offset = buffer.position() + BinaryProtocol.FRAME_HEADER_LENGTH;
+        buffer.putShort((short) length);
+        buffer.position(offset + length);
+        return offset;
+    }
+    
+    private static ByteBuffer readFrames(SocketChannel channel, int count, int length) throws IOException {
+        int frameLength = BinaryProtocol.FRAME_HEADER_LENGTH + length;
+        ByteBuffer buffer = ByteBuffer.allocate(count * frameLength);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                fail("Connection closed after " + buffer.position() + " bytes");
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(length, buffer.getShort(i * frameLength));
+        }
+        return buffer;
+    }
+    
+    private static ByteBuffer readReports(SocketChannel channel, int count) throws IOException {
+        return readFrames(channel, count, BinaryProtocol.EXECUTION_REPORT_LENGTH);
+    }
+    
+    private static ExecutionReportDecoder report(ByteBuffer reports, int index) {
+        int offset = index * (BinaryProtocol.FRAME_HEADER_LENGTH + BinaryProtocol.EXECUTION_REPORT_LENGTH)
+                + BinaryProtocol.FRAME_HEADER_LENGTH;
+        return new ExecutionReportDecoder().wrap(reports, offset, BinaryProtocol.EXECUTION_REPORT_LENGTH);
+    }
+    
+    @Test
+    public void testNewReplaceAndCancelOverLoopback() throws IOException {
+        try (SocketChannel client = connect()) {
+            ByteBuffer request = ByteBuffer.allocate(1024);
+            // Two orders in one write, the second split across writes
+            newOrder(request, "bid-1", OrderSide.BUY, 100_00000000L, 5);
+            newOrder(request, "ask-1", OrderSide.SELL, 101_00000000L, 3);
+            request.flip();
+            request.limit(request.limit() - 10);
+            client.write(request);
+            request.limit(request.capacity());
+            request.position(2 * (BinaryProtocol.FRAME_HEADER_LENGTH + BinaryProtocol.NEW_ORDER_LENGTH) - 10);
+            request.limit(request.position() + 10);
+            client.write(request);
+            
+            ByteBuffer reports = readReports(client, 2);
+            assertEquals(BinaryProtocol.ACCEPTED, report(reports, 0).event());
+            assertEquals("bid-1", report(reports, 0).clientOrderId());
+            assertEquals(5, report(reports, 0).leavesQuantity());
+            assertEquals("ask-1", report(reports, 1).clientOrderId());
+            long bidId = report(reports, 0).orderId();
+            long askId = report(reports, 1).orderId();
+            assertEquals(new BigDecimal("100.00"), orderBook.getBestBidPrice());
+            
+            request.clear();
+            replace(request, bidId, 99_50000000L, 0);
+            replace(request, bidId, 99_12345678L, 0); // Off the instrument's grid
+            cancel(request, "ask-1", 0);
+            cancel(request, null, askId);
+            request.flip();
+            client.write(request);
+            
+            reports = readReports(client, 4);
+            assertEquals(BinaryProtocol.REPLACED, report(reports, 0).event());
+            assertEquals(BinaryProtocol.REPLACE_REJECTED, report(reports, 1).event());
+            assertEquals(BinaryProtocol.CANCELED, report(reports, 2).event());
+            assertEquals(askId, report(reports, 2).orderId());
+            assertEquals(0, report(reports, 2).leavesQuantity());
+            assertEquals(BinaryProtocol.CANCEL_REJECTED, report(reports, 3).event());
+            assertEquals(new BigDecimal("99.50"), orderBook.getBestBidPrice());
+            assertNull(orderBook.getBestAskPrice());
+            assertEquals(1, server.getSessionCount());
+        }
+    }
+    
+    @Test
+    public void testUndecodableMessagesAreRejected() throws IOException {
+        try (SocketChannel good = connect(); SocketChannel bad = connect()) {
+            ByteBuffer request = ByteBuffer.allocate(64);
+            request.putShort((short) 4);
+            request.putShort((short) 99);
+            request.putShort((short) 0);
+            request.putShort((short) 20);
+            request.putShort(BinaryProtocol.NEW_ORDER);
+            BinaryProtocol.writeText(request, request.position(), 16, "short-1");
+            request.position(request.position() + 18);
+            request.flip();
+            bad.write(request);
+            ByteBuffer rejects = readFrames(bad, 2, BinaryProtocol.REJECT_LENGTH);
+            RejectDecoder reject = new RejectDecoder().wrap(rejects, 2, BinaryProtocol.REJECT_LENGTH);
+            assertEquals(99, reject.refType());
+            assertEquals(BinaryProtocol.UNKNOWN_MESSAGE_TYPE, reject.reason());
+            reject.wrap(rejects, 4 + BinaryProtocol.REJECT_LENGTH, BinaryProtocol.REJECT_LENGTH);
+            assertEquals(BinaryProtocol.NEW_ORDER, reject.refType());
+            assertEquals(BinaryProtocol.MESSAGE_TOO_SHORT, reject.reason());
+            assertEquals("short-1", reject.clientOrderId());
+            
+            request.clear();
+            newOrder(request, "bid-1", OrderSide.BUY, 100_00000000L, 5);
+            request.flip();
+            good.write(request);
+            ByteBuffer reports = readReports(good, 1);
+            assertEquals(BinaryProtocol.ACCEPTED, report(reports, 0).event());
+            Order order = orderBook.getOrder(report(reports, 0).orderId());
+            assertEquals("bid-1", order.getClientOrderId());
+            assertEquals(2, server.getSessionCount());
+        }
+    }
+    
+    @Test
+    public void testAnswersFromTheMatchingThreadKeepTheRequestOrder() throws IOException {
+        DisruptorOrderBook matchedBook = new DisruptorOrderBook(Instrument.of("BTC/USD"));
+        BinaryOrderEntryServer matchedServer = new BinaryOrderEntryServer(new BinaryOrderEntryAdapter(matchedBook),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        matchedServer.start();
+        try (SocketChannel client = connect(matchedServer)) {
+            ByteBuffer request = ByteBuffer.allocate(1024);
+            newOrder(request, "bid-1", OrderSide.BUY, 100_00000000L, 5);
+            // Answered by the gateway itself, but not before the order ahead of it
+            cancel(request, "unknown", 0);
+            // Finds the order queued just before it
+            cancel(request, "bid-1", 0);
+            send(client, request);
+            
+            ByteBuffer reports = readReports(client, 3);
+            assertEquals(BinaryProtocol.ACCEPTED, report(reports, 0).event());
+            assertEquals("bid-1", report(reports, 0).clientOrderId());
+            assertEquals(BinaryProtocol.CANCEL_REJECTED, report(reports, 1).event());
+            assertEquals("unknown", report(reports, 1).clientOrderId());
+            assertEquals(BinaryProtocol.CANCELED, report(reports, 2).event());
+            assertEquals(report(reports, 0).orderId(), report(reports, 2).orderId());
+            assertNull(matchedBook.getBestBidPrice());
+        } finally {
+            matchedServer.shutdown();
+            matchedBook.shutdown();
+        }
+    }
+    
+    @Test
+    public void testAnswerSlotsAreReusedForPipelinedRequests() throws IOException {
+        DisruptorOrderBook matchedBook = new DisruptorOrderBook(Instrument.of("BTC/USD"));
+        // Room for a few dozen answers at once, so the session's slots go round many times
+        BinaryOrderEntryServer matchedServer = new BinaryOrderEntryServer(new BinaryOrderEntryAdapter(matchedBook),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        matchedServer.start();
+        int orders = 500;
+        try (SocketChannel client = connect(matchedServer)) {
+            ByteBuffer request = ByteBuffer.allocate(orders * (BinaryProtocol.FRAME_HEADER_LENGTH
+                    + BinaryProtocol.NEW_ORDER_LENGTH));
+            for (int i = 0; i < orders; i++) {
+                newOrder(request, "bid-" + i, OrderSide.BUY, (1 + i % 50) * 100_000_000L, 1);
+            }
+            send(client, request);
+            
+            ByteBuffer reports = readReports(client, orders);
+            for (int i = 0; i < orders; i++) {
+                assertEquals(BinaryProtocol.ACCEPTED, report(reports, i).event());
+                assertEquals("bid-" + i, report(reports, i).clientOrderId());
+            }
+            assertEquals(orders, matchedBook.getAllOrders().size());
+        } finally {
+            matchedServer.shutdown();
+            matchedBook.shutdown();
+        }
+    }
+    
+    @Test
+    public void testFillsAreReportedToTheSessionsOfBothOrders() throws IOException {
+        try (SocketChannel maker = connect(); SocketChannel taker = connect()) {
+            ByteBuffer request = ByteBuffer.allocate(1024);
+            newOrder(request, "bid-1", OrderSide.BUY, 100_00000000L, 5);
+            send(maker, request);
+            long bidId = report(readReports(maker, 1), 0).orderId();
+            
+            newOrder(request, "ask-1", OrderSide.SELL, 100_00000000L, 3);
+            send(taker, request);
+            // The taker's fill follows the answer to its order
+            ByteBuffer reports = readReports(taker, 2);
+            assertEquals(BinaryProtocol.ACCEPTED, report(reports, 0).event());
+            assertEquals(BinaryProtocol.FILLED, report(reports, 1).event());
+            assertEquals("ask-1", report(reports, 1).clientOrderId());
+            assertEquals(0, report(reports, 1).leavesQuantity());
+            assertEquals(3, report(reports, 1).cumQuantity());
+            assertEquals(3, report(reports, 1).lastQuantity());
+            assertEquals(100_00000000L, report(reports, 1).lastPrice());
+            
+            reports = readReports(maker, 1);
+            assertEquals(BinaryProtocol.PARTIALLY_FILLED, report(reports, 0).event());
+            assertEquals("bid-1", report(reports, 0).clientOrderId());
+            assertEquals(bidId, report(reports, 0).orderId());
+            assertEquals(2, report(reports, 0).leavesQuantity());
+            assertEquals(3, report(reports, 0).cumQuantity());
+            assertEquals(3, report(reports, 0).lastQuantity());
+            assertEquals(100_00000000L, report(reports, 0).lastPrice());
+        }
+    }
+    
+    private static void logon(ByteBuffer buffer, String sessionId, long nextSeqNo) {
+        int offset = frame(buffer, BinaryProtocol.LOGON_LENGTH);
+        new LogonEncoder().wrap(buffer, offset).sessionId(sessionId).nextSeqNo(nextSeqNo);
+    }
+    
+    private static void send(SocketChannel channel, ByteBuffer request) throws IOException {
+        request.flip();
+        while (request.hasRemaining()) {
+            channel.write(request);
+        }
+        request.clear();
+    }
+    
+    // Reads a logon acceptance and returns the server's next sequence number
+    private static long readLogonAccepted(SocketChannel channel) throws IOException {
+        ByteBuffer frame = readFrames(channel, 1, BinaryProtocol.LOGON_ACCEPTED_LENGTH);
+        assertEquals(BinaryProtocol.LOGON_ACCEPTED, BinaryProtocol.getType(frame, 2));
+        return new LogonAcceptedDecoder().wrap(frame, 2, LogonAcceptedDecoder.LENGTH).nextSeqNo();
+    }
+    
+    private static ByteBuffer readSequencedReports(SocketChannel channel, int count) throws IOException {
+        return readFrames(channel, count, BinaryProtocol.SEQUENCED_HEADER_LENGTH
+                + BinaryProtocol.EXECUTION_REPORT_LENGTH);
+    }
+    
+    private static SequencedMessageDecoder sequenced(ByteBuffer frames, int index) {
+        int length = BinaryProtocol.SEQUENCED_HEADER_LENGTH + BinaryProtocol.EXECUTION_REPORT_LENGTH;
+        int offset = index * (BinaryProtocol.FRAME_HEADER_LENGTH + length) + BinaryProtocol.FRAME_HEADER_LENGTH;
+        return new SequencedMessageDecoder().wrap(frames, offset, length);
+    }
+    
+    private static ExecutionReportDecoder sequencedReport(ByteBuffer frames, int index) {
+        SequencedMessageDecoder message = sequenced(frames, index);
+        return new ExecutionReportDecoder().wrap(frames, message.messageOffset(), message.messageLength());
+    }
+    
+    @Test
+    public void testSequencedAnswersAreResentAfterReconnect(@TempDir Path directory) throws IOException {
+        BinaryOrderEntryServer sessionServer = new BinaryOrderEntryServer(new BinaryOrderEntryAdapter(orderBook),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096, directory, 4096);
+        sessionServer.start();
+        try {
+            ByteBuffer request = ByteBuffer.allocate(1024);
+            try (SocketChannel client = connect(sessionServer); SocketChannel other = connect(sessionServer)) {
+                logon(request, "client-1", 1);
+                send(client, request);
+                assertEquals(1, readLogonAccepted(client));
+                
+                // Only one connection at a time per session
+                logon(request, "client-1", 1);
+                send(other, request);
+                ByteBuffer reject = readFrames(other, 1, BinaryProtocol.REJECT_LENGTH);
+                assertEquals(BinaryProtocol.LOGON_REJECTED,
+                        new RejectDecoder().wrap(reject, 2, RejectDecoder.LENGTH).reason());
+                
+                for (int i = 0; i < 3; i++) {
+                    newOrder(request, "bid-" + i, OrderSide.BUY, (90 + i) * 100_000_000L, 1);
+                }
+                send(client, request);
+                ByteBuffer answers = readSequencedReports(client, 3);
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(i + 1, sequenced(answers, i).seqNo());
+                    assertEquals("bid-" + i, sequencedReport(answers, i).clientOrderId());
+                }
+                
+                // A gap the client noticed, resent as first sent
+                RetransmitRequestEncoder retransmit = new RetransmitRequestEncoder();
+                retransmit.wrap(request, frame(request, BinaryProtocol.RETRANSMIT_REQUEST_LENGTH))
+                        .fromSeqNo(2).count(1);
+                retransmit.wrap(request, frame(request, BinaryProtocol.RETRANSMIT_REQUEST_LENGTH))
+                        .fromSeqNo(4).count(1);
+                send(client, request);
+                ByteBuffer resent = readSequencedReports(client, 1);
+                assertEquals(2, sequenced(resent, 0).seqNo());
+                assertEquals("bid-1", sequencedReport(resent, 0).clientOrderId());
+                reject = readFrames(client, 1, BinaryProtocol.REJECT_LENGTH);
+                assertEquals(BinaryProtocol.SEQUENCE_OUT_OF_RANGE,
+                        new RejectDecoder().wrap(reject, 2, RejectDecoder.LENGTH).reason());
+            }
+            
+            // The client saw only the first answer before the connection dropped
+            try (SocketChannel client = connect(sessionServer)) {
+                logon(request, "client-1", 2);
+                newOrder(request, "bid-3", OrderSide.BUY, 80 * 100_000_000L, 1);
+                // The session still owns the orders it entered on the previous connection
+                cancel(request, "bid-0", 0);
+                send(client, request);
+                assertEquals(4, readLogonAccepted(client));
+                ByteBuffer answers = readSequencedReports(client, 4);
+                assertEquals(2, sequenced(answers, 0).seqNo());
+                assertEquals("bid-2", sequencedReport(answers, 1).clientOrderId());
+                assertEquals(4, sequenced(answers, 2).seqNo());
+                assertEquals("bid-3", sequencedReport(answers, 2).clientOrderId());
+                assertEquals(BinaryProtocol.CANCELED, sequencedReport(answers, 3).event());
+                assertEquals("bid-0", sequencedReport(answers, 3).clientOrderId());
+            }
+        } finally {
+            sessionServer.shutdown();
+        }
+        
+        // Stored answers outlive the server
+        sessionServer = new BinaryOrderEntryServer(new BinaryOrderEntryAdapter(orderBook),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096, directory, 4096);
+        sessionServer.start();
+        try (SocketChannel client = connect(sessionServer)) {
+            ByteBuffer request = ByteBuffer.allocate(64);
+            logon(request, "client-1", 4);
+            send(client, request);
+            assertEquals(6, readLogonAccepted(client));
+            ByteBuffer answers = readSequencedReports(client, 2);
+            assertEquals(4, sequenced(answers, 0).seqNo());
+            assertEquals("bid-3", sequencedReport(answers, 0).clientOrderId());
+            assertEquals(5, sequenced(answers, 1).seqNo());
+        } finally {
+            sessionServer.shutdown();
+        }
+    }
+    
+    @Test
+    public void testFillsOfAnOfflineSessionAreStoredForItsNextLogon(@TempDir Path directory) throws IOException {
+        BinaryOrderEntryServer sessionServer = new BinaryOrderEntryServer(new BinaryOrderEntryAdapter(orderBook),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096, directory, 4096);
+        sessionServer.start();
+        try {
+            ByteBuffer request = ByteBuffer.allocate(1024);
+            try (SocketChannel maker = connect(sessionServer)) {
+                logon(request, "maker", 1);
+                newOrder(request, "bid-1", OrderSide.BUY, 100_00000000L, 5);
+                send(maker, request);
+                assertEquals(1, readLogonAccepted(maker));
+                assertEquals(BinaryProtocol.ACCEPTED, sequencedReport(readSequencedReports(maker, 1), 0).event());
+            }
+            
+            try (SocketChannel taker = connect(sessionServer)) {
+                newOrder(request, "ask-1", OrderSide.SELL, 100_00000000L, 5);
+                send(taker, request);
+                assertEquals(BinaryProtocol.FILLED, report(readReports(taker, 2), 1).event());
+            }
+            
+            try (SocketChannel maker = connect(sessionServer)) {
+                logon(request, "maker", 2);
+                send(maker, request);
+                assertEquals(3, readLogonAccepted(maker));
+                ByteBuffer answers = readSequencedReports(maker, 1);
+                assertEquals(2, sequenced(answers, 0).seqNo());
+                assertEquals(BinaryProtocol.FILLED, sequencedReport(answers, 0).event());
+                assertEquals("bid-1", sequencedReport(answers, 0).clientOrderId());
+                assertEquals(5, sequencedReport(answers, 0).lastQuantity());
+            }
+        } finally {
+            sessionServer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.orderentry.fix;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes a NewOrderSingle and encodes an ExecutionReport over direct buffers with the
+ * tag-value codecs, against parsing the same NewOrderSingle with QuickFIX/J. Run with
+ * the GC profiler (as main() does); the codecs should stay well under a microsecond and
+ * at ~0 bytes of gc.alloc.rate.norm per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class FixCodecBenchmark {
+    
+    private static final String NEW_ORDER_SINGLE = ("8=FIX.4.4|9=0|35=D|34=7|49=CLIENT|52=20240102-03:04:05.000|"
+            + "56=EXCHANGE|11=client-0000001|38=300|40=2|44=150.07|54=1|55=AAPL|59=1|60=20240102-03:04:05.000|")
+            .replace('|', '\u0001');
+    
+    private String text;
+    private ByteBuffer request;
+    private int requestLength;
+    private ByteBuffer response;
+    private FixMessageDecoder decoder;
+    private FixExecutionReportEncoder encoder;
+    private long seqNo;
+    
+    @Setup
+    public void setup() throws Exception {
+        // Let QuickFIX/J fill in the body length and checksum
+        quickfix.Message message = new quickfix.Message();
+        message.fromString(NEW_ORDER_SINGLE, null, false);
+        text = message.toString();
+        request = ByteBuffer.allocateDirect(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            request.put(i, (byte) text.charAt(i));
+        }
+        requestLength = text.length();
+        response = ByteBuffer.allocateDirect(512);
+        decoder = new FixMessageDecoder();
+        encoder = new FixExecutionReportEncoder("EXCHANGE", "CLIENT");
+    }
+    
+    @Benchmark
+    public void decodeNewOrderSingle(Blackhole blackhole) {
+        FixMessageDecoder order = decoder.wrap(request, 0, requestLength);
+        blackhole.consume(order.isValid());
+        blackhole.consume(order.valueOffset(FixMessageDecoder.CL_ORD_ID));
+        blackhole.consume(order.valueOffset(FixMessageDecoder.SYMBOL));
+        blackhole.consume(order.getChar(FixMessageDecoder.SIDE));
+        blackhole.consume(order.getChar(FixMessageDecoder.ORD_TYPE));
+        blackhole.consume(order.getDecimal(FixMessageDecoder.PRICE, 2));
+        blackhole.consume(order.getDecimal(FixMessageDecoder.ORDER_QTY, 0));
+        blackhole.consume(order.getChar(FixMessageDecoder.TIME_IN_FORCE));
+    }
+    
+    @Benchmark
+    public void decodeNewOrderSingleWithQuickFix(Blackhole blackhole) throws Exception {
+        quickfix.fix44.NewOrderSingle order = new quickfix.fix44.NewOrderSingle();
+        order.fromString(text, null, true);
+        blackhole.consume(order.getClOrdID().getValue());
+        blackhole.consume(order.getSymbol().getValue());
+        blackhole.consume(order.getSide().getValue());
+        blackhole.consume(order.getOrdType().getValue());
+        blackhole.consume(order.getPrice().getValue());
+        blackhole.consume(order.getOrderQty().getValue());
+        blackhole.consume(order.getTimeInForce().getValue());
+    }
+    
+    @Benchmark
+    public void encodeExecutionReport(Blackhole blackhole) {
+        int length = encoder.wrap(response, 0, ++seqNo, 1704164645678L)
+                .orderId(1001)
+                .execId(seqNo)
+                .clOrdId("client-0000001")
+                .execType('F')
+                .ordStatus('1')
+                .symbol("AAPL")
+                .side('1')
+                .orderQty(300)
+                .price(15007, 2)
+                .leavesQty(100)
+                .cumQty(200)
+                .avgPx(15000, 2)
+                .lastQty(200)
+                .lastPx(15000, 2)
+                .finish();
+        blackhole.consume(length);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(FixCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
\ No newline at end of file
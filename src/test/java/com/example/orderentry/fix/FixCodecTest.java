@@ -0,0 +1,210 @@
+package com.example.orderentry.fix;
+
+import com.example.models.Instrument;
+import com.example.models.Trade;
+import com.example.orderbook.SimpleOrderBook;
+import com.example.orderentry.OrderEntryCallback;
+import org.junit.jupiter.api.Test;
+import quickfix.Message;
+import quickfix.field.*;
+import quickfix.fix44.ExecutionReport;
+import quickfix.fix44.NewOrderSingle;
+import quickfix.fix44.OrderCancelReplaceRequest;
+import quickfix.fix44.OrderCancelRequest;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixCodecTest {
+    
+    private static ByteBuffer toBuffer(Message message) {
+        message.getHeader().setString(SenderCompID.FIELD, "CLIENT");
+        message.getHeader().setString(TargetCompID.FIELD, "EXCHANGE");
+        message.getHeader().setInt(MsgSeqNum.FIELD, 7);
+        message.getHeader().setUtcTimeStamp(SendingTime.FIELD, LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        byte[] bytes = message.toString().getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 16);
+        buffer.position(16);
+        buffer.put(bytes);
+        return buffer;
+    }
+    
+    private static int length(String text, ByteBuffer buffer) {
+        buffer.clear();
+        buffer.put(text.getBytes(StandardCharsets.US_ASCII));
+        return text.length();
+    }
+    
+    private static NewOrderSingle newOrderSingle(String clOrdId, String price, String quantity) {
+        NewOrderSingle order = new NewOrderSingle(new ClOrdID(clOrdId), new Side(Side.BUY),
+                new TransactTime(LocalDateTime.of(2024, 1, 2, 3, 4, 5)), new OrdType(OrdType.LIMIT));
+        order.set(new Symbol("AAPL"));
+        order.setString(Price.FIELD, price);
+        order.setString(OrderQty.FIELD, quantity);
+        order.set(new TimeInForce(TimeInForce.GOOD_TILL_CANCEL));
+        return order;
+    }
+    
+    @Test
+    public void testNewOrderSingleDecodesInPlace() {
+        ByteBuffer buffer = toBuffer(newOrderSingle("c-1", "150.07", "300"));
+        int length = buffer.position() - 16;
+        
+        // Framing: incomplete until every byte has arrived, then the whole message
+        assertEquals(0, FixMessageDecoder.messageLength(buffer, 16, 10));
+        assertEquals(0, FixMessageDecoder.messageLength(buffer, 16, length - 1));
+        assertEquals(length, FixMessageDecoder.messageLength(buffer, 16, length));
+        assertEquals(-1, FixMessageDecoder.messageLength(buffer, 17, length - 1));
+        
+        FixMessageDecoder decoder = new FixMessageDecoder().wrap(buffer, 16, length);
+        assertTrue(decoder.isValid());
+        assertEquals('D', decoder.msgType());
+        assertEquals("c-1", decoder.getString(FixMessageDecoder.CL_ORD_ID));
+        assertEquals("AAPL", decoder.getString(FixMessageDecoder.SYMBOL));
+        assertEquals('1', decoder.getChar(FixMessageDecoder.SIDE));
+        assertEquals('2', decoder.getChar(FixMessageDecoder.ORD_TYPE));
+        assertEquals('1', decoder.getChar(FixMessageDecoder.TIME_IN_FORCE));
+        assertEquals(15007, decoder.getDecimal(FixMessageDecoder.PRICE, 2));
+        assertEquals(300, decoder.getDecimal(FixMessageDecoder.ORDER_QTY, 0));
+        assertEquals(7, decoder.getDecimal(FixMessageDecoder.MSG_SEQ_NUM, 0));
+        assertFalse(decoder.has(FixMessageDecoder.ORIG_CL_ORD_ID));
+        assertNull(decoder.getString(FixMessageDecoder.ORIG_CL_ORD_ID));
+        
+        // A corrupted byte breaks the checksum
+        buffer.put(decoder.valueOffset(FixMessageDecoder.SYMBOL), (byte) 'B');
+        assertFalse(decoder.wrap(buffer, 16, length).isValid());
+        // A truncated message is not valid either
+        assertFalse(decoder.wrap(buffer, 16, length - 1).isValid());
+    }
+    
+    @Test
+    public void testCancelAndReplaceThroughAdapter() {
+        SimpleOrderBook orderBook = new SimpleOrderBook(Instrument.of("AAPL"));
+        FixOrderEntryAdapter adapter = new FixOrderEntryAdapter(orderBook);
+        List<String> events = new ArrayList<>();
+        adapter.registerCallback(new OrderEntryCallback() {
+            @Override
+            public void onOrderAccepted(UUID orderId, String clientOrderId) {
+                events.add("accepted " + clientOrderId);
+            }
+            
+            @Override
+            public void onOrderRejected(String clientOrderId, String reason) {
+                events.add("rejected " + clientOrderId);
+            }
+            
+            @Override
+            public void onOrderFilled(UUID orderId, Trade trade) {
+            }
+            
+            @Override
+            public void onOrderCanceled(UUID orderId) {
+                events.add("canceled");
+            }
+            
+            @Override
+            public void onOrderModified(UUID orderId) {
+                events.add("modified " + adapter.getOrder(orderId).getRawQuantity());
+            }
+            
+            @Override
+            public void onOrderModificationRejected(UUID orderId, String reason) {
+                events.add("modification rejected");
+            }
+        });
+        FixMessageDecoder decoder = new FixMessageDecoder();
+        
+        ByteBuffer buffer = toBuffer(newOrderSingle("c-1", "150.07", "300"));
+        assertTrue(adapter.processMessage(decoder.wrap(buffer, 16, buffer.position() - 16)));
+        assertEquals(new BigDecimal("150.07"), orderBook.getBestBidPrice());
+        
+        OrderCancelReplaceRequest replace = new OrderCancelReplaceRequest(new OrigClOrdID("c-1"), new ClOrdID("c-2"),
+                new Side(Side.BUY), new TransactTime(LocalDateTime.of(2024, 1, 2, 3, 4, 6)), new OrdType(OrdType.LIMIT));
+        replace.set(new Symbol("AAPL"));
+        replace.setString(Price.FIELD, "150.10");
+        replace.setString(OrderQty.FIELD, "200");
+        buffer = toBuffer(replace);
+        decoder.wrap(buffer, 16, buffer.position() - 16);
+        assertEquals('G', decoder.msgType());
+        assertTrue(adapter.processMessage(decoder));
+        assertEquals(new BigDecimal("150.10"), orderBook.getBestBidPrice());
+        
+        // A price off the instrument's scale is rejected rather than read as "keep the price"
+        replace.set(new OrigClOrdID("c-2"));
+        replace.set(new ClOrdID("c-3"));
+        replace.setString(Price.FIELD, "150.105");
+        buffer = toBuffer(replace);
+        assertTrue(adapter.processMessage(decoder.wrap(buffer, 16, buffer.position() - 16)));
+        assertEquals(new BigDecimal("150.10"), orderBook.getBestBidPrice());
+        
+        OrderCancelRequest cancel = new OrderCancelRequest(new OrigClOrdID("c-2"), new ClOrdID("c-4"),
+                new Side(Side.BUY), new TransactTime(LocalDateTime.of(2024, 1, 2, 3, 4, 7)));
+        cancel.set(new Symbol("AAPL"));
+        buffer = toBuffer(cancel);
+        assertTrue(adapter.processMessage(decoder.wrap(buffer, 16, buffer.position() - 16)));
+        assertNull(orderBook.getBestBidPrice());
+        assertEquals(List.of("accepted c-1", "modified 200", "modification rejected", "canceled"), events);
+    }
+    
+    @Test
+    public void testExecutionReportParsesWithQuickFix() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(512);
+        FixExecutionReportEncoder encoder = new FixExecutionReportEncoder("EXCHANGE", "CLIENT");
+        // 2024-01-02T03:04:05.678Z
+        int length = encoder.wrap(buffer, 8, 42, 1704164645678L)
+                .orderId(1001)
+                .execId(17)
+                .clOrdId("c-1")
+                .execType(ExecType.TRADE)
+                .ordStatus(OrdStatus.PARTIALLY_FILLED)
+                .symbol("AAPL")
+                .side(Side.BUY)
+                .orderQty(300)
+                .price(15007, 2)
+                .leavesQty(100)
+                .cumQty(200)
+                .avgPx(15000, 2)
+                .lastQty(200)
+                .lastPx(15000, 2)
+                .finish();
+        
+        byte[] bytes = new byte[length];
+        buffer.position(8);
+        buffer.get(bytes);
+        ExecutionReport report = new ExecutionReport();
+        report.fromString(new String(bytes, StandardCharsets.US_ASCII), null, true);
+        assertEquals(42, report.getHeader().getInt(MsgSeqNum.FIELD));
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 678_000_000),
+                report.getHeader().getUtcTimeStamp(SendingTime.FIELD));
+        assertEquals("1001", report.getOrderID().getValue());
+        assertEquals("17", report.getExecID().getValue());
+        assertEquals(OrdStatus.PARTIALLY_FILLED, report.getOrdStatus().getValue());
+        assertEquals(new BigDecimal("150.07"), report.getDecimal(Price.FIELD));
+        assertEquals(new BigDecimal("100"), report.getDecimal(LeavesQty.FIELD));
+        assertEquals(new BigDecimal("150.00"), report.getDecimal(LastPx.FIELD));
+        
+        // Our decoder accepts it too, body length and checksum included
+        assertTrue(new FixMessageDecoder().wrap(buffer, 8, length).isValid());
+    }
+    
+    @Test
+    public void testDecimalsWriteAtScale() {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        int length = FixDecimal.write(buffer, 0, 15007, 2);
+        assertEquals("150.07", new String(buffer.array(), 0, length, StandardCharsets.US_ASCII));
+        length = FixDecimal.write(buffer, 0, 5, 3);
+        assertEquals("0.005", new String(buffer.array(), 0, length, StandardCharsets.US_ASCII));
+        length = FixDecimal.write(buffer, 0, -250, 2);
+        assertEquals("-2.50", new String(buffer.array(), 0, length, StandardCharsets.US_ASCII));
+        length = FixDecimal.write(buffer, 0, 0, 0);
+        assertEquals("0", new String(buffer.array(), 0, length, StandardCharsets.US_ASCII));
+        assertEquals(-250, FixDecimal.parse(buffer, 0, length("-2.50", buffer), 2));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,302 @@
+package com.example.orderentry.fix;
+
+import com.example.models.*;
+import com.example.orderbook.DisruptorOrderBook;
+import com.example.orderbook.MatchingShard;
+import com.example.orderbook.SimpleOrderBook;
+import com.example.orderentry.OrderEntryCallback;
+import com.example.orderentry.OrderRouter;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixOrderEntryAdapterTest {
+    
+    private SimpleOrderBook orderBook;
+    private FixOrderEntryAdapter adapter;
+    private final List<String> rejects = new ArrayList<>();
+    
+    @BeforeEach
+    public void setUp() {
+        orderBook = new SimpleOrderBook(Instrument.of("AAPL"));
+        adapter = new FixOrderEntryAdapter(orderBook);
+        adapter.registerCallback(new OrderEntryCallback() {
+            @Override
+            public void onOrderAccepted(UUID orderId, String clientOrderId) {
+            }
+            
+            @Override
+            public void onOrderRejected(String clientOrderId, String reason) {
+                rejects.add(clientOrderId);
+            }
+            
+            @Override
+            public void onOrderFilled(UUID orderId, Trade trade) {
+            }
+            
+            @Override
+            public void onOrderCanceled(UUID orderId) {
+            }
+            
+            @Override
+            public void onOrderModified(UUID orderId) {
+            }
+            
+            @Override
+            public void onOrderModificationRejected(UUID orderId, String reason) {
+            }
+        });
+    }
+    
+    @Test
+    public void testDecimalsParseExactly() {
+        assertEquals(10125, FixDecimal.parse("101.25", 2));
+        assertEquals(10120, FixDecimal.parse("101.2", 2));
+        assertEquals(10125, FixDecimal.parse("101.2500", 2));
+        assertEquals(-300, FixDecimal.parse("-3", 2));
+        assertEquals(30, FixDecimal.parse("0.3", 2));
+        assertEquals(100, FixDecimal.parse("100.0", 0));
+        assertEquals(Order.NO_PRICE, FixDecimal.parse("101.255", 2));
+        assertEquals(Order.NO_PRICE, FixDecimal.parse("1.5", 0));
+        assertEquals(Order.NO_PRICE, FixDecimal.parse("1e3", 2));
+        assertEquals(Order.NO_PRICE, FixDecimal.parse(".", 2));
+        assertEquals(Order.NO_PRICE, FixDecimal.parse("", 2));
+        assertEquals(Order.NO_PRICE, FixDecimal.parse(null, 2));
+        assertEquals(Order.NO_PRICE, FixDecimal.parse("99999999999999999999", 0));
+    }
+    
+    @Test
+    public void testNewOrderSingleFromFields() {
+        UUID orderId = adapter.processNewOrderSingle("c-1", "AAPL", '1', '2', "150.07", "300", '1');
+        assertNotNull(orderId);
+        Order order = adapter.getOrder(orderId);
+        assertEquals(15007, order.getRawPrice());
+        assertEquals(2, order.getPriceScale());
+        assertEquals(300, order.getRawQuantity());
+        assertEquals(TimeInForce.GTC, order.getTimeInForce());
+        assertEquals(new BigDecimal("150.07"), orderBook.getBestBidPrice());
+        
+        // Off the instrument's scale, fractional quantity, unsupported time in force
+        assertNull(adapter.processNewOrderSingle("c-2", "AAPL", '1', '2', "150.075", "300", '1'));
+        assertNull(adapter.processNewOrderSingle("c-3", "AAPL", '1', '2', "150.00", "1.5", '1'));
+        assertNull(adapter.processNewOrderSingle("c-4", "AAPL", '1', '2', "150.00", "1", '6'));
+        assertEquals(List.of("c-2", "c-3", "c-4"), rejects);
+    }
+    
+    @Test
+    public void testReplaceAndBatchCancelByClientOrderId() {
+        UUID first = adapter.processNewOrderSingle("c-1", "AAPL", '1', '2', "150.00", "100", '1');
+        UUID second = adapter.processNewOrderSingle("c-2", "AAPL", '1', '2', "149.00", "100", '1');
+        
+        assertTrue(adapter.replaceOrder("c-1", "c-3", "150.50", "80"));
+        assertNull(adapter.getOrderId("c-1"));
+        assertEquals(first, adapter.getOrderId("c-3"));
+        assertEquals(new BigDecimal("150.50"), orderBook.getBestBidPrice());
+        assertEquals(80, adapter.getOrder(first).getRawQuantity());
+        // Off-scale prices are rejected, and no price keeps the current one
+        assertFalse(adapter.replaceOrder("c-3", "c-4", "150.505", "80"));
+        assertTrue(adapter.replaceOrder("c-3", "c-4", null, "60"));
+        assertEquals(15050, adapter.getOrder(first).getRawPrice());
+        
+        long[] orderIds = {IdGenerator.fromUuid(first), IdGenerator.fromUuid(second), 999_999_999L};
+        assertEquals(2, adapter.cancelOrders(orderIds, orderIds.length));
+        assertEquals(0, orderIds[2]);
+        assertNull(orderBook.getBestBidPrice());
+    }
+    
+    @Test
+    public void testSessionsOnlyReachTheirOwnOrders() {
+        ClientOrderIds first = new ClientOrderIds();
+        ClientOrderIds second = new ClientOrderIds();
+        UUID bid = adapter.processNewOrderSingle(first, "c-1", "AAPL", '1', '2', "150.00", "100", '1');
+        // The same ClOrdID on another session is another order
+        UUID ask = adapter.processNewOrderSingle(second, "c-1", "AAPL", '2', '2', "151.00", "100", '1');
+        assertNotEquals(bid, ask);
+        assertNull(adapter.getOrderId("c-1"));
+        
+        assertFalse(adapter.cancelByClientOrderId(second, "c-9", "c-2"));
+        assertFalse(adapter.replaceOrder(second, "c-2", "c-3", "149.00", "100"));
+        assertTrue(adapter.replaceOrder(second, "c-1", "c-2", "152.00", "100"));
+        assertEquals(0, second.resolve("c-1"));
+        assertEquals(IdGenerator.fromUuid(ask), second.resolve("c-2"));
+        assertEquals(new BigDecimal("150.00"), orderBook.getBestBidPrice());
+        
+        assertTrue(adapter.cancelByClientOrderId(first, "c-9", "c-1"));
+        assertNull(orderBook.getBestBidPrice());
+        assertEquals(0, first.size());
+        assertFalse(adapter.cancelByClientOrderId(first, "c-9", "c-2"));
+        assertEquals(new BigDecimal("152.00"), orderBook.getBestAskPrice());
+        
+        long[] orderIds = {IdGenerator.fromUuid(ask)};
+        assertEquals(1, adapter.cancelOrders(orderIds, 1));
+        assertEquals(0, second.size());
+    }
+    
+    @Test
+    public void testOrdersAreForgottenOnceTheyLeaveTheBook() {
+        OrderRouter router = OrderRouter.of(new SimpleOrderBook(Instrument.of("MSFT")));
+        FixOrderEntryAdapter adapter = new FixOrderEntryAdapter(router);
+        ClientOrderIds orders = new ClientOrderIds();
+        long bid = IdGenerator.fromUuid(
+                adapter.processNewOrderSingle(orders, "c-1", "MSFT", '1', '2', "100", "10", '1'));
+        long ask = IdGenerator.fromUuid(
+                adapter.processNewOrderSingle(orders, "c-2", "MSFT", '2', '2', "100", "4", '1'));
+        
+        // The ask is filled and gone; the bid is still open for the rest
+        assertNull(router.route(ask));
+        assertNotNull(router.route(bid));
+        assertArrayEquals(new long[] {bid}, orders.getOrderIds("MSFT", null));
+        assertEquals(0, orders.resolve("c-2"));
+        
+        adapter.processNewOrderSingle(orders, "c-3", "MSFT", '2', '2', "100", "6", '1');
+        assertNull(router.route(bid));
+        assertEquals(0, orders.size());
+        assertFalse(adapter.cancelByClientOrderId(orders, "c-9", "c-1"));
+    }
+    
+    @Test
+    public void testQueuedRequestsAreNotTakenForRejects() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MatchingShard shard = new MatchingShard(0, 4, new BlockingWaitStrategy());
+        DisruptorOrderBook book = new DisruptorOrderBook(new SimpleOrderBook(Instrument.of("MSFT")), shard,
+                (sequence, type, orderId, result) -> {
+                    stalled.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        shard.start();
+        List<String> reports = new CopyOnWriteArrayList<>();
+        CountDownLatch answered = new CountDownLatch(3);
+        ClientOrderIds orders = new ClientOrderIds(new FixSessionCallback() {
+            @Override
+            public void onOrderAccepted(Order order, String clientOrderId) {
+                reports.add("accepted " + clientOrderId);
+                answered.countDown();
+            }
+            
+            @Override
+            public void onOrderRejected(String clientOrderId, String reason) {
+                reports.add("rejected " + clientOrderId);
+            }
+            
+            @Override
+            public void onOrderFilled(Order order, String clientOrderId, Trade trade) {
+                reports.add("filled " + clientOrderId);
+            }
+            
+            @Override
+            public void onOrderCanceled(Order order, String clientOrderId, String origClientOrderId) {
+                reports.add("canceled " + origClientOrderId);
+                answered.countDown();
+            }
+            
+            @Override
+            public void onCancelRejected(Order order, String clientOrderId, String origClientOrderId, String reason) {
+                reports.add("cancel rejected " + clientOrderId);
+            }
+            
+            @Override
+            public void onOrderReplaced(Order order, String clientOrderId, String origClientOrderId) {
+                reports.add("replaced " + clientOrderId);
+            }
+            
+            @Override
+            public void onReplaceRejected(Order order, String clientOrderId, String origClientOrderId,
+                                          String reason) {
+                reports.add("replace rejected " + clientOrderId);
+            }
+        });
+        try {
+            OrderRouter router = OrderRouter.of(book);
+            FixOrderEntryAdapter adapter = new FixOrderEntryAdapter(router);
+            long first = IdGenerator.fromUuid(
+                    adapter.processNewOrderSingle(orders, "c-1", "MSFT", '1', '2', "100", "10", '1'));
+            assertTrue(stalled.await(1, TimeUnit.SECONDS));
+            
+            // Still queued behind the stuck matching thread, so known and not yet answered
+            UUID second = adapter.processNewOrderSingle(orders, "c-2", "MSFT", '1', '2', "99", "10", '1');
+            assertNotNull(second);
+            assertTrue(adapter.cancelByClientOrderId(orders, "c-3", "c-2"));
+            assertNotNull(router.route(IdGenerator.fromUuid(second)));
+            assertEquals(IdGenerator.fromUuid(second), orders.resolve("c-2"));
+            
+            // Once the ring is full the rest are refused at once and forgotten
+            String refused = null;
+            for (int i = 4; refused == null && i < 16; i++) {
+                if (adapter.processNewOrderSingle(orders, "c-" + i, "MSFT", '1', '2', "98", "1", '1') == null) {
+                    refused = "c-" + i;
+                }
+            }
+            assertNotNull(refused);
+            assertEquals(List.of("accepted c-1", "rejected " + refused), reports);
+            assertEquals(0, orders.resolve(refused));
+            
+            release.countDown();
+            assertTrue(answered.await(1, TimeUnit.SECONDS));
+            assertEquals(List.of("accepted c-1", "rejected " + refused, "accepted c-2", "canceled c-2"),
+                    reports.subList(0, 4));
+            assertNotNull(router.route(first));
+            assertEquals(0, orders.resolve("c-2"));
+        } finally {
+            release.countDown();
+            shard.shutdown();
+        }
+    }
+    
+    @Test
+    public void testOrdersRouteToTheBookOfTheirSymbol() {
+        SimpleOrderBook msft = new SimpleOrderBook(new Instrument("MSFT", 4, 1));
+        FixOrderEntryAdapter router = new FixOrderEntryAdapter(OrderRouter.of(orderBook, msft));
+        
+        UUID apple = router.processNewOrderSingle("c-1", "AAPL", '1', '2', "150.07", "10", '1');
+        UUID microsoft = router.processNewOrderSingle("c-2", "MSFT", '2', '2', "400.1234", "5", '1');
+        assertNotNull(apple);
+        assertNotNull(microsoft);
+        assertNull(router.processNewOrderSingle("c-3", "IBM", '1', '2', "100.00", "1", '1'));
+        assertEquals(new BigDecimal("150.07"), orderBook.getBestBidPrice());
+        // Prices are parsed at the scale of the order's own instrument
+        assertEquals(4001234, router.getOrder(microsoft).getRawPrice());
+        assertEquals(new BigDecimal("400.1234"), msft.getBestAskPrice());
+        
+        assertTrue(router.replaceOrder("c-2", "c-4", "399.5", "5"));
+        assertEquals(new BigDecimal("399.5000"), msft.getBestAskPrice());
+        assertTrue(router.cancelOrder(null, "c-1"));
+        assertNull(orderBook.getBestBidPrice());
+        assertNull(router.getOrder(apple));
+        
+        long[] orderIds = {IdGenerator.fromUuid(microsoft)};
+        assertEquals(1, router.cancelOrders(orderIds, 1));
+        assertNull(msft.getBestAskPrice());
+    }
+    
+    @Test
+    public void testTagMapFallback() {
+        Map<Integer, String> fixMessage = new HashMap<>();
+        fixMessage.put(11, "c-1");
+        fixMessage.put(55, "AAPL");
+        fixMessage.put(54, "2");
+        fixMessage.put(40, "2");
+        fixMessage.put(44, "0.29");
+        fixMessage.put(38, "10");
+        UUID orderId = adapter.processNewOrderSingle(fixMessage);
+        assertNotNull(orderId);
+        assertEquals(TimeInForce.DAY, adapter.getOrder(orderId).getTimeInForce());
+        assertEquals(new BigDecimal("0.29"), orderBook.getBestAskPrice());
+    }
+}
\ No newline at end of file